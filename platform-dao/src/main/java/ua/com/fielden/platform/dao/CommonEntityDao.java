@@ -8,6 +8,7 @@ import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.from;
 import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.select;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +37,7 @@ import net.bytebuddy.ByteBuddy;
 import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
 import net.bytebuddy.implementation.FixedValue;
 import net.bytebuddy.matcher.ElementMatchers;
+import ua.com.fielden.platform.dao.KeysetPageCache.PaginationState;
 import ua.com.fielden.platform.dao.annotations.AfterSave;
 import ua.com.fielden.platform.dao.annotations.SessionRequired;
 import ua.com.fielden.platform.dao.exceptions.EntityCompanionException;
@@ -60,11 +62,13 @@ import ua.com.fielden.platform.entity.query.EntityFetcher;
 import ua.com.fielden.platform.entity.query.IFilter;
 import ua.com.fielden.platform.entity.query.IdOnlyProxiedEntityTypeCache;
 import ua.com.fielden.platform.entity.query.QueryExecutionContext;
+import ua.com.fielden.platform.entity.query.QueryModelResultCache;
 import ua.com.fielden.platform.entity.query.fluent.fetch;
 import ua.com.fielden.platform.entity.query.model.AggregatedResultQueryModel;
 import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
 import ua.com.fielden.platform.entity.query.model.QueryModel;
 import ua.com.fielden.platform.error.Result;
+import ua.com.fielden.platform.file_reports.CsvExporter;
 import ua.com.fielden.platform.file_reports.WorkbookExporter;
 import ua.com.fielden.platform.pagination.IPage;
 import ua.com.fielden.platform.reflection.AnnotationReflector;
@@ -96,6 +100,9 @@ import ua.com.fielden.platform.utils.Validators;
 public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends AbstractEntityDao<T> implements ISessionEnabled {
 
     private static final String DELETION_WAS_UNSUCCESSFUL_DUE_TO_EXISTING_DEPENDENCIES = "Deletion was unsuccessful due to existing dependencies.";
+    
+    /** The number of rows fetched in a batch while streaming data for export. */
+    public static final int EXPORT_FETCH_SIZE = 500;
 
     private final Logger logger = Logger.getLogger(this.getClass());
 
@@ -105,6 +112,10 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
     private DomainMetadata domainMetadata;
     
     private IdOnlyProxiedEntityTypeCache idOnlyProxiedEntityTypeCache;
+    
+    private QueryModelResultCache queryModelResultCache;
+    
+    private KeysetPageCache keysetPageCache;
 
     @Inject
     private ICompanionObjectFinder coFinder;
@@ -184,6 +195,16 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
         this.idOnlyProxiedEntityTypeCache = idOnlyProxiedEntityTypeCache;
     }
 
+    @Inject
+    protected void setQueryModelResultCache(final QueryModelResultCache queryModelResultCache) {
+        this.queryModelResultCache = queryModelResultCache;
+    }
+
+    @Inject
+    protected void setKeysetPageCache(final KeysetPageCache keysetPageCache) {
+        this.keysetPageCache = keysetPageCache;
+    }
+
     /**
      * Cancels currently running query.
      *
@@ -314,7 +335,7 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
         checkDirtyMarkedForAssignmentBeforeSaveProperties(entity);
         // let's make sure that entity is not a duplicate
         final AggregatedResultQueryModel model = select(createQueryByKey(entity.getKey())).yield().prop(AbstractEntity.ID).as(AbstractEntity.ID).modelAsAggregate();
-        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, null, null, universalConstants, idOnlyProxiedEntityTypeCache);
+        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, null, null, universalConstants, idOnlyProxiedEntityTypeCache, queryModelResultCache);
         final List<EntityAggregates> ids = new EntityFetcher(queryExecutionContext).getEntities(from(model).lightweight().model());
         final int count = ids.size();
         if (count == 1 && entity.getId().longValue() != ((Number) ids.get(0).get(AbstractEntity.ID)).longValue()) {
@@ -832,7 +853,7 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
     protected List<T> getEntitiesOnPage(final QueryExecutionModel<T, ?> queryModel, final Integer pageNumber, final Integer pageCapacity) {
         final QueryExecutionModel<T, ?> qem = !instrumented() ? queryModel.lightweight() : queryModel;
         
-        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache);
+        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache, queryModelResultCache);
         return new EntityFetcher(queryExecutionContext).getEntitiesOnPage(qem, pageNumber, pageCapacity);
     }
     
@@ -856,7 +877,7 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
     public Stream<T> stream(final QueryExecutionModel<T, ?> queryModel, final int fetchSize) {
         final QueryExecutionModel<T, ?> qem = !instrumented() ? queryModel.lightweight() : queryModel;
         
-        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache);
+        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache, queryModelResultCache);
         return new EntityFetcher(queryExecutionContext).streamEntities(qem, Optional.of(fetchSize));
     }
 
@@ -922,6 +943,71 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
         return new EntityQueryPage(qem, pageNumber, pageCapacity, numberOfPagesAndCount);
     }
 
+    /**
+     * Returns the first page holding up to <code>pageCapacity</code> instances of entities retrieved by the provided query model using keyset pagination.
+     * Subsequent pages are retrieved by seeking past the values of ordering properties of the last row of a preceding page, and the number of pages is calculated only upon request.
+     * Falls back to offset pagination with deferred calculation of the number of pages if the ordering of the query is not suitable for seeking (refer {@link KeysetOrdering}).
+     * <p>
+     * Retrieval of the first page starts a new pagination state for the query, which is shared with subsequent {@link #getPageByKeyset(QueryExecutionModel, int, int)} requests.
+     */
+    @Override
+    @SessionRequired
+    public IPage<T> firstPageByKeyset(final QueryExecutionModel<T, ?> model, final int pageCapacity) {
+        final QueryExecutionModel<T, ?> qem = !instrumented() ? model.lightweight() : model;
+        final PaginationState state = keysetPageCache != null ? keysetPageCache.newStateFor(qem, pageCapacity, getUsername()) : new KeysetPageCache().newState();
+        return pageByKeyset(qem, state, 0, pageCapacity);
+    }
+
+    /**
+     * Returns a page with the requested number using keyset pagination, where boundaries of previously retrieved pages of the same query are shared through {@link KeysetPageCache}.
+     * Pages adjacent to the already retrieved ones are retrieved by seeking. Other pages are retrieved by offset.
+     * <p>
+     * If the requested page turns out to be empty (e.g. some entities have been deleted since the number of pages was calculated), the number of pages is recalculated and the last page is returned instead.
+     */
+    @Override
+    @SessionRequired
+    public IPage<T> getPageByKeyset(final QueryExecutionModel<T, ?> model, final int pageNo, final int pageCapacity) {
+        final QueryExecutionModel<T, ?> qem = !instrumented() ? model.lightweight() : model;
+        final PaginationState state = keysetPageCache != null ? keysetPageCache.stateFor(qem, pageCapacity, getUsername()) : new KeysetPageCache().newState();
+        return pageInRange(qem, state, pageNo, pageCapacity);
+    }
+
+    /**
+     * Same as {@link #getPageByKeyset(QueryExecutionModel, int, int)}, but starts a new pagination state for the query and calculates the number of pages before retrieval of the page,
+     * so that neither page boundaries nor the number of pages, which could have been changed by modification of the data, are reused.
+     * The last page is returned if the requested page is out of range.
+     */
+    @Override
+    @SessionRequired
+    public IPage<T> refreshPageByKeyset(final QueryExecutionModel<T, ?> model, final int pageNo, final int pageCapacity) {
+        final QueryExecutionModel<T, ?> qem = !instrumented() ? model.lightweight() : model;
+        final PaginationState state = keysetPageCache != null ? keysetPageCache.newStateFor(qem, pageCapacity, getUsername()) : new KeysetPageCache().newState();
+        final int lastPageNumber = numberOfPagesAndCount(qem, pageCapacity, state).getKey() - 1;
+        return pageInRange(qem, state, pageNo < 0 ? lastPageNumber : Math.min(pageNo, lastPageNumber), pageCapacity);
+    }
+
+    private IPage<T> pageInRange(final QueryExecutionModel<T, ?> qem, final PaginationState state, final int pageNo, final int pageCapacity) {
+        final IPage<T> page = pageByKeyset(qem, state, Math.max(pageNo < 0 ? numberOfPagesAndCount(qem, pageCapacity, state).getKey() - 1 : pageNo, 0), pageCapacity);
+        if (!page.data().isEmpty() || page.no() == 0) {
+            return page;
+        }
+        state.invalidateCount();
+        final int lastPageNumber = Math.max(numberOfPagesAndCount(qem, pageCapacity, state).getKey() - 1, 0);
+        return lastPageNumber < page.no() ? pageByKeyset(qem, state, lastPageNumber, pageCapacity) : page;
+    }
+
+    private IPage<T> pageByKeyset(final QueryExecutionModel<T, ?> qem, final PaginationState state, final int pageNumber, final int pageCapacity) {
+        final Optional<KeysetOrdering> ordering = KeysetOrdering.of(getEntityType(), qem, new DomainMetadataAnalyser(domainMetadata));
+        if (!ordering.isPresent()) {
+            return new DeferredCountQueryPage(qem, state, pageNumber, pageCapacity);
+        }
+        return new KeysetQueryPage(qem, ordering.get(), state, pageNumber, pageCapacity);
+    }
+
+    private Pair<Integer, Integer> numberOfPagesAndCount(final QueryExecutionModel<T, ?> qem, final int pageCapacity, final PaginationState state) {
+        return state.numberOfPagesAndCount(() -> evalNumOfPages(qem.getQueryModel(), qem.getParamValues(), pageCapacity));
+    }
+
     @Override
     @SessionRequired
     public T getEntity(final QueryExecutionModel<T, ?> model) {
@@ -981,7 +1067,7 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
                 : select((AggregatedResultQueryModel) model).yield().countAll().as("count").modelAsAggregate();
         final QueryExecutionModel<EntityAggregates, AggregatedResultQueryModel> countModel = from(countQuery).with(paramValues).with(fetchAggregates().with("count")).lightweight().model();
 
-        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache);
+        final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache, queryModelResultCache);
         final List<EntityAggregates> counts = new EntityFetcher(queryExecutionContext).getEntities(countModel);
 
         final int resultSize = ((Number) counts.get(0).get("count")).intValue();
@@ -1014,6 +1100,18 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
         return WorkbookExporter.convertToGZipByteArray(WorkbookExporter.export(result, propertyNames, propertyTitles));
     }
 
+    /**
+     * Streams the query result with {@link #stream(QueryExecutionModel, int)} and writes it as CSV to <code>out</code> row by row,
+     * so that only {@link #EXPORT_FETCH_SIZE} entities at most are held in memory at any time.
+     */
+    @Override
+    @SessionRequired
+    public long export(final QueryExecutionModel<T, ?> query, final String[] propertyNames, final String[] propertyTitles, final OutputStream out) throws IOException {
+        try (final Stream<T> stream = stream(query, EXPORT_FETCH_SIZE)) {
+            return CsvExporter.export(stream, propertyNames, propertyTitles, out);
+        }
+    }
+
     /**
      * A convenient default implementation for entity deletion, which should be used by overriding method {@link #delete(Long)}.
      *
@@ -1069,7 +1167,7 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
         }
 
         try {
-            final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache);
+            final QueryExecutionContext queryExecutionContext = new QueryExecutionContext(getSession(), getEntityFactory(), getCoFinder(), domainMetadata, filter, getUsername(), universalConstants, idOnlyProxiedEntityTypeCache, queryModelResultCache);
             return new EntityBatchDeleterByQueryModel(queryExecutionContext).deleteEntities(model, paramValues);
         } catch (final ConstraintViolationException e) {
             throw new EntityCompanionException(DELETION_WAS_UNSUCCESSFUL_DUE_TO_EXISTING_DEPENDENCIES, e);
@@ -1269,6 +1367,238 @@ public abstract class CommonEntityDao<T extends AbstractEntity<?>> extends Abstr
         }
     }
 
+    /**
+     * Implements keyset pagination based on the provided query.
+     * <p>
+     * Each page retrieves one row more than its capacity to determine whether there is a next page without counting all rows.
+     * The number of pages is calculated lazily, only if it cannot be inferred from the retrieved data, and is shared between the pages of the same pagination state.
+     *
+     * @author TG Team
+     *
+     */
+    public class KeysetQueryPage implements IPage<T> {
+        private final int pageNumber; // zero-based
+        private final int pageCapacity;
+        private final QueryExecutionModel<T, ?> queryModel;
+        private final KeysetOrdering ordering;
+        private final PaginationState state;
+        private final List<T> data;
+        /** <code>null</code> if it can only be determined from the number of pages. */
+        private final Boolean hasNext;
+
+        public KeysetQueryPage(final QueryExecutionModel<T, ?> queryModel, final KeysetOrdering ordering, final PaginationState state, final int pageNumber, final int pageCapacity) {
+            this.queryModel = queryModel;
+            this.ordering = ordering;
+            this.state = state;
+            this.pageNumber = pageNumber;
+            this.pageCapacity = pageCapacity;
+
+            final Optional<List<Object>> lastRowOfPrevPage = pageNumber > 0 ? state.lastRowValues(pageNumber - 1) : Optional.empty();
+            final Optional<List<Object>> firstRowOfNextPage = state.firstRowValues(pageNumber + 1);
+            if (pageNumber == 0 || lastRowOfPrevPage.isPresent()) {
+                final QueryExecutionModel<T, ?> qem = pageNumber == 0 ? ordering.ordered(queryModel) : ordering.after(queryModel, lastRowOfPrevPage.get());
+                final List<T> rows = getEntitiesOnPage(qem, 0, pageCapacity + 1);
+                this.hasNext = rows.size() > pageCapacity;
+                this.data = hasNext ? new ArrayList<>(rows.subList(0, pageCapacity)) : rows;
+            } else if (firstRowOfNextPage.isPresent()) {
+                final List<T> rows = new ArrayList<>(getEntitiesOnPage(ordering.before(queryModel, firstRowOfNextPage.get()), 0, pageCapacity));
+                Collections.reverse(rows);
+                this.hasNext = true;
+                this.data = rows;
+            } else {
+                this.hasNext = null;
+                this.data = getEntitiesOnPage(ordering.ordered(queryModel), pageNumber, pageCapacity);
+            }
+
+            if (!data.isEmpty()) {
+                final Optional<List<Object>> first = ordering.valuesOf(data.get(0));
+                final Optional<List<Object>> last = ordering.valuesOf(data.get(data.size() - 1));
+                if (first.isPresent() && last.isPresent()) {
+                    state.putBoundary(pageNumber, first.get(), last.get());
+                }
+            }
+        }
+
+        @Override
+        public T summary() {
+            return null;
+        }
+
+        @Override
+        public int capacity() {
+            return pageCapacity;
+        }
+
+        @Override
+        public List<T> data() {
+            return Collections.unmodifiableList(data);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext != null ? hasNext : pageNumber < numberOfPages() - 1;
+        }
+
+        @Override
+        public boolean hasPrev() {
+            return pageNumber > 0;
+        }
+
+        @Override
+        public IPage<T> next() {
+            return hasNext() ? new KeysetQueryPage(queryModel, ordering, state, pageNumber + 1, pageCapacity) : null;
+        }
+
+        @Override
+        public IPage<T> prev() {
+            return hasPrev() ? new KeysetQueryPage(queryModel, ordering, state, pageNumber - 1, pageCapacity) : null;
+        }
+
+        @Override
+        public IPage<T> first() {
+            return hasPrev() ? new KeysetQueryPage(queryModel, ordering, state, 0, pageCapacity) : null;
+        }
+
+        @Override
+        public IPage<T> last() {
+            return hasNext() ? new KeysetQueryPage(queryModel, ordering, state, numberOfPages() - 1, pageCapacity) : null;
+        }
+
+        /**
+         * The number of pages is known without counting for the last page; otherwise, it is calculated upon the first request and shared through the pagination state.
+         */
+        @Override
+        public int numberOfPages() {
+            if (Boolean.FALSE.equals(hasNext)) {
+                return pageNumber + 1;
+            }
+            final int numberOfPages = numberOfPagesAndCount(queryModel, pageCapacity, state).getKey();
+            return Math.max(numberOfPages, Boolean.TRUE.equals(hasNext) ? pageNumber + 2 : 1);
+        }
+
+        @Override
+        public Optional<Integer> knownNumberOfPages() {
+            if (Boolean.FALSE.equals(hasNext)) {
+                return Optional.of(pageNumber + 1);
+            }
+            return state.knownNumberOfPagesAndCount().map(known -> Math.max(known.getKey(), Boolean.TRUE.equals(hasNext) ? pageNumber + 2 : 1));
+        }
+
+        @Override
+        public String toString() {
+            return "Page " + (no() + 1) + " of " + numberOfPages();
+        }
+
+        @Override
+        public int no() {
+            return pageNumber;
+        }
+    }
+
+    /**
+     * Implements offset pagination based on the provided query, where the number of pages is not calculated before retrieval of the data.
+     * <p>
+     * The number of pages is inferred from the retrieved data if the page is not full (that is, it is the last one), and is calculated lazily otherwise,
+     * being shared between the pages of the same pagination state.
+     *
+     * @author TG Team
+     *
+     */
+    public class DeferredCountQueryPage implements IPage<T> {
+        private final int pageNumber; // zero-based
+        private final int pageCapacity;
+        private final QueryExecutionModel<T, ?> queryModel;
+        private final PaginationState state;
+        private final List<T> data;
+
+        public DeferredCountQueryPage(final QueryExecutionModel<T, ?> queryModel, final PaginationState state, final int pageNumber, final int pageCapacity) {
+            this.queryModel = queryModel;
+            this.state = state;
+            this.pageNumber = pageNumber;
+            this.pageCapacity = pageCapacity;
+            this.data = getEntitiesOnPage(queryModel, pageNumber, pageCapacity);
+        }
+
+        /**
+         * A page, which is not full, is the last one unless it is empty and is beyond the first page -- the requested page may not exist at all.
+         */
+        private boolean isKnownToBeLast() {
+            return data.size() < pageCapacity && (pageNumber == 0 || !data.isEmpty());
+        }
+
+        @Override
+        public T summary() {
+            return null;
+        }
+
+        @Override
+        public int capacity() {
+            return pageCapacity;
+        }
+
+        @Override
+        public List<T> data() {
+            return Collections.unmodifiableList(data);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !isKnownToBeLast() && pageNumber < numberOfPages() - 1;
+        }
+
+        @Override
+        public boolean hasPrev() {
+            return pageNumber > 0;
+        }
+
+        @Override
+        public IPage<T> next() {
+            return hasNext() ? new DeferredCountQueryPage(queryModel, state, pageNumber + 1, pageCapacity) : null;
+        }
+
+        @Override
+        public IPage<T> prev() {
+            return hasPrev() ? new DeferredCountQueryPage(queryModel, state, pageNumber - 1, pageCapacity) : null;
+        }
+
+        @Override
+        public IPage<T> first() {
+            return hasPrev() ? new DeferredCountQueryPage(queryModel, state, 0, pageCapacity) : null;
+        }
+
+        @Override
+        public IPage<T> last() {
+            return hasNext() ? new DeferredCountQueryPage(queryModel, state, numberOfPages() - 1, pageCapacity) : null;
+        }
+
+        @Override
+        public int numberOfPages() {
+            if (isKnownToBeLast()) {
+                return pageNumber + 1;
+            }
+            final int numberOfPages = numberOfPagesAndCount(queryModel, pageCapacity, state).getKey();
+            return Math.max(numberOfPages, data.isEmpty() ? 1 : pageNumber + 1);
+        }
+
+        @Override
+        public Optional<Integer> knownNumberOfPages() {
+            if (isKnownToBeLast()) {
+                return Optional.of(pageNumber + 1);
+            }
+            return state.knownNumberOfPagesAndCount().map(known -> Math.max(known.getKey(), data.isEmpty() ? 1 : pageNumber + 1));
+        }
+
+        @Override
+        public String toString() {
+            return "Page " + (no() + 1) + " of " + numberOfPages();
+        }
+
+        @Override
+        public int no() {
+            return pageNumber;
+        }
+    }
+
     private ICompanionObjectFinder getCoFinder() {
         return coFinder;
     }
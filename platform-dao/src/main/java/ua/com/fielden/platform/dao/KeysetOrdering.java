@@ -0,0 +1,179 @@
+package ua.com.fielden.platform.dao;
+
+import static ua.com.fielden.platform.entity.AbstractEntity.ID;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.cond;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.from;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.select;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import ua.com.fielden.platform.dao.QueryExecutionModel.Builder;
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.entity.query.fluent.EntityQueryProgressiveInterfaces.IStandAloneConditionCompoundCondition;
+import ua.com.fielden.platform.entity.query.fluent.QueryTokens;
+import ua.com.fielden.platform.entity.query.fluent.TokenCategory;
+import ua.com.fielden.platform.entity.query.model.ConditionModel;
+import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
+import ua.com.fielden.platform.entity.query.model.OrderingModel;
+import ua.com.fielden.platform.reflection.PropertyTypeDeterminator;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * Represents an ordering of a query execution model, which is suitable for keyset (seek) pagination.
+ * <p>
+ * Such ordering consists of non-nullable properties of simple types (strings, numbers and dates), which is always completed with property <code>id</code> to make it total.
+ * This makes it possible to retrieve a page, which follows (or precedes) some other page, by seeking past the values of ordering properties of the last (or first) row of that other page,
+ * instead of skipping all the preceding rows by means of an offset.
+ *
+ * @author TG Team
+ *
+ */
+public final class KeysetOrdering {
+    /** Ordering properties with their sort direction -- <code>true</code> for descending. */
+    private final List<Pair<String, Boolean>> props;
+
+    private KeysetOrdering(final List<Pair<String, Boolean>> props) {
+        this.props = Collections.unmodifiableList(props);
+    }
+
+    /**
+     * Creates keyset ordering for the ordering model of <code>qem</code>, if such ordering can be used for seeking.
+     * An empty result is returned for aggregate queries, for orderings by yields or expressions, by nullable properties or properties of types other than strings, numbers and dates.
+     *
+     * @param entityType
+     * @param qem
+     * @param domainMetadataAnalyser
+     * @return
+     */
+    public static Optional<KeysetOrdering> of(final Class<? extends AbstractEntity<?>> entityType, final QueryExecutionModel<?, ?> qem, final DomainMetadataAnalyser domainMetadataAnalyser) {
+        if (!(qem.getQueryModel() instanceof EntityResultQueryModel)) {
+            return Optional.empty();
+        }
+
+        final List<Pair<String, Boolean>> props = new ArrayList<>();
+        final List<Pair<TokenCategory, Object>> tokens = qem.getOrderModel() == null ? Collections.emptyList() : qem.getOrderModel().getTokens();
+        if (tokens.size() % 2 != 0) {
+            return Optional.empty();
+        }
+        for (int index = 0; index < tokens.size(); index += 2) {
+            final Pair<TokenCategory, Object> propToken = tokens.get(index);
+            final Pair<TokenCategory, Object> orderToken = tokens.get(index + 1);
+            if (propToken.getKey() != TokenCategory.PROP || orderToken.getKey() != TokenCategory.SORT_ORDER) {
+                return Optional.empty();
+            }
+            final String prop = (String) propToken.getValue();
+            if (!isSeekable(entityType, prop, domainMetadataAnalyser)) {
+                return Optional.empty();
+            }
+            props.add(Pair.pair(prop, QueryTokens.DESC == orderToken.getValue()));
+        }
+
+        if (props.isEmpty() || !ID.equals(props.get(props.size() - 1).getKey())) {
+            props.add(Pair.pair(ID, false));
+        }
+        return Optional.of(new KeysetOrdering(props));
+    }
+
+    private static boolean isSeekable(final Class<? extends AbstractEntity<?>> entityType, final String prop, final DomainMetadataAnalyser domainMetadataAnalyser) {
+        if (ID.equals(prop)) {
+            return true;
+        }
+        final Class<?> propType;
+        try {
+            propType = PropertyTypeDeterminator.determinePropertyType(entityType, prop);
+            if (domainMetadataAnalyser.isNullable(entityType, prop)) {
+                return false;
+            }
+        } catch (final Exception ex) {
+            return false;
+        }
+        return String.class == propType || Date.class == propType || Number.class.isAssignableFrom(propType) || int.class == propType || long.class == propType;
+    }
+
+    /**
+     * Returns values of ordering properties for <code>entity</code>. An empty result is returned if some of the values are missing (e.g. were not fetched).
+     *
+     * @param entity
+     * @return
+     */
+    public Optional<List<Object>> valuesOf(final AbstractEntity<?> entity) {
+        final List<Object> values = new ArrayList<>(props.size());
+        for (final Pair<String, Boolean> prop : props) {
+            final Object value;
+            try {
+                value = entity.get(prop.getKey());
+            } catch (final Exception ex) {
+                return Optional.empty();
+            }
+            if (value == null) {
+                return Optional.empty();
+            }
+            values.add(value);
+        }
+        return Optional.of(values);
+    }
+
+    /**
+     * Creates a query execution model, which is ordered by this ordering.
+     */
+    public <T extends AbstractEntity<?>> QueryExecutionModel<T, EntityResultQueryModel<T>> ordered(final QueryExecutionModel<T, ?> qem) {
+        return copy(qem, (EntityResultQueryModel<T>) qem.getQueryModel(), orderingModel(false));
+    }
+
+    /**
+     * Creates a query execution model, which retrieves rows following the row with ordering property <code>values</code>.
+     */
+    public <T extends AbstractEntity<?>> QueryExecutionModel<T, EntityResultQueryModel<T>> after(final QueryExecutionModel<T, ?> qem, final List<Object> values) {
+        return copy(qem, seekModel(qem, values, true), orderingModel(false));
+    }
+
+    /**
+     * Creates a query execution model, which retrieves rows preceding the row with ordering property <code>values</code>.
+     * Resultant rows are ordered in reverse, so that the closest preceding rows come first.
+     */
+    public <T extends AbstractEntity<?>> QueryExecutionModel<T, EntityResultQueryModel<T>> before(final QueryExecutionModel<T, ?> qem, final List<Object> values) {
+        return copy(qem, seekModel(qem, values, false), orderingModel(true));
+    }
+
+    private <T extends AbstractEntity<?>> EntityResultQueryModel<T> seekModel(final QueryExecutionModel<T, ?> qem, final List<Object> values, final boolean forward) {
+        if (values.size() != props.size()) {
+            throw new IllegalArgumentException("The number of values does not match the number of ordering properties.");
+        }
+        return select((EntityResultQueryModel<T>) qem.getQueryModel()).where().condition(seekCondition(0, values, forward)).model();
+    }
+
+    /**
+     * Builds condition <code>p<sub>i</sub> &gt; v<sub>i</sub> or (p<sub>i</sub> = v<sub>i</sub> and C<sub>i+1</sub>)</code>, where comparison is reversed for descending properties and backward seeking.
+     */
+    private ConditionModel seekCondition(final int index, final List<Object> values, final boolean forward) {
+        final Pair<String, Boolean> prop = props.get(index);
+        final Object value = values.get(index);
+        final IStandAloneConditionCompoundCondition<AbstractEntity<?>> comparison = forward != prop.getValue() ? cond().prop(prop.getKey()).gt().val(value) : cond().prop(prop.getKey()).lt().val(value);
+        if (index == props.size() - 1) {
+            return comparison.model();
+        }
+        return comparison.or().condition(cond().prop(prop.getKey()).eq().val(value).and().condition(seekCondition(index + 1, values, forward)).model()).model();
+    }
+
+    private OrderingModel orderingModel(final boolean reversed) {
+        final List<Pair<TokenCategory, Object>> tokens = new ArrayList<>();
+        for (final Pair<String, Boolean> prop : props) {
+            tokens.add(Pair.pair(TokenCategory.PROP, prop.getKey()));
+            tokens.add(Pair.pair(TokenCategory.SORT_ORDER, prop.getValue() != reversed ? QueryTokens.DESC : QueryTokens.ASC));
+        }
+        return new OrderingModel(tokens);
+    }
+
+    private static <T extends AbstractEntity<?>> QueryExecutionModel<T, EntityResultQueryModel<T>> copy(final QueryExecutionModel<T, ?> qem, final EntityResultQueryModel<T> queryModel, final OrderingModel orderingModel) {
+        final Builder<T, EntityResultQueryModel<T>> builder = from(queryModel).with(orderingModel).with(qem.getFetchModel()).with(qem.getParamValues());
+        return qem.isLightweight() ? builder.lightweight().model() : builder.model();
+    }
+
+    public List<Pair<String, Boolean>> getProps() {
+        return props;
+    }
+}
@@ -0,0 +1,157 @@
+package ua.com.fielden.platform.dao;
+
+import static java.util.Arrays.asList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import ua.com.fielden.platform.dao.exceptions.EntityCompanionException;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * A bounded thread-safe cache of keyset pagination states, which makes it possible to navigate pages of the same query by seeking even if pages are requested independently of each other
+ * (e.g. by subsequent NAVIGATE requests from an entity centre).
+ * <p>
+ * The state of a paginated query (identified by its query execution model, page capacity and the user) consists of the boundary values of ordering properties for the pages that have been retrieved,
+ * and the number of pages together with the number of rows, which is calculated lazily and reused for {@link #DEFAULT_COUNT_TTL_MILLIS} milliseconds.
+ * States of queries, which were not paginated for {@link #DEFAULT_EXPIRATION_MINUTES} minutes, are evicted.
+ *
+ * @author TG Team
+ *
+ */
+public class KeysetPageCache {
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final long DEFAULT_EXPIRATION_MINUTES = 5;
+    public static final long DEFAULT_COUNT_TTL_MILLIS = 30_000;
+
+    private final Cache<List<Object>, PaginationState> cache;
+    private final long countTtlMillis;
+
+    public KeysetPageCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_EXPIRATION_MINUTES, DEFAULT_COUNT_TTL_MILLIS);
+    }
+
+    public KeysetPageCache(final long maxSize, final long expirationMinutes, final long countTtlMillis) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterAccess(expirationMinutes, TimeUnit.MINUTES).build();
+        this.countTtlMillis = countTtlMillis;
+    }
+
+    /**
+     * Returns pagination state for query <code>qem</code> with pages of <code>pageCapacity</code>, creating a new one if there is none.
+     *
+     * @param qem
+     * @param pageCapacity
+     * @param username
+     * @return
+     */
+    public PaginationState stateFor(final QueryExecutionModel<?, ?> qem, final int pageCapacity, final String username) {
+        try {
+            return cache.get(asList(qem, pageCapacity, username), () -> new PaginationState(countTtlMillis));
+        } catch (final ExecutionException ex) {
+            throw new EntityCompanionException("Could not obtain pagination state.", ex);
+        }
+    }
+
+    /**
+     * Starts a new pagination state for query <code>qem</code> with pages of <code>pageCapacity</code>, replacing the existing one if any.
+     * This is used upon retrieval of the first page, which should neither rely on page boundaries nor on the number of pages calculated for the previous runs of the same query.
+     *
+     * @param qem
+     * @param pageCapacity
+     * @param username
+     * @return
+     */
+    public PaginationState newStateFor(final QueryExecutionModel<?, ?> qem, final int pageCapacity, final String username) {
+        final PaginationState state = new PaginationState(countTtlMillis);
+        cache.put(asList(qem, pageCapacity, username), state);
+        return state;
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Creates pagination state, which is not shared through the cache.
+     *
+     * @return
+     */
+    public PaginationState newState() {
+        return new PaginationState(countTtlMillis);
+    }
+
+    /**
+     * The state of a paginated query -- boundary values of ordering properties for retrieved pages and the number of pages.
+     */
+    public static final class PaginationState {
+        private final long countTtlMillis;
+        private final Map<Integer, Pair<List<Object>, List<Object>>> boundaries = new ConcurrentHashMap<>();
+        private Pair<Integer, Integer> numberOfPagesAndCount;
+        private long countedAt;
+
+        private PaginationState(final long countTtlMillis) {
+            this.countTtlMillis = countTtlMillis;
+        }
+
+        /**
+         * Remembers values of ordering properties for the first and the last rows of page <code>pageNo</code>.
+         */
+        public void putBoundary(final int pageNo, final List<Object> firstRowValues, final List<Object> lastRowValues) {
+            boundaries.put(pageNo, Pair.pair(firstRowValues, lastRowValues));
+        }
+
+        /**
+         * Returns values of ordering properties for the first row of page <code>pageNo</code> if that page has been retrieved.
+         */
+        public Optional<List<Object>> firstRowValues(final int pageNo) {
+            final Pair<List<Object>, List<Object>> boundary = boundaries.get(pageNo);
+            return boundary == null ? Optional.empty() : Optional.of(boundary.getKey());
+        }
+
+        /**
+         * Returns values of ordering properties for the last row of page <code>pageNo</code> if that page has been retrieved.
+         */
+        public Optional<List<Object>> lastRowValues(final int pageNo) {
+            final Pair<List<Object>, List<Object>> boundary = boundaries.get(pageNo);
+            return boundary == null ? Optional.empty() : Optional.of(boundary.getValue());
+        }
+
+        /**
+         * Returns the number of pages and rows, calculating them with <code>counter</code> if there is no value or it has been calculated too long ago.
+         */
+        public synchronized Pair<Integer, Integer> numberOfPagesAndCount(final Supplier<Pair<Integer, Integer>> counter) {
+            final long now = System.currentTimeMillis();
+            if (numberOfPagesAndCount == null || now - countedAt > countTtlMillis) {
+                numberOfPagesAndCount = counter.get();
+                countedAt = now;
+            }
+            return numberOfPagesAndCount;
+        }
+
+        /**
+         * Returns the number of pages and rows if they have been calculated recently enough to be reused.
+         */
+        public synchronized Optional<Pair<Integer, Integer>> knownNumberOfPagesAndCount() {
+            return numberOfPagesAndCount == null || System.currentTimeMillis() - countedAt > countTtlMillis ? Optional.empty() : Optional.of(numberOfPagesAndCount);
+        }
+
+        /**
+         * Discards the number of pages and rows so that they get recalculated upon the next request (e.g. when the requested page turned out to be out of range).
+         */
+        public synchronized void invalidateCount() {
+            numberOfPagesAndCount = null;
+        }
+    }
+}
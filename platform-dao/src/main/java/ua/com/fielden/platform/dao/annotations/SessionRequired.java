@@ -7,6 +7,9 @@ import java.lang.annotation.Target;
 
 /**
  * Should be used for annotating method that require Hibernate session.
+ * <p>
+ * Methods that only read data can be marked as <code>readonly</code>. If such a method starts a new session scope, then the Hibernate session and the JDBC connection are marked read-only,
+ * and the session is neither dirty checked nor flushed. Read-write methods cannot be invoked within a read-only session scope.
  * 
  * @author 01es
  * 
@@ -14,4 +17,9 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target({ ElementType.METHOD })
 public @interface SessionRequired {
+
+    /**
+     * Indicates whether the annotated method only reads data.
+     */
+    boolean readonly() default false;
 }
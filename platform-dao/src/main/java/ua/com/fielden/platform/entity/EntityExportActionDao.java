@@ -1,11 +1,17 @@
 package ua.com.fielden.platform.entity;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import com.google.inject.Inject;
 
@@ -15,7 +21,7 @@ import ua.com.fielden.platform.entity.annotation.EntityType;
 import ua.com.fielden.platform.entity.query.IFilter;
 import ua.com.fielden.platform.entity_centre.review.criteria.EnhancedCentreEntityQueryCriteria;
 import ua.com.fielden.platform.error.Result;
-import ua.com.fielden.platform.file_reports.WorkbookExporter;
+import ua.com.fielden.platform.file_reports.StreamingWorkbookExporter;
 import ua.com.fielden.platform.utils.Pair;
 
 /**
@@ -41,62 +47,63 @@ public class EntityExportActionDao extends CommonEntityDao<EntityExportAction> i
         }
         //Otherwise continue data exporting.
         final EnhancedCentreEntityQueryCriteria<?, ?> selectionCrit = entity.getContext().getSelectionCrit();
-        entity.setFileName(String.format("export-of-%s.xls", selectionCrit.getEntityClass().getSimpleName()));
-        entity.setMime("application/vnd.ms-excel");
-        final Map<String, Object> customObject = new LinkedHashMap<String, Object>();
-        final List<AbstractEntity<?>> entities;
-        if (entity.getAll()) {
-            customObject.put("@@pageNumber", -1);
-            customObject.put("@@action", "export all");
-            entities = selectionCrit.exportQueryRunner().apply(customObject);
-        } else if (entity.getPageRange()) {
-            entities = new ArrayList<>();
-            for (int page = entity.getFromPage() - 1; page < entity.getToPage(); page++) {
-                customObject.put("@@pageCapacity", entity.getPageCapacity());
-                customObject.put("@@action", "navigate");
-                customObject.put("@@pageNumber", page);
-                entities.addAll(selectionCrit.exportQueryRunner().apply(customObject));
-            }
-        } else {
-            if (entity.getContext().getSelectedEntities().isEmpty()) {
-                throw Result.failure("Please select at least one entity to export");
+        entity.setFileName(String.format("export-of-%s.xlsx", selectionCrit.getEntityClass().getSimpleName()));
+        entity.setMime(StreamingWorkbookExporter.MIME);
+        final Pair<String[], String[]> propAndTitles = selectionCrit.generatePropTitlesToExport();
+        // entities are written into the workbook as they are being retrieved -- the stream should be consumed within the session scope of this method
+        // the workbook is written into a temporary file, so that only its final content is loaded into memory, which is then transferred to the client as part of the action
+        File file = null;
+        try (final Stream<AbstractEntity<?>> entities = entitiesToExport(entity, selectionCrit)) {
+            file = File.createTempFile("export-", ".xlsx");
+            try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                StreamingWorkbookExporter.export(entities, propAndTitles.getKey(), propAndTitles.getValue(), out);
             }
-            customObject.put("@@pageNumber", -1);
-            customObject.put("@@action", "export all");
-            final List<Long> ids = new ArrayList<>();
-            for (final AbstractEntity<?> selectedEntity : entity.getContext().getSelectedEntities()) {
-                ids.add(selectedEntity.getId());
-            }
-            entities = selectEntities(selectionCrit.exportQueryRunner().apply(customObject), ids);
-        }
-        try {
-            final Pair<String[], String[]> propAndTitles = selectionCrit.generatePropTitlesToExport();
-            entity.setData(WorkbookExporter.convertToByteArray(WorkbookExporter.export(entities, propAndTitles.getKey(), propAndTitles.getValue())));
+            entity.setData(Files.readAllBytes(file.toPath()));
         } catch (final IOException e) {
             throw Result.failure("Could not export data.", e);
+        } finally {
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
         }
 
         return entity;
     }
 
     /**
-     * Selects the entities from resulting <code>data</code> to contain only those, that have specified <code>longIds</code>.
+     * Returns a lazy stream of entities to be exported: all entities matching the selection criteria, entities on the specified range of pages, or the selected entities.
      *
-     * @param data
-     * @param ids
+     * @param entity
+     * @param selectionCrit
      * @return
      */
-    private List<AbstractEntity<?>> selectEntities(final List<AbstractEntity<?>> data, final List<Long> longIds) {
-        final List<AbstractEntity<?>> list = new ArrayList<>();
-        if (longIds.isEmpty()) {
-            return list;
+    private Stream<AbstractEntity<?>> entitiesToExport(final EntityExportAction entity, final EnhancedCentreEntityQueryCriteria<?, ?> selectionCrit) {
+        if (entity.getAll()) {
+            return selectionCrit.exportQueryRunner().apply(exportAllCustomObject());
+        } else if (entity.getPageRange()) {
+            return IntStream.range(entity.getFromPage() - 1, entity.getToPage()).boxed().flatMap(page -> {
+                final Map<String, Object> customObject = new LinkedHashMap<String, Object>();
+                customObject.put("@@pageCapacity", entity.getPageCapacity());
+                customObject.put("@@action", "navigate");
+                customObject.put("@@pageNumber", page);
+                return selectionCrit.exportQueryRunner().apply(customObject);
+            });
         } else {
-            for (final AbstractEntity<?> retrievedEntity : data) {
-                if (longIds.contains(retrievedEntity.getId())) {
-                    list.add(retrievedEntity);
-                }
+            if (entity.getContext().getSelectedEntities().isEmpty()) {
+                throw Result.failure("Please select at least one entity to export");
+            }
+            final Set<Long> ids = new HashSet<>();
+            for (final AbstractEntity<?> selectedEntity : entity.getContext().getSelectedEntities()) {
+                ids.add(selectedEntity.getId());
             }
+            return selectionCrit.exportQueryRunner().apply(exportAllCustomObject()).filter(retrievedEntity -> ids.contains(retrievedEntity.getId()));
         }
-        return list;
+    }
+
+    private static Map<String, Object> exportAllCustomObject() {
+        final Map<String, Object> customObject = new LinkedHashMap<String, Object>();
+        customObject.put("@@pageNumber", -1);
+        customObject.put("@@action", "export all");
+        return customObject;
     }
 }
\ No newline at end of file
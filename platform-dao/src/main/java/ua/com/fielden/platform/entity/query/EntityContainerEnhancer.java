@@ -9,6 +9,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -54,6 +56,8 @@ public class EntityContainerEnhancer<E extends AbstractEntity<?>> {
         }
 
         final Map<String, fetch<? extends AbstractEntity<?>>> propertiesFetchModels = fetchModel.getFetchModels();
+        // properties, which are enhanced by retrieving their values by ids, grouped by their fetch models (and thus by their types) in order to retrieve values of the same type only once per level
+        final Map<fetch<? extends AbstractEntity<?>>, List<String>> propsByFetchModels = new LinkedHashMap<>();
 
         for (final Map.Entry<String, fetch<?>> entry : propertiesFetchModels.entrySet()) {
             final String propName = entry.getKey();
@@ -78,24 +82,28 @@ public class EntityContainerEnhancer<E extends AbstractEntity<?>> {
                         }
                     } else {
                         if (ppi.isUnionEntity()) {
-                            enhanceProperty(entities, propName, propFetchModel);
+                            groupByFetchModel(propsByFetchModels, propName, propFetchModel);
                         } else {
                             try {
                                 final String linkPropName = Finder.findLinkProperty(fetchModel.getEntityType(), propName);
                                 enhancePropertyWithLinkToParent(entities, propName, propFetchModel, linkPropName);
                             } catch (final Exception e) {
                                 if (ppi.isEntityOfPersistedType() || ppi.isOne2OneId()) {
-                                    enhanceProperty(entities, propName, propFetchModel);
+                                    groupByFetchModel(propsByFetchModels, propName, propFetchModel);
                                 }
                             }
                         }
                     }
                 } else {
-                    enhanceProperty(entities, propName, propFetchModel);
+                    groupByFetchModel(propsByFetchModels, propName, propFetchModel);
                 }
             }
         }
 
+        for (final Map.Entry<fetch<? extends AbstractEntity<?>>, List<String>> entry : propsByFetchModels.entrySet()) {
+            enhanceProperties(entities, entry.getValue(), entry.getKey());
+        }
+
         assignProxiedResultTypeToContainers(entities, fetchModel);
         assignInstrumentationSetting(entities, fetchModel);
 
@@ -210,6 +218,59 @@ public class EntityContainerEnhancer<E extends AbstractEntity<?>> {
         return entities;
     }
 
+    private static void groupByFetchModel(final Map<fetch<? extends AbstractEntity<?>>, List<String>> propsByFetchModels, final String propName, final fetch<? extends AbstractEntity<?>> propFetchModel) {
+        propsByFetchModels.computeIfAbsent(propFetchModel, key -> new ArrayList<>()).add(propName);
+    }
+
+    /**
+     * Enhances properties of the same type and with the same fetch model. 
+     * Values of those properties, which require retrieval by ids, are retrieved all at once so that each referenced entity gets retrieved only once per level.
+     *
+     * @param entities
+     * @param propertyNames
+     * @param fetchModel
+     * @return
+     */
+    private <T extends AbstractEntity<?>> List<EntityContainer<E>> enhanceProperties(final List<EntityContainer<E>> entities, final List<String> propertyNames, final fetch<T> fetchModel) {
+        if (propertyNames.size() == 1) {
+            return enhanceProperty(entities, propertyNames.get(0), fetchModel);
+        }
+
+        final Map<String, Map<Long, List<EntityContainer<E>>>> propertiesValuesIds = new LinkedHashMap<>();
+        final Set<Long> allIds = new LinkedHashSet<>();
+        for (final String propertyName : propertyNames) {
+            if (!getRetrievedPropertyInstances(entities, propertyName).isEmpty()) {
+                // property instances have already been retrieved as part of the parent query and only need to be enhanced
+                enhanceProperty(entities, propertyName, fetchModel);
+            } else {
+                final Map<Long, List<EntityContainer<E>>> propertyValuesIds = getEntityPropertyIds(entities, propertyName);
+                if (!propertyValuesIds.isEmpty()) {
+                    propertiesValuesIds.put(propertyName, propertyValuesIds);
+                    allIds.addAll(propertyValuesIds.keySet());
+                }
+            }
+        }
+
+        if (!allIds.isEmpty()) {
+            logger.debug(format("Retrieving [%s] instances of type [%s] at once for properties %s.", allIds.size(), fetchModel.getEntityType().getSimpleName(), propertiesValuesIds.keySet()));
+            final List<EntityContainer<T>> enhancedPropInstances = getDataInBatches(new ArrayList<Long>(allIds), fetchModel);
+
+            // Replacing in entities the proxies of properties with properly enhanced property instances.
+            for (final EntityContainer<T> enhancedPropInstance : enhancedPropInstances) {
+                for (final Map.Entry<String, Map<Long, List<EntityContainer<E>>>> propertyValuesIds : propertiesValuesIds.entrySet()) {
+                    final List<EntityContainer<E>> thisPropertyEntities = propertyValuesIds.getValue().get(enhancedPropInstance.getId());
+                    if (thisPropertyEntities != null) {
+                        for (final EntityContainer<E> thisPropertyEntity : thisPropertyEntities) {
+                            thisPropertyEntity.getEntities().put(propertyValuesIds.getKey(), enhancedPropInstance);
+                        }
+                    }
+                }
+            }
+        }
+
+        return entities;
+    }
+
     private <T extends AbstractEntity<?>> List<EntityContainer<E>> enhanceProperty(final List<EntityContainer<E>> entities, final String propertyName, final fetch<T> fetchModel) {
         // Obtaining map between property id and list of entities where this property occurs
         final Map<Long, List<EntityContainer<E>>> propertyValuesIds = getEntityPropertyIds(entities, propertyName);
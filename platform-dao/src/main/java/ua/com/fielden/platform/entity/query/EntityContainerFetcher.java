@@ -18,6 +18,7 @@ import org.hibernate.ScrollMode;
 import ua.com.fielden.platform.dao.DomainMetadataAnalyser;
 import ua.com.fielden.platform.dao.QueryExecutionModel;
 import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.entity.query.QueryModelResultCache.CompiledQuery;
 import ua.com.fielden.platform.entity.query.generation.EntQueryGenerator;
 import ua.com.fielden.platform.entity.query.generation.elements.EntQuery;
 import ua.com.fielden.platform.entity.query.generation.elements.ResultQueryYieldDetails;
@@ -81,7 +82,7 @@ public class EntityContainerFetcher {
     }
 
     private <E extends AbstractEntity<?>> List<EntityContainer<E>> listContainersAsIs(final QueryModelResult<E> modelResult, final Integer pageNumber, final Integer pageCapacity) {
-        final EntityTree<E> resultTree = new EntityResultTreeBuilder().buildEntityTree(modelResult.getResultType(), modelResult.getYieldedPropsInfo());
+        final EntityTree<E> resultTree = modelResult.getResultTree();
 
         final EntityHibernateRetrievalQueryProducer queryProducer = EntityHibernateRetrievalQueryProducer.mkQueryProducerWithPagination(modelResult.getSql(), resultTree.getScalarFromEntityTree(), modelResult.getParamValues(), pageNumber, pageCapacity);
         
@@ -106,7 +107,7 @@ public class EntityContainerFetcher {
 
     
     private <E extends AbstractEntity<?>> Stream<List<EntityContainer<E>>> streamContainersAsIs(final QueryModelResult<E> modelResult, final Optional<Integer> fetchSize) {
-        final EntityTree<E> resultTree = new EntityResultTreeBuilder().buildEntityTree(modelResult.getResultType(), modelResult.getYieldedPropsInfo());
+        final EntityTree<E> resultTree = modelResult.getResultTree();
 
         final EntityHibernateRetrievalQueryProducer queryProducer = EntityHibernateRetrievalQueryProducer.mkQueryProducerWithoutPagination(modelResult.getSql(), resultTree.getScalarFromEntityTree(), modelResult.getParamValues());
         final int batchSize = fetchSize.orElse(100);
@@ -123,6 +124,14 @@ public class EntityContainerFetcher {
 
     private <E extends AbstractEntity<?>> QueryModelResult<E> getModelResult(final QueryExecutionModel<E, ?> qem, final DomainMetadataAnalyser domainMetadataAnalyser, final IFilter filter, final String username) {
         final EntQueryGenerator gen = new EntQueryGenerator(domainMetadataAnalyser, filter, username, executionContext.getUniversalConstants());
+        final QueryModelResultCache cache = executionContext.getQueryModelResultCache();
+        if (cache == null) {
+            return compileModelResult(qem, domainMetadataAnalyser, gen).getResult();
+        }
+        return cache.getOrCompile(qem, filter, username, gen, () -> compileModelResult(qem, domainMetadataAnalyser, gen));
+    }
+
+    private <E extends AbstractEntity<?>> CompiledQuery<E> compileModelResult(final QueryExecutionModel<E, ?> qem, final DomainMetadataAnalyser domainMetadataAnalyser, final EntQueryGenerator gen) {
         final IRetrievalModel<E> fm = qem.getFetchModel() == null ? //
         (qem.getQueryModel().getResultType().equals(EntityAggregates.class) ? null
                 : new EntityRetrievalModel<E>(fetch(qem.getQueryModel().getResultType()), domainMetadataAnalyser))
@@ -132,7 +141,7 @@ public class EntityContainerFetcher {
 
         final EntQuery entQuery = gen.generateEntQueryAsResultQuery(qem.getQueryModel(), qem.getOrderModel(), qem.getQueryModel().getResultType(), fm, qem.getParamValues());
         final String sql = entQuery.sql();
-        return new QueryModelResult<>(entQuery.type(), sql, getResultPropsInfos(entQuery.getYields()), entQuery.getValuesForSqlParams(), fm);
+        return new CompiledQuery<>(new QueryModelResult<>(entQuery.type(), sql, getResultPropsInfos(entQuery.getYields()), entQuery.getValuesForSqlParams(), fm), entQuery.getAllValues());
     }
 
     private SortedSet<ResultQueryYieldDetails> getResultPropsInfos(final Yields model) {
@@ -17,8 +17,9 @@ public class QueryExecutionContext {
     private final String username;
     private final IUniversalConstants universalConstants;
     private final IdOnlyProxiedEntityTypeCache idOnlyProxiedEntityTypeCache;
+    private final QueryModelResultCache queryModelResultCache;
     
-    public QueryExecutionContext(Session session, EntityFactory entityFactory, ICompanionObjectFinder coFinder, DomainMetadata domainMetadata, IFilter filter, String username, IUniversalConstants universalConstants, final IdOnlyProxiedEntityTypeCache idOnlyProxiedEntityTypeCache) {
+    public QueryExecutionContext(Session session, EntityFactory entityFactory, ICompanionObjectFinder coFinder, DomainMetadata domainMetadata, IFilter filter, String username, IUniversalConstants universalConstants, final IdOnlyProxiedEntityTypeCache idOnlyProxiedEntityTypeCache, final QueryModelResultCache queryModelResultCache) {
         super();
         this.session = session;
         this.entityFactory = entityFactory;
@@ -28,6 +29,7 @@ public class QueryExecutionContext {
         this.username = username;
         this.universalConstants = universalConstants;
         this.idOnlyProxiedEntityTypeCache = idOnlyProxiedEntityTypeCache;
+        this.queryModelResultCache = queryModelResultCache;
     }
 
     public Session getSession() {
@@ -61,4 +63,13 @@ public class QueryExecutionContext {
     public IdOnlyProxiedEntityTypeCache getIdOnlyProxiedEntityTypeCache() {
         return idOnlyProxiedEntityTypeCache;
     }
+
+    /**
+     * Returns a cache of compiled result queries, which may be <code>null</code> if caching is not configured.
+     *
+     * @return
+     */
+    public QueryModelResultCache getQueryModelResultCache() {
+        return queryModelResultCache;
+    }
 }
\ No newline at end of file
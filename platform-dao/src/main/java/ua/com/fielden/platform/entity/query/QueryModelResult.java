@@ -13,14 +13,30 @@ public final class QueryModelResult<T extends AbstractEntity<?>> {
     private Map<String, Object> paramValues;
     private final SortedSet<ResultQueryYieldDetails> yieldedPropsInfo;
     private final IRetrievalModel<T> fetchModel;
+    private final EntityTree<T> resultTree;
 
 
     public QueryModelResult(final Class<T> resultType, final String sql, final SortedSet<ResultQueryYieldDetails> yieldedPropsInfo, final Map<String, Object> paramValues, final IRetrievalModel<T> fetchModel) {
+        this(resultType, sql, yieldedPropsInfo, paramValues, fetchModel, new EntityResultTreeBuilder().buildEntityTree(resultType, yieldedPropsInfo));
+    }
+
+    private QueryModelResult(final Class<T> resultType, final String sql, final SortedSet<ResultQueryYieldDetails> yieldedPropsInfo, final Map<String, Object> paramValues, final IRetrievalModel<T> fetchModel, final EntityTree<T> resultTree) {
         this.resultType = resultType;
         this.sql = sql;
         this.paramValues = paramValues;
         this.yieldedPropsInfo = yieldedPropsInfo;
         this.fetchModel = fetchModel;
+        this.resultTree = resultTree;
+    }
+
+    /**
+     * Creates a copy of this result with the same SQL, yields, fetch model and result tree, but with different values for SQL parameters.
+     *
+     * @param paramValues
+     * @return
+     */
+    public QueryModelResult<T> withParamValues(final Map<String, Object> paramValues) {
+        return new QueryModelResult<>(resultType, sql, yieldedPropsInfo, paramValues, fetchModel, resultTree);
     }
 
     public Class<T> getResultType() {
@@ -43,6 +59,10 @@ public final class QueryModelResult<T extends AbstractEntity<?>> {
         return fetchModel;
     }
 
+    public EntityTree<T> getResultTree() {
+        return resultTree;
+    }
+
     public boolean idOnlyQuery() {
         return EntityUtils.isPersistedEntityType(resultType) && yieldedPropsInfo.size() == 1 && "id".equals(yieldedPropsInfo.iterator().next().getName());
     }
@@ -0,0 +1,307 @@
+package ua.com.fielden.platform.entity.query;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import ua.com.fielden.platform.dao.QueryExecutionModel;
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.entity.query.fluent.TokenCategory;
+import ua.com.fielden.platform.entity.query.generation.EntQueryGenerator;
+import ua.com.fielden.platform.entity.query.generation.elements.EntValue;
+import ua.com.fielden.platform.entity.query.model.AbstractModel;
+import ua.com.fielden.platform.entity.query.model.QueryModel;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * A bounded thread-safe cache of compiled result queries, which is used by {@link EntityContainerFetcher} to avoid repeated EQL-to-SQL generation for structurally the same queries.
+ * <p>
+ * Cache entries are keyed on the structural shape of a query execution model -- query, fetch and ordering models, the shape of parameter values (their presence, types and sizes of collectional values), the type of a user-driven filter and the username.
+ * Actual parameter values are not part of the key. Instead, upon a cache hit, the SQL parameters of a cached query are re-bound to the values of the executed query execution model.
+ * <p>
+ * The same cache serves all queries executed by {@link EntityFetcher} -- entity queries, aggregate queries and count queries used for evaluation of the number of pages.
+ * Each query shape is compiled only once, even if it is requested concurrently.
+ *
+ * @author TG Team
+ *
+ */
+public class QueryModelResultCache {
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final Cache<Key, CompiledQuery<?>> cache;
+    private final AtomicLong compileCount = new AtomicLong();
+    private final AtomicLong compileNanos = new AtomicLong();
+    private volatile long lastCompileNanos;
+    private volatile long maxCompileNanos;
+
+    public QueryModelResultCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public QueryModelResultCache(final long maxSize) {
+        this.cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    /**
+     * Returns a query model result for <code>qem</code> with SQL parameters bound to the parameter values of <code>qem</code>.
+     * If there is no compiled query for the shape of <code>qem</code> in the cache then <code>compiler</code> is used to produce and cache it.
+     *
+     * @param qem
+     * @param filter
+     * @param username
+     * @param gen -- a generator that is used for preparing parameter values upon re-binding
+     * @param compiler -- produces a compiled query by generating SQL in case of a cache miss
+     * @return
+     */
+    public <E extends AbstractEntity<?>> QueryModelResult<E> getOrCompile(final QueryExecutionModel<E, ?> qem, final IFilter filter, final String username, final EntQueryGenerator gen, final Supplier<CompiledQuery<E>> compiler) {
+        final Key key = new Key(qem, filter, username);
+        // concurrent requests of the same shape wait for a single compilation, and only the request that has compiled the query can use its result as is
+        final List<CompiledQuery<E>> compiledNow = new ArrayList<>(1);
+        final CompiledQuery<E> compiled;
+        try {
+            compiled = (CompiledQuery<E>) cache.get(key, () -> {
+                compiledNow.add(compile(compiler));
+                return compiledNow.get(0);
+            });
+        } catch (final ExecutionException | UncheckedExecutionException | ExecutionError ex) {
+            Throwables.propagateIfPossible(ex.getCause());
+            throw new IllegalStateException(ex.getCause());
+        }
+        return compiledNow.isEmpty() ? compiled.bind(gen.enhanceParamValuesForResultQuery(qem.getParamValues()), gen) : compiled.getResult();
+    }
+
+    private <E extends AbstractEntity<?>> CompiledQuery<E> compile(final Supplier<CompiledQuery<E>> compiler) {
+        final long start = System.nanoTime();
+        final CompiledQuery<E> compiled = compiler.get();
+        final long duration = System.nanoTime() - start;
+        compileCount.incrementAndGet();
+        compileNanos.addAndGet(duration);
+        lastCompileNanos = duration;
+        if (duration > maxCompileNanos) {
+            maxCompileNanos = duration;
+        }
+        return compiled;
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * The number of compiled queries, which is the number of EQL-to-SQL generations performed for queries with distinct shapes (including those that were evicted and compiled again).
+     */
+    public long compileCount() {
+        return compileCount.get();
+    }
+
+    /**
+     * The total time of query compilation in nanoseconds.
+     */
+    public long totalCompileNanos() {
+        return compileNanos.get();
+    }
+
+    /**
+     * The duration of the last query compilation in nanoseconds.
+     */
+    public long lastCompileNanos() {
+        return lastCompileNanos;
+    }
+
+    /**
+     * The longest query compilation in nanoseconds.
+     */
+    public long maxCompileNanos() {
+        return maxCompileNanos;
+    }
+
+    /**
+     * The average duration of query compilation in nanoseconds.
+     */
+    public double averageCompileNanos() {
+        final long count = compileCount.get();
+        return count == 0 ? 0 : (double) compileNanos.get() / count;
+    }
+
+    /**
+     * The ratio of queries, which reused already compiled queries.
+     */
+    public double reuseRatio() {
+        return cache.stats().hitRate();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * A result query as produced by EQL-to-SQL generation together with values of its SQL parameters, which are used as a template for re-binding upon cache hits.
+     *
+     * @param <E>
+     */
+    public static final class CompiledQuery<E extends AbstractEntity<?>> {
+        private final QueryModelResult<E> result;
+        private final Map<String, EntValue> sqlParams;
+
+        public CompiledQuery(final QueryModelResult<E> result, final List<EntValue> sqlParams) {
+            this.result = result;
+            this.sqlParams = new HashMap<>();
+            for (final EntValue value : sqlParams) {
+                this.sqlParams.put(value.getSqlParamName(), value);
+            }
+        }
+
+        public QueryModelResult<E> getResult() {
+            return result;
+        }
+
+        private QueryModelResult<E> bind(final Map<String, Object> paramValues, final EntQueryGenerator gen) {
+            final Map<String, Object> preprocessedParamValues = new HashMap<>();
+            final Map<String, Object> valuesForSqlParams = new HashMap<>();
+            for (final Map.Entry<String, EntValue> sqlParam : sqlParams.entrySet()) {
+                final EntValue value = sqlParam.getValue();
+                if (!value.isParamValue()) {
+                    valuesForSqlParams.put(sqlParam.getKey(), value.getValue());
+                } else {
+                    final Object paramValue = preprocessedParamValues.computeIfAbsent(value.getParamName(), name -> gen.preprocessValue(paramValues.get(name)));
+                    valuesForSqlParams.put(sqlParam.getKey(), value.getParamIndex() < 0 ? paramValue : ((List<?>) paramValue).get(value.getParamIndex()));
+                }
+            }
+            return result.withParamValues(valuesForSqlParams);
+        }
+    }
+
+    /**
+     * A structural key of a query execution model.
+     */
+    private static final class Key {
+        private final QueryModel<?> queryModel;
+        private final List<Boolean> filterableFlags = new ArrayList<>();
+        private final Object orderModel;
+        private final Object fetchModel;
+        private final Map<String, Object> paramShapes = new HashMap<>();
+        private final Class<?> filterType;
+        private final String username;
+        private final int hashCode;
+
+        private Key(final QueryExecutionModel<?, ?> qem, final IFilter filter, final String username) {
+            this.queryModel = qem.getQueryModel();
+            this.orderModel = qem.getOrderModel();
+            this.fetchModel = qem.getFetchModel();
+            this.filterType = filter == null ? null : filter.getClass();
+            this.username = username;
+            // property filterable is not considered by QueryModel.equals, but affects SQL generation for the query and all its sub-queries
+            filterableFlags.add(queryModel.isFilterable());
+            collectFilterableFlags(queryModel, filterableFlags);
+            for (final Map.Entry<String, Object> param : qem.getParamValues().entrySet()) {
+                paramShapes.put(param.getKey(), shapeOf(param.getValue()));
+            }
+            this.hashCode = Objects.hash(queryModel, filterableFlags, orderModel, fetchModel, paramShapes, filterType, username);
+        }
+
+        private static void collectFilterableFlags(final Object value, final List<Boolean> flags) {
+            if (value instanceof AbstractModel) {
+                for (final Pair<TokenCategory, Object> token : ((AbstractModel) value).getTokens()) {
+                    if (token.getValue() instanceof QueryModel) {
+                        flags.add(((QueryModel<?>) token.getValue()).isFilterable());
+                    }
+                    collectFilterableFlags(token.getValue(), flags);
+                }
+            } else if (value instanceof Collection) {
+                for (final Object item : (Collection<?>) value) {
+                    if (item instanceof QueryModel) {
+                        flags.add(((QueryModel<?>) item).isFilterable());
+                    }
+                    collectFilterableFlags(item, flags);
+                }
+            }
+        }
+
+        /**
+         * Parameter values affect the structure of generated SQL by their presence (ignored conditions), type and the number of elements in case of collectional values
+         * and arrays, which are flattened into as many SQL parameters as there are elements (refer {@link EntQueryGenerator#preprocessValue(Object)}).
+         */
+        private static Object shapeOf(final Object value) {
+            if (value == null) {
+                return Void.class;
+            } else if (value instanceof Collection) {
+                final List<Object> shape = new ArrayList<>();
+                for (final Object item : (Collection<?>) value) {
+                    addItemShape(shape, item);
+                }
+                return shape;
+            } else if (value.getClass().isArray()) {
+                final List<Object> shape = new ArrayList<>();
+                for (int index = 0; index < Array.getLength(value); index++) {
+                    addItemShape(shape, Array.get(value, index));
+                }
+                return shape;
+            } else {
+                return value.getClass();
+            }
+        }
+
+        private static void addItemShape(final List<Object> shape, final Object item) {
+            final Object itemShape = shapeOf(item);
+            if (itemShape instanceof List) {
+                shape.addAll((List<?>) itemShape);
+            } else {
+                shape.add(itemShape);
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) obj;
+            return hashCode == that.hashCode &&
+                    Objects.equals(queryModel, that.queryModel) &&
+                    Objects.equals(filterableFlags, that.filterableFlags) &&
+                    Objects.equals(orderModel, that.orderModel) &&
+                    Objects.equals(fetchModel, that.fetchModel) &&
+                    Objects.equals(paramShapes, that.paramShapes) &&
+                    Objects.equals(filterType, that.filterType) &&
+                    Objects.equals(username, that.username);
+        }
+    }
+}
@@ -10,7 +10,6 @@ import static ua.com.fielden.platform.entity.query.fluent.TokenCategory.PROP;
 import static ua.com.fielden.platform.entity.query.fluent.TokenCategory.VAL;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -233,7 +232,7 @@ public abstract class AbstractTokensBuilder implements ITokensBuilder {
         case COUNT_ALL:
             return new CountAll();
         case NOW:
-            return new EntValue(getParamValue(EntQueryGenerator.NOW)); //return new Now(getDbVersion());
+            return new EntValue(getParamValue(EntQueryGenerator.NOW), false, EntQueryGenerator.NOW, -1); //return new Now(getDbVersion());
 
         default:
             throw new RuntimeException("Unrecognised zero agrument function: " + function);
@@ -247,9 +246,9 @@ public abstract class AbstractTokensBuilder implements ITokensBuilder {
         case EXT_PROP:
             return new EntProp((String) value, true);
         case PARAM:
-            return new EntValue(getParamValue((String) value));
+            return new EntValue(getParamValue((String) value), false, (String) value, -1);
         case IPARAM:
-            return new EntValue(getParamValue((String) value), true);
+            return new EntValue(getParamValue((String) value), true, (String) value, -1);
         case VAL:
             return new EntValue(preprocessValue(value));
         case IVAL:
@@ -277,8 +276,9 @@ public abstract class AbstractTokensBuilder implements ITokensBuilder {
         if (!(paramValue instanceof List)) {
             result.add(getModelForSingleOperand(cat, value));
         } else {
+            int index = 0;
             for (final Object singleValue : (List<Object>) paramValue) {
-                result.add(getModelForSingleOperand((cat == IPARAM ? IVAL : VAL), singleValue));
+                result.add(new EntValue(preprocessValue(singleValue), cat == IPARAM, (String) value, index++));
             }
         }
         return result;
@@ -294,28 +294,7 @@ public abstract class AbstractTokensBuilder implements ITokensBuilder {
     }
 
     private Object preprocessValue(final Object value) {
-        if (value != null && (value.getClass().isArray() || value instanceof Collection<?>)) {
-            final List<Object> values = new ArrayList<Object>();
-            for (final Object object : (Iterable) value) {
-                final Object furtherPreprocessed = preprocessValue(object);
-                if (furtherPreprocessed instanceof List) {
-                    values.addAll((List) furtherPreprocessed);
-                } else {
-                    values.add(furtherPreprocessed);
-                }
-            }
-            return values;
-        } else {
-            return convertValue(value);
-        }
-    }
-
-    /** Ensures that values of boolean types are converted properly. */
-    private Object convertValue(final Object value) {
-        if (value instanceof Boolean) {
-            return getQueryBuilder().getDomainMetadataAnalyser().getBooleanValue((Boolean) value);
-        }
-        return value;
+        return getQueryBuilder().preprocessValue(value);
     }
 
     protected ISetOperand getModelForSetOperand(final TokenCategory cat, final Object value) {
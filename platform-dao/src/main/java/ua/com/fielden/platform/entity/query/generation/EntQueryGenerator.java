@@ -1,7 +1,11 @@
 package ua.com.fielden.platform.entity.query.generation;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import ua.com.fielden.platform.dao.DomainMetadataAnalyser;
@@ -37,14 +41,65 @@ public class EntQueryGenerator {
     }
 
     public <T extends AbstractEntity<?>, Q extends QueryModel<T>> EntQuery generateEntQueryAsResultQuery(final Q query, final OrderingModel orderModel, final Class<T> resultType, final IRetrievalModel<T> fetchModel, final Map<String, Object> paramValues) {
+        return generateEntQuery(query, orderModel, resultType, fetchModel, enhanceParamValuesForResultQuery(paramValues), QueryCategory.RESULT_QUERY, filter, username);
+    }
+
+    /**
+     * Produces a copy of <code>paramValues</code>, enhanced with values of universal constants, which is used for generation of result queries.
+     *
+     * @param paramValues
+     * @return
+     */
+    public Map<String, Object> enhanceParamValuesForResultQuery(final Map<String, Object> paramValues) {
         final Map<String, Object> localParamValues = new HashMap<>();    
         localParamValues.putAll(paramValues);
         
         if (universalConstants.now() != null) {
             localParamValues.put(NOW, universalConstants.now().toDate());	
         }
-    	
-        return generateEntQuery(query, orderModel, resultType, fetchModel, localParamValues, QueryCategory.RESULT_QUERY, filter, username);
+        return localParamValues;
+    }
+
+    /**
+     * Converts a value, provided as part of a query model or as a value of a query parameter, into a form suitable for binding to SQL query parameters.
+     * Collections are flattened into a list and values of boolean type are converted as per domain metadata.
+     *
+     * @param value
+     * @return
+     */
+    public Object preprocessValue(final Object value) {
+        if (value != null && (value.getClass().isArray() || value instanceof Collection<?>)) {
+            final List<Object> values = new ArrayList<Object>();
+            for (final Object object : value instanceof Collection<?> ? (Collection<?>) value : arrayItems(value)) {
+                final Object furtherPreprocessed = preprocessValue(object);
+                if (furtherPreprocessed instanceof List) {
+                    values.addAll((List) furtherPreprocessed);
+                } else {
+                    values.add(furtherPreprocessed);
+                }
+            }
+            return values;
+        } else {
+            return convertValue(value);
+        }
+    }
+
+    /** Returns elements of an array of any component type (arrays are not {@link Iterable}). */
+    private static List<Object> arrayItems(final Object array) {
+        final int length = Array.getLength(array);
+        final List<Object> items = new ArrayList<Object>(length);
+        for (int index = 0; index < length; index++) {
+            items.add(Array.get(array, index));
+        }
+        return items;
+    }
+
+    /** Ensures that values of boolean types are converted properly. */
+    private Object convertValue(final Object value) {
+        if (value instanceof Boolean) {
+            return domainMetadataAnalyser.getBooleanValue((Boolean) value);
+        }
+        return value;
     }
 
     public EntQuery generateEntQueryAsSourceQuery(final QueryModel<?> qryModel, final Map<String, Object> paramValues, final Class resultType) {
@@ -7,6 +7,10 @@ import java.util.List;
 public class EntValue implements ISingleOperand {
     private final Object value;
     private final boolean ignoreNull;
+    /** The name of the query parameter this value was obtained from, or <code>null</code> if the value was specified directly in the query model. */
+    private final String paramName;
+    /** The position of this value in the flattened collection, which was provided as a value for parameter <code>paramName</code>, or <code>-1</code> if the value was not part of a collection. */
+    private final int paramIndex;
     private String sqlParamName;
 
     @Override
@@ -19,9 +23,15 @@ public class EntValue implements ISingleOperand {
     }
 
     public EntValue(final Object value, final boolean ignoreNull) {
+        this(value, ignoreNull, null, -1);
+    }
+
+    public EntValue(final Object value, final boolean ignoreNull, final String paramName, final int paramIndex) {
         super();
         this.value = value;
         this.ignoreNull = ignoreNull;
+        this.paramName = paramName;
+        this.paramIndex = paramIndex;
         if (!ignoreNull && value == null) {
             // TODO Uncomment when yieldNull() operator is implemented and all occurences of yield().val(null) are corrected.
             //	    throw new IllegalStateException("Value can't be null"); //
@@ -95,6 +105,21 @@ public class EntValue implements ISingleOperand {
         return value;
     }
 
+    public String getParamName() {
+        return paramName;
+    }
+
+    public int getParamIndex() {
+        return paramIndex;
+    }
+
+    /**
+     * Indicates whether this value originates from a query parameter and thus can differ between executions of structurally the same query.
+     */
+    public boolean isParamValue() {
+        return paramName != null;
+    }
+
     @Override
     public Object hibType() {
         return null;
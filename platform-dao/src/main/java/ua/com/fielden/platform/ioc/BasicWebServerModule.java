@@ -33,7 +33,10 @@ import ua.com.fielden.platform.entity.matcher.IValueMatcherFactory;
 import ua.com.fielden.platform.entity.matcher.ValueMatcherFactory;
 import ua.com.fielden.platform.entity.query.IFilter;
 import ua.com.fielden.platform.keygen.IKeyNumber;
+import ua.com.fielden.platform.keygen.IKeyNumberGenerator;
+import ua.com.fielden.platform.keygen.IKeyNumberGenerator.GapPolicy;
 import ua.com.fielden.platform.keygen.KeyNumberDao;
+import ua.com.fielden.platform.keygen.KeyNumberGenerator;
 import ua.com.fielden.platform.menu.CustomViewDao;
 import ua.com.fielden.platform.menu.EntityCentreViewDao;
 import ua.com.fielden.platform.menu.EntityMasterViewDao;
@@ -177,6 +180,9 @@ public class BasicWebServerModule extends CommonFactoryModule {
         // bind DAO and any other implementations of the required application controllers
         bind(IFilter.class).to(automaticDataFilterType); // UserDrivenFilter.class
         bind(IKeyNumber.class).to(KeyNumberDao.class);
+        bindConstant().annotatedWith(Names.named("keygen.blockSize")).to(Integer.parseInt(props.getProperty("keygen.blockSize", "50")));
+        bindConstant().annotatedWith(Names.named("keygen.gapPolicy")).to(GapPolicy.valueOf(props.getProperty("keygen.gapPolicy", GapPolicy.NO_GAPS.name())));
+        bind(IKeyNumberGenerator.class).to(KeyNumberGenerator.class).in(Scopes.SINGLETON);
 
         // bind attachment controllers
         bind(IAttachment.class).to(AttachmentDao.class);
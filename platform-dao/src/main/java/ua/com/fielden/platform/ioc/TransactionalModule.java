@@ -13,6 +13,7 @@ import org.hibernate.cfg.Configuration;
 
 import ua.com.fielden.platform.dao.DomainMetadata;
 import ua.com.fielden.platform.dao.ISessionEnabled;
+import ua.com.fielden.platform.dao.KeysetPageCache;
 import ua.com.fielden.platform.dao.annotations.SessionRequired;
 import ua.com.fielden.platform.entity.AbstractEntity;
 import ua.com.fielden.platform.entity.annotation.MapEntityTo;
@@ -21,6 +22,7 @@ import ua.com.fielden.platform.entity.ioc.EntityModule;
 import ua.com.fielden.platform.entity.meta.DomainMetaPropertyConfig;
 import ua.com.fielden.platform.entity.proxy.IIdOnlyProxiedEntityTypeCache;
 import ua.com.fielden.platform.entity.query.IdOnlyProxiedEntityTypeCache;
+import ua.com.fielden.platform.entity.query.QueryModelResultCache;
 import ua.com.fielden.platform.entity.validation.DomainValidationConfig;
 import ua.com.fielden.platform.ioc.session.SessionInterceptor;
 import ua.com.fielden.platform.persistence.HibernateUtil;
@@ -40,6 +42,8 @@ public abstract class TransactionalModule extends EntityModule {
     private final DomainMetaPropertyConfig domainMetaPropertyConfig = new DomainMetaPropertyConfig();
     private final DomainMetadata domainMetadata;
     private final IdOnlyProxiedEntityTypeCache idOnlyProxiedEntityTypeCache;
+    private final QueryModelResultCache queryModelResultCache = new QueryModelResultCache();
+    private final KeysetPageCache keysetPageCache = new KeysetPageCache();
     private final ProxyInterceptor interceptor;
     private final HibernateUtil hibernateUtil;
     private final List<Class<? extends AbstractEntity<?>>> applicationEntityTypes;
@@ -107,16 +111,22 @@ public abstract class TransactionalModule extends EntityModule {
             bind(IIdOnlyProxiedEntityTypeCache.class).toInstance(idOnlyProxiedEntityTypeCache);
         }
         
+        // cache of compiled EQL queries
+        bind(QueryModelResultCache.class).toInstance(queryModelResultCache);
+        bind(KeysetPageCache.class).toInstance(keysetPageCache);
+        
         // hibernate util
         if (hibernateUtil != null) {
             bind(HibernateUtil.class).toInstance(hibernateUtil);
         }
 
         // bind SessionRequired injector
+        final SessionInterceptor sessionInterceptor = new SessionInterceptor(sessionFactory);
         bindInterceptor(subclassesOf(ISessionEnabled.class), // match only DAO derived from  CommonEntityDao
                 annotatedWith(SessionRequired.class), // having annotated methods
-                new SessionInterceptor(sessionFactory) // the intercepter
+                sessionInterceptor // the intercepter
         );
+        bind(SessionInterceptor.class).toInstance(sessionInterceptor);
         // bind DomainValidationConfig
         bind(DomainValidationConfig.class).toInstance(domainValidationConfig);
         // bind DomainMetaPropertyConfig
@@ -139,6 +149,14 @@ public abstract class TransactionalModule extends EntityModule {
         return idOnlyProxiedEntityTypeCache;
     }
 
+    public QueryModelResultCache getQueryModelResultCache() {
+        return queryModelResultCache;
+    }
+
+    public KeysetPageCache getKeysetPageCache() {
+        return keysetPageCache;
+    }
+
     protected List<Class<? extends AbstractEntity<?>>> getApplicationEntityTypes() {
         return Collections.unmodifiableList(applicationEntityTypes);
     }
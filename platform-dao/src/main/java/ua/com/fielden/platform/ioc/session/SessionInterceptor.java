@@ -2,6 +2,13 @@ package ua.com.fielden.platform.ioc.session;
 
 import static java.util.UUID.randomUUID;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 
 import org.aopalliance.intercept.MethodInterceptor;
@@ -13,6 +20,7 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 
+import ua.com.fielden.platform.dao.CommonEntityDao;
 import ua.com.fielden.platform.dao.ISessionEnabled;
 import ua.com.fielden.platform.dao.annotations.SessionRequired;
 import ua.com.fielden.platform.ioc.session.exceptions.SessionScopingException;
@@ -33,6 +41,16 @@ import ua.com.fielden.platform.ioc.session.exceptions.SessionScopingException;
  *
  * Please note that transaction can be started outside of this intercepter, which means it will not be committed within it, and the transaction originator is responsible for
  * commit. At the same time, if an exception occurs then transaction will be rollbacked.
+ * <p>
+ * Session scopes can be read-only. A method invocation is read-only if it is annotated with <code>@SessionRequired(readonly = true)</code> or if it is one of the query methods
+ * declared in {@link CommonEntityDao} (e.g. <code>getPage</code>, <code>count</code> or <code>findByKey</code>) that do not return a stream, which could outlive the invocation.
+ * A read-only invocation that starts a new transaction marks the Hibernate session read-only and switches it to manual flushing, which avoids dirty checking
+ * and flushing altogether; also, no transaction GUID is generated for such transactions. Nested read-only invocations do not flush the session.
+ * <p>
+ * Invoking a read-write method within an explicitly read-only session scope is considered a scoping error, and only such scopes mark the JDBC connection read-only.
+ * The flag is reset upon completion of the scope, before the connection is returned to the pool. Scopes, which were inferred to be read-only, fall back to read-write
+ * upon invocation of a read-write method (e.g. an override of <code>findByKeyAndFetch</code> in a companion invoked by <code>findByKey</code>) -- the session
+ * is switched to flushing upon commit and a transaction GUID is generated. Entities, which were loaded before the fallback, stay read-only.
  *
  * @author TG Team
  *
@@ -42,7 +60,16 @@ public class SessionInterceptor implements MethodInterceptor {
 
     private static final Logger LOGGER = Logger.getLogger(SessionInterceptor.class);
     
+    private static final Set<String> QUERY_METHODS = new HashSet<>(Arrays.asList(
+            "findById", "findByKey", "findByKeyAndFetch", "isStale", "entityExists", "count",
+            "getEntitiesOnPage", "getAllEntities", "getFirstEntities", "firstPage", "getPage",
+            "firstPageByKeyset", "getPageByKeyset", "refreshPageByKeyset", "getEntity", "evalNumOfPages", "export"));
+    
     private ThreadLocal<String> transactionGuid = new ThreadLocal<>();
+    /** Indicates whether the current session scope was started by a method annotated with <code>@SessionRequired(readonly = true)</code>. */
+    private ThreadLocal<Boolean> explicitlyReadonlyScope = new ThreadLocal<>();
+    private final ConcurrentMap<Method, Boolean> readonlyMethods = new ConcurrentHashMap<>();
+    private final AtomicLong flushesAvoided = new AtomicLong();
 
     public SessionInterceptor(final SessionFactory sessnioFactory) {
         this.sessionFactory = sessnioFactory;
@@ -54,6 +81,8 @@ public class SessionInterceptor implements MethodInterceptor {
         final Session session = sessionFactory.getCurrentSession();
         invocationOwner.setSession(session);
         final Transaction tr = session.getTransaction();
+        final boolean readonly = isReadonly(invocation.getMethod());
+        final boolean explicitlyReadonly = readonly && isExplicitlyReadonly(invocation.getMethod());
         
         /**
          * This variable indicates whether transaction should be handled in this method;
@@ -63,19 +92,39 @@ public class SessionInterceptor implements MethodInterceptor {
         final boolean shouldCommit = !tr.isActive();
         // activate transaction if it not active
         if (!tr.isActive()) {
-            session.setFlushMode(FlushMode.COMMIT);
-            LOGGER.debug("Starting new DB transaction");
-            tr.begin();
-            LOGGER.debug("Started new DB transaction");
-            
-            // generate a GUID for the current transaction
-            if (!StringUtils.isEmpty(transactionGuid.get())) {
-                throw new SessionScopingException("There should have been no transaction GUID assigned yet for a new session scope."); 
+            explicitlyReadonlyScope.remove();
+            if (readonly) {
+                session.setFlushMode(FlushMode.MANUAL);
+                session.setDefaultReadOnly(true);
+                LOGGER.debug("Starting new read-only DB transaction");
+                tr.begin();
+                if (explicitlyReadonly) {
+                    explicitlyReadonlyScope.set(true);
+                    session.doWork(conn -> conn.setReadOnly(true));
+                }
+                LOGGER.debug("Started new read-only DB transaction");
+            } else {
+                session.setFlushMode(FlushMode.COMMIT);
+                session.setDefaultReadOnly(false);
+                LOGGER.debug("Starting new DB transaction");
+                tr.begin();
+                LOGGER.debug("Started new DB transaction");
+                
+                // generate a GUID for the current transaction
+                if (!StringUtils.isEmpty(transactionGuid.get())) {
+                    throw new SessionScopingException("There should have been no transaction GUID assigned yet for a new session scope."); 
+                }
+                final String guid = randomUUID().toString();
+                transactionGuid.set(guid);
+                invocationOwner.setTransactionGuid(guid);
+            }
+        } else if (!readonly) {
+            if (session.isDefaultReadOnly()) {
+                if (explicitlyReadonlyScope.get() != null) {
+                    throw new SessionScopingException(String.format("Read-write method [%s] cannot be invoked within a read-only session scope.", invocation.getMethod()));
+                }
+                fallBackToReadWrite(session);
             }
-            final String guid = randomUUID().toString();
-            transactionGuid.set(guid);
-            invocationOwner.setTransactionGuid(guid);
-        } else {
             // assigned a transaction GUID, which should already be generated
             final String guid = transactionGuid.get();
             if (StringUtils.isEmpty(guid)) {
@@ -92,25 +141,36 @@ public class SessionInterceptor implements MethodInterceptor {
             // if this is the invocation that activated the current transaction then we should commit it
             // but only of the result of invocation is not a stream -- in that case closing of the session is the responsibility of that stream
             if (shouldCommit && tr.isActive()) {
+                if (readonly && session.isDefaultReadOnly()) {
+                    flushesAvoided.incrementAndGet();
+                }
                 if (result instanceof Stream) {
                     ((Stream<?>) result).onClose(() -> {
                         try {
                             LOGGER.debug("Committing DB transaction on stream close.");
+                            resetReadonlyConnection(session);
                             tr.commit();
                             LOGGER.debug("Committed DB transaction on stream close.");
                         } catch (final Exception ex) {
                             LOGGER.fatal("Could not commit DB transaction on stream close.", ex);
                             throw ex;
                         } finally {
-                            transactionGuid.remove();
+                            clearScope();
                         }
                     });
                 } else {
                     LOGGER.debug("Committing DB transaction");
-                    tr.commit();
-                    transactionGuid.remove();
+                    try {
+                        resetReadonlyConnection(session);
+                        tr.commit();
+                    } finally {
+                        clearScope();
+                    }
                     LOGGER.debug("Committed DB transaction");
                 }
+            } else if (readonly && session.isDefaultReadOnly()) {
+                // nothing was modified by a read-only invocation, thus there is nothing to flush
+                flushesAvoided.incrementAndGet();
             } else if (session.isOpen()) {
                 // should flush only if the current session is still open
                 // this check was not needed before migrating off Hibernate 3.2.6 GA
@@ -121,12 +181,87 @@ public class SessionInterceptor implements MethodInterceptor {
             LOGGER.warn(e);
             if (tr.isActive()) { // if transaction is active and there was an exception then it should be rollbacked
                 LOGGER.debug("Rolling back DB transaction");
-                tr.rollback();
-                transactionGuid.remove();
+                try {
+                    resetReadonlyConnection(session);
+                    tr.rollback();
+                } finally {
+                    clearScope();
+                }
                 LOGGER.debug("Rolled back DB transaction");
             }
             throw e;
         }
     }
-    
+
+    /**
+     * Switches the current read-only session scope, which was inferred, to read-write for the rest of its transaction.
+     *
+     * @param session
+     */
+    private void fallBackToReadWrite(final Session session) {
+        LOGGER.debug("Falling back to read-write DB transaction");
+        session.setDefaultReadOnly(false);
+        session.setFlushMode(FlushMode.COMMIT);
+        if (StringUtils.isEmpty(transactionGuid.get())) {
+            transactionGuid.set(randomUUID().toString());
+        }
+    }
+
+    /**
+     * Resets the read-only flag of the JDBC connection of an explicitly read-only session scope. This should happen before completion of the transaction,
+     * as Hibernate returns the connection to the pool upon completion. The read-only property cannot be changed in the middle of a transaction by some drivers,
+     * therefore the read-only transaction is ended first, which is safe as nothing could have been modified by it.
+     *
+     * @param session
+     */
+    private void resetReadonlyConnection(final Session session) {
+        if (explicitlyReadonlyScope.get() != null) {
+            try {
+                session.doWork(conn -> {
+                    conn.rollback();
+                    conn.setReadOnly(false);
+                });
+            } finally {
+                explicitlyReadonlyScope.remove();
+            }
+        }
+    }
+
+    private void clearScope() {
+        transactionGuid.remove();
+        explicitlyReadonlyScope.remove();
+    }
+
+    /**
+     * Determines whether the invocation of <code>method</code> is read-only, which is either declared explicitly or inferred for query methods of {@link CommonEntityDao}.
+     *
+     * @param method
+     * @return
+     */
+    private boolean isReadonly(final Method method) {
+        final Boolean cached = readonlyMethods.get(method);
+        if (cached != null) {
+            return cached;
+        }
+        final SessionRequired annotation = method.getAnnotation(SessionRequired.class);
+        final boolean readonly = (annotation != null && annotation.readonly()) ||
+                (method.getDeclaringClass() == CommonEntityDao.class && QUERY_METHODS.contains(method.getName()) && !Stream.class.isAssignableFrom(method.getReturnType()));
+        readonlyMethods.putIfAbsent(method, readonly);
+        return readonly;
+    }
+
+    private static boolean isExplicitlyReadonly(final Method method) {
+        final SessionRequired annotation = method.getAnnotation(SessionRequired.class);
+        return annotation != null && annotation.readonly();
+    }
+
+    /**
+     * Returns the number of session flushes that were avoided due to read-only invocations.
+     *
+     * @return
+     */
+    public long getFlushesAvoided() {
+        return flushesAvoided.get();
+    }
+
 }
@@ -35,18 +35,52 @@ public class KeyNumberDao extends CommonEntityDao<KeyNumber> implements IKeyNumb
     @Override
     @SessionRequired
     public Integer nextNumber(final String key) {
-        KeyNumber number = findByKey(key); // find an instance
+        return reserveNumbers(key, 1);
+    }
+
+    /**
+     * Reserves a block of consecutive numbers under a pessimistic UPGRADE lock, which is held only till the end of the current transaction.
+     */
+    @Override
+    @SessionRequired
+    public Integer reserveNumbers(final String key, final int count) {
+        if (count < 1) {
+            throw new EntityCompanionException(format("The number of numbers to reserve should be positive, but was [%s].", count));
+        }
+        final KeyNumber number = lockOrCreate(key);
+        final Integer firstNo = Integer.parseInt(number.getValue()) + 1;
+        number.setValue(String.valueOf(firstNo + count - 1));
+        save(number);
+        return firstNo;
+    }
+
+    @Override
+    @SessionRequired
+    public boolean returnNumbers(final String key, final int from, final int to) {
+        if (from > to) {
+            return false;
+        }
+        final KeyNumber number = findByKey(key);
+        if (number == null) {
+            return false;
+        }
+        final KeyNumber lockedNumber = (KeyNumber) getSession().load(KeyNumber.class, number.getId(), LockOptions.UPGRADE);
+        if (Integer.parseInt(lockedNumber.getValue()) != to) {
+            return false;
+        }
+        lockedNumber.setValue(String.valueOf(from - 1));
+        save(lockedNumber);
+        return true;
+    }
+
+    private KeyNumber lockOrCreate(final String key) {
+        final KeyNumber number = findByKey(key); // find an instance
         if (number != null) {
             // re-fetch instance with pessimistic UPGRADE lock
-            number = (KeyNumber) getSession().load(KeyNumber.class, number.getId(), LockOptions.UPGRADE);
+            return (KeyNumber) getSession().load(KeyNumber.class, number.getId(), LockOptions.UPGRADE);
         } else { // this would most likely never happen since the target legacy db should already have some values in table NUMBERS
-            number = factory.newByKey(KeyNumber.class, key).setValue("0");
+            return factory.newByKey(KeyNumber.class, key).setValue("0");
         }
-
-        final Integer nextNo = Integer.parseInt(number.getValue()) + 1;
-        number.setValue(nextNo.toString());
-        save(number);
-        return nextNo;
     }
 
     /**
@@ -0,0 +1,155 @@
+package ua.com.fielden.platform.keygen;
+
+import static java.lang.String.format;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import ua.com.fielden.platform.dao.exceptions.EntityCompanionException;
+import ua.com.fielden.platform.entity.factory.ICompanionObjectFinder;
+
+/**
+ * An implementation of {@link IKeyNumberGenerator}, which reserves blocks of numbers (unless gap policy is {@link GapPolicy#NO_GAPS}) and hands them out from memory.
+ * <p>
+ * Numbers of the current block for each key are handed out by means of a lock-free counter. Once a block is exhausted, a new block is reserved by one of the callers while other callers for the same key wait.
+ * Blocks are reserved by a dedicated thread to ensure that each reservation happens in its own short transaction, which is not affected by the caller's transaction --
+ * otherwise, a rollback of the caller's transaction would return the reserved block to the database while it is still being used.
+ * <p>
+ * If there are several nodes (application instances) sharing the same database then each node reserves its own blocks, which means that numbers are unique, but not monotonic in time across nodes.
+ * <p>
+ * The generator should be shut down upon application shutdown (refer {@link #shutdown()}) to return unused numbers and stop the reservation thread.
+ *
+ * @author TG Team
+ *
+ */
+public class KeyNumberGenerator implements IKeyNumberGenerator {
+    private static final Logger LOGGER = Logger.getLogger(KeyNumberGenerator.class);
+
+    private final ICompanionObjectFinder coFinder;
+    private final int blockSize;
+    private final GapPolicy gapPolicy;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+    private final Map<String, Object> reservationLocks = new ConcurrentHashMap<>();
+    private final ExecutorService reserver = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "key-number-reserver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Inject
+    public KeyNumberGenerator(final ICompanionObjectFinder coFinder, final @Named("keygen.blockSize") int blockSize, final @Named("keygen.gapPolicy") GapPolicy gapPolicy) {
+        if (blockSize < 1) {
+            throw new EntityCompanionException(format("Block size for key numbers should be positive, but was [%s].", blockSize));
+        }
+        this.coFinder = coFinder;
+        this.blockSize = blockSize;
+        this.gapPolicy = gapPolicy;
+    }
+
+    @Override
+    public Integer nextNumber(final String key) {
+        if (gapPolicy == GapPolicy.NO_GAPS) {
+            return co().nextNumber(key);
+        }
+
+        while (true) {
+            final Block block = blocks.get(key);
+            if (block != null) {
+                final int number = block.next.getAndIncrement();
+                if (number <= block.last) {
+                    return number;
+                }
+            }
+            reserveBlock(key, block);
+        }
+    }
+
+    /**
+     * Reserves a new block for <code>key</code> unless the <code>exhausted</code> block has already been replaced by a concurrent caller.
+     */
+    private void reserveBlock(final String key, final Block exhausted) {
+        synchronized (reservationLocks.computeIfAbsent(key, k -> new Object())) {
+            if (blocks.get(key) != exhausted) {
+                return;
+            }
+            final Integer first = inReserverThread(() -> co().reserveNumbers(key, blockSize));
+            blocks.put(key, new Block(first, first + blockSize - 1));
+        }
+    }
+
+    @Override
+    public void releaseUnusedNumbers() {
+        for (final String key : blocks.keySet()) {
+            synchronized (reservationLocks.computeIfAbsent(key, k -> new Object())) {
+                final Block block = blocks.remove(key);
+                if (block == null) {
+                    continue;
+                }
+                // make sure no more numbers are handed out from the block being released
+                final int firstUnused = block.next.getAndSet(block.last + 1);
+                if (gapPolicy == GapPolicy.RETURN_UNUSED && firstUnused <= block.last) {
+                    final boolean returned = inReserverThread(() -> co().returnNumbers(key, firstUnused, block.last));
+                    if (!returned) {
+                        LOGGER.warn(format("Numbers [%s..%s] for key [%s] could not be returned as there were numbers reserved after them.", firstUnused, block.last, key));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            releaseUnusedNumbers();
+        } finally {
+            reserver.shutdown();
+        }
+    }
+
+    @Override
+    public GapPolicy gapPolicy() {
+        return gapPolicy;
+    }
+
+    private IKeyNumber co() {
+        return coFinder.find(KeyNumber.class);
+    }
+
+    private <R> R inReserverThread(final Callable<R> action) {
+        try {
+            return reserver.submit(action).get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new EntityCompanionException("Interrupted while reserving key numbers.", ex);
+        } catch (final ExecutionException ex) {
+            throw new EntityCompanionException("Could not reserve key numbers.", ex.getCause());
+        } catch (final RejectedExecutionException ex) {
+            throw new EntityCompanionException("Key number generator has been shut down.", ex);
+        }
+    }
+
+    /**
+     * A block of reserved numbers from <code>next</code> to <code>last</code> inclusive.
+     */
+    private static final class Block {
+        private final AtomicInteger next;
+        private final int last;
+
+        private Block(final int first, final int last) {
+            this.next = new AtomicInteger(first);
+            this.last = last;
+        }
+    }
+}
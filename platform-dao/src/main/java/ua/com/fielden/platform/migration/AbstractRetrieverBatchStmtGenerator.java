@@ -88,7 +88,7 @@ public abstract class AbstractRetrieverBatchStmtGenerator {
 
     protected Object transformValue(final Class type, final List<Object> values, final IdCache cache) {
         if (EntityUtils.isPersistedEntityType(type)) {
-            final Map<Object, Integer> cacheForType = cache.getCacheForType(type);
+            final KeyIdMap cacheForType = cache.getCacheForType(type);
             final Object entityKeyObject = values.size() == 1 ? values.get(0) : values;
             final Object result = cacheForType.get(entityKeyObject);
             if (values.size() == 1 && values.get(0) != null && result == null) {
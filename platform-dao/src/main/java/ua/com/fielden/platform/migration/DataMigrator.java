@@ -1,6 +1,8 @@
 package ua.com.fielden.platform.migration;
 
 import static java.lang.String.format;
+
+import java.nio.file.Path;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -11,12 +13,21 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -34,9 +45,21 @@ import ua.com.fielden.platform.entity.factory.ICompanionObjectFinder;
 import ua.com.fielden.platform.migration.RetrieverPropsValidator.RetrievedPropValidationError;
 import ua.com.fielden.platform.persistence.HibernateUtil;
 import ua.com.fielden.platform.types.markers.IUtcDateTimeType;
-
+import ua.com.fielden.platform.utils.EntityUtils;
+
+/**
+ * Migrates data from a legacy database by means of retrievers.
+ * <p>
+ * By default retrievers are processed one after another in the specified sequence. If more than one thread is specified then retrievers, which do not depend on each other,
+ * are processed in parallel. A retriever depends on all preceding retrievers that migrate data of its own type or of types it references.
+ * In this mode, each retriever obtains its own legacy connection from the injector (a provider of legacy connections should therefore create a new connection upon each request),
+ * and id ranges are pre-allocated for all retrievers based on the number of legacy records, which results in the same ids as during sequential migration.
+ * Retrieved records of large tables are inserted in parallel by partitions of {@link #PARTITION_SIZE} records.
+ */
 public class DataMigrator {
     private static final String LONG_BREAK = "\n\n\n";
+    /** The number of records to be inserted in a single transaction by a worker during parallel migration. */
+    public static final int PARTITION_SIZE = 50_000;
 
     private static final Logger LOGGER = Logger.getLogger(DataMigrator.class);
 
@@ -46,20 +69,37 @@ public class DataMigrator {
     private final DomainMetadataAnalyser dma;
     private final boolean includeDetails;
     private final IdCache cache;
+    private final int threads;
 
     private final TimeZone utcTz = TimeZone.getTimeZone("UTC");
-    private final Calendar utcCal = Calendar.getInstance(utcTz);
+    private final ThreadLocal<Calendar> utcCal = ThreadLocal.withInitial(() -> Calendar.getInstance(utcTz));
 
     public DataMigrator(final Injector injector, final HibernateUtil hiberUtil,
             final boolean skipValidations, final boolean includeDetails, final Class... retrieversClasses) throws SQLException {
+        this(injector, hiberUtil, skipValidations, includeDetails, 1, retrieversClasses);
+    }
+
+    public DataMigrator(final Injector injector, final HibernateUtil hiberUtil,
+            final boolean skipValidations, final boolean includeDetails, final int threads, final Class... retrieversClasses) throws SQLException {
+        this(injector, hiberUtil, skipValidations, includeDetails, threads, (Path) null, retrieversClasses);
+    }
+
+    /**
+     * Performs data migration.
+     *
+     * @param threads -- the number of threads for parallel migration; retrievers are processed sequentially if 1.
+     * @param idCacheDirectory -- a directory for memory-mapped files of the id cache; the id cache is kept in direct memory if <code>null</code>.
+     */
+    public DataMigrator(final Injector injector, final HibernateUtil hiberUtil,
+            final boolean skipValidations, final boolean includeDetails, final int threads, final Path idCacheDirectory, final Class... retrieversClasses) throws SQLException {
         final DateTime start = new DateTime();
         this.injector = injector;
         this.hiberUtil = hiberUtil;
+        this.threads = threads;
         dma = new DomainMetadataAnalyser(injector.getInstance(DomainMetadata.class));
         retrievers.addAll(instantiateRetrievers(injector, retrieversClasses));
         this.includeDetails = includeDetails;
-        final Connection conn = injector.getInstance(Connection.class);
-        cache = new IdCache(injector.getInstance(ICompanionObjectFinder.class), dma);
+        cache = new IdCache(injector.getInstance(ICompanionObjectFinder.class), dma, idCacheDirectory);
 
         for (final IRetriever<? extends AbstractEntity<?>> ret : retrievers) {
             if (!ret.isUpdater()) {
@@ -67,22 +107,26 @@ public class DataMigrator {
             }
         }
 
-        if (!skipValidations) {
-            for (final IRetriever<? extends AbstractEntity<?>> ret : retrievers) {
-                LOGGER.debug("Checking props for [" + ret.getClass().getSimpleName() + "]");
-                final SortedMap<String, RetrievedPropValidationError> checkResult = new RetrieverPropsValidator(dma, ret).validate();
-                if (checkResult.size() > 0) {
-                    LOGGER.error("The following issues have been revealed for props in [" + ret.getClass().getSimpleName() + "]:\n " + checkResult);
+        final Integer finalId;
+        // the legacy connection provider opens a new connection upon every request, which should be closed once no longer needed
+        try (final Connection conn = injector.getInstance(Connection.class)) {
+            if (!skipValidations) {
+                for (final IRetriever<? extends AbstractEntity<?>> ret : retrievers) {
+                    LOGGER.debug("Checking props for [" + ret.getClass().getSimpleName() + "]");
+                    final SortedMap<String, RetrievedPropValidationError> checkResult = new RetrieverPropsValidator(dma, ret).validate();
+                    if (checkResult.size() > 0) {
+                        LOGGER.error("The following issues have been revealed for props in [" + ret.getClass().getSimpleName() + "]:\n " + checkResult);
+                    }
                 }
+                checkEmptyStrings(dma, conn);
+                checkRequiredness(dma, conn);
+                checkDataIntegrity(dma, conn);
+                validateRetrievalSql(dma, conn);
             }
-            checkEmptyStrings(dma, conn);
-            checkRequiredness(dma, conn);
-            checkDataIntegrity(dma, conn);
-            validateRetrievalSql(dma);
-        }
 
-        final Integer initialId = getLastId();
-        final Integer finalId = batchInsert(dma, conn, initialId);
+            final Integer initialId = getLastId();
+            finalId = threads > 1 ? parallelBatchInsert(dma, initialId) : batchInsert(dma, conn, initialId);
+        }
         final Period pd = new Period(start, new DateTime());
 
         final List<String> sql = new ArrayList<>();
@@ -238,9 +282,8 @@ public class DataMigrator {
 
     }
 
-    private void validateRetrievalSql(final DomainMetadataAnalyser dma) {
+    private void validateRetrievalSql(final DomainMetadataAnalyser dma, final Connection conn) {
         boolean foundErrors = false;
-        final Connection conn = injector.getInstance(Connection.class);
         for (final IRetriever<? extends AbstractEntity<?>> ret : retrievers) {
             if (validateRetrievalSqlForKeyFieldsUniqueness(dma, ret, conn)) {
                 foundErrors = true;
@@ -274,14 +317,225 @@ public class DataMigrator {
         return id;
     }
 
+    /**
+     * Migrates data by processing independent retrievers in parallel. Returns the last allocated id.
+     */
+    private Integer parallelBatchInsert(final DomainMetadataAnalyser dma, final int startingId) throws SQLException {
+        final RetrieverSqlProducer rsp = new RetrieverSqlProducer(dma);
+
+        // pre-allocate id ranges for inserting retrievers in the order of their sequence
+        final Map<IRetriever<? extends AbstractEntity<?>>, Integer> startingIds = new IdentityHashMap<>();
+        final Map<IRetriever<? extends AbstractEntity<?>>, Integer> counts = new IdentityHashMap<>();
+        int id = startingId;
+        try (final Connection legacyConn = injector.getInstance(Connection.class)) {
+            for (final IRetriever<? extends AbstractEntity<?>> retriever : retrievers) {
+                if (!retriever.isUpdater()) {
+                    final int count = countRecords(rsp, retriever, legacyConn);
+                    startingIds.put(retriever, id);
+                    counts.put(retriever, count);
+                    id = id + count;
+                }
+            }
+        }
+
+        final Map<IRetriever<? extends AbstractEntity<?>>, Set<IRetriever<? extends AbstractEntity<?>>>> dependencies = determineDependencies(dma, retrievers);
+        final ExecutorService readers = Executors.newFixedThreadPool(threads, newThreadFactory("migration-reader"));
+        final ExecutorService writers = Executors.newFixedThreadPool(threads, newThreadFactory("migration-writer"));
+        try {
+            final Map<IRetriever<? extends AbstractEntity<?>>, CompletableFuture<Void>> tasks = new IdentityHashMap<>();
+            for (final IRetriever<? extends AbstractEntity<?>> retriever : retrievers) {
+                final CompletableFuture<?>[] prerequisites = dependencies.get(retriever).stream().map(tasks::get).toArray(CompletableFuture[]::new);
+                tasks.put(retriever, CompletableFuture.allOf(prerequisites).thenRunAsync(() -> {
+                    try {
+                        if (retriever.isUpdater()) {
+                            try (final Connection legacyConn = injector.getInstance(Connection.class);
+                                 final Statement legacyStmt = legacyConn.createStatement();
+                                 final ResultSet legacyRs = legacyStmt.executeQuery(rsp.getSql(retriever))) {
+                                performBatchUpdates(new RetrieverBatchUpdateStmtGenerator(dma, retriever), legacyRs);
+                            }
+                        } else {
+                            performPartitionedBatchInserts(new RetrieverBatchInsertStmtGenerator(dma, retriever), rsp, startingIds.get(retriever), counts.get(retriever), writers);
+                        }
+                    } catch (final SQLException ex) {
+                        throw new CompletionException(ex);
+                    }
+                }, readers));
+            }
+            CompletableFuture.allOf(tasks.values().toArray(new CompletableFuture[tasks.size()])).join();
+        } catch (final CompletionException ex) {
+            throw ex.getCause() instanceof SQLException ? (SQLException) ex.getCause() : new SQLException("Parallel data migration has failed.", ex.getCause());
+        } finally {
+            readers.shutdown();
+            writers.shutdown();
+        }
+
+        return id;
+    }
+
+    private static int countRecords(final RetrieverSqlProducer rsp, final IRetriever<? extends AbstractEntity<?>> retriever, final Connection legacyConn) throws SQLException {
+        try (final Statement st = legacyConn.createStatement();
+             final ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM (" + rsp.getSql(retriever) + ") T")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Determines prerequisites for each retriever, which are preceding retrievers that migrate data of the same type or of types referenced by the retriever,
+     * and preceding retrievers that reference the type of the retriever. The latter ones should resolve references against the data, which existed before the retriever ran,
+     * exactly as they do when retrievers are run sequentially.
+     */
+    static Map<IRetriever<? extends AbstractEntity<?>>, Set<IRetriever<? extends AbstractEntity<?>>>> determineDependencies(final DomainMetadataAnalyser dma, final List<IRetriever<? extends AbstractEntity<?>>> retrievers) {
+        final Map<IRetriever<? extends AbstractEntity<?>>, Set<IRetriever<? extends AbstractEntity<?>>>> result = new IdentityHashMap<>();
+        final Map<IRetriever<? extends AbstractEntity<?>>, Set<Class<?>>> typesByRetriever = new IdentityHashMap<>();
+        final List<IRetriever<? extends AbstractEntity<?>>> preceding = new ArrayList<>();
+        for (final IRetriever<? extends AbstractEntity<?>> retriever : retrievers) {
+            final Set<Class<?>> types = new LinkedHashSet<>();
+            types.add(retriever.type());
+            final SortedMap<String, PropertyMetadata> props = dma.getPersistedEntityMetadata(retriever.type()).getProps();
+            for (final String prop : EntityUtils.getFirstLevelProps(retriever.resultFields().keySet())) {
+                final PropertyMetadata propMetadata = props.get(prop);
+                if (propMetadata != null && EntityUtils.isPersistedEntityType(propMetadata.getJavaType())) {
+                    types.add(propMetadata.getJavaType());
+                }
+            }
+
+            final Set<IRetriever<? extends AbstractEntity<?>>> prerequisites = new LinkedHashSet<>();
+            for (final IRetriever<? extends AbstractEntity<?>> candidate : preceding) {
+                if (types.contains(candidate.type()) || typesByRetriever.get(candidate).contains(retriever.type())) {
+                    prerequisites.add(candidate);
+                }
+            }
+            typesByRetriever.put(retriever, types);
+            result.put(retriever, prerequisites);
+            preceding.add(retriever);
+        }
+        return result;
+    }
+
+    /**
+     * Reads legacy records for an inserting retriever, assigning ids from the pre-allocated range, and passes partitions of transformed records to <code>writers</code> for insertion.
+     * The number of partitions in progress is limited to the number of threads in order to limit memory consumption.
+     */
+    private void performPartitionedBatchInserts(final RetrieverBatchInsertStmtGenerator rbsg, final RetrieverSqlProducer rsp, final int startingId, final int expectedCount, final ExecutorService writers) throws SQLException {
+        final String retrieverName = rbsg.getRetriever().getClass().getSimpleName();
+        final List<Integer> indexFields = rbsg.produceKeyFieldsIndices();
+        final DateTime start = new DateTime();
+        final Map<String, List<List<Object>>> exceptions = new HashMap<>();
+        final KeyIdMap typeCache = cache.getCacheForType(rbsg.getRetriever().type());
+        final Semaphore partitionsInProgress = new Semaphore(threads);
+        final List<CompletableFuture<Void>> partitions = new ArrayList<>();
+        final AtomicInteger insertedCount = new AtomicInteger();
+
+        int id = startingId;
+        try (final Connection legacyConn = injector.getInstance(Connection.class);
+             final Statement legacyStmt = legacyConn.createStatement();
+             final ResultSet legacyRs = legacyStmt.executeQuery(rsp.getSql(rbsg.getRetriever()))) {
+            List<List<Object>> partition = new ArrayList<>();
+            while (legacyRs.next()) {
+                id = id + 1;
+                if (id > startingId + expectedCount) {
+                    throw new SQLException(format("Retriever [%s] returned more than the [%s] counted records, which were pre-allocated ids.", retrieverName, expectedCount));
+                }
+                final List<Object> keyValue = new ArrayList<>();
+                for (final Integer keyIndex : indexFields) {
+                    keyValue.add(legacyRs.getObject(keyIndex.intValue()));
+                }
+                typeCache.put(keyValue.size() == 1 ? keyValue.get(0) : keyValue, id);
+                partition.add(rbsg.transformValuesForInsert(legacyRs, cache, id));
+
+                if (partition.size() == PARTITION_SIZE) {
+                    partitions.add(submitPartition(rbsg, partition, exceptions, insertedCount, partitionsInProgress, writers));
+                    partition = new ArrayList<>();
+                }
+            }
+            if (!partition.isEmpty()) {
+                partitions.add(submitPartition(rbsg, partition, exceptions, insertedCount, partitionsInProgress, writers));
+            }
+        }
+        CompletableFuture.allOf(partitions.toArray(new CompletableFuture[partitions.size()])).join();
+
+        LOGGER.info(generateFinalMessage(start, retrieverName, typeCache.size(), insertedCount.get(), rbsg.getInsertStmt(), exceptions));
+    }
+
+    private CompletableFuture<Void> submitPartition(
+            final RetrieverBatchInsertStmtGenerator rbsg,
+            final List<List<Object>> partition,
+            final Map<String, List<List<Object>>> exceptions,
+            final AtomicInteger insertedCount,
+            final Semaphore partitionsInProgress,
+            final ExecutorService writers) throws SQLException {
+        try {
+            partitionsInProgress.acquire();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a partition to be inserted.", ex);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                final Map<String, List<List<Object>>> partitionExceptions = insertPartition(rbsg, partition);
+                synchronized (exceptions) {
+                    for (final Entry<String, List<List<Object>>> entry : partitionExceptions.entrySet()) {
+                        exceptions.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
+                    }
+                }
+                insertedCount.addAndGet(partition.size());
+            } catch (final SQLException ex) {
+                throw new CompletionException(ex);
+            } finally {
+                partitionsInProgress.release();
+            }
+        }, writers);
+    }
+
+    /**
+     * Inserts transformed records in a separate transaction, returning the exceptions that occurred.
+     */
+    private Map<String, List<List<Object>>> insertPartition(final RetrieverBatchInsertStmtGenerator rbsg, final List<List<Object>> partition) throws SQLException {
+        final Map<String, List<List<Object>>> exceptions = new HashMap<>();
+        final Transaction tr = hiberUtil.getSessionFactory().getCurrentSession().beginTransaction();
+        final Connection targetConn = hiberUtil.getSessionFactory().getCurrentSession().connection();
+        try (final PreparedStatement insertStmt = targetConn.prepareStatement(rbsg.getInsertStmt())) {
+            final List<List<Object>> batchValues = new ArrayList<>();
+            for (final List<Object> values : partition) {
+                int index = 1;
+                batchValues.add(values);
+                for (final Object value : values) {
+                    transformIfUtcValueAndSet(rbsg.insertFields.get(index - 1), insertStmt, index, value);
+                    index = index + 1;
+                }
+                insertStmt.addBatch();
+
+                if ((batchValues.size() % 100) == 0) {
+                    repeatAction(insertStmt, batchValues, exceptions);
+                    batchValues.clear();
+                    insertStmt.clearBatch();
+                }
+            }
+
+            if (!batchValues.isEmpty()) {
+                repeatAction(insertStmt, batchValues, exceptions);
+            }
+
+            tr.commit();
+        }
+        return exceptions;
+    }
+
+    private static ThreadFactory newThreadFactory(final String name) {
+        final AtomicInteger number = new AtomicInteger();
+        return runnable -> new Thread(runnable, name + "-" + number.incrementAndGet());
+    }
+
     private void performBatchUpdates(final RetrieverBatchUpdateStmtGenerator rbsg, final ResultSet legacyRs) throws SQLException {
         final String insertSql = rbsg.getInsertStmt();
         final List<Integer> indexFields = rbsg.produceKeyFieldsIndices();
         final DateTime start = new DateTime();
         final Map<String, List<List<Object>>> exceptions = new HashMap<>();
-        final Map<Object, Integer> typeCache = cache.getCacheForType(rbsg.getRetriever().type());
+        final KeyIdMap typeCache = cache.getCacheForType(rbsg.getRetriever().type());
         final Transaction tr = hiberUtil.getSessionFactory().getCurrentSession().beginTransaction();
         final Connection targetConn = hiberUtil.getSessionFactory().getCurrentSession().connection();
+        int updatedCount = 0;
         try (final PreparedStatement insertStmt = targetConn.prepareStatement(insertSql)) {
             int batchId = 0;
             final List<List<Object>> batchValues = new ArrayList<>();
@@ -314,8 +568,9 @@ public class DataMigrator {
             }
 
             tr.commit();
+            updatedCount = batchId;
         }
-        LOGGER.info(generateFinalMessage(start, rbsg.getRetriever().getClass().getSimpleName(), typeCache.size(), insertSql, exceptions));
+        LOGGER.info(generateFinalMessage(start, rbsg.getRetriever().getClass().getSimpleName(), typeCache.size(), updatedCount, insertSql, exceptions));
 
     }
 
@@ -324,7 +579,7 @@ public class DataMigrator {
         final List<Integer> indexFields = rbsg.produceKeyFieldsIndices();
         final DateTime start = new DateTime();
         final Map<String, List<List<Object>>> exceptions = new HashMap<>();
-        final Map<Object, Integer> typeCache = cache.getCacheForType(rbsg.getRetriever().type());
+        final KeyIdMap typeCache = cache.getCacheForType(rbsg.getRetriever().type());
         final Transaction tr = hiberUtil.getSessionFactory().getCurrentSession().beginTransaction();
         final Connection targetConn = hiberUtil.getSessionFactory().getCurrentSession().connection();
         try (final PreparedStatement insertStmt = targetConn.prepareStatement(insertSql)) {
@@ -363,7 +618,7 @@ public class DataMigrator {
     
             tr.commit();
             
-            LOGGER.info(generateFinalMessage(start, rbsg.getRetriever().getClass().getSimpleName(), typeCache.size(), insertSql, exceptions));
+            LOGGER.info(generateFinalMessage(start, rbsg.getRetriever().getClass().getSimpleName(), typeCache.size(), batchId, insertSql, exceptions));
             return id;
         }
     }
@@ -380,16 +635,19 @@ public class DataMigrator {
     private void transformIfUtcValueAndSet(final PropertyMetadata propMetadata, final PreparedStatement insertStmt, final int index, final Object value) throws SQLException {
         if (propMetadata.getHibTypeAsUserType() instanceof IUtcDateTimeType) {
             final Timestamp ts = (Timestamp) value;
-            insertStmt.setTimestamp(index, ts, utcCal);
+            insertStmt.setTimestamp(index, ts, utcCal.get());
         } else {
             insertStmt.setObject(index, value);
         }
     }
 
-    private String generateFinalMessage(final DateTime start, final String retrieverName, final int entitiesCount, final String insertSql, final Map<String, List<List<Object>>> exceptions) {
-        final Period pd = new Period(start, new DateTime());
+    private String generateFinalMessage(final DateTime start, final String retrieverName, final int entitiesCount, final int recordsCount, final String insertSql, final Map<String, List<List<Object>>> exceptions) {
+        final DateTime end = new DateTime();
+        final Period pd = new Period(start, end);
+        final long millis = Math.max(1, end.getMillis() - start.getMillis());
         final StringBuilder sb = new StringBuilder();
-        sb.append(retrieverName + " -- duration: " + pd.getMinutes() + " m " + pd.getSeconds() + " s " + pd.getMillis() + " ms. Entities count: " + entitiesCount + "\n");
+        sb.append(retrieverName + " -- duration: " + pd.getMinutes() + " m " + pd.getSeconds() + " s " + pd.getMillis() + " ms. Entities count: " + entitiesCount
+                + ". Throughput: " + (recordsCount * 1000L / millis) + " records/s\n");
         if (exceptions.size() > 0) {
             sb.append(StringUtils.repeat(" ", retrieverName.length()) + " -- SQL: " + insertSql + "\n");
             sb.append(StringUtils.repeat(" ", retrieverName.length()) + " -- exceptions:\n");
@@ -3,42 +3,60 @@ package ua.com.fielden.platform.migration;
 import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.from;
 import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.select;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import ua.com.fielden.platform.dao.DomainMetadataAnalyser;
 import ua.com.fielden.platform.dao.IEntityDao;
 import ua.com.fielden.platform.entity.AbstractEntity;
 import ua.com.fielden.platform.entity.factory.ICompanionObjectFinder;
+import ua.com.fielden.platform.entity.query.EntityAggregates;
+import ua.com.fielden.platform.entity.query.fluent.EntityQueryProgressiveInterfaces.ISubsequentCompletedAndYielded;
+import ua.com.fielden.platform.entity.query.model.AggregatedResultQueryModel;
 import ua.com.fielden.platform.reflection.Finder;
 
+/**
+ * A cache of ids for migrated entities by their keys, which is used for resolving references between migrated entities.
+ * <p>
+ * Ids of entities that were not migrated during the current migration, but are referenced, are loaded from the target database by means of a scalar query,
+ * which yields only ids and key members.
+ * Ids are stored in compact {@link KeyIdMap} instances, which can be spilled to memory-mapped files in case a spill directory is specified.
+ */
 public class IdCache {
-    private final Map<Class<?>, Map<Object, Integer>> cache = new HashMap<>();
+    private static final int FETCH_SIZE = 10_000;
+    private static final String KEY_ALIAS = "k";
+
+    private final Map<Class<?>, KeyIdMap> cache = new ConcurrentHashMap<>();
     private final DomainMetadataAnalyser dma;
     private final ICompanionObjectFinder coFinder;
+    private final Path spillDirectory;
 
     public IdCache(final ICompanionObjectFinder coFinder, final DomainMetadataAnalyser dma) {
+        this(coFinder, dma, null);
+    }
+
+    /**
+     * Creates a cache, which stores keys in memory-mapped files within <code>spillDirectory</code>, or off-heap in direct buffers if <code>spillDirectory</code> is <code>null</code>.
+     */
+    public IdCache(final ICompanionObjectFinder coFinder, final DomainMetadataAnalyser dma, final Path spillDirectory) {
         this.coFinder = coFinder;
         this.dma = dma;
+        this.spillDirectory = spillDirectory;
     }
 
     protected void registerCacheForType(final Class<? extends AbstractEntity<?>> entityType) {
-        if (!cache.containsKey(entityType)) {
-            cache.put(entityType, new HashMap<Object, Integer>());
-        }
+        cache.putIfAbsent(entityType, new KeyIdMap(spillDirectory));
     }
 
-    protected Map<Object, Integer> getCacheForType(final Class<? extends AbstractEntity<?>> entityType) {
-        if (!cache.containsKey(entityType)) {
-            cache.put(entityType, retrieveData(entityType));
-        }
-
-        return cache.get(entityType);
+    protected KeyIdMap getCacheForType(final Class<? extends AbstractEntity<?>> entityType) {
+        return cache.computeIfAbsent(entityType, type -> retrieveData(entityType));
     }
 
     private SortedSet<String> getKeyFields(final Class<? extends AbstractEntity<?>> entityType) {
@@ -46,29 +64,38 @@ public class IdCache {
         return new TreeSet<>(dma.getLeafPropsFromFirstLevelProps(null, entityType, new HashSet<String>(keyMembersFirstLevelProps)));
     }
 
-    private Object prepareValueForCache(final AbstractEntity<?> entity, final SortedSet<String> fields) {
-        if (fields.size() == 1) {
-            return entity.getKey();
+    private static Object prepareValueForCache(final EntityAggregates keyAndId, final int keyFieldsCount) {
+        if (keyFieldsCount == 1) {
+            return keyAndId.get(KEY_ALIAS + 0);
         } else {
-            final List<Object> result = new ArrayList<>();
-            for (final String field : fields) {
-                result.add(entity.get(field).toString());
+            final List<Object> result = new ArrayList<>(keyFieldsCount);
+            for (int index = 0; index < keyFieldsCount; index++) {
+                final Object value = keyAndId.get(KEY_ALIAS + index);
+                result.add(value == null ? null : value.toString());
             }
             return result;
         }
     }
 
-    private Map<Object, Integer> retrieveData(final Class<? extends AbstractEntity<?>> entityType) {
-        final IEntityDao co = coFinder.find(entityType);
-        
-        final Map<Object, Integer> result = new HashMap<>();
-        final List<AbstractEntity<?>> entities = co.getAllEntities(from(select(entityType).model()).model());
+    private static <T extends AbstractEntity<?>> AggregatedResultQueryModel keysAndIdsQuery(final Class<T> entityType, final SortedSet<String> keyFields) {
+        ISubsequentCompletedAndYielded<T> query = select(entityType).yield().prop(AbstractEntity.ID).as(AbstractEntity.ID);
+        int index = 0;
+        for (final String keyField : keyFields) {
+            query = query.yield().prop(keyField).as(KEY_ALIAS + index);
+            index = index + 1;
+        }
+        return query.modelAsAggregate();
+    }
+
+    private KeyIdMap retrieveData(final Class<? extends AbstractEntity<?>> entityType) {
+        final IEntityDao<EntityAggregates> co = coFinder.find(EntityAggregates.class);
 
+        final KeyIdMap result = new KeyIdMap(spillDirectory);
         final SortedSet<String> keyFields = getKeyFields(entityType);
-        for (final AbstractEntity<?> abstractEntity : entities) {
-            result.put(prepareValueForCache(abstractEntity, keyFields), abstractEntity.getId().intValue());
+        try (final Stream<EntityAggregates> keysAndIds = co.stream(from(keysAndIdsQuery(entityType, keyFields)).lightweight().model(), FETCH_SIZE)) {
+            keysAndIds.forEach(keyAndId -> result.put(prepareValueForCache(keyAndId, keyFields.size()), ((Number) keyAndId.get(AbstractEntity.ID)).intValue()));
         }
 
         return result;
     }
-}
\ No newline at end of file
+}
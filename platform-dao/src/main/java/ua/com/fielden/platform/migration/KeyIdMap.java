@@ -0,0 +1,267 @@
+package ua.com.fielden.platform.migration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact map from entity keys to ids, which is used by {@link IdCache} during data migration.
+ * <p>
+ * Keys (single values or lists of values for composite keys) are encoded into bytes and stored outside of the Java heap -- either in direct byte buffers or, if a spill directory is specified,
+ * in memory-mapped temporary files. The heap holds only an open-addressing hash table of primitive arrays with hashes, addresses of encoded keys and ids, which takes 16 bytes per entry.
+ * <p>
+ * The encoding preserves the <code>equals</code> semantics of supported value types (strings, numbers, booleans, characters and dates), so that lookups succeed for exactly the same keys as
+ * with a {@link HashMap}. Keys with values of other types are kept in a regular {@link HashMap}.
+ * <p>
+ * Instances are not thread-safe for concurrent modification. Concurrent lookups are safe if they happen after all modifications.
+ *
+ * @author TG Team
+ *
+ */
+public class KeyIdMap {
+    private static final int FIRST_PAGE_SIZE = 1 << 16;
+    private static final int MAX_PAGE_SIZE = 1 << 24;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final long EMPTY = -1;
+
+    private final Path spillDirectory;
+    private final List<ByteBuffer> pages = new ArrayList<>();
+    private final Map<Object, Integer> fallback = new HashMap<>();
+
+    private int[] hashes;
+    private long[] addresses;
+    private int[] ids;
+    private int size;
+
+    /**
+     * Creates a map, which stores encoded keys in direct byte buffers.
+     */
+    public KeyIdMap() {
+        this(null);
+    }
+
+    /**
+     * Creates a map, which stores encoded keys in temporary files memory-mapped from <code>spillDirectory</code>, or in direct byte buffers if <code>spillDirectory</code> is <code>null</code>.
+     */
+    public KeyIdMap(final Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        allocateTable(16);
+    }
+
+    public Integer get(final Object key) {
+        final byte[] encoded = encode(key);
+        if (encoded == null) {
+            return fallback.get(key);
+        }
+        final int hash = hash(encoded);
+        final int mask = addresses.length - 1;
+        for (int slot = hash & mask; addresses[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && matches(addresses[slot], encoded)) {
+                return ids[slot];
+            }
+        }
+        return null;
+    }
+
+    public void put(final Object key, final int id) {
+        final byte[] encoded = encode(key);
+        if (encoded == null || encoded.length > MAX_PAGE_SIZE - 4) {
+            if (fallback.put(key, id) == null) {
+                size++;
+            }
+            return;
+        }
+        final int hash = hash(encoded);
+        final int mask = addresses.length - 1;
+        int slot = hash & mask;
+        for (; addresses[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && matches(addresses[slot], encoded)) {
+                ids[slot] = id;
+                return;
+            }
+        }
+        hashes[slot] = hash;
+        addresses[slot] = store(encoded);
+        ids[slot] = id;
+        size++;
+        if (size > addresses.length * LOAD_FACTOR) {
+            rehash();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void allocateTable(final int capacity) {
+        hashes = new int[capacity];
+        addresses = new long[capacity];
+        Arrays.fill(addresses, EMPTY);
+        ids = new int[capacity];
+    }
+
+    /**
+     * Doubles the capacity of the hash table. Encoded keys stay in place as only their addresses are moved.
+     */
+    private void rehash() {
+        final int[] oldHashes = hashes;
+        final long[] oldAddresses = addresses;
+        final int[] oldIds = ids;
+        allocateTable(oldAddresses.length * 2);
+        final int mask = addresses.length - 1;
+        for (int index = 0; index < oldAddresses.length; index++) {
+            if (oldAddresses[index] != EMPTY) {
+                int slot = oldHashes[index] & mask;
+                while (addresses[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[index];
+                addresses[slot] = oldAddresses[index];
+                ids[slot] = oldIds[index];
+            }
+        }
+    }
+
+    /**
+     * Stores the encoded key, prefixed with its length, and returns its address -- a page index in the high and an offset in the low 32 bits.
+     */
+    private long store(final byte[] encoded) {
+        final int required = encoded.length + 4;
+        ByteBuffer page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+        if (page == null || page.remaining() < required) {
+            final int previousSize = page == null ? FIRST_PAGE_SIZE / 2 : page.capacity();
+            int pageSize = Math.min(MAX_PAGE_SIZE, previousSize * 2);
+            while (pageSize < required) {
+                pageSize = pageSize * 2;
+            }
+            page = allocatePage(pageSize);
+            pages.add(page);
+        }
+        final int offset = page.position();
+        page.putInt(encoded.length);
+        page.put(encoded);
+        return ((long) (pages.size() - 1) << 32) | offset;
+    }
+
+    private ByteBuffer allocatePage(final int pageSize) {
+        if (spillDirectory == null) {
+            return ByteBuffer.allocateDirect(pageSize);
+        }
+        try {
+            final File file = File.createTempFile("id-cache-", ".bin", spillDirectory.toFile());
+            file.deleteOnExit();
+            try (final RandomAccessFile raf = new RandomAccessFile(file, "rw"); final FileChannel channel = raf.getChannel()) {
+                return channel.map(MapMode.READ_WRITE, 0, pageSize);
+            }
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Could not allocate a memory-mapped page for the id cache.", ex);
+        }
+    }
+
+    private boolean matches(final long address, final byte[] encoded) {
+        final ByteBuffer page = pages.get((int) (address >>> 32));
+        final int offset = (int) address;
+        if (page.getInt(offset) != encoded.length) {
+            return false;
+        }
+        for (int index = 0; index < encoded.length; index++) {
+            if (page.get(offset + 4 + index) != encoded[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(final byte[] encoded) {
+        int hash = 0x811C9DC5;
+        for (final byte b : encoded) {
+            hash = (hash ^ b) * 0x01000193;
+        }
+        // spread higher bits to the lower ones, which are used for indexing
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Encodes a key into bytes or returns <code>null</code> if the key contains values of unsupported types.
+     */
+    static byte[] encode(final Object key) {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        final ByteBuffer result = key instanceof List ? encodeList(buffer, (List<?>) key) : encodeValue(buffer, key);
+        if (result == null) {
+            return null;
+        }
+        return Arrays.copyOf(result.array(), result.position());
+    }
+
+    private static ByteBuffer encodeList(final ByteBuffer buffer, final List<?> values) {
+        ByteBuffer result = ensure(buffer, 5).put((byte) 'L').putInt(values.size());
+        for (final Object value : values) {
+            result = encodeValue(result, value);
+            if (result == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    private static ByteBuffer encodeValue(final ByteBuffer buffer, final Object value) {
+        if (value == null) {
+            return ensure(buffer, 1).put((byte) 'N');
+        } else if (value instanceof String) {
+            return encodeBytes(buffer, 'S', ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Integer) {
+            return ensure(buffer, 5).put((byte) 'I').putInt((Integer) value);
+        } else if (value instanceof Long) {
+            return ensure(buffer, 9).put((byte) 'J').putLong((Long) value);
+        } else if (value instanceof Short) {
+            return ensure(buffer, 3).put((byte) 'H').putShort((Short) value);
+        } else if (value instanceof Byte) {
+            return ensure(buffer, 2).put((byte) 'B').put((Byte) value);
+        } else if (value instanceof Boolean) {
+            return ensure(buffer, 2).put((byte) 'Z').put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Character) {
+            return ensure(buffer, 3).put((byte) 'C').putChar((Character) value);
+        } else if (value instanceof Double) {
+            return ensure(buffer, 9).put((byte) 'D').putLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Float) {
+            return ensure(buffer, 5).put((byte) 'F').putInt(Float.floatToIntBits((Float) value));
+        } else if (value instanceof BigDecimal) {
+            // the string representation is unique for each combination of unscaled value and scale, which are both considered by BigDecimal.equals
+            return encodeBytes(buffer, 'M', value.toString().getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof BigInteger) {
+            return encodeBytes(buffer, 'G', ((BigInteger) value).toByteArray());
+        } else if (value instanceof Timestamp) {
+            return ensure(buffer, 13).put((byte) 'T').putLong(((Timestamp) value).getTime()).putInt(((Timestamp) value).getNanos());
+        } else if (value instanceof Date) {
+            return ensure(buffer, 9).put((byte) 'W').putLong(((Date) value).getTime());
+        }
+        return null;
+    }
+
+    private static ByteBuffer encodeBytes(final ByteBuffer buffer, final char tag, final byte[] bytes) {
+        return ensure(buffer, 5 + bytes.length).put((byte) tag).putInt(bytes.length).put(bytes);
+    }
+
+    private static ByteBuffer ensure(final ByteBuffer buffer, final int required) {
+        if (buffer.remaining() >= required) {
+            return buffer;
+        }
+        final ByteBuffer result = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        buffer.flip();
+        return result.put(buffer);
+    }
+}
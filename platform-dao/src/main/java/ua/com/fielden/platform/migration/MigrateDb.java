@@ -1,5 +1,7 @@
 package ua.com.fielden.platform.migration;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -109,7 +111,7 @@ public class MigrateDb {
 
     private enum CmdParams {
         LIMIT_TO("-limitTo"), RESET_PASSWORDS("-resetPasswords"), DETAILS("-details"), CREATE_DB_SCHEMA("-createSchema"), PRINT_DB_SCHEMA("-printSchema"), SKIP_VALIDATIONS(
-                "-skipValidations");
+                "-skipValidations"), THREADS("-threads"), ID_CACHE_DIR("-idCacheDir");
 
         private final String value;
 
@@ -134,6 +136,20 @@ public class MigrateDb {
                 } else {
                     throw new IllegalArgumentException("-limitTo requires one of the following argument... instead of " + args[i]);
                 }
+            } else if (CmdParams.THREADS.value.equals(args[i])) {
+                i = i + 1;
+                if (i < args.length && args[i].matches("\\d+")) {
+                    result.put(CmdParams.THREADS, args[i]);
+                } else {
+                    throw new IllegalArgumentException("-threads requires a positive number of threads as its argument.");
+                }
+            } else if (CmdParams.ID_CACHE_DIR.value.equals(args[i])) {
+                i = i + 1;
+                if (i < args.length && !args[i].startsWith("-")) {
+                    result.put(CmdParams.ID_CACHE_DIR, args[i]);
+                } else {
+                    throw new IllegalArgumentException("-idCacheDir requires a directory for memory-mapped files of the id cache as its argument.");
+                }
             } else if (CmdParams.SKIP_VALIDATIONS.value.equals(args[i])) {
                 result.put(CmdParams.SKIP_VALIDATIONS, null);
             } else if (CmdParams.RESET_PASSWORDS.value.equals(args[i])) {
@@ -197,7 +213,9 @@ public class MigrateDb {
                 LOGGER.info(ddlStmt);
             }
         } else {
-            new DataMigrator(injector, hibernateUtil, cmdParams.containsKey(CmdParams.SKIP_VALIDATIONS), cmdParams.containsKey(CmdParams.DETAILS), limitToRetrievers);
+            final int threads = cmdParams.containsKey(CmdParams.THREADS) ? Integer.parseInt(cmdParams.get(CmdParams.THREADS)) : 1;
+            final Path idCacheDirectory = cmdParams.containsKey(CmdParams.ID_CACHE_DIR) ? Paths.get(cmdParams.get(CmdParams.ID_CACHE_DIR)) : null;
+            new DataMigrator(injector, hibernateUtil, cmdParams.containsKey(CmdParams.SKIP_VALIDATIONS), cmdParams.containsKey(CmdParams.DETAILS), threads, idCacheDirectory, limitToRetrievers);
         }
         // reset passwords
         if (cmdParams.containsKey(CmdParams.RESET_PASSWORDS)) {
@@ -21,6 +21,7 @@ import ua.com.fielden.platform.entity.query.IFilter;
 import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
 import ua.com.fielden.platform.entity.query.model.OrderingModel;
 import ua.com.fielden.platform.security.ISecurityToken;
+import ua.com.fielden.platform.security.provider.AuthorisationMatrix;
 import ua.com.fielden.platform.security.user.SecurityRoleAssociation;
 import ua.com.fielden.platform.security.user.User;
 import ua.com.fielden.platform.security.user.UserAndRoleAssociation;
@@ -35,12 +36,23 @@ import ua.com.fielden.platform.security.user.UserRole;
 @EntityType(SecurityRoleAssociation.class)
 public class SecurityRoleAssociationDao extends CommonEntityDao<SecurityRoleAssociation> implements ISecurityRoleAssociation {
 
+    private final AuthorisationMatrix authorisationMatrix;
+
     /**
      * Instantiates the {@link SecurityRoleAssociationDao}
      */
     @Inject
-    protected SecurityRoleAssociationDao(final IFilter filter) {
+    protected SecurityRoleAssociationDao(final AuthorisationMatrix authorisationMatrix, final IFilter filter) {
         super(filter);
+        this.authorisationMatrix = authorisationMatrix;
+    }
+
+    @Override
+    @SessionRequired
+    public SecurityRoleAssociation save(final SecurityRoleAssociation entity) {
+        final SecurityRoleAssociation saved = super.save(entity);
+        authorisationMatrix.invalidateAll(getSession());
+        return saved;
     }
 
     @Override
@@ -86,6 +98,24 @@ public class SecurityRoleAssociationDao extends CommonEntityDao<SecurityRoleAsso
                 .and().exists(slaveModel).model();
         return count(model);
     }
+
+    @Override
+    @SessionRequired(readonly = true)
+    public Set<Class<? extends ISecurityToken>> findActiveTokensFor(final User user) {
+        final EntityResultQueryModel<UserAndRoleAssociation> slaveModel = select(UserAndRoleAssociation.class)
+                .where()
+                .prop("user").eq().val(user)
+                .and().prop("userRole.active").eq().val(true) // filter out association with inactive roles
+                .and().prop("userRole.id").eq().prop("sra.role.id").model();
+        final EntityResultQueryModel<SecurityRoleAssociation> model = select(SecurityRoleAssociation.class).as("sra")
+                .where().exists(slaveModel).model();
+
+        final Set<Class<? extends ISecurityToken>> tokens = new HashSet<>();
+        for (final SecurityRoleAssociation association : getAllEntities(from(model).with(fetchAll(SecurityRoleAssociation.class)).model())) {
+            tokens.add(association.getSecurityToken());
+        }
+        return tokens;
+    }
     
     @Override
     @SessionRequired
@@ -96,6 +126,8 @@ public class SecurityRoleAssociationDao extends CommonEntityDao<SecurityRoleAsso
     @Override
     @SessionRequired
     public int batchDelete(final EntityResultQueryModel<SecurityRoleAssociation> model) {
-        return defaultBatchDelete(model);
+        final int deleted = defaultBatchDelete(model);
+        authorisationMatrix.invalidateAll(getSession());
+        return deleted;
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import ua.com.fielden.platform.dao.annotations.SessionRequired;
 import ua.com.fielden.platform.entity.annotation.EntityType;
 import ua.com.fielden.platform.entity.query.IFilter;
 import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
+import ua.com.fielden.platform.security.provider.AuthorisationMatrix;
 import ua.com.fielden.platform.security.user.UserAndRoleAssociation;
 
 import com.google.inject.Inject;
@@ -21,9 +22,23 @@ import com.google.inject.Inject;
 @EntityType(UserAndRoleAssociation.class)
 public class UserAndRoleAssociationDao extends CommonEntityDao<UserAndRoleAssociation> implements IUserAndRoleAssociation {
 
+    private final AuthorisationMatrix authorisationMatrix;
+
     @Inject
-    protected UserAndRoleAssociationDao(final IFilter filter) {
+    protected UserAndRoleAssociationDao(final AuthorisationMatrix authorisationMatrix, final IFilter filter) {
         super(filter);
+        this.authorisationMatrix = authorisationMatrix;
+    }
+
+    /**
+     * Only the access of the user, whose association is being saved, needs to be reloaded.
+     */
+    @Override
+    @SessionRequired
+    public UserAndRoleAssociation save(final UserAndRoleAssociation entity) {
+        final UserAndRoleAssociation saved = super.save(entity);
+        authorisationMatrix.invalidate(getSession(), entity.getUser().getId());
+        return saved;
     }
 
     @Override
@@ -35,6 +50,8 @@ public class UserAndRoleAssociationDao extends CommonEntityDao<UserAndRoleAssoci
     @Override
     @SessionRequired
     public int batchDelete(final EntityResultQueryModel<UserAndRoleAssociation> model) {
-        return defaultBatchDelete(model);
+        final int deleted = defaultBatchDelete(model);
+        authorisationMatrix.invalidateAll(getSession());
+        return deleted;
     }
 }
\ No newline at end of file
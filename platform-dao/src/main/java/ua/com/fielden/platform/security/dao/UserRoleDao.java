@@ -21,6 +21,7 @@ import ua.com.fielden.platform.entity.query.IFilter;
 import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
 import ua.com.fielden.platform.entity.query.model.OrderingModel;
 import ua.com.fielden.platform.security.Authorise;
+import ua.com.fielden.platform.security.provider.AuthorisationMatrix;
 import ua.com.fielden.platform.security.tokens.user.UserRoleDeleteToken;
 import ua.com.fielden.platform.security.tokens.user.UserRoleSaveToken;
 import ua.com.fielden.platform.security.user.UserRole;
@@ -34,9 +35,12 @@ import ua.com.fielden.platform.security.user.UserRole;
 @EntityType(UserRole.class)
 public class UserRoleDao extends CommonEntityDao<UserRole> implements IUserRole {
 
+    private final AuthorisationMatrix authorisationMatrix;
+
     @Inject
-    protected UserRoleDao(final IFilter filter) {
+    protected UserRoleDao(final AuthorisationMatrix authorisationMatrix, final IFilter filter) {
         super(filter);
+        this.authorisationMatrix = authorisationMatrix;
     }
 
     @Override
@@ -62,14 +66,19 @@ public class UserRoleDao extends CommonEntityDao<UserRole> implements IUserRole
     @SessionRequired
     @Authorise(UserRoleSaveToken.class)
     public UserRole save(final UserRole entity) {
-        return super.save(entity);
+        final UserRole saved = super.save(entity);
+        // activation or deactivation of the role affects all its users
+        authorisationMatrix.invalidateAll(getSession());
+        return saved;
     }
     
     @Override
     @SessionRequired
     @Authorise(UserRoleDeleteToken.class)
     public int batchDelete(Collection<Long> entitiesIds) {
-        return defaultBatchDelete(entitiesIds);
+        final int deleted = defaultBatchDelete(entitiesIds);
+        authorisationMatrix.invalidateAll(getSession());
+        return deleted;
     }
     
     @Override
@@ -0,0 +1,201 @@
+package ua.com.fielden.platform.security.provider;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.transaction.Synchronization;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import com.google.inject.Singleton;
+
+import ua.com.fielden.platform.security.ISecurityToken;
+import ua.com.fielden.platform.security.user.User;
+
+/**
+ * An in-memory user-by-token access matrix, which replaces counting of active security associations in the database for every authorisation check.
+ * <p>
+ * Security tokens are assigned sequential indices upon first use, and each user has a row of the matrix in a form of a bit set over those indices, where a set bit means that
+ * the user has an active role associated with the token. Rows are loaded lazily with a single query per user and are never modified after loading, so that lookups require no locking.
+ * <p>
+ * Rows are invalidated by companions of {@link ua.com.fielden.platform.security.user.UserRole}, {@link ua.com.fielden.platform.security.user.SecurityRoleAssociation} and
+ * {@link ua.com.fielden.platform.security.user.UserAndRoleAssociation} whenever these entities change -- immediately and once again upon completion of the changing transaction,
+ * so that no row can be loaded from the data that was not yet committed or got rolled back. Changes of user/role associations for a specific user invalidate only the row of that user.
+ *
+ * @author TG Team
+ *
+ */
+@Singleton
+public class AuthorisationMatrix {
+
+    private final ConcurrentMap<Class<? extends ISecurityToken>, Integer> tokenIndices = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTokenIndex = new AtomicInteger();
+    private final ConcurrentMap<Long, BitSet> accessByUser = new ConcurrentHashMap<>();
+    /** Incremented upon every invalidation to detect rows that were loaded concurrently with an invalidation. */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong rowLoadCount = new AtomicLong();
+    private final AtomicLong rowLoadNanos = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private volatile long lastRowLoadNanos;
+
+    /**
+     * Determines whether <code>user</code> can access <code>token</code>. The row of the user is loaded using <code>tokensLoader</code> if it is not in the matrix yet,
+     * which should return all tokens that are associated with active roles of the user.
+     *
+     * @param user
+     * @param token
+     * @param tokensLoader
+     * @return
+     */
+    public boolean canAccess(final User user, final Class<? extends ISecurityToken> token, final Function<User, Collection<Class<? extends ISecurityToken>>> tokensLoader) {
+        lookupCount.incrementAndGet();
+        final Long userId = user.getId();
+        final BitSet row = userId != null ? accessByUser.get(userId) : null;
+        return (row != null ? row : loadRow(userId, user, tokensLoader)).get(indexOf(token));
+    }
+
+    private BitSet loadRow(final Long userId, final User user, final Function<User, Collection<Class<? extends ISecurityToken>>> tokensLoader) {
+        final long generationBeforeLoading = generation.get();
+        final long start = System.nanoTime();
+        final BitSet row = new BitSet();
+        for (final Class<? extends ISecurityToken> token : tokensLoader.apply(user)) {
+            row.set(indexOf(token));
+        }
+        final long duration = System.nanoTime() - start;
+        rowLoadCount.incrementAndGet();
+        rowLoadNanos.addAndGet(duration);
+        lastRowLoadNanos = duration;
+
+        if (userId != null) {
+            accessByUser.put(userId, row);
+            // the row could have been loaded before the concurrent invalidation was made, in which case it should be used only for the current check
+            if (generation.get() != generationBeforeLoading) {
+                accessByUser.remove(userId, row);
+            }
+        }
+        return row;
+    }
+
+    private int indexOf(final Class<? extends ISecurityToken> token) {
+        final Integer index = tokenIndices.get(token);
+        if (index != null) {
+            return index;
+        }
+        return tokenIndices.computeIfAbsent(token, t -> nextTokenIndex.getAndIncrement());
+    }
+
+    /**
+     * Invalidates the row of a user with <code>userId</code>.
+     *
+     * @param userId
+     */
+    public void invalidate(final Long userId) {
+        generation.incrementAndGet();
+        invalidationCount.incrementAndGet();
+        accessByUser.remove(userId);
+    }
+
+    /**
+     * Invalidates all rows of the matrix.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidationCount.incrementAndGet();
+        accessByUser.clear();
+    }
+
+    /**
+     * Invalidates the row of a user with <code>userId</code> immediately and once again upon completion of the current transaction of <code>session</code>.
+     *
+     * @param session
+     * @param userId
+     */
+    public void invalidate(final Session session, final Long userId) {
+        invalidate(userId);
+        afterCompletion(session, () -> invalidate(userId));
+    }
+
+    /**
+     * Invalidates all rows of the matrix immediately and once again upon completion of the current transaction of <code>session</code>.
+     *
+     * @param session
+     */
+    public void invalidateAll(final Session session) {
+        invalidateAll();
+        afterCompletion(session, this::invalidateAll);
+    }
+
+    private static void afterCompletion(final Session session, final Runnable invalidation) {
+        final Transaction tr = session.getTransaction();
+        if (tr.isActive()) {
+            tr.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(final int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * The number of users, whose rows are currently loaded.
+     */
+    public int size() {
+        return accessByUser.size();
+    }
+
+    /**
+     * The number of distinct security tokens, which have been indexed so far.
+     */
+    public int getTokenCount() {
+        return tokenIndices.size();
+    }
+
+    public long getLookupCount() {
+        return lookupCount.get();
+    }
+
+    public long getRowLoadCount() {
+        return rowLoadCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * The duration of the last row loading in nanoseconds, including the time of retrieving tokens.
+     */
+    public long getLastRowLoadNanos() {
+        return lastRowLoadNanos;
+    }
+
+    /**
+     * The average duration of row loading in nanoseconds.
+     */
+    public double getAverageRowLoadNanos() {
+        final long count = rowLoadCount.get();
+        return count == 0 ? 0 : (double) rowLoadNanos.get() / count;
+    }
+
+    /**
+     * The ratio of lookups, which did not require loading of rows.
+     */
+    public double getHitRatio() {
+        final long lookups = lookupCount.get();
+        return lookups == 0 ? 0 : (double) (lookups - rowLoadCount.get()) / lookups;
+    }
+
+}
@@ -31,6 +31,8 @@ public class SecurityTokenController implements ISecurityTokenController, ISessi
 
     private final IUserRole roleDao;
 
+    private final AuthorisationMatrix authorisationMatrix;
+
     private Session session;
     private String transactionGuid;
 
@@ -44,9 +46,10 @@ public class SecurityTokenController implements ISecurityTokenController, ISessi
      * Creates new instance of SecurityTokenController with twelve user roles and security tokens
      */
     @Inject
-    public SecurityTokenController(final ISecurityRoleAssociation securityAssociationDao, final IUserRole roleDao) {
+    public SecurityTokenController(final ISecurityRoleAssociation securityAssociationDao, final IUserRole roleDao, final AuthorisationMatrix authorisationMatrix) {
         this.securityAssociationDao = securityAssociationDao;
         this.roleDao = roleDao;
+        this.authorisationMatrix = authorisationMatrix;
     }
 
     @Override
@@ -71,13 +74,17 @@ public class SecurityTokenController implements ISecurityTokenController, ISessi
         return securityAssociationDao;
     }
 
+    public AuthorisationMatrix getAuthorisationMatrix() {
+        return authorisationMatrix;
+    }
+
     @Override
     public boolean canAccess(final User user, final Class<? extends ISecurityToken> securityTokenClass) {
         if (securityTokenClass == AlwaysAccessibleToken.class) {
             return true;
         }
 
-        return securityAssociationDao.countActiveAssociations(user, securityTokenClass) > 0;
+        return authorisationMatrix.canAccess(user, securityTokenClass, securityAssociationDao::findActiveTokensFor);
     }
 
     @Override
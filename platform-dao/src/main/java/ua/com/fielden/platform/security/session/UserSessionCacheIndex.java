@@ -0,0 +1,187 @@
+package ua.com.fielden.platform.security.session;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.cache.Cache;
+import com.google.inject.Singleton;
+
+/**
+ * A secondary index for the session cache, which maps session IDs to authenticators that are used as keys in the cache, and user IDs to their session IDs.
+ * It makes invalidation of cached sessions proportional to the number of affected sessions instead of the size of the cache.
+ * <p>
+ * The index is not notified about evictions from the cache, and therefore it may reference authenticators that are no longer cached.
+ * Such stale entries are harmless as invalidation of absent keys is a no-op, and they are purged periodically as the index grows.
+ * <p>
+ * The index also keeps simple statistics about cache lookups and invalidations.
+ *
+ * @author TG Team
+ *
+ */
+@Singleton
+public class UserSessionCacheIndex {
+    private static final int MIN_PURGE_THRESHOLD = 1000;
+
+    private final ConcurrentMap<Long, Set<String>> authenticatorsBySession = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> sessionsByUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private final AtomicLong invalidationNanos = new AtomicLong();
+
+    /**
+     * Caches <code>session</code> under <code>authenticator</code> and indexes it.
+     */
+    public void put(final Cache<String, UserSession> cache, final String authenticator, final UserSession session) {
+        final Long sessionId = session.getId();
+        final Long userId = session.getUser().getId();
+        authenticatorsBySession.compute(sessionId, (id, authenticators) -> {
+            final Set<String> result = authenticators == null ? new HashSet<>() : authenticators;
+            result.add(authenticator);
+            return result;
+        });
+        sessionsByUser.compute(userId, (id, sessions) -> {
+            final Set<Long> result = sessions == null ? new HashSet<>() : sessions;
+            result.add(sessionId);
+            return result;
+        });
+        cache.put(authenticator, session);
+
+        if (authenticatorsBySession.size() > Math.max(MIN_PURGE_THRESHOLD, 2 * cache.size())) {
+            purgeStale(cache);
+        }
+    }
+
+    /**
+     * Removes all authenticators associated with <code>session</code> from the cache.
+     */
+    public void invalidate(final Cache<String, UserSession> cache, final UserSession session) {
+        final long start = System.nanoTime();
+        final Long sessionId = session.getId();
+        if (session.getUser() != null) {
+            sessionsByUser.computeIfPresent(session.getUser().getId(), (id, sessions) -> {
+                sessions.remove(sessionId);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+        invalidateAuthenticators(cache, sessionId);
+        recordInvalidation(start);
+    }
+
+    /**
+     * Removes all authenticators of all sessions associated with the user with <code>userId</code> from the cache.
+     */
+    public void invalidateUser(final Cache<String, UserSession> cache, final Long userId) {
+        final long start = System.nanoTime();
+        final Set<Long> sessions = sessionsByUser.remove(userId);
+        if (sessions != null) {
+            for (final Long sessionId : sessions) {
+                invalidateAuthenticators(cache, sessionId);
+            }
+        }
+        recordInvalidation(start);
+    }
+
+    /**
+     * Removes all sessions from the cache and clears the index.
+     */
+    public void invalidateAll(final Cache<String, UserSession> cache) {
+        final long start = System.nanoTime();
+        cache.invalidateAll();
+        authenticatorsBySession.clear();
+        sessionsByUser.clear();
+        recordInvalidation(start);
+    }
+
+    private void invalidateAuthenticators(final Cache<String, UserSession> cache, final Long sessionId) {
+        final Set<String> authenticators = authenticatorsBySession.remove(sessionId);
+        if (authenticators != null) {
+            cache.invalidateAll(authenticators);
+        }
+    }
+
+    private void recordInvalidation(final long start) {
+        invalidationNanos.addAndGet(System.nanoTime() - start);
+        invalidationCount.incrementAndGet();
+    }
+
+    /**
+     * Removes index entries for sessions that no longer have any authenticators in the cache.
+     */
+    private void purgeStale(final Cache<String, UserSession> cache) {
+        final Set<String> cached = cache.asMap().keySet();
+        for (final Long sessionId : authenticatorsBySession.keySet()) {
+            authenticatorsBySession.computeIfPresent(sessionId, (id, authenticators) -> {
+                authenticators.retainAll(cached);
+                return authenticators.isEmpty() ? null : authenticators;
+            });
+        }
+        for (final Long userId : sessionsByUser.keySet()) {
+            sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+                sessions.retainAll(authenticatorsBySession.keySet());
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    public void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * Authenticators that are indexed for the session with <code>sessionId</code>.
+     */
+    public Set<String> authenticatorsOf(final Long sessionId) {
+        final Set<String> result = new HashSet<>();
+        authenticatorsBySession.computeIfPresent(sessionId, (id, authenticators) -> {
+            result.addAll(authenticators);
+            return authenticators;
+        });
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * The number of indexed sessions.
+     */
+    public int indexedSessions() {
+        return authenticatorsBySession.size();
+    }
+
+    public long hitCount() {
+        return hitCount.get();
+    }
+
+    public long missCount() {
+        return missCount.get();
+    }
+
+    /**
+     * The ratio of cache lookups that found a session, or 0 if there were no lookups.
+     */
+    public double hitRatio() {
+        final long hits = hitCount.get();
+        final long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public long invalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * The average duration of invalidations in nanoseconds, or 0 if there were no invalidations.
+     */
+    public long averageInvalidationNanos() {
+        final long count = invalidationCount.get();
+        return count == 0 ? 0 : invalidationNanos.get() / count;
+    }
+}
@@ -9,7 +9,6 @@ import static ua.com.fielden.platform.security.session.Authenticator.mkToken;
 
 import java.security.SignatureException;
 import java.util.Date;
-import java.util.Map.Entry;
 import java.util.Optional;
 
 import org.apache.log4j.Logger;
@@ -49,6 +48,7 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
     private final int untrustedDurationMins;
     private final SessionIdentifierGenerator crypto;
     private final Cache<String, UserSession> cache;
+    private final UserSessionCacheIndex cacheIndex;
     private final IUniversalConstants constants;
 
     @Inject
@@ -57,6 +57,7 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
             final @TrustedDeviceSessionDuration int trustedDurationMins,
             final @UntrustedDeviceSessionDuration int untrustedDurationMins,
             final @SessionCache Cache<String, UserSession> cache,
+            final UserSessionCacheIndex cacheIndex,
             final IUniversalConstants constants,
             final SessionIdentifierGenerator crypto,
             final IFilter filter) {
@@ -67,12 +68,13 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
         this.untrustedDurationMins = untrustedDurationMins;
         this.crypto = crypto;
         this.cache = cache;
+        this.cacheIndex = cacheIndex;
     }
 
     @Override
     @SessionRequired
     public void clearSession(final UserSession session) {
-        cache.invalidate(findAuthenticator(session));
+        cacheIndex.invalidate(cache, session);
         defaultDelete(session);
     }
     
@@ -85,7 +87,7 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
         if (count > 0) {
             logger.info(format("Removing [%s] sessions for user [%s].", count, user.getKey()));
             
-            invalidateCache(q);
+            cacheIndex.invalidateUser(cache, user.getId());
             
             defaultBatchDelete(q);
         }
@@ -111,7 +113,7 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
     @SessionRequired
     public void clearAll() {
         defaultBatchDelete(select(UserSession.class).model());
-        cache.invalidateAll();
+        cacheIndex.invalidateAll(cache);
     }
 
     @Override
@@ -164,7 +166,7 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
      */
     private void invalidateCache(final EntityResultQueryModel<UserSession> q) {
         stream(from(q).with(fetchAll(UserSession.class)).model())
-        .forEach(session -> cache.invalidate(findAuthenticator(session)));
+        .forEach(session -> cacheIndex.invalidate(cache, session));
     }
 
     /**
@@ -227,8 +229,10 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
         // but just in case make sure that current user matches the authenticator user name
         final UserSession cachedSession = cache.getIfPresent(authenticator);
         if (cachedSession != null && user.getKey().equals(auth.username)) {
+            cacheIndex.recordHit();
             return Optional.of(cachedSession);
         }
+        cacheIndex.recordMiss();
 
         // the authenticator is not in cache, a full authentication and series id regeneration process is in order
         // verify authenticator's authenticity using its hash and the application hashing key
@@ -335,8 +339,8 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
             // in order to support concurrent request from the same user it is necessary to
             // associate the presented and verified authenticator as well as the new authenticator with an updated session in the session cache
             final String newAuthenticator = updated.getAuthenticator().get().toString();
-            cache.put(authenticator, updated);
-            cache.put(newAuthenticator, updated);
+            cacheIndex.put(cache, authenticator, updated);
+            cacheIndex.put(cache, newAuthenticator, updated);
 
             return Optional.of(updated);
         } catch (final Exception e) {
@@ -372,7 +376,7 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
         saved.endInitialising();
 
         // need to cache the established session in associated with the generated authenticator
-        cache.put(saved.getAuthenticator().get().toString(), saved);
+        cacheIndex.put(cache, saved.getAuthenticator().get().toString(), saved);
 
         return saved;
     }
@@ -395,21 +399,6 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
         }
     }
 
-    /**
-     * A convenient method to find an authenticator key in cache by the user session value.
-     * 
-     * @param session
-     * @return
-     */
-    private String findAuthenticator(final UserSession session) {
-        for (final Entry<String, UserSession> value : cache.asMap().entrySet()) {
-            if (value.getValue().equals(session)) {
-                return value.getKey();
-            }
-        }
-        return "";
-    }
-    
     /**
      * Calculates a session expiry time based on the notion of trusted and untrased devices.
      *
@@ -423,4 +412,8 @@ public class UserSessionDao extends CommonEntityDao<UserSession> implements IUse
     public Cache<String, UserSession> getCache() {
         return cache;
     }
+
+    public UserSessionCacheIndex getCacheIndex() {
+        return cacheIndex;
+    }
 }
\ No newline at end of file
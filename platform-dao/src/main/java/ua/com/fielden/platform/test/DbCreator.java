@@ -26,6 +26,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.io.Files;
 
 import ua.com.fielden.platform.dao.PersistedEntityMetadata;
+import ua.com.fielden.platform.security.provider.AuthorisationMatrix;
 
 /**
  * This is an abstraction that capture the logic for the initial test case related db creation and its re-creation from a generated script for all individual tests in the same test case.
@@ -256,6 +257,8 @@ public class DbCreator {
             exec(truncateScripts.getIfPresent(testCaseType), conn);
             logger.debug("Executing tables truncation script.");
         }
+        // security associations have been removed bypassing their companions
+        config.getInstance(AuthorisationMatrix.class).invalidateAll();
     }
 
     private Connection createConnection(final Properties props) {
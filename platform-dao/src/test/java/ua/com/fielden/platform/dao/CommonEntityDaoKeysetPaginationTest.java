@@ -0,0 +1,200 @@
+package ua.com.fielden.platform.dao;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.fetch;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.from;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.orderBy;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.select;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
+import ua.com.fielden.platform.entity.query.model.OrderingModel;
+import ua.com.fielden.platform.pagination.IPage;
+import ua.com.fielden.platform.sample.domain.ITgVehicleMake;
+import ua.com.fielden.platform.sample.domain.TgVehicleMake;
+import ua.com.fielden.platform.test_config.AbstractDaoTestCase;
+
+/**
+ * A test case for keyset (seek) pagination of {@link CommonEntityDao}.
+ *
+ * @author TG Team
+ *
+ */
+public class CommonEntityDaoKeysetPaginationTest extends AbstractDaoTestCase {
+
+    private final ITgVehicleMake co = getInstance(ITgVehicleMake.class);
+
+    private QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem(final OrderingModel orderBy) {
+        return from(select(TgVehicleMake.class).where().prop("key").notLike().val("X%").model()).with(fetch(TgVehicleMake.class)).with(orderBy).model();
+    }
+
+    private static List<String> keys(final IPage<TgVehicleMake> page) {
+        return page.data().stream().map(TgVehicleMake::getKey).collect(toList());
+    }
+
+    @Test
+    public void navigating_forward_and_backward_by_keyset_retrieves_the_same_pages_as_offset_pagination() {
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = qem(orderBy().prop("key").asc().model());
+
+        final IPage<TgVehicleMake> first = co.firstPageByKeyset(qem, 3);
+        assertEquals(Arrays.asList("AUDI", "BMW", "FORD"), keys(first));
+        assertTrue(first.hasNext());
+        assertFalse(first.hasPrev());
+
+        final IPage<TgVehicleMake> second = first.next();
+        assertEquals(keys(co.getPage(qem, 1, 3)), keys(second));
+        assertEquals(Arrays.asList("KIA", "MERC", "OPEL"), keys(second));
+
+        final IPage<TgVehicleMake> third = second.next();
+        assertEquals(Arrays.asList("SUBARO"), keys(third));
+        assertFalse(third.hasNext());
+        assertEquals(3, third.numberOfPages());
+
+        assertEquals(keys(second), keys(third.prev()));
+        assertEquals(keys(first), keys(third.first()));
+    }
+
+    @Test
+    public void keyset_pagination_supports_descending_order() {
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = qem(orderBy().prop("key").desc().model());
+
+        final IPage<TgVehicleMake> first = co.firstPageByKeyset(qem, 3);
+        assertEquals(Arrays.asList("SUBARO", "OPEL", "MERC"), keys(first));
+        assertEquals(Arrays.asList("KIA", "FORD", "BMW"), keys(first.next()));
+        assertEquals(3, first.numberOfPages());
+    }
+
+    @Test
+    public void pages_requested_independently_are_retrieved_by_keyset_with_the_same_result_as_by_offset() {
+        getInstance(KeysetPageCache.class).invalidateAll();
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = qem(orderBy().prop("key").asc().model());
+
+        assertEquals(keys(co.getPage(qem, 2, 3)), keys(co.getPageByKeyset(qem, 2, 3)));
+        assertEquals(keys(co.getPage(qem, 1, 3)), keys(co.getPageByKeyset(qem, 1, 3)));
+        assertEquals(keys(co.getPage(qem, 0, 3)), keys(co.getPageByKeyset(qem, 0, 3)));
+        assertEquals(keys(co.getPage(qem, 1, 3)), keys(co.getPageByKeyset(qem, 1, 3)));
+
+        final IPage<TgVehicleMake> last = co.getPageByKeyset(qem, -1, 3);
+        assertEquals(2, last.no());
+        assertEquals(Arrays.asList("SUBARO"), keys(last));
+    }
+
+    @Test
+    public void ordering_unsuitable_for_seeking_falls_back_to_offset_pagination() {
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = qem(orderBy().prop("desc").asc().model());
+
+        final IPage<TgVehicleMake> first = co.firstPageByKeyset(qem, 3);
+        assertEquals(Arrays.asList("AUDI", "BMW", "FORD"), keys(first));
+        assertEquals(keys(co.getPage(qem, 1, 3)), keys(first.next()));
+    }
+
+    @Test
+    public void pages_with_ordering_unsuitable_for_seeking_infer_the_number_of_pages_from_data_where_possible() {
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = from(select(TgVehicleMake.class).where().prop("key").like().val("A%").model())
+                .with(fetch(TgVehicleMake.class)).with(orderBy().prop("desc").asc().model()).model();
+
+        final IPage<TgVehicleMake> first = co.firstPageByKeyset(qem, 3);
+        assertEquals(Arrays.asList("AUDI"), keys(first));
+        assertFalse(first.hasNext());
+        assertEquals(1, first.numberOfPages());
+    }
+
+    private void assertNumberOfPagesIsReusedBySubsequentPageRequestsAndRecalculatedByNewRun(final OrderingModel orderBy) {
+        getInstance(KeysetPageCache.class).invalidateAll();
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = qem(orderBy);
+        assertEquals(3, co.firstPageByKeyset(qem, 3).numberOfPages());
+
+        save(new_(TgVehicleMake.class, "LADA", "Lada"));
+        save(new_(TgVehicleMake.class, "SEAT", "Seat"));
+        save(new_(TgVehicleMake.class, "TATA", "Tata"));
+        assertEquals("The number of pages should be reused.", 3, co.getPageByKeyset(qem, 1, 3).numberOfPages());
+
+        assertEquals("The number of pages should be recalculated by a new run.", 4, co.firstPageByKeyset(qem, 3).numberOfPages());
+        assertEquals(4, co.getPageByKeyset(qem, 1, 3).numberOfPages());
+    }
+
+    @Test
+    public void the_number_of_pages_is_reused_by_subsequent_page_requests_and_recalculated_by_a_new_run() {
+        assertNumberOfPagesIsReusedBySubsequentPageRequestsAndRecalculatedByNewRun(orderBy().prop("key").asc().model());
+    }
+
+    @Test
+    public void the_number_of_pages_for_ordering_unsuitable_for_seeking_is_reused_by_subsequent_page_requests_and_recalculated_by_a_new_run() {
+        assertNumberOfPagesIsReusedBySubsequentPageRequestsAndRecalculatedByNewRun(orderBy().prop("desc").asc().model());
+    }
+
+    private QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> notExcludedByDesc() {
+        return from(select(TgVehicleMake.class).where().prop("desc").ne().val("Excluded").model()).with(fetch(TgVehicleMake.class)).with(orderBy().prop("key").asc().model()).model();
+    }
+
+    private void excludeByDesc(final String... keys) {
+        for (final String key : keys) {
+            final TgVehicleMake make = co.findByKeyAndFetch(fetch(TgVehicleMake.class), key);
+            make.setDesc("Excluded");
+            save(make);
+        }
+    }
+
+    @Test
+    public void the_first_page_does_not_know_the_number_of_pages_unless_it_is_the_last_one() {
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = qem(orderBy().prop("key").asc().model());
+
+        assertFalse("The number of pages should not be calculated for a full first page.", co.firstPageByKeyset(qem, 3).knownNumberOfPages().isPresent());
+        assertEquals(Optional.of(1), co.firstPageByKeyset(qem, 10).knownNumberOfPages());
+
+        final IPage<TgVehicleMake> first = co.firstPageByKeyset(qem, 3);
+        assertEquals(3, first.numberOfPages());
+        assertEquals("The calculated number of pages should become known.", Optional.of(3), first.knownNumberOfPages());
+    }
+
+    @Test
+    public void refreshing_a_page_recalculates_the_number_of_pages_and_returns_the_last_page_if_the_requested_one_is_out_of_range() {
+        getInstance(KeysetPageCache.class).invalidateAll();
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = notExcludedByDesc();
+        assertEquals(3, co.firstPageByKeyset(qem, 3).numberOfPages());
+        assertEquals(Arrays.asList("SUBARO"), keys(co.getPageByKeyset(qem, 2, 3)));
+
+        excludeByDesc("AUDI", "SUBARO", "KIA");
+        final IPage<TgVehicleMake> refreshed = co.refreshPageByKeyset(qem, 2, 3);
+        assertEquals(1, refreshed.no());
+        assertEquals(2, refreshed.numberOfPages());
+        assertEquals(Arrays.asList("OPEL"), keys(refreshed));
+        assertEquals(Arrays.asList("BMW", "FORD", "MERC"), keys(co.getPageByKeyset(qem, 0, 3)));
+    }
+
+    @Test
+    public void a_page_out_of_range_is_replaced_by_the_last_page_upon_recalculation_of_the_number_of_pages() {
+        getInstance(KeysetPageCache.class).invalidateAll();
+        final QueryExecutionModel<TgVehicleMake, EntityResultQueryModel<TgVehicleMake>> qem = notExcludedByDesc();
+        assertEquals(3, co.firstPageByKeyset(qem, 3).numberOfPages());
+
+        excludeByDesc("AUDI", "SUBARO", "KIA");
+        final IPage<TgVehicleMake> page = co.getPageByKeyset(qem, 2, 3);
+        assertEquals(1, page.no());
+        assertEquals(2, page.numberOfPages());
+        // the last page is retrieved by seeking past the boundary of the first page as it was retrieved before the modification
+        assertEquals(Arrays.asList("MERC", "OPEL"), keys(page));
+    }
+
+    @Override
+    protected void populateDomain() {
+        super.populateDomain();
+
+        save(new_(TgVehicleMake.class, "MERC", "Mercedes"));
+        save(new_(TgVehicleMake.class, "AUDI", "Audi"));
+        save(new_(TgVehicleMake.class, "BMW", "BMW"));
+        save(new_(TgVehicleMake.class, "SUBARO", "Subaro"));
+        save(new_(TgVehicleMake.class, "KIA", "Kia"));
+        save(new_(TgVehicleMake.class, "FORD", "Ford"));
+        save(new_(TgVehicleMake.class, "OPEL", "Opel"));
+        save(new_(TgVehicleMake.class, "XTRA", "Excluded"));
+    }
+}
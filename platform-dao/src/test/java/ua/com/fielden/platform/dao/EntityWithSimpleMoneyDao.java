@@ -3,6 +3,7 @@ package ua.com.fielden.platform.dao;
 import ua.com.fielden.platform.dao.annotations.SessionRequired;
 import ua.com.fielden.platform.entity.annotation.EntityType;
 import ua.com.fielden.platform.entity.query.IFilter;
+import ua.com.fielden.platform.entity.query.fluent.fetch;
 import ua.com.fielden.platform.persistence.types.EntityWithSimpleMoney;
 
 import com.google.inject.Inject;
@@ -27,6 +28,13 @@ public class EntityWithSimpleMoneyDao extends CommonEntityDao<EntityWithSimpleMo
         // the method is overridden to test guarding of quickSave invocations 
         return super.save(entity);
     }
-    
+
+    @Override
+    @SessionRequired
+    public EntityWithSimpleMoney findByKeyAndFetch(final fetch<EntityWithSimpleMoney> fetchModel, final Object... keyValues) {
+        // the method is overridden to test read-write invocations within session scopes, which are inferred to be read-only (e.g. by findByKey)
+        return super.findByKeyAndFetch(fetchModel, keyValues);
+    }
+
 
 }
@@ -724,6 +724,48 @@ public class GlobalDomainTreeManagerTest extends GlobalDomainTreeRepresentationT
         assertEquals("Fourth annotation should be EntityType.", EntityType.class, annotations[3].annotationType());
     }
 
+    @Test
+    public void copies_of_unchanged_centre_are_equal_to_the_original_and_independent_from_each_other() {
+        final GlobalDomainTreeManager nonBaseMgr = createManagerForNonBaseUser();
+        nonBaseMgr.initEntityCentreManager(MENU_ITEM_TYPE, null);
+        final ICentreDomainTreeManagerAndEnhancer originalCentre = nonBaseMgr.getEntityCentreManager(MENU_ITEM_TYPE, null);
+
+        final ICentreDomainTreeManagerAndEnhancer firstCopy = nonBaseMgr.copyUnchangedCentre(originalCentre);
+        assertTrue(firstCopy != originalCentre);
+        assertTrue(EntityUtils.equalsEx(originalCentre, firstCopy));
+        assertTrue(EntityUtils.equalsEx(nonBaseMgr.copyCentre(originalCentre), firstCopy));
+
+        // changing the copy should affect neither the original centre nor the subsequent copies
+        firstCopy.getFirstTick().check(ROOT, property, !firstCopy.getFirstTick().isChecked(ROOT, property));
+        assertFalse(EntityUtils.equalsEx(originalCentre, firstCopy));
+
+        final ICentreDomainTreeManagerAndEnhancer secondCopy = nonBaseMgr.copyUnchangedCentre(originalCentre);
+        assertTrue(secondCopy != firstCopy);
+        assertTrue(EntityUtils.equalsEx(originalCentre, secondCopy));
+    }
+
+    @Test
+    public void copying_of_unchanged_centre_is_not_slower_than_deep_copying() {
+        final GlobalDomainTreeManager nonBaseMgr = createManagerForNonBaseUser();
+        nonBaseMgr.initEntityCentreManager(MENU_ITEM_TYPE, null);
+        final ICentreDomainTreeManagerAndEnhancer originalCentre = nonBaseMgr.getEntityCentreManager(MENU_ITEM_TYPE, null);
+        final int times = 20;
+
+        long deepCopyTime = 0;
+        long unchangedCopyTime = 0;
+        for (int index = 0; index < times; index++) {
+            long start = System.nanoTime();
+            nonBaseMgr.copyCentre(originalCentre);
+            deepCopyTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            nonBaseMgr.copyUnchangedCentre(originalCentre);
+            unchangedCopyTime += System.nanoTime() - start;
+        }
+
+        assertTrue("Copying of unchanged centre should not be slower than deep copying.", unchangedCopyTime <= deepCopyTime);
+    }
+
     @Test
     public void test_that_CENTRE_removing_works_fine_for_NON_BASE_user() {
         // create PRINCIPLE and REPORT report for USER2
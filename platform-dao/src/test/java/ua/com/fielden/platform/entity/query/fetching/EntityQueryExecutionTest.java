@@ -1210,6 +1210,23 @@ public class EntityQueryExecutionTest extends AbstractDaoTestCase {
         assertEquals("Incorrect key", "MERC", vehicle.getModel().getMake().getKey());
     }
 
+    @Test
+    public void properties_of_the_same_type_and_with_the_same_fetch_model_are_fetched_correctly() {
+        final EntityResultQueryModel<TgVehicle> qry = select(TgVehicle.class).where().prop("key").in().values("CAR1", "CAR2").model();
+        final fetch<TgVehicleModel> modelFetch = fetch(TgVehicleModel.class).with("make");
+        final fetch<TgVehicle> fetchModel = fetch(TgVehicle.class).with("model", modelFetch).with("calcModel", modelFetch);
+        final List<TgVehicle> vehicles = vehicleDao.getAllEntities(from(qry).with(fetchModel).with(orderBy().prop("key").asc().model()).model());
+        assertEquals("Incorrect number of vehicles", 2, vehicles.size());
+        assertEquals("Incorrect key", "318", vehicles.get(0).getModel().getKey());
+        assertEquals("Incorrect key", "AUDI", vehicles.get(0).getModel().getMake().getKey());
+        assertEquals("Incorrect key", "318", vehicles.get(0).getCalcModel().getKey());
+        assertEquals("Incorrect key", "AUDI", vehicles.get(0).getCalcModel().getMake().getKey());
+        assertEquals("Incorrect key", "316", vehicles.get(1).getModel().getKey());
+        assertEquals("Incorrect key", "MERC", vehicles.get(1).getModel().getMake().getKey());
+        assertEquals("Incorrect key", "316", vehicles.get(1).getCalcModel().getKey());
+        assertEquals("Incorrect key", "MERC", vehicles.get(1).getCalcModel().getMake().getKey());
+    }
+
     @Test
     public void test_vehicle_with_collection_fetching() {
         final EntityResultQueryModel<TgVehicle> qry = select(TgVehicle.class).where().prop("key").eq().val("CAR2").model();
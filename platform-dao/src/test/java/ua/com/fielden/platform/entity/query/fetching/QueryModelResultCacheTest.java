@@ -0,0 +1,170 @@
+package ua.com.fielden.platform.entity.query.fetching;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.fetch;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.from;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.orderBy;
+import static ua.com.fielden.platform.entity.query.fluent.EntityQueryUtils.select;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ua.com.fielden.platform.entity.query.QueryModelResultCache;
+import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
+import ua.com.fielden.platform.entity.query.model.OrderingModel;
+import ua.com.fielden.platform.sample.domain.ITgVehicleMake;
+import ua.com.fielden.platform.sample.domain.TgVehicleMake;
+import ua.com.fielden.platform.test_config.AbstractDaoTestCase;
+
+public class QueryModelResultCacheTest extends AbstractDaoTestCase {
+
+    private final ITgVehicleMake co = getInstance(ITgVehicleMake.class);
+    private final QueryModelResultCache cache = getInstance(QueryModelResultCache.class);
+    private final OrderingModel orderByKey = orderBy().prop("key").asc().model();
+
+    private List<TgVehicleMake> makesWithKey(final Object keys) {
+        final EntityResultQueryModel<TgVehicleMake> qry = select(TgVehicleMake.class).where().prop("key").in().params("keys").model();
+        return co.getAllEntities(from(qry).with(fetch(TgVehicleMake.class)).with(orderByKey).with("keys", keys).model());
+    }
+
+    private List<TgVehicleMake> makesWithDesc(final String desc) {
+        final EntityResultQueryModel<TgVehicleMake> qry = select(TgVehicleMake.class).where().prop("desc").eq().iParam("desc").model();
+        return co.getAllEntities(from(qry).with(fetch(TgVehicleMake.class)).with(orderByKey).with("desc", desc).model());
+    }
+
+    @Test
+    public void structurally_the_same_query_with_different_param_values_is_compiled_once_and_bound_to_new_values() {
+        cache.invalidateAll();
+        final long misses = cache.missCount();
+        final long hits = cache.hitCount();
+
+        final List<TgVehicleMake> first = makesWithKey("MERC");
+        assertEquals(1, first.size());
+        assertEquals("MERC", first.get(0).getKey());
+
+        final List<TgVehicleMake> second = makesWithKey("AUDI");
+        assertEquals(1, second.size());
+        assertEquals("AUDI", second.get(0).getKey());
+
+        assertEquals(1, cache.missCount() - misses);
+        assertEquals(1, cache.hitCount() - hits);
+    }
+
+    @Test
+    public void collectional_param_values_of_the_same_size_share_compiled_query_and_of_different_size_do_not() {
+        cache.invalidateAll();
+        final long misses = cache.missCount();
+        final long hits = cache.hitCount();
+
+        final List<TgVehicleMake> first = makesWithKey(asList("MERC", "AUDI"));
+        assertEquals(2, first.size());
+        assertEquals("AUDI", first.get(0).getKey());
+        assertEquals("MERC", first.get(1).getKey());
+
+        final List<TgVehicleMake> second = makesWithKey(asList("BMW", "SUBARO"));
+        assertEquals(2, second.size());
+        assertEquals("BMW", second.get(0).getKey());
+        assertEquals("SUBARO", second.get(1).getKey());
+
+        final List<TgVehicleMake> third = makesWithKey(asList("BMW", "SUBARO", "MERC"));
+        assertEquals(3, third.size());
+
+        assertEquals(2, cache.missCount() - misses);
+        assertEquals(1, cache.hitCount() - hits);
+    }
+
+    @Test
+    public void array_param_values_of_the_same_length_share_compiled_query_and_of_different_length_do_not() {
+        cache.invalidateAll();
+        final long misses = cache.missCount();
+        final long hits = cache.hitCount();
+
+        final List<TgVehicleMake> first = makesWithKey(new String[] { "MERC", "AUDI" });
+        assertEquals(2, first.size());
+        assertEquals("AUDI", first.get(0).getKey());
+        assertEquals("MERC", first.get(1).getKey());
+
+        final List<TgVehicleMake> second = makesWithKey(new String[] { "BMW", "SUBARO", "MERC" });
+        assertEquals(3, second.size());
+        assertEquals("BMW", second.get(0).getKey());
+        assertEquals("MERC", second.get(1).getKey());
+        assertEquals("SUBARO", second.get(2).getKey());
+
+        final List<TgVehicleMake> third = makesWithKey(new String[] { "BMW", "AUDI" });
+        assertEquals(2, third.size());
+        assertEquals("AUDI", third.get(0).getKey());
+        assertEquals("BMW", third.get(1).getKey());
+
+        assertEquals(2, cache.missCount() - misses);
+        assertEquals(1, cache.hitCount() - hits);
+    }
+
+    @Test
+    public void ignorable_param_with_and_without_value_results_in_different_compiled_queries() {
+        cache.invalidateAll();
+        final long misses = cache.missCount();
+
+        assertEquals(1, makesWithDesc("Audi").size());
+        assertEquals(4, makesWithDesc(null).size());
+        assertEquals(1, makesWithDesc("BMW").size());
+
+        assertEquals(2, cache.missCount() - misses);
+    }
+
+    @Test
+    public void count_queries_of_the_same_shape_are_compiled_once_and_compilation_time_is_recorded() {
+        cache.invalidateAll();
+        final long compiles = cache.compileCount();
+        final long hits = cache.hitCount();
+
+        final EntityResultQueryModel<TgVehicleMake> qry = select(TgVehicleMake.class).where().prop("key").in().params("keys").model();
+        assertEquals(2, co.count(qry, singletonMap("keys", asList("MERC", "AUDI"))));
+        assertEquals(1, co.count(qry, singletonMap("keys", asList("BMW", "UNKNOWN"))));
+        assertEquals(0, co.count(qry, singletonMap("keys", asList("UNKNOWN", "OTHER"))));
+
+        assertEquals(1, cache.compileCount() - compiles);
+        assertEquals(2, cache.hitCount() - hits);
+        assertTrue(cache.lastCompileNanos() > 0);
+        assertTrue(cache.maxCompileNanos() >= cache.lastCompileNanos());
+        assertTrue(cache.averageCompileNanos() > 0);
+    }
+
+    @Test
+    public void execution_of_queries_with_reused_compiled_query_is_not_slower_than_with_compilation_of_every_query() {
+        final int times = 50;
+        makesWithKey("MERC"); // warm up
+
+        long compilingTime = 0;
+        for (int index = 0; index < times; index++) {
+            cache.invalidateAll();
+            final long start = System.nanoTime();
+            makesWithKey("MERC");
+            compilingTime += System.nanoTime() - start;
+        }
+
+        final long compiles = cache.compileCount();
+        long reusingTime = 0;
+        for (int index = 0; index < times; index++) {
+            final long start = System.nanoTime();
+            makesWithKey("AUDI");
+            reusingTime += System.nanoTime() - start;
+        }
+
+        assertEquals(0, cache.compileCount() - compiles);
+        assertTrue("Reuse of compiled queries should not be slower than compilation of every query.", reusingTime <= compilingTime);
+    }
+
+    @Override
+    protected void populateDomain() {
+        super.populateDomain();
+
+        save(new_(TgVehicleMake.class, "MERC", "Mercedes"));
+        save(new_(TgVehicleMake.class, "AUDI", "Audi"));
+        save(new_(TgVehicleMake.class, "BMW", "BMW"));
+        save(new_(TgVehicleMake.class, "SUBARO", "Subaro"));
+    }
+}
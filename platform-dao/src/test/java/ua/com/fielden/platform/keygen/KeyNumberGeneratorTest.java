@@ -0,0 +1,164 @@
+package ua.com.fielden.platform.keygen;
+
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import ua.com.fielden.platform.dao.exceptions.EntityCompanionException;
+import ua.com.fielden.platform.entity.factory.ICompanionObjectFinder;
+import ua.com.fielden.platform.keygen.IKeyNumberGenerator.GapPolicy;
+import ua.com.fielden.platform.test.DbDrivenTestCase;
+
+/**
+ * Ensures correct generation of numbers by {@link KeyNumberGenerator} for different gap policies.
+ *
+ * @author TG Team
+ *
+ */
+public class KeyNumberGeneratorTest extends DbDrivenTestCase {
+    private final IKeyNumber coKeyNumber = injector.getInstance(IKeyNumber.class);
+    private final ICompanionObjectFinder coFinder = injector.getInstance(ICompanionObjectFinder.class);
+
+    @Test
+    public void test_numbers_without_gaps_are_reserved_one_by_one() {
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+        final IKeyNumberGenerator generator = new KeyNumberGenerator(coFinder, 10, GapPolicy.NO_GAPS);
+
+        assertEquals(Integer.valueOf(501), generator.nextNumber("WO"));
+        assertEquals(Integer.valueOf(502), generator.nextNumber("WO"));
+        assertEquals("Incorrect current WO number.", Integer.valueOf(502), coKeyNumber.currNumber("WO"));
+    }
+
+    @Test
+    public void test_numbers_are_handed_out_from_a_reserved_block() {
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+        final IKeyNumberGenerator generator = new KeyNumberGenerator(coFinder, 10, GapPolicy.ALLOW_GAPS);
+
+        assertEquals(Integer.valueOf(501), generator.nextNumber("WO"));
+        assertEquals(Integer.valueOf(502), generator.nextNumber("WO"));
+        assertEquals(Integer.valueOf(503), generator.nextNumber("WO"));
+        assertEquals("The whole block should have been reserved.", Integer.valueOf(510), coKeyNumber.currNumber("WO"));
+
+        generator.releaseUnusedNumbers();
+        assertEquals("Unused numbers should have been lost.", Integer.valueOf(510), coKeyNumber.currNumber("WO"));
+        assertEquals(Integer.valueOf(511), generator.nextNumber("WO"));
+    }
+
+    @Test
+    public void test_unused_numbers_are_returned_upon_release_if_no_numbers_were_reserved_after_them() {
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+        final IKeyNumberGenerator generator = new KeyNumberGenerator(coFinder, 10, GapPolicy.RETURN_UNUSED);
+
+        assertEquals(Integer.valueOf(501), generator.nextNumber("WO"));
+        assertEquals(Integer.valueOf(502), generator.nextNumber("WO"));
+        generator.releaseUnusedNumbers();
+        assertEquals("Unused numbers should have been returned.", Integer.valueOf(502), coKeyNumber.currNumber("WO"));
+
+        assertEquals(Integer.valueOf(503), generator.nextNumber("WO"));
+        assertEquals(Integer.valueOf(513), coKeyNumber.nextNumber("WO"));
+        generator.releaseUnusedNumbers();
+        assertEquals("Numbers followed by other reserved numbers should not have been returned.", Integer.valueOf(513), coKeyNumber.currNumber("WO"));
+    }
+
+    @Test
+    public void test_shutdown_returns_unused_numbers_and_prevents_reservation_of_new_blocks() {
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+        final IKeyNumberGenerator generator = new KeyNumberGenerator(coFinder, 10, GapPolicy.RETURN_UNUSED);
+
+        assertEquals(Integer.valueOf(501), generator.nextNumber("WO"));
+        assertEquals(Integer.valueOf(510), coKeyNumber.currNumber("WO"));
+        generator.shutdown();
+        assertEquals("Unused numbers should have been returned upon shutdown.", Integer.valueOf(501), coKeyNumber.currNumber("WO"));
+
+        try {
+            generator.nextNumber("WO");
+            fail("No numbers should be reserved after shutdown.");
+        } catch (final EntityCompanionException ex) {
+            assertEquals("Key number generator has been shut down.", ex.getMessage());
+        }
+        assertEquals(Integer.valueOf(501), coKeyNumber.currNumber("WO"));
+    }
+
+    @Test
+    public void test_concurrent_callers_get_unique_consecutive_numbers_from_blocks() throws Exception {
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+        final IKeyNumberGenerator generator = new KeyNumberGenerator(coFinder, 7, GapPolicy.ALLOW_GAPS);
+        final int threads = 4;
+        final int numbersPerThread = 50;
+
+        final Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < numbersPerThread; index++) {
+                        assertTrue("Duplicate number.", numbers.add(generator.nextNumber("WO")));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(threads * numbersPerThread, numbers.size());
+        for (int number = 501; number < 501 + threads * numbersPerThread; number++) {
+            assertTrue("Missing number " + number, numbers.contains(number));
+        }
+    }
+
+    @Test
+    public void test_concurrent_callers_are_not_slower_with_blocks_than_with_a_lock_per_number() throws Exception {
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+        final int threads = 4;
+        final int numbersPerThread = 50;
+
+        final long lockPerNumberTime = timeConcurrentCallers(new KeyNumberGenerator(coFinder, 100, GapPolicy.NO_GAPS), threads, numbersPerThread);
+        final long blockTime = timeConcurrentCallers(new KeyNumberGenerator(coFinder, 100, GapPolicy.ALLOW_GAPS), threads, numbersPerThread);
+
+        assertTrue(format("Block allocation [%s ms] should not be slower than a lock per number [%s ms].", blockTime / 1_000_000, lockPerNumberTime / 1_000_000),
+                blockTime <= lockPerNumberTime);
+    }
+
+    /**
+     * Obtains <code>numbersPerThread</code> numbers for key "WO" by each of <code>threads</code> concurrent callers and returns the elapsed time in nanoseconds.
+     */
+    private static long timeConcurrentCallers(final IKeyNumberGenerator generator, final int threads, final int numbersPerThread) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < numbersPerThread; index++) {
+                        generator.nextNumber("WO");
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+            generator.shutdown();
+        }
+    }
+
+    @Override
+    protected String[] getDataSetPathsForInsert() {
+        return new String[] { "src/test/resources/data-files/key-number-test-case.flat.xml" };
+    }
+
+}
@@ -0,0 +1,86 @@
+package ua.com.fielden.platform.migration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * A test case for {@link KeyIdMap}, which should behave as a map of keys to ids with equality semantics of the key values.
+ *
+ * @author TG Team
+ *
+ */
+public class KeyIdMapTest {
+
+    @Test
+    public void ids_are_found_by_single_and_composite_keys() {
+        final KeyIdMap map = new KeyIdMap();
+        map.put("KEY1", 1);
+        map.put(Arrays.asList("KEY1", "1"), 2);
+        map.put(Arrays.asList("KEY1", null), 3);
+
+        assertEquals(Integer.valueOf(1), map.get("KEY1"));
+        assertEquals(Integer.valueOf(2), map.get(Arrays.asList("KEY1", "1")));
+        assertEquals(Integer.valueOf(3), map.get(Arrays.asList("KEY1", null)));
+        assertNull(map.get("KEY2"));
+        assertNull(map.get(Arrays.asList("KEY1", "2")));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void values_of_different_types_are_distinguished_as_by_equals() {
+        final KeyIdMap map = new KeyIdMap();
+        map.put(Integer.valueOf(1), 1);
+        map.put(Long.valueOf(1), 2);
+        map.put(new BigDecimal("1.0"), 3);
+
+        assertEquals(Integer.valueOf(1), map.get(Integer.valueOf(1)));
+        assertEquals(Integer.valueOf(2), map.get(Long.valueOf(1)));
+        assertEquals(Integer.valueOf(3), map.get(new BigDecimal("1.0")));
+        assertNull(map.get("1"));
+        assertNull(map.get(new BigDecimal("1.00")));
+    }
+
+    @Test
+    public void putting_existing_key_replaces_its_id() {
+        final KeyIdMap map = new KeyIdMap();
+        map.put("KEY1", 1);
+        map.put("KEY1", 2);
+
+        assertEquals(Integer.valueOf(2), map.get("KEY1"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void many_keys_can_be_stored_in_memory_mapped_files() throws IOException {
+        final Path directory = Files.createTempDirectory("key-id-map-test");
+        final KeyIdMap map = new KeyIdMap(directory);
+        final int count = 200_000;
+        for (int index = 0; index < count; index++) {
+            map.put("KEY" + index, index);
+        }
+
+        assertEquals(count, map.size());
+        for (int index = 0; index < count; index++) {
+            assertEquals(Integer.valueOf(index), map.get("KEY" + index));
+        }
+        assertNull(map.get("KEY" + count));
+    }
+
+    @Test
+    public void keys_of_unsupported_types_are_supported_by_falling_back_to_hashing() {
+        final KeyIdMap map = new KeyIdMap();
+        final Object key = new Object();
+        map.put(key, 1);
+
+        assertEquals(Integer.valueOf(1), map.get(key));
+        assertNull(map.get(new Object()));
+    }
+}
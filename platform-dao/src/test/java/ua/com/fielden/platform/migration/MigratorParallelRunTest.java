@@ -1,7 +1,28 @@
 package ua.com.fielden.platform.migration;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+import com.google.inject.Injector;
 
+import ua.com.fielden.platform.dao.DomainMetadata;
+import ua.com.fielden.platform.dao.DomainMetadataAnalyser;
+import ua.com.fielden.platform.entity.AbstractEntity;
 import ua.com.fielden.platform.test.DbDrivenTestCase;
 
 /**
@@ -26,20 +47,79 @@ public class MigratorParallelRunTest extends DbDrivenTestCase {
         super.tearDown();
     }
 
+    /** Wraps the test injector to keep track of legacy connections, which are opened by the provider upon every request. */
+    private static Injector trackingLegacyConnections(final List<Connection> connections) {
+        return (Injector) Proxy.newProxyInstance(Injector.class.getClassLoader(), new Class<?>[] { Injector.class }, (proxy, method, args) -> {
+            final Object result;
+            try {
+                result = method.invoke(injector, args);
+            } catch (final InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if ("getInstance".equals(method.getName()) && Connection.class.equals(args[0])) {
+                synchronized (connections) {
+                    connections.add((Connection) result);
+                }
+            }
+            return result;
+        });
+    }
+
+    private static int countRows(final String sql) throws SQLException {
+        final Session session = hibernateUtil.getSessionFactory().getCurrentSession();
+        final Transaction tr = session.beginTransaction();
+        try (final Statement st = session.connection().createStatement();
+             final ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            tr.commit();
+        }
+    }
+
     public void test_migrating_of_entity_with_another_entity_association() throws Exception {
-        //	hibernateUtil.getSessionFactory().getCurrentSession().close();
-        //
-        //	final DataMigrator dm = new DataMigrator(injector, hibernateUtil, entityFactory, "test", 2, tMakeRetriever.class, tModelRetriever.class);
-        //
-        //	dm.populateData();
-        //	hibernateUtil.getSessionFactory().getCurrentSession().close();
-        //
-        //	assertEquals("Incorrect number of migrated entities.", 14, injector.getInstance(ITgVehicleModel.class).getPage(0, 100).data().size());
-        //	final List<MigrationHistory> migrationHistories = injector.getInstance(MigrationHistoryDao.class).getPage(0, 100).data();
-        //	assertEquals("Incorrect number of retrieved items for first thread", 0, 7 - migrationHistories.get(1).getRetrievedCount());
-        //	assertEquals("Incorrect number of inserted items for first thread", 0, 7 - migrationHistories.get(1).getInsertedCount());
-        //	assertEquals("Incorrect number of retrieved items for second thread", 0, 7 - migrationHistories.get(2).getRetrievedCount());
-        //	assertEquals("Incorrect number of inserted items for second thread", 0, 7 - migrationHistories.get(2).getInsertedCount());
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+
+        final List<Connection> legacyConnections = new ArrayList<>();
+        new DataMigrator(trackingLegacyConnections(legacyConnections), hibernateUtil, true, false, 2, tMakeRetriever.class, tModelRetriever.class);
+        hibernateUtil.getSessionFactory().getCurrentSession().close();
+
+        assertEquals("Incorrect number of migrated makes.", 4, countRows("SELECT COUNT(*) FROM TGVEHICLEMAKE_"));
+        assertEquals("Incorrect number of migrated models.", 15, countRows("SELECT COUNT(*) FROM TGVEHICLEMODEL_"));
+        assertEquals("Models should reference migrated makes.", 14, countRows("SELECT COUNT(*) FROM TGVEHICLEMODEL_ M JOIN TGVEHICLEMAKE_ K ON M.MAKE_ = K._ID"));
+        assertEquals("Ids should have been allocated for all migrated entities.", 501 + 4 + 15, countRows("SELECT NEXT_VALUE FROM UNIQUE_ID"));
+
+        assertFalse("Legacy connections should have been obtained.", legacyConnections.isEmpty());
+        for (final Connection legacyConn : legacyConnections) {
+            assertTrue("Legacy connection should have been closed.", legacyConn.isClosed());
+        }
+    }
+
+    public void test_retrievers_depend_on_preceding_retrievers_of_the_same_and_referenced_types() {
+        final DomainMetadataAnalyser dma = new DomainMetadataAnalyser(injector.getInstance(DomainMetadata.class));
+        final IRetriever<? extends AbstractEntity<?>> makes = injector.getInstance(tMakeRetriever.class);
+        final IRetriever<? extends AbstractEntity<?>> models = injector.getInstance(tModelRetriever.class);
+        final IRetriever<? extends AbstractEntity<?>> modelsWithoutMake = injector.getInstance(tModelWithoutMakeRetriever.class);
+        final IRetriever<? extends AbstractEntity<?>> modelMakes = injector.getInstance(tModelUpdaterWithMake.class);
+
+        final Map<IRetriever<? extends AbstractEntity<?>>, Set<IRetriever<? extends AbstractEntity<?>>>> dependencies =
+                DataMigrator.determineDependencies(dma, asList(modelsWithoutMake, makes, models, modelMakes));
+
+        assertEquals(emptySet(), dependencies.get(modelsWithoutMake));
+        assertEquals(emptySet(), dependencies.get(makes));
+        assertEquals(new HashSet<>(asList(modelsWithoutMake, makes)), dependencies.get(models));
+        assertEquals(new HashSet<>(asList(modelsWithoutMake, makes, models)), dependencies.get(modelMakes));
+    }
+
+    public void test_retrievers_do_not_depend_on_succeeding_retrievers() {
+        final DomainMetadataAnalyser dma = new DomainMetadataAnalyser(injector.getInstance(DomainMetadata.class));
+        final IRetriever<? extends AbstractEntity<?>> makes = injector.getInstance(tMakeRetriever.class);
+        final IRetriever<? extends AbstractEntity<?>> models = injector.getInstance(tModelRetriever.class);
+
+        final Map<IRetriever<? extends AbstractEntity<?>>, Set<IRetriever<? extends AbstractEntity<?>>>> dependencies = DataMigrator.determineDependencies(dma, asList(models, makes));
+
+        assertEquals(emptySet(), dependencies.get(models));
+        assertEquals("Makes should not be migrated before the preceding models have resolved their references.", new HashSet<>(asList(models)), dependencies.get(makes));
     }
 
     @Override
@@ -0,0 +1,113 @@
+package ua.com.fielden.platform.security.authentication;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+
+import ua.com.fielden.platform.sample.domain.TgPerson;
+import ua.com.fielden.platform.security.session.UserSession;
+import ua.com.fielden.platform.security.session.UserSessionCacheIndex;
+import ua.com.fielden.platform.security.session.UserSessionDao;
+import ua.com.fielden.platform.security.user.IUser;
+import ua.com.fielden.platform.security.user.IUserProvider;
+import ua.com.fielden.platform.security.user.User;
+import ua.com.fielden.platform.test.ioc.TickerForSessionCache;
+import ua.com.fielden.platform.test.ioc.UniversalConstantsForTesting;
+import ua.com.fielden.platform.test_config.AbstractDaoTestCase;
+import ua.com.fielden.platform.utils.IUniversalConstants;
+
+/**
+ * A test case to ensure that session cache invalidation by means of {@link UserSessionCacheIndex} removes all authenticators of affected sessions.
+ *
+ * @author TG Team
+ *
+ */
+public class UserSessionCacheIndexTestCase extends AbstractDaoTestCase {
+
+    private final UserSessionDao coSession = (UserSessionDao) co(UserSession.class);
+    private final Cache<String, UserSession> cache = coSession.getCache();
+    private final UserSessionCacheIndex cacheIndex = coSession.getCacheIndex();
+    private final UniversalConstantsForTesting constants = (UniversalConstantsForTesting) getInstance(IUniversalConstants.class);
+    private final TickerForSessionCache cacheTicker = (TickerForSessionCache) getInstance(Ticker.class);
+
+    @Before
+    public void startUp() {
+        // due to global cache nature it needs to be invalidated in order to keep tests independent
+        cacheIndex.invalidateAll(cache);
+    }
+
+    @Test
+    public void clearing_session_removes_both_original_and_regenerated_authenticators_from_cache() {
+        final User currUser = getInstance(IUserProvider.class).getUser();
+        constants.setNow(dateTime("2015-04-23 13:00:00"));
+        cacheTicker.setStartTime(dateTime("2015-04-23 13:00:00"));
+        final UserSession newSession = coSession.newSession(currUser, true);
+        final String authenticator = newSession.getAuthenticator().get().toString();
+
+        // enough time has passed to evict authenticators from cache, which leads to regeneration of the authenticator
+        constants.setNow(dateTime("2015-04-23 13:06:00"));
+        final Optional<UserSession> session = coSession.currentSession(currUser, authenticator);
+        assertTrue(session.isPresent());
+        final String newAuthenticator = session.get().getAuthenticator().get().toString();
+        assertEquals(2, cache.size());
+        assertEquals(2, cacheIndex.authenticatorsOf(session.get().getId()).size());
+
+        coSession.clearSession(session.get());
+
+        assertNull(cache.getIfPresent(authenticator));
+        assertNull(cache.getIfPresent(newAuthenticator));
+        assertEquals(0, cacheIndex.indexedSessions());
+    }
+
+    @Test
+    public void clearing_all_sessions_for_user_removes_only_sessions_of_that_user_from_cache() {
+        final User currUser = getInstance(IUserProvider.class).getUser();
+        final User user1 = co(User.class).findByKey("USER1");
+        constants.setNow(dateTime("2015-04-23 13:00:00"));
+        cacheTicker.setStartTime(dateTime("2015-04-23 13:00:00"));
+        coSession.newSession(currUser, true);
+        coSession.newSession(currUser, false);
+        final UserSession user1Session = coSession.newSession(user1, true);
+        assertEquals(3, cache.size());
+
+        assertEquals(2, coSession.clearAll(currUser));
+
+        assertEquals(1, cache.size());
+        assertNotNull(cache.getIfPresent(user1Session.getAuthenticator().get().toString()));
+    }
+
+    @Test
+    public void cache_lookups_are_accounted_for_in_hit_ratio() {
+        final User currUser = getInstance(IUserProvider.class).getUser();
+        constants.setNow(dateTime("2015-04-23 13:00:00"));
+        cacheTicker.setStartTime(dateTime("2015-04-23 13:00:00"));
+        final UserSession newSession = coSession.newSession(currUser, true);
+
+        final long hits = cacheIndex.hitCount();
+        constants.setNow(dateTime("2015-04-23 13:00:02"));
+        assertTrue(coSession.currentSession(currUser, newSession.getAuthenticator().get().toString()).isPresent());
+        assertEquals(1, cacheIndex.hitCount() - hits);
+        assertTrue(cacheIndex.hitRatio() > 0);
+    }
+
+    @Override
+    protected void populateDomain() {
+        super.populateDomain(); // creates the default current user TEST
+
+        constants.setNow(dateTime("2015-04-23 15:00:00"));
+
+        final IUser coUser = co(User.class);
+        final User user1 = coUser.save(new_(User.class, "USER1").setBase(true));
+        save(new_(TgPerson.class, "Person 1").setUser(user1));
+    }
+
+}
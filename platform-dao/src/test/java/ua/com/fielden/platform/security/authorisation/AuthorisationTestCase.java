@@ -10,6 +10,8 @@ import ua.com.fielden.platform.error.Result;
 import ua.com.fielden.platform.sample.domain.TgFuelType;
 import ua.com.fielden.platform.sample.domain.TgPerson;
 import ua.com.fielden.platform.sample.domain.security_tokens.DeleteFuelTypeToken;
+import ua.com.fielden.platform.security.provider.AuthorisationMatrix;
+import ua.com.fielden.platform.security.provider.ISecurityTokenController;
 import ua.com.fielden.platform.security.provider.SecurityTokenNode;
 import ua.com.fielden.platform.security.user.IUser;
 import ua.com.fielden.platform.security.user.IUserProvider;
@@ -74,6 +76,43 @@ public class AuthorisationTestCase extends AbstractDaoTestCase {
         }
     }
     
+    @Test
+    public void originally_restrictive_user_becomes_permissive_once_associated_with_a_permissive_role() {
+        final IUserProvider up = getInstance(IUserProvider.class);
+        up.setUsername(restrictiveUsername, co(User.class));
+        final TgFuelType ft = co(TgFuelType.class).findByKey(fuelType);
+        try {
+            co(TgFuelType.class).delete(ft);
+            fail();
+        } catch (final Result ex) {
+            assertEquals("Permission denied due to token [Delete Fuel Type] restriction.", ex.getMessage());
+        }
+
+        // associate the restrictive user with the permissive role
+        up.setUsername(UNIT_TEST_USER, co(User.class));
+        save(new_composite(UserAndRoleAssociation.class, co(User.class).findByKey(restrictiveUsername), co(UserRole.class).findByKey(roleName)));
+
+        up.setUsername(restrictiveUsername, co(User.class));
+        co(TgFuelType.class).delete(ft);
+        assertNull(co(TgFuelType.class).findByKey(fuelType));
+    }
+
+    @Test
+    public void repeated_authorisation_checks_for_the_same_user_are_served_from_authorisation_matrix() {
+        final ISecurityTokenController controller = getInstance(ISecurityTokenController.class);
+        final AuthorisationMatrix matrix = getInstance(AuthorisationMatrix.class);
+        final User user = co(User.class).findByKey(permissiveUsername);
+
+        assertTrue(controller.canAccess(user, DeleteFuelTypeToken.class));
+        final long rowLoads = matrix.getRowLoadCount();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(controller.canAccess(user, DeleteFuelTypeToken.class));
+            assertFalse(controller.canAccess(co(User.class).findByKey(restrictiveUsername), DeleteFuelTypeToken.class));
+        }
+        // only the restrictive user's access should have been loaded
+        assertEquals(rowLoads + 1, matrix.getRowLoadCount());
+    }
+
     @Before
     public void setUp() {
         // set permissive user as the current user before each test
@@ -102,4 +102,15 @@ class LogicThatNeedsTransaction implements ISessionEnabled {
 
         ((EntityWithMoneyDao) dao).saveTwoWithException(one, two);
     }
+
+    @SessionRequired(readonly = true)
+    public boolean readonlyInvocation() {
+        dao.findByKey("one");
+        return getSession().isDefaultReadOnly();
+    }
+
+    @SessionRequired(readonly = true)
+    public void readWriteInvocationWithinReadonlyScope(final String amountOne, final String amountTwo) {
+        singleTransactionInvocaion(amountOne, amountTwo);
+    }
 }
@@ -1,8 +1,10 @@
 package ua.com.fielden.platform.test.transactional;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static ua.com.fielden.platform.types.try_wrapper.TryWrapper.Try;
 
@@ -11,8 +13,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import ua.com.fielden.platform.dao.EntityWithMoneyDao;
+import ua.com.fielden.platform.dao.EntityWithSimpleMoneyDao;
 import ua.com.fielden.platform.entity.factory.EntityFactory;
+import ua.com.fielden.platform.ioc.session.SessionInterceptor;
+import ua.com.fielden.platform.ioc.session.exceptions.SessionScopingException;
 import ua.com.fielden.platform.persistence.types.EntityWithMoney;
+import ua.com.fielden.platform.persistence.types.EntityWithSimpleMoney;
 import ua.com.fielden.platform.test_config.AbstractDaoTestCase;
 import ua.com.fielden.platform.types.Money;
 import ua.com.fielden.platform.types.either.Either;
@@ -118,4 +124,45 @@ public class TransactionalTest extends AbstractDaoTestCase {
         assertNull("It is expected that transaction was committed.", dao.findByKey("two"));
     }
 
+    @Test
+    public void readonly_invocation_marks_session_as_readonly_and_avoids_flushing() {
+        final SessionInterceptor interceptor = getInstance(SessionInterceptor.class);
+        final long flushesAvoided = interceptor.getFlushesAvoided();
+
+        assertTrue("Session should have been read-only.", logic.readonlyInvocation());
+        assertFalse("Transaction should have been inactive at this stage (committed).", logic.getSession().isOpen());
+        // the outer read-only invocation and the nested findByKey, which is inferred to be read-only
+        assertEquals(flushesAvoided + 2, interceptor.getFlushesAvoided());
+    }
+
+    @Test
+    public void read_write_invocation_within_readonly_scope_is_not_permitted() {
+        try {
+            logic.readWriteInvocationWithinReadonlyScope("20.00", "30.00");
+            fail("should have thrown an exception");
+        } catch (final SessionScopingException e) {
+        }
+        assertFalse("Transaction should have been inactive at this stage (rollbacked).", logic.getSession().isOpen());
+        assertNull("It is expected that transaction was rollbacked, and thus no data was committed.", dao.findByKey("one"));
+    }
+
+    @Test
+    public void read_write_invocation_within_inferred_readonly_scope_falls_back_to_read_write() {
+        final SessionInterceptor interceptor = getInstance(SessionInterceptor.class);
+        final long flushesAvoided = interceptor.getFlushesAvoided();
+
+        // findByKey is inferred to be read-only, but invokes findByKeyAndFetch, which is overridden as read-write in the companion
+        final EntityWithSimpleMoneyDao co = co(EntityWithSimpleMoney.class);
+        assertNull(co.findByKey("unknown"));
+        assertEquals(flushesAvoided, interceptor.getFlushesAvoided());
+    }
+
+    @Test
+    public void read_write_invocation_after_readonly_one_is_not_affected_by_it() {
+        logic.readonlyInvocation();
+        logic.singleTransactionInvocaion("20.00", "30.00");
+        assertNotNull("It is expected that transaction was committed.", dao.findByKey("one"));
+        assertNotNull("It is expected that transaction was committed.", dao.findByKey("two"));
+    }
+
 }
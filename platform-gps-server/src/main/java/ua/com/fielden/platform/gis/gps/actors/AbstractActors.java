@@ -1,5 +1,6 @@
 package ua.com.fielden.platform.gis.gps.actors;
 
+import java.io.File;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
@@ -31,6 +32,10 @@ import ua.com.fielden.platform.gis.gps.AvlData;
 import ua.com.fielden.platform.gis.gps.IModuleLookup;
 import ua.com.fielden.platform.gis.gps.Option;
 import ua.com.fielden.platform.gis.gps.factory.DefaultGpsHandlerFactory;
+import ua.com.fielden.platform.gis.gps.journal.AvlJournal;
+import ua.com.fielden.platform.gis.gps.journal.GroupCommitWriter;
+import ua.com.fielden.platform.gis.gps.journal.IAvlMessageBatchPersister;
+import ua.com.fielden.platform.gis.gps.journal.JournaledData;
 import ua.com.fielden.platform.gis.gps.server.ServerTeltonika;
 import ua.com.fielden.platform.utils.Pair;
 import akka.actor.ActorRef;
@@ -45,6 +50,10 @@ import com.google.inject.Injector;
 
 /**
  * A container for all actors that maintains messages.
+ * <p>
+ * If both {@link #journalDirectory()} and {@link #createBatchPersister(Injector)} are provided, received AVL data is appended to {@link AvlJournal} before
+ * it is dispatched to module actors, and machine actors persist messages by means of {@link GroupCommitWriter}. Data, which has not been persisted before
+ * the previous shutdown, is replayed from the journal after all actors have been started, but before the GPS server starts accepting new data.
  * 
  * @author TG Team
  * 
@@ -65,6 +74,9 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
     private final String gpsHost;
     private final Integer gpsPort;
     private final Injector injector;
+    private AvlJournal journal;
+    private GroupCommitWriter<MESSAGE> groupCommitWriter;
+    private final LastMessageSnapshot<MESSAGE> lastMessageSnapshot = new LastMessageSnapshot<>();
 
     /**
      * Creates an actor system responsible for processing messages and getting efficiently a state from it (e.g. last machine message).
@@ -102,6 +114,7 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
      * @return
      */
     public AbstractActors<MESSAGE, MACHINE, MODULE, ASSOCIATION, MACHINE_ACTOR, MODULE_ACTOR> startActorSystem() {
+        openJournal();
         logger.info("\tModule actors starting...");
         for (final Entry<MODULE, List<ASSOCIATION>> moduleAssociations : this.modulesWithAssociations.entrySet()) {
             registerAndStartModuleActor(moduleAssociations.getKey(), moduleAssociations.getValue());
@@ -109,6 +122,45 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
         return this;
     }
 
+    private void openJournal() {
+        final String journalDirectory = journalDirectory();
+        final IAvlMessageBatchPersister<MESSAGE> persister = journalDirectory == null ? null : createBatchPersister(injector);
+        if (persister == null) {
+            return;
+        }
+        logger.info("\tAVL journal opening...");
+        journal = new AvlJournal(new File(journalDirectory));
+        groupCommitWriter = new GroupCommitWriter<>(journal, persister, GroupCommitWriter.DEFAULT_MAX_BATCH_SIZE, GroupCommitWriter.DEFAULT_MAX_DELAY_MILLIS).start();
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                groupCommitWriter.stop(10000);
+                journal.force();
+            }
+        });
+    }
+
+    /**
+     * A directory of the AVL journal, which should be provided to enable journaling of received data together with batch persistence of messages.
+     * Returns <code>null</code> by default, which means that messages are persisted by machine actors themselves.
+     *
+     * @return
+     */
+    protected String journalDirectory() {
+        return null;
+    }
+
+    /**
+     * Creates a persister of message batches, which is required to enable journaling of received data (refer {@link #journalDirectory()}).
+     * Returns <code>null</code> by default.
+     *
+     * @param injector
+     * @return
+     */
+    protected IAvlMessageBatchPersister<MESSAGE> createBatchPersister(final Injector injector) {
+        return null;
+    }
+
     /**
      * Creates, registers and starts an actor responsible for module processing.
      * 
@@ -164,7 +216,12 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
 
             @Override
             public UntypedActor create() {
-                return createMachineActor(injector, machine, lastMessage, machinesCounterRef);
+                final MACHINE_ACTOR machineActor = createMachineActor(injector, machine, lastMessage, machinesCounterRef);
+                machineActor.setLastMessageSnapshot(lastMessageSnapshot);
+                if (groupCommitWriter != null) {
+                    machineActor.setGroupCommitWriter(groupCommitWriter);
+                }
+                return machineActor;
             }
         }), createName(machine));
         return machineActorRef;
@@ -233,7 +290,12 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
     public void dataReceived(final String imei, final AvlData[] data) {
         final ActorRef actor = getModuleActor(imei);
         if (actor != null) { // the module is registered
-            actor.tell(data, null);
+            if (journal != null) {
+                final long received = System.currentTimeMillis();
+                actor.tell(new JournaledData(journal.append(imei, received, data), received, data, false), null);
+            } else {
+                actor.tell(data, null);
+            }
         } else {
             logger.warn("The module with imei [" + imei + "] is no longer registered. " + "This is most likely caused by the changes of IMEI for the module. "
                     + "As soon as old cached message channel with old IMEI will be dead and new channel will handle login -- "
@@ -267,35 +329,52 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
     }
 
     /**
-     * An API method for handling received machine data.
+     * Returns latest messages of the specified machines, which are newer than the corresponding dates (a <code>null</code> date means any message).
+     * Messages are read from the snapshot, which is maintained by machine actors, thus this method never blocks.
      * 
-     * @param machine
-     * @param data
+     * @param machinesTiming
+     * @return
      */
     public Map<Long, List<MESSAGE>> getLastMessagesUpdate(final Map<Long, Date> machinesTiming) {
-        final DateTime st = new DateTime();
-        final Timeout timeout = new Timeout(Duration.create(50000, "seconds"));
-        // TODO use several (or even one) existing LastMessageRetrieverActors? just not to create new ones every time
-        final Future<Object> future = Patterns.ask(LastMessageRetrieverActor.create(system, machineActors), new MachinesTiming(machinesTiming), timeout);
-        try {
-            final Map<Long, List<MESSAGE>> result = (Map<Long, List<MESSAGE>>) Await.result(future, timeout.duration());
-            final Period p = new Period(st, new DateTime());
-            logger.info("Last messages [" + result.size() + "] for " + machinesTiming.size() + " machines retrieved in " + (p.getHours() == 0 ? "" : p.getHours() + " h ")
-                    + (p.getMinutes() == 0 ? "" : p.getMinutes() + " m ") + p.getSeconds() + " s " + p.getMillis() + " ms.");
-            return result;
-        } catch (final Exception e) {
-            logger.error(e);
-            throw new IllegalStateException(e);
-        }
+        return lastMessageSnapshot.getLastMessagesUpdate(machinesTiming);
+    }
+
+    /**
+     * Returns the snapshot of latest messages of all machines.
+     * 
+     * @return
+     */
+    public LastMessageSnapshot<MESSAGE> getLastMessageSnapshot() {
+        return lastMessageSnapshot;
     }
 
     /**
      * Performs some custom action after the actors has been started.
      */
     protected void machineActorsStartedPostAction() {
+        replayJournal();
         startNettyGpsServer();
     }
 
+    /**
+     * Redirects data, which has not been persisted before the previous shutdown, from the journal (if enabled) to module actors.
+     */
+    protected void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        logger.info("\tAVL journal replaying...");
+        journal.replay((position, imei, received, data) -> {
+            final ActorRef actor = getModuleActor(imei);
+            if (actor != null) {
+                actor.tell(new JournaledData(position, received, data, true), null);
+            } else {
+                logger.warn("The module with imei [" + imei + "] is no longer registered. Its journaled data will be disregarded.");
+                journal.release(position);
+            }
+        });
+    }
+
     /**
      * Performs some custom action after the module actors has been started.
      */
@@ -335,6 +414,24 @@ public abstract class AbstractActors<MESSAGE extends AbstractAvlMessage, MACHINE
     protected void nettyServerStartedPostAction() {
     }
 
+    /**
+     * Returns the AVL journal or <code>null</code> if journaling is not enabled.
+     *
+     * @return
+     */
+    public AvlJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Returns the writer, which persists messages of all machine actors, or <code>null</code> if journaling is not enabled.
+     *
+     * @return
+     */
+    public GroupCommitWriter<MESSAGE> getGroupCommitWriter() {
+        return groupCommitWriter;
+    }
+
     protected ActorSystem getSystem() {
         return system;
     }
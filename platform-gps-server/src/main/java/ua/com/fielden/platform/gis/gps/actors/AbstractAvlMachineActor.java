@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Collection;
 import java.util.Date;
-import java.util.LinkedList;
 
 import org.apache.log4j.Logger;
 
@@ -12,6 +11,9 @@ import ua.com.fielden.platform.entity.factory.EntityFactory;
 import ua.com.fielden.platform.gis.MapUtils;
 import ua.com.fielden.platform.gis.gps.AbstractAvlMachine;
 import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+import ua.com.fielden.platform.gis.gps.journal.AvlJournal;
+import ua.com.fielden.platform.gis.gps.journal.GroupCommitWriter;
+import ua.com.fielden.platform.gis.gps.journal.PersistRequest;
 import ua.com.fielden.platform.persistence.HibernateUtil;
 import ua.com.fielden.platform.utils.Pair;
 import akka.actor.ActorRef;
@@ -19,6 +21,10 @@ import akka.actor.UntypedActor;
 
 /**
  * This actor is responsible for messages processing for concrete machine.
+ * <p>
+ * If the AVL journal is enabled (refer {@link AbstractActors#journalDirectory()}), messages are persisted asynchronously by {@link GroupCommitWriter}
+ * instead of {@link #persist(Collection, AbstractAvlMessage)} and {@link #persistError(Packet)}, and are not persisted temporarily, as the journal itself
+ * keeps all messages, which have not been persisted yet.
  * 
  * @author TG Team
  * 
@@ -32,13 +38,15 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
     private final Logger logger = Logger.getLogger(AbstractAvlMachineActor.class);
 
     private MACHINE machine;
-    private final LinkedList<Packet<MESSAGE>> incomingPackets = new LinkedList<>();
-    private final LinkedList<Packet<MESSAGE>> inspectionBuffer = new LinkedList<>();
+    private final PacketRingBuffer<MESSAGE> incomingPackets = new PacketRingBuffer<>(windowSize);
+    private final PacketRingBuffer<MESSAGE> inspectionBuffer = new PacketRingBuffer<>(windowSize3);
     private final Blackout<MESSAGE> blackout;
     private MESSAGE latestGpsMessage;
     private MESSAGE lastProcessedMessage;
     private final HibernateUtil hibUtil;
     private ActorRef machinesCounterRef;
+    private GroupCommitWriter<MESSAGE> groupCommitWriter;
+    private LastMessageSnapshot<MESSAGE> lastMessageSnapshot;
 
     public AbstractAvlMachineActor(final EntityFactory factory, final MACHINE machine, final MESSAGE lastMessage, final HibernateUtil hibUtil, final ActorRef machinesCounterRef) {
         this.machinesCounterRef = machinesCounterRef;
@@ -58,11 +66,29 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
     public void preStart() {
         super.preStart();
 
+        publishLatestGpsMessage();
         machinesCounterRef.tell(new MachineActorStarted(this.machine.getKey(), this.machine.getDesc()), getSelf());
         machinesCounterRef = null;
     }
 
-    protected abstract void processTempMessages(final MACHINE machine) throws Exception;
+    @Override
+    public void postStop() {
+        // the last message of a stopped machine actor should not be served anymore; a restarted actor publishes it again upon start
+        if (lastMessageSnapshot != null) {
+            lastMessageSnapshot.remove(machine.getId());
+        }
+        super.postStop();
+    }
+
+    /**
+     * Processes messages, which have been persisted temporarily, but not processed before the previous shutdown.
+     * Is not needed if the AVL journal is enabled, as such messages are replayed from the journal.
+     *
+     * @param machine
+     * @throws Exception
+     */
+    protected void processTempMessages(final MACHINE machine) throws Exception {
+    }
 
     protected abstract void persistTemporarily(final Packet<MESSAGE> packet) throws Exception;
 
@@ -77,6 +103,8 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
 
         final Packet<MESSAGE> goodPart = new Packet<MESSAGE>(new Date(packet.getCreated()), messagesComparator);
         final Packet<MESSAGE> badPart = new Packet<MESSAGE>(new Date(packet.getCreated()), messagesComparator);
+        goodPart.setReplayed(packet.isReplayed());
+        badPart.setReplayed(packet.isReplayed());
 
         for (final MESSAGE message : packet.getMessages()) {
             if (message.getGpsTime().getTime() <= lastProcesseMessage.getGpsTime().getTime()) {
@@ -86,19 +114,46 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
             }
         }
 
+        shareJournalPosition(packet.getJournalPosition(), goodPart, badPart);
         return new Pair<Packet<MESSAGE>, Packet<MESSAGE>>(goodPart, badPart);
     }
 
+    /**
+     * Passes the journal record of a packet to its non-empty parts, acquiring the record once more if both parts are non-empty.
+     */
+    private void shareJournalPosition(final long journalPosition, final Packet<MESSAGE> goodPart, final Packet<MESSAGE> badPart) {
+        if (journalPosition < 0) {
+            return;
+        }
+        if (!goodPart.isEmpty() && !badPart.isEmpty()) {
+            journal().acquire(journalPosition);
+        }
+        goodPart.setJournalPosition(goodPart.isEmpty() ? -1 : journalPosition);
+        badPart.setJournalPosition(badPart.isEmpty() ? -1 : journalPosition);
+        if (goodPart.isEmpty() && badPart.isEmpty()) {
+            journal().release(journalPosition);
+        }
+    }
+
     protected final void processSinglePacket(final Packet<MESSAGE> originalPacket, final boolean onStart) throws Exception {
         final Pair<Packet<MESSAGE>, Packet<MESSAGE>> categorisedByViolations = categoriseByViolations(originalPacket, lastProcessedMessage);
         final Packet<MESSAGE> packetWithViolatingMessages = categorisedByViolations.getValue();
         if (packetWithViolatingMessages != null && !packetWithViolatingMessages.isEmpty()) {
-            persistError(packetWithViolatingMessages);
+            if (groupCommitWriter == null) {
+                persistError(packetWithViolatingMessages);
+            } else if (packetWithViolatingMessages.isReplayed()) {
+                // replayed messages, which violate chronology, have most likely been persisted before the restart
+                releaseJournalPosition(packetWithViolatingMessages);
+            } else {
+                groupCommitWriter.submit(PersistRequest.erroneous(packetWithViolatingMessages.getMessages(), journalPositions(packetWithViolatingMessages)));
+            }
         }
 
         final Packet<MESSAGE> packet = categorisedByViolations.getKey();
 
-        if (!packet.isEmpty()) {
+        if (packet.isEmpty()) {
+            releaseJournalPosition(packet);
+        } else {
 
             if (latestGpsMessage != null && latestGpsMessage.getGpsTime().getTime() > packet.getStart().getGpsTime().getTime()) {
                 for (final MESSAGE message : packet.getMessages()) {
@@ -112,9 +167,10 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
                 final MESSAGE oldLatestGpsMessage = latestGpsMessage;
                 latestGpsMessage = packet.getFinish();
                 processLatestGpsMessage(oldLatestGpsMessage, latestGpsMessage);
+                publishLatestGpsMessage();
             }
 
-            if (!onStart) {
+            if (!onStart && groupCommitWriter == null) {
                 persistTemporarily(packet);
             }
 
@@ -138,11 +194,12 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
                             if (blackout.getMessages().size() > 0) {
                                 final MESSAGE blackoutLastMessage = blackout.getFinish();
                                 final MESSAGE blackoutStart = blackout.getStart();
+                                final long[] journalPositions = blackout.resetJournalPositions();
                                 final Collection<MESSAGE> messages = blackout.reset();
-                                persist(messages, lastProcessedMessage);
+                                persistMessages(messages, lastProcessedMessage, journalPositions);
                                 lastProcessedMessage = blackoutLastMessage;
                             }
-                            persist(first.getMessages(), lastProcessedMessage);
+                            persistMessages(first.getMessages(), lastProcessedMessage, journalPositions(first));
                             lastProcessedMessage = first.getFinish();
                         } else {
                             blackout.add(first);
@@ -154,6 +211,46 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
         }
     }
 
+    private void persistMessages(final Collection<MESSAGE> messages, final MESSAGE latestPersistedMessage, final long[] journalPositions) throws Exception {
+        if (groupCommitWriter == null) {
+            persist(messages, latestPersistedMessage);
+        } else {
+            groupCommitWriter.submit(PersistRequest.messages(messages, latestPersistedMessage, journalPositions));
+        }
+    }
+
+    private static long[] journalPositions(final Packet<?> packet) {
+        return packet.getJournalPosition() >= 0 ? new long[] { packet.getJournalPosition() } : new long[0];
+    }
+
+    private void releaseJournalPosition(final Packet<MESSAGE> packet) {
+        if (packet.getJournalPosition() >= 0) {
+            journal().release(packet.getJournalPosition());
+        }
+    }
+
+    private AvlJournal journal() {
+        return groupCommitWriter.getJournal();
+    }
+
+    /**
+     * Makes this actor persist messages by means of <code>groupCommitWriter</code>. Is invoked by {@link AbstractActors} upon actor creation if the AVL journal is enabled.
+     *
+     * @param groupCommitWriter
+     */
+    final void setGroupCommitWriter(final GroupCommitWriter<MESSAGE> groupCommitWriter) {
+        this.groupCommitWriter = groupCommitWriter;
+    }
+
+    /**
+     * Makes this actor publish its latest GPS message to <code>lastMessageSnapshot</code>. Is invoked by {@link AbstractActors} upon actor creation.
+     *
+     * @param lastMessageSnapshot
+     */
+    final void setLastMessageSnapshot(final LastMessageSnapshot<MESSAGE> lastMessageSnapshot) {
+        this.lastMessageSnapshot = lastMessageSnapshot;
+    }
+
     /**
      * Provides custom processing action after new 'latest GPS message' has been arrived.
      * 
@@ -178,7 +275,7 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
 
                 if (latestGpsMessage != null
                         && (lastMessageRequest.getAfterDate() == null || latestGpsMessage.getGpsTime().getTime() > lastMessageRequest.getAfterDate().getTime())) {
-                    final MESSAGE lastMessage = completeMessageCopy(produceIncompleteLastMessage(latestGpsMessage), latestGpsMessage);
+                    final MESSAGE lastMessage = copyOfLatestGpsMessage();
                     getSender().tell(new LastMessage<MESSAGE>(lastMessageRequest.getMachineId(), lastMessage), getSelf());
                 } else {
                     getSender().tell(new NoLastMessage(), getSelf());
@@ -199,6 +296,19 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
         logger.info("An existent machine, that has been changed [" + changedMachine.getValue() + "], has been sucessfully promoted to its machine actor.");
     }
 
+    private MESSAGE copyOfLatestGpsMessage() {
+        return completeMessageCopy(produceIncompleteLastMessage(latestGpsMessage), latestGpsMessage);
+    }
+
+    /**
+     * Publishes a copy of the latest GPS message to the snapshot of last messages (if any), so that it can be read concurrently by other threads.
+     */
+    private void publishLatestGpsMessage() {
+        if (lastMessageSnapshot != null && latestGpsMessage != null) {
+            lastMessageSnapshot.publish(machine.getId(), copyOfLatestGpsMessage());
+        }
+    }
+
     private MESSAGE produceIncompleteLastMessage(final MESSAGE message) {
         final MESSAGE copy = createMessage();
         copy.setX(message.getX());
@@ -264,15 +374,10 @@ public abstract class AbstractAvlMachineActor<MESSAGE extends AbstractAvlMessage
     }
 
     private float calcAvgPacketSize() {
-        if (inspectionBuffer.size() == 0) {
+        if (inspectionBuffer.isEmpty()) {
             return 0;
         }
-
-        Integer totalSize = 0;
-        for (final Packet<MESSAGE> packet : inspectionBuffer) {
-            totalSize = totalSize + packet.getMessages().size();
-        }
-        return totalSize / inspectionBuffer.size();
+        return inspectionBuffer.getTotalMessages() / inspectionBuffer.size();
     }
 
     private int calcNewWindowSize(final float recentAvgPacketSize) {
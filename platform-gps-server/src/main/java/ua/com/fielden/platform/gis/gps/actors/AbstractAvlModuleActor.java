@@ -19,6 +19,8 @@ import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
 import ua.com.fielden.platform.gis.gps.AbstractAvlModule;
 import ua.com.fielden.platform.gis.gps.AvlData;
 import ua.com.fielden.platform.gis.gps.Option;
+import ua.com.fielden.platform.gis.gps.journal.AvlJournal;
+import ua.com.fielden.platform.gis.gps.journal.JournaledData;
 import ua.com.fielden.platform.persistence.HibernateUtil;
 import akka.actor.ActorRef;
 import akka.actor.UntypedActor;
@@ -83,21 +85,15 @@ public abstract class AbstractAvlModuleActor<MESSAGE extends AbstractAvlMessage,
     public void onReceive(final Object data) throws Exception {
         try {
             if (data instanceof AvlData[]) {
-                final Packet<MESSAGE> packet = createPacket((AvlData[]) data);
-
-                // Split a "physical" packet into several parts by machines,
-                // which were active during those messages emitting.
-                // After that redirect those packets to appropriate machine actors.
-                final Map<MACHINE, Packet<MESSAGE>> machinePackets = splitByMachine(packet);
-                for (final Entry<MACHINE, Packet<MESSAGE>> machinePacket : machinePackets.entrySet()) {
-                    if (machinePacket.getKey() == null) {
-                        logger.warn("No machine exists for [" + module.getKey() + "] messages [" + machinePacket.getValue().getMessages()
-                                + "]. These messages will be disregarded at this stage.");
-                    } else {
-                        logger.debug("[" + machinePacket.getKey() + "] machine is active for [" + module.getKey() + "] messages [" + machinePacket.getValue().getMessages()
-                                + "]. The messages will be redirected to appropriate machine actor.");
-                        actors.getMachineActor(machinePacket.getKey().getId()).tell(machinePacket.getValue(), getSelf());
-                    }
+                redirectToMachines(createPacket((AvlData[]) data, new Date()), null);
+            } else if (data instanceof JournaledData) {
+                final JournaledData journaledData = (JournaledData) data;
+                final AvlJournal journal = actors.getJournal();
+                try {
+                    redirectToMachines(createPacket(journaledData.getData(), new Date(journaledData.getReceived())), journaledData);
+                } finally {
+                    // the journal record has been acquired for every machine packet, and is no longer needed by this actor
+                    journal.release(journaledData.getPosition());
                 }
             } else if (data instanceof New) {
                 promoteNewMachineAssociation((New<ASSOCIATION>) data);
@@ -114,6 +110,32 @@ public abstract class AbstractAvlModuleActor<MESSAGE extends AbstractAvlMessage,
         }
     }
 
+    /**
+     * Splits a "physical" packet into several parts by machines, which were active during those messages emitting, and redirects those packets to appropriate machine actors.
+     * Each redirected packet acquires the journal record of <code>journaledData</code> (if any).
+     *
+     * @param packet
+     * @param journaledData
+     */
+    private void redirectToMachines(final Packet<MESSAGE> packet, final JournaledData journaledData) {
+        final Map<MACHINE, Packet<MESSAGE>> machinePackets = splitByMachine(packet);
+        for (final Entry<MACHINE, Packet<MESSAGE>> machinePacket : machinePackets.entrySet()) {
+            if (machinePacket.getKey() == null) {
+                logger.warn("No machine exists for [" + module.getKey() + "] messages [" + machinePacket.getValue().getMessages()
+                        + "]. These messages will be disregarded at this stage.");
+            } else {
+                logger.debug("[" + machinePacket.getKey() + "] machine is active for [" + module.getKey() + "] messages [" + machinePacket.getValue().getMessages()
+                        + "]. The messages will be redirected to appropriate machine actor.");
+                if (journaledData != null) {
+                    actors.getJournal().acquire(journaledData.getPosition());
+                    machinePacket.getValue().setJournalPosition(journaledData.getPosition());
+                    machinePacket.getValue().setReplayed(journaledData.isReplayed());
+                }
+                actors.getMachineActor(machinePacket.getKey().getId()).tell(machinePacket.getValue(), getSelf());
+            }
+        }
+    }
+
     private static String toString(final Date date) {
         return date == null ? "+\u221E" : dateFormatter.format(date);
     }
@@ -214,8 +236,7 @@ public abstract class AbstractAvlModuleActor<MESSAGE extends AbstractAvlMessage,
         return machineAssociation == null ? new Option<MACHINE>(null) : new Option<MACHINE>(machineAssociation.getMachine());
     }
 
-    private Packet<MESSAGE> createPacket(final AvlData[] data) {
-        final Date packetReceived = new Date();
+    private Packet<MESSAGE> createPacket(final AvlData[] data, final Date packetReceived) {
         final Packet<MESSAGE> packet = new Packet<MESSAGE>(packetReceived, messagesComparator);
         for (int i = data.length - 1; i >= 0; i--) {
             final MESSAGE uncompletedMessage = avlToMessageConverter.populateData(createMessage(), data[i], packetReceived);
@@ -5,7 +5,6 @@ import java.util.Date;
 
 import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
 import ua.com.fielden.platform.gis.gps.AvlData;
-import ua.com.fielden.platform.gis.gps.AvlGpsElement;
 import ua.com.fielden.platform.gis.gps.AvlIoCodes;
 import ua.com.fielden.platform.gis.gps.AvlIoElement;
 
@@ -20,20 +19,19 @@ public class AvlToMessageConverter<T extends AbstractAvlMessage> {
 
     /** A convenient routine for populating data from {@link AvlData} to GPS message. */
     public T populateData(final T msg, final AvlData avl, final Date packetReceived) {
-        final AvlGpsElement gps = avl.getGps();
         final Date gpsTime = new Date(avl.getGpsTimestamp());
 
-        msg.setAltitude(Integer.valueOf(gps.getAltitude()));
-        msg.setX(BigDecimal.valueOf(gps.getLongitude()));
-        msg.setY(BigDecimal.valueOf(gps.getLatitude()));
-        msg.setVectorSpeed(Integer.valueOf(gps.getSpeed()));
-        msg.setVectorAngle(Integer.valueOf(gps.getAngle()));
-        msg.setVisibleSattelites(Integer.valueOf(gps.getSatellites()));
+        msg.setAltitude(Integer.valueOf(avl.getAltitude()));
+        msg.setX(BigDecimal.valueOf(avl.getLongitude()));
+        msg.setY(BigDecimal.valueOf(avl.getLatitude()));
+        msg.setVectorSpeed(Integer.valueOf(avl.getSpeed()));
+        msg.setVectorAngle(Integer.valueOf(avl.getAngle()));
+        msg.setVisibleSattelites(Integer.valueOf(avl.getSatellites()));
         msg.setGpsTime(gpsTime);
-        msg.setDin1(locateDin1(avl.getIo()));
-        msg.setPowerSupplyVoltage(locatePowerSupplyVot(avl.getIo()));
-        msg.setBatteryVoltage(locateBatteryVot(avl.getIo()));
-        msg.setGpsPower(locateGpsPower(avl.getIo()));
+        msg.setDin1(locateDin1(avl));
+        msg.setPowerSupplyVoltage(locatePowerSupplyVot(avl));
+        msg.setBatteryVoltage(locateBatteryVot(avl));
+        msg.setGpsPower(locateGpsPower(avl));
         msg.setPacketReceived(packetReceived);
 
         return msg;
@@ -71,39 +69,19 @@ public class AvlToMessageConverter<T extends AbstractAvlMessage> {
     //	return null;
     //    }
 
-    private static boolean locateDin1(final AvlIoElement io) {
-        for (int index = 0; index < io.byteIo.length; index++) {
-            if (io.byteIo[index].ioId == AvlIoCodes.DIN1.id) {
-                return io.byteIo[index].ioValue == 1;
-            }
-        }
-        return false;
+    private static boolean locateDin1(final AvlData avl) {
+        return avl.getByteIo(AvlIoCodes.DIN1.id, (byte) 0) == 1;
     }
 
-    private static BigDecimal locatePowerSupplyVot(final AvlIoElement io) {
-        for (int index = 0; index < io.shortIo.length; index++) {
-            if (io.shortIo[index].ioId == AvlIoCodes.POWER_SUPPLY_VOLT.id) {
-                return new BigDecimal((double) io.shortIo[index].ioValue / 1000);
-            }
-        }
-        return null;
+    private static BigDecimal locatePowerSupplyVot(final AvlData avl) {
+        return avl.hasShortIo(AvlIoCodes.POWER_SUPPLY_VOLT.id) ? new BigDecimal((double) avl.getShortIo(AvlIoCodes.POWER_SUPPLY_VOLT.id, (short) 0) / 1000) : null;
     }
 
-    private static BigDecimal locateBatteryVot(final AvlIoElement io) {
-        for (int index = 0; index < io.shortIo.length; index++) {
-            if (io.shortIo[index].ioId == AvlIoCodes.BATTERY_VOLT.id) {
-                return new BigDecimal((double) io.shortIo[index].ioValue / 1000);
-            }
-        }
-        return null;
+    private static BigDecimal locateBatteryVot(final AvlData avl) {
+        return avl.hasShortIo(AvlIoCodes.BATTERY_VOLT.id) ? new BigDecimal((double) avl.getShortIo(AvlIoCodes.BATTERY_VOLT.id, (short) 0) / 1000) : null;
     }
 
-    private static boolean locateGpsPower(final AvlIoElement io) {
-        for (int index = 0; index < io.shortIo.length; index++) {
-            if (io.shortIo[index].ioId == AvlIoCodes.GPS_POWER.id) {
-                return io.shortIo[index].ioValue == 1;
-            }
-        }
-        return false;
+    private static boolean locateGpsPower(final AvlData avl) {
+        return avl.getShortIo(AvlIoCodes.GPS_POWER.id, (short) 0) == 1;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,10 @@
 package ua.com.fielden.platform.gis.gps.actors;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -20,38 +19,47 @@ import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
  */
 public class Blackout<T extends AbstractAvlMessage> {
     private final SortedSet<T> messages;
-    private final Set<Long> gpsTimes = new HashSet<>();
+    private long[] journalPositions = new long[0];
 
     public Blackout(final MessagesComparator<T> messagesComparator) {
         this.messages = new TreeSet<>(messagesComparator);
     }
 
     public void add(final Packet<T> packet) {
+        if (packet.getJournalPosition() >= 0) {
+            journalPositions = Arrays.copyOf(journalPositions, journalPositions.length + 1);
+            journalPositions[journalPositions.length - 1] = packet.getJournalPosition();
+        }
         for (final T message : packet.getMessages()) {
-            if (!gpsTimes.contains(message.getGpsTime().getTime())) {
+            // messages are compared by GPS time, thus a message with the same GPS time replaces the existing one
+            if (!messages.add(message)) {
+                messages.remove(message);
                 messages.add(message);
-                gpsTimes.add(message.getGpsTime().getTime());
-            } else {
-                final boolean rm = messages.remove(message);
-                final boolean ad = messages.add(message);
             }
         }
     }
 
     public Collection<T> reset() {
         if (messages.size() > 0) {
-            final List<T> result = new ArrayList<>();
-            for (final T message : messages) {
-                result.add(message);
-            }
+            final List<T> result = new ArrayList<>(messages);
             messages.clear();
-            gpsTimes.clear();
             return result;
         } else {
             return Collections.emptySet();
         }
     }
 
+    /**
+     * Returns positions of journal records, which messages of this blackout originate from, and forgets them.
+     *
+     * @return
+     */
+    public long[] resetJournalPositions() {
+        final long[] result = journalPositions;
+        journalPositions = new long[0];
+        return result;
+    }
+
     public SortedSet<T> getMessages() {
         return messages;
     }
@@ -0,0 +1,97 @@
+package ua.com.fielden.platform.gis.gps.actors;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/**
+ * A concurrently readable snapshot of the latest GPS messages of machines.
+ * <p>
+ * Machine actors publish a copy of their latest GPS message every time it changes, and never modify published messages afterwards.
+ * Thus readers get last messages directly from the snapshot without sending requests to machine actors and without waiting for their responses.
+ *
+ * @author TG Team
+ *
+ * @param <MESSAGE>
+ */
+public class LastMessageSnapshot<MESSAGE extends AbstractAvlMessage> {
+    private final ConcurrentMap<Long, MESSAGE> lastMessages = new ConcurrentHashMap<>();
+
+    /**
+     * Publishes <code>lastMessage</code> of machine with <code>machineId</code>. The message should not be modified after publication.
+     *
+     * @param machineId
+     * @param lastMessage
+     */
+    public void publish(final Long machineId, final MESSAGE lastMessage) {
+        lastMessages.put(machineId, lastMessage);
+    }
+
+    /**
+     * Removes the latest message of machine with <code>machineId</code>. Is invoked when the actor of that machine stops.
+     *
+     * @param machineId
+     */
+    public void remove(final Long machineId) {
+        lastMessages.remove(machineId);
+    }
+
+    /**
+     * Returns the latest message of machine with <code>machineId</code>, or <code>null</code> if there is no such message.
+     *
+     * @param machineId
+     * @return
+     */
+    public MESSAGE get(final Long machineId) {
+        return lastMessages.get(machineId);
+    }
+
+    /**
+     * Returns latest messages of the specified machines, which are newer than the corresponding dates (a <code>null</code> date means any message).
+     * Machines without newer messages are not included into the result.
+     *
+     * @param machinesTiming
+     * @return
+     */
+    public Map<Long, List<MESSAGE>> getLastMessagesUpdate(final Map<Long, Date> machinesTiming) {
+        final Map<Long, List<MESSAGE>> result = new HashMap<>();
+        for (final Entry<Long, Date> idAndDate : machinesTiming.entrySet()) {
+            final MESSAGE lastMessage = lastMessages.get(idAndDate.getKey());
+            if (isNewer(lastMessage, idAndDate.getValue())) {
+                result.put(idAndDate.getKey(), Arrays.asList(lastMessage));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns latest messages of all machines, which are newer than <code>after</code> (a <code>null</code> date means any message).
+     *
+     * @param after
+     * @return
+     */
+    public Map<Long, MESSAGE> getLastMessagesAfter(final Date after) {
+        final Map<Long, MESSAGE> result = new HashMap<>();
+        for (final Entry<Long, MESSAGE> idAndMessage : lastMessages.entrySet()) {
+            if (isNewer(idAndMessage.getValue(), after)) {
+                result.put(idAndMessage.getKey(), idAndMessage.getValue());
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return lastMessages.size();
+    }
+
+    private static boolean isNewer(final AbstractAvlMessage message, final Date after) {
+        return message != null && (after == null || message.getGpsTime().getTime() > after.getTime());
+    }
+}
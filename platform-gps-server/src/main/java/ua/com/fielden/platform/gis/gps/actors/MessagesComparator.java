@@ -14,12 +14,6 @@ import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
 public class MessagesComparator<T extends AbstractAvlMessage> implements Comparator<T> {
     @Override
     public int compare(final T p1, final T p2) {
-        if (p1.getGpsTime().getTime() > p2.getGpsTime().getTime()) {
-            return 1;
-        } else if (p1.getGpsTime().getTime() < p2.getGpsTime().getTime()) {
-            return -1;
-        } else {
-            return 0;
-        }
+        return Long.compare(p1.getGpsTime().getTime(), p2.getGpsTime().getTime());
     }
 };
\ No newline at end of file
@@ -2,8 +2,6 @@ package ua.com.fielden.platform.gis.gps.actors;
 
 import java.math.BigDecimal;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -19,7 +17,8 @@ public class Packet<T extends AbstractAvlMessage> {
 
     private final Long created;
     private final SortedSet<T> messages;
-    private final Set<Long> gpsTimes = new HashSet<>();
+    private long journalPosition = -1;
+    private boolean replayed;
 
     @Override
     public String toString() {
@@ -34,12 +33,10 @@ public class Packet<T extends AbstractAvlMessage> {
 
     public void add(final T message) {
         if (isValid(message)) {
-            if (!gpsTimes.contains(message.getGpsTime().getTime())) {
-                gpsTimes.add(message.getGpsTime().getTime());
+            // messages are compared by GPS time, thus a message with the same GPS time replaces the existing one
+            if (!messages.add(message)) {
+                messages.remove(message);
                 messages.add(message);
-            } else {
-                final boolean rm = messages.remove(message);
-                final boolean ad = messages.add(message);
             }
         }
     }
@@ -113,4 +110,26 @@ public class Packet<T extends AbstractAvlMessage> {
     public Long getCreated() {
         return created;
     }
+
+    /**
+     * The position of the journal record, which messages of this packet originate from, or -1 if the packet is not journaled.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    public void setJournalPosition(final long journalPosition) {
+        this.journalPosition = journalPosition;
+    }
+
+    /**
+     * Indicates whether this packet has been replayed from the journal upon restart.
+     */
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    public void setReplayed(final boolean replayed) {
+        this.replayed = replayed;
+    }
 }
\ No newline at end of file
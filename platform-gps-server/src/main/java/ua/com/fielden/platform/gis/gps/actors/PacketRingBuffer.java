@@ -0,0 +1,110 @@
+package ua.com.fielden.platform.gis.gps.actors;
+
+import java.util.Arrays;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/**
+ * A FIFO queue of packets, which is backed by a growable array ring buffer, and which keeps the total number of messages in its packets.
+ * <p>
+ * Unlike a linked list, the ring buffer provides constant time access by index and does not allocate a node per packet.
+ * Packets are expected not to change the number of their messages while they are in the buffer.
+ *
+ * @author TG Team
+ *
+ * @param <T>
+ */
+public class PacketRingBuffer<T extends AbstractAvlMessage> {
+    private Packet<T>[] packets;
+    private int head;
+    private int size;
+    private int totalMessages;
+
+    public PacketRingBuffer(final int initialCapacity) {
+        this.packets = newArray(Integer.highestOneBit(Math.max(initialCapacity, 2) - 1) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends AbstractAvlMessage> Packet<T>[] newArray(final int capacity) {
+        return new Packet[capacity];
+    }
+
+    /**
+     * Adds <code>packet</code> to the tail of the buffer.
+     *
+     * @param packet
+     */
+    public void add(final Packet<T> packet) {
+        if (size == packets.length) {
+            grow();
+        }
+        packets[(head + size) & (packets.length - 1)] = packet;
+        size++;
+        totalMessages += packet.getMessages().size();
+    }
+
+    /**
+     * Removes and returns the packet at the head of the buffer, or returns <code>null</code> if the buffer is empty.
+     *
+     * @return
+     */
+    public Packet<T> poll() {
+        if (size == 0) {
+            return null;
+        }
+        final Packet<T> packet = packets[head];
+        packets[head] = null;
+        head = (head + 1) & (packets.length - 1);
+        size--;
+        totalMessages -= packet.getMessages().size();
+        return packet;
+    }
+
+    /**
+     * Returns the packet with <code>index</code> counting from the head of the buffer.
+     *
+     * @param index
+     * @return
+     */
+    public Packet<T> get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return packets[(head + index) & (packets.length - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total number of messages in all packets of the buffer.
+     *
+     * @return
+     */
+    public int getTotalMessages() {
+        return totalMessages;
+    }
+
+    private void grow() {
+        final Packet<T>[] grown = newArray(packets.length << 1);
+        final int headPart = packets.length - head;
+        System.arraycopy(packets, head, grown, 0, headPart);
+        System.arraycopy(packets, 0, grown, headPart, head);
+        packets = grown;
+        head = 0;
+    }
+
+    @Override
+    public String toString() {
+        final Packet<?>[] content = new Packet<?>[size];
+        for (int index = 0; index < size; index++) {
+            content[index] = get(index);
+        }
+        return Arrays.toString(content);
+    }
+}
@@ -0,0 +1,382 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.log4j.Logger;
+
+import ua.com.fielden.platform.gis.gps.AvlData;
+
+/**
+ * An append-only journal of AVL packets received from GPS modules, which is backed by memory-mapped segment files.
+ * <p>
+ * A packet is appended before it is acknowledged to the module and before it is dispatched to actors, which makes it durable as soon as the process survives
+ * (and as soon as {@link #force()} completes for the case of operating system failures). Each record keeps raw AVL records in codec 8 layout together with
+ * the module IMEI and the time of reception.
+ * <p>
+ * Every record is identified by its position in the journal. The position is reference counted -- it is acquired for every piece of processing that is
+ * based on the record (e.g. per machine packet) and released once that processing is completed (e.g. messages are persisted). The checkpoint is the
+ * position of the oldest record, which is still in use, and all segments before the checkpoint are deleted. Upon restart, all records starting from the
+ * checkpoint are {@link #replay(IRecordConsumer) replayed}, which means that records are processed at least once.
+ * <p>
+ * A record can stay in use for a long time (e.g. a packet of a machine that went quiet is held in its buffers), which would otherwise hold the checkpoint
+ * and prevent deletion of all newer segments. Therefore, upon {@link #checkpoint()}, records in use that are more than <code>retainedSegments</code> segments
+ * behind the end of the journal are relocated -- copied to the end of the journal. Their positions remain valid for acquiring and releasing, and old
+ * segments can be deleted.
+ * <p>
+ * Record layout: <code>[int length][long received][short imei length][imei][short count][AVL records]</code>. The length is written after the rest of
+ * the record, thus a partially written record has zero length and marks the end of the journal, exactly as the zero-filled tail of a segment does.
+ *
+ * @author TG Team
+ *
+ */
+public class AvlJournal {
+    private static final Logger logger = Logger.getLogger(AvlJournal.class);
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final int DEFAULT_RETAINED_SEGMENTS = 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int LENGTH_SIZE = 4;
+
+    private final File directory;
+    private final int segmentSize;
+    private final int retainedSegments;
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private final ConcurrentNavigableMap<Long, Integer> pending = new ConcurrentSkipListMap<>();
+    /** Current positions of relocated records in use by their original positions. */
+    private final Map<Long, Long> relocations = new HashMap<>();
+    private final RandomAccessFile checkpointFile;
+    private long checkpoint;
+    private volatile long appendPosition;
+
+    /**
+     * Opens the journal in <code>directory</code> with segments of the default size, creating it if necessary.
+     */
+    public AvlJournal(final File directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the journal in <code>directory</code> with segments of <code>segmentSize</code> bytes, creating it if necessary.
+     * The segment size should not change between restarts.
+     */
+    public AvlJournal(final File directory, final int segmentSize) {
+        this(directory, segmentSize, DEFAULT_RETAINED_SEGMENTS);
+    }
+
+    /**
+     * Opens the journal in <code>directory</code> with segments of <code>segmentSize</code> bytes, creating it if necessary.
+     * Records in use are relocated once they are more than <code>retainedSegments</code> segments behind the end of the journal.
+     * The segment size should not change between restarts.
+     */
+    public AvlJournal(final File directory, final int segmentSize, final int retainedSegments) {
+        if (retainedSegments < 1) {
+            throw new IllegalArgumentException(format("The number of retained journal segments should be positive, but was [%s].", retainedSegments));
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException(format("Could not create journal directory [%s].", directory));
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retainedSegments = retainedSegments;
+        try {
+            this.checkpointFile = new RandomAccessFile(new File(directory, CHECKPOINT_FILE), "rw");
+            this.checkpoint = checkpointFile.length() >= 8 ? checkpointFile.readLong() : 0L;
+        } catch (final IOException ex) {
+            throw new IllegalStateException(format("Could not read journal checkpoint in [%s].", directory), ex);
+        }
+        this.appendPosition = scan(checkpoint, null);
+        logger.info(format("AVL journal [%s] opened: checkpoint [%s], append position [%s].", directory, checkpoint, appendPosition));
+    }
+
+    /**
+     * A consumer of journal records upon replay.
+     */
+    public interface IRecordConsumer {
+        void accept(final long position, final String imei, final long received, final AvlData[] data);
+    }
+
+    /**
+     * Appends a packet of AVL records received from module <code>imei</code> at <code>received</code> time, and returns the position of the appended record.
+     * The returned position is acquired once on behalf of the caller, and should be {@link #release(long) released} once it is no longer in use.
+     *
+     * @param imei
+     * @param received
+     * @param data
+     * @return
+     */
+    public synchronized long append(final String imei, final long received, final AvlData[] data) {
+        final byte[] imeiBytes = imei.getBytes(US_ASCII);
+        int length = 8 + 2 + imeiBytes.length + 2;
+        for (final AvlData avlData : data) {
+            length += avlData.getLength();
+        }
+        if (LENGTH_SIZE + length + LENGTH_SIZE > segmentSize) {
+            throw new IllegalArgumentException(format("AVL packet of [%s] bytes does not fit into journal segment of [%s] bytes.", length, segmentSize));
+        }
+        final long position = allocate(length);
+        final ByteBuffer segment = segment(segmentIndex(position)).duplicate();
+        segment.position(offset(position) + LENGTH_SIZE);
+        segment.putLong(received);
+        segment.putShort((short) imeiBytes.length);
+        segment.put(imeiBytes);
+        segment.putShort((short) data.length);
+        for (final AvlData avlData : data) {
+            avlData.writeTo(segment);
+        }
+        return complete(position, length);
+    }
+
+    /**
+     * Returns the position for a new record of <code>length</code> bytes, moving to the next segment if the record and the end marker after it do not fit into the current one.
+     */
+    private long allocate(final int length) {
+        if (offset(appendPosition) + LENGTH_SIZE + length + LENGTH_SIZE > segmentSize) {
+            appendPosition = (segmentIndex(appendPosition) + 1) * segmentSize;
+        }
+        return appendPosition;
+    }
+
+    /**
+     * Writes the length of the record at <code>position</code>, which completes its appending, and acquires the record once.
+     */
+    private long complete(final long position, final int length) {
+        segment(segmentIndex(position)).putInt(offset(position), length);
+        pending.put(position, 1);
+        appendPosition = position + LENGTH_SIZE + length;
+        return position;
+    }
+
+    /**
+     * Marks the record at <code>position</code> as used by one more piece of processing.
+     *
+     * @param position
+     */
+    public synchronized void acquire(final long position) {
+        pending.merge(currentPosition(position), 1, Integer::sum);
+    }
+
+    /**
+     * Marks the record at <code>position</code> as no longer used by one piece of processing.
+     *
+     * @param position
+     */
+    public synchronized void release(final long position) {
+        final long current = currentPosition(position);
+        pending.computeIfPresent(current, (pos, count) -> count > 1 ? count - 1 : null);
+        if (!relocations.isEmpty() && !pending.containsKey(current)) {
+            relocations.values().removeIf(relocated -> relocated == current);
+        }
+    }
+
+    private long currentPosition(final long position) {
+        final Long relocated = relocations.get(position);
+        return relocated != null ? relocated : position;
+    }
+
+    /**
+     * Relocates records in use, which are too far behind the end of the journal, then moves the checkpoint to the oldest record in use
+     * (or to the end of the journal if there are no such records), and deletes segments before the checkpoint.
+     *
+     * @return the new checkpoint
+     */
+    public synchronized long checkpoint() {
+        relocateStaleRecords();
+        final Entry<Long, Integer> oldestPending = pending.firstEntry();
+        final long newCheckpoint = oldestPending != null ? oldestPending.getKey() : appendPosition;
+        if (newCheckpoint != checkpoint) {
+            try {
+                checkpointFile.seek(0);
+                checkpointFile.writeLong(newCheckpoint);
+            } catch (final IOException ex) {
+                throw new IllegalStateException(format("Could not write journal checkpoint in [%s].", directory), ex);
+            }
+            checkpoint = newCheckpoint;
+            deleteSegmentsBefore(segmentIndex(newCheckpoint));
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Copies records in use, which are more than <code>retainedSegments</code> segments behind the segment being appended to, to the end of the journal.
+     * The reference counts of such records move to their new positions, and their original positions are resolved to the new ones.
+     */
+    private void relocateStaleRecords() {
+        final long staleBefore = (segmentIndex(appendPosition) - retainedSegments) * segmentSize;
+        if (staleBefore <= checkpoint) {
+            return;
+        }
+        final List<Entry<Long, Integer>> stale = new ArrayList<>(pending.headMap(staleBefore).entrySet());
+        for (final Entry<Long, Integer> record : stale) {
+            final long oldPosition = record.getKey();
+            final ByteBuffer source = segment(segmentIndex(oldPosition)).duplicate();
+            final int length = source.getInt(offset(oldPosition));
+            final long newPosition = allocate(length);
+            final ByteBuffer target = segment(segmentIndex(newPosition)).duplicate();
+            source.position(offset(oldPosition) + LENGTH_SIZE).limit(offset(oldPosition) + LENGTH_SIZE + length);
+            target.position(offset(newPosition) + LENGTH_SIZE);
+            target.put(source);
+            complete(newPosition, length);
+
+            pending.remove(oldPosition);
+            pending.put(newPosition, record.getValue());
+            relocations.replaceAll((original, relocated) -> relocated == oldPosition ? newPosition : relocated);
+            relocations.put(oldPosition, newPosition);
+        }
+        if (!stale.isEmpty()) {
+            logger.info(format("[%s] records in use have been relocated to the end of AVL journal [%s].", stale.size(), directory));
+        }
+    }
+
+    /**
+     * Passes all records starting from the checkpoint to <code>consumer</code> in the order of their appending. Each replayed record is acquired once on behalf
+     * of the consumer, which should release it once it is no longer in use. Should be invoked before any new records are appended.
+     *
+     * @param consumer
+     * @return the number of replayed records
+     */
+    public synchronized int replay(final IRecordConsumer consumer) {
+        final int[] count = new int[1];
+        scan(checkpoint, (position, imei, received, data) -> {
+            pending.merge(position, 1, Integer::sum);
+            count[0]++;
+            consumer.accept(position, imei, received, data);
+        });
+        logger.info(format("[%s] records have been replayed from AVL journal [%s].", count[0], directory));
+        return count[0];
+    }
+
+    /**
+     * Forces all appended records to the storage device.
+     */
+    public synchronized void force() {
+        for (final MappedByteBuffer segment : segments.values()) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Returns the number of bytes between the checkpoint and the end of the journal, which is the amount of data to be replayed upon restart.
+     */
+    public synchronized long getLag() {
+        return appendPosition - checkpoint;
+    }
+
+    /**
+     * Returns the number of records, which are still in use.
+     */
+    public int getPendingRecords() {
+        return pending.size();
+    }
+
+    public synchronized long getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getAppendPosition() {
+        return appendPosition;
+    }
+
+    /**
+     * Reads records starting from <code>from</code>, passing them to <code>consumer</code> (if any), and returns the position after the last record.
+     */
+    private long scan(final long from, final IRecordConsumer consumer) {
+        long position = from;
+        while (true) {
+            final long index = segmentIndex(position);
+            if (!segmentFile(index).exists()) {
+                return position;
+            }
+            final ByteBuffer segment = segment(index);
+            final int offset = offset(position);
+            final int length = offset + LENGTH_SIZE <= segmentSize ? segment.getInt(offset) : 0;
+            if (length > 0) {
+                if (consumer != null) {
+                    read(segment, position, length, consumer);
+                }
+                position += LENGTH_SIZE + length;
+            } else if (segmentFile(index + 1).exists()) {
+                position = (index + 1) * segmentSize;
+            } else {
+                return position;
+            }
+        }
+    }
+
+    private void read(final ByteBuffer segment, final long position, final int length, final IRecordConsumer consumer) {
+        // the record is copied, so that AVL data does not refer to segments, which may be deleted
+        final byte[] bytes = new byte[length];
+        final ByteBuffer source = segment.duplicate();
+        source.position(offset(position) + LENGTH_SIZE);
+        source.get(bytes);
+        final ByteBuffer record = ByteBuffer.wrap(bytes);
+
+        final long received = record.getLong();
+        final byte[] imeiBytes = new byte[record.getShort()];
+        record.get(imeiBytes);
+        final AvlData[] data = new AvlData[record.getShort()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new AvlData(record, record.position());
+            record.position(record.position() + data[i].getLength());
+        }
+        consumer.accept(position, new String(imeiBytes, US_ASCII).intern(), received, data);
+    }
+
+    private MappedByteBuffer segment(final long index) {
+        final MappedByteBuffer existing = segments.get(index);
+        if (existing != null) {
+            return existing;
+        }
+        try (final RandomAccessFile file = new RandomAccessFile(segmentFile(index), "rw"); final FileChannel channel = file.getChannel()) {
+            final MappedByteBuffer segment = channel.map(MapMode.READ_WRITE, 0, segmentSize);
+            segments.put(index, segment);
+            return segment;
+        } catch (final IOException ex) {
+            throw new IllegalStateException(format("Could not map journal segment [%s] in [%s].", index, directory), ex);
+        }
+    }
+
+    private void deleteSegmentsBefore(final long index) {
+        final Map<Long, MappedByteBuffer> obsolete = segments.headMap(index);
+        for (final Entry<Long, MappedByteBuffer> segment : obsolete.entrySet()) {
+            segment.getValue().force();
+        }
+        obsolete.clear();
+        for (long obsoleteIndex = index - 1; obsoleteIndex >= 0 && segmentFile(obsoleteIndex).exists(); obsoleteIndex--) {
+            if (!segmentFile(obsoleteIndex).delete()) {
+                logger.warn(format("Could not delete obsolete journal segment [%s] in [%s].", obsoleteIndex, directory));
+            }
+        }
+    }
+
+    private File segmentFile(final long index) {
+        return new File(directory, SEGMENT_PREFIX + index + SEGMENT_SUFFIX);
+    }
+
+    private long segmentIndex(final long position) {
+        return position / segmentSize;
+    }
+
+    private int offset(final long position) {
+        return (int) (position % segmentSize);
+    }
+
+}
@@ -0,0 +1,335 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import static java.lang.String.format;
+import static java.util.Collections.singletonList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/**
+ * A writer, which persists messages submitted by many machine actors in batches, so that machine actors never wait for the database.
+ * <p>
+ * Requests are collected into a batch until either <code>maxBatchSize</code> requests are collected or <code>maxDelayMillis</code> elapse since the first
+ * request of the batch has been taken. The whole batch is persisted by {@link IAvlMessageBatchPersister} in a single transaction. Upon success, journal
+ * records of the batch are released and the journal checkpoint is moved forward. Upon failure, the same batch is retried with an increasing delay (capped at
+ * {@link #MAX_RETRY_DELAY_MILLIS}), thus the order of requests is preserved. Every <code>maxRetries</code> retries, requests of the batch are persisted one by one:
+ * <ul>
+ * <li>if some of them succeed, the ones that fail on their own are rejected (refer {@link IAvlMessageBatchPersister#reject(PersistRequest, Exception)}), so that
+ * a single bad message cannot block persistence of messages for the whole fleet;
+ * <li>if none of them succeed, the database is most likely unavailable, and the batch (topped up with newly submitted requests) is retried indefinitely.
+ * </ul>
+ * Journal records are released only for requests that have been persisted or successfully rejected, thus no messages are lost due to the database outages.
+ * <p>
+ * The queue of submitted requests is bounded -- once it is full, submitting actors wait, which slows down reception of packets instead of exhausting memory.
+ *
+ * @author TG Team
+ *
+ * @param <MESSAGE>
+ */
+public class GroupCommitWriter<MESSAGE extends AbstractAvlMessage> {
+    private static final Logger logger = Logger.getLogger(GroupCommitWriter.class);
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 50;
+    public static final int DEFAULT_MAX_RETRIES = 5;
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final long MAX_RETRY_DELAY_MILLIS = 30000;
+
+    private final AvlJournal journal;
+    private final IAvlMessageBatchPersister<MESSAGE> persister;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final int maxRetries;
+    private final BlockingQueue<PersistRequest<MESSAGE>> queue;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxObservedBatchSize;
+
+    public GroupCommitWriter(final AvlJournal journal, final IAvlMessageBatchPersister<MESSAGE> persister, final int maxBatchSize, final long maxDelayMillis) {
+        this(journal, persister, maxBatchSize, maxDelayMillis, DEFAULT_MAX_RETRIES);
+    }
+
+    public GroupCommitWriter(final AvlJournal journal, final IAvlMessageBatchPersister<MESSAGE> persister, final int maxBatchSize, final long maxDelayMillis, final int maxRetries) {
+        this(journal, persister, maxBatchSize, maxDelayMillis, maxRetries, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public GroupCommitWriter(final AvlJournal journal, final IAvlMessageBatchPersister<MESSAGE> persister, final int maxBatchSize, final long maxDelayMillis, final int maxRetries, final int queueCapacity) {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.journal = journal;
+        this.persister = persister;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxRetries = maxRetries;
+        this.thread = new Thread(this::run, "gps-group-commit-writer");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     *
+     * @return
+     */
+    public GroupCommitWriter<MESSAGE> start() {
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Submits a request to be persisted as part of one of the next batches. Blocks while the queue of submitted requests is full.
+     *
+     * @param request
+     */
+    public void submit(final PersistRequest<MESSAGE> request) {
+        if (!running) {
+            throw new IllegalStateException("Group commit writer has been stopped.");
+        }
+        try {
+            queue.put(request);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room in the group commit writer queue.", ex);
+        }
+    }
+
+    /**
+     * Stops accepting new requests and waits for up to <code>timeoutMillis</code> for already submitted requests to be persisted.
+     * Requests, which are not persisted in time, are replayed from the journal upon restart.
+     *
+     * @param timeoutMillis
+     */
+    public void stop(final long timeoutMillis) {
+        running = false;
+        try {
+            thread.join(timeoutMillis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            logger.warn(format("Group commit writer has not persisted [%s] requests in [%s] ms. Their messages will be replayed from the journal upon restart.", queue.size(), timeoutMillis));
+        }
+    }
+
+    private void run() {
+        final List<PersistRequest<MESSAGE>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (collect(batch)) {
+                    persist(batch);
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final RuntimeException ex) {
+                // the writer should never die, otherwise nothing gets persisted any more and actors get blocked once the queue is full
+                logger.error(format("Could not complete processing of a batch of [%s] requests.", batch.size()), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Collects the next batch, returning <code>false</code> if there were no requests.
+     */
+    private boolean collect(final List<PersistRequest<MESSAGE>> batch) throws InterruptedException {
+        final PersistRequest<MESSAGE> first = queue.poll(maxDelayMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            final long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            final PersistRequest<MESSAGE> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void persist(final List<PersistRequest<MESSAGE>> batch) throws InterruptedException {
+        long retryDelay = maxDelayMillis;
+        for (int attempt = 0;; attempt++) {
+            final Exception failure = tryPersist(batch);
+            if (failure == null) {
+                complete(batch, batch);
+                return;
+            }
+            failures.incrementAndGet();
+            if (attempt < maxRetries) {
+                logger.error(format("Could not persist a batch of [%s] requests. Retrying in [%s] ms.", batch.size(), retryDelay), failure);
+            } else {
+                logger.error(format("Could not persist a batch of [%s] requests after [%s] retries. Persisting its requests one by one.", batch.size(), maxRetries), failure);
+                if (persistOneByOne(batch)) {
+                    return;
+                }
+                // newly submitted requests join the batch, so that a request that fails on its own is rejected as soon as other requests succeed
+                queue.drainTo(batch, Math.max(0, maxBatchSize - batch.size()));
+                attempt = -1;
+                logger.error(format("None of the requests could be persisted on its own, the database is most likely unavailable. Retrying a batch of [%s] requests in [%s] ms.", batch.size(), retryDelay));
+            }
+            Thread.sleep(retryDelay);
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Persists <code>requests</code>, returning the cause of failure or <code>null</code> upon success.
+     */
+    private Exception tryPersist(final List<PersistRequest<MESSAGE>> requests) {
+        try {
+            persister.persist(requests);
+            return null;
+        } catch (final Exception ex) {
+            return ex;
+        }
+    }
+
+    /**
+     * Persists requests of <code>batch</code> one by one. If at least one of them is persisted, the failed ones are rejected and the batch is completed.
+     *
+     * @return <code>true</code> if the batch was completed, <code>false</code> if none of its requests could be persisted
+     */
+    private boolean persistOneByOne(final List<PersistRequest<MESSAGE>> batch) {
+        final List<PersistRequest<MESSAGE>> persisted = new ArrayList<>();
+        final List<PersistRequest<MESSAGE>> failed = new ArrayList<>();
+        final List<Exception> causes = new ArrayList<>();
+        for (final PersistRequest<MESSAGE> request : batch) {
+            final Exception failure = tryPersist(singletonList(request));
+            if (failure == null) {
+                persisted.add(request);
+            } else {
+                failures.incrementAndGet();
+                failed.add(request);
+                causes.add(failure);
+            }
+        }
+        if (persisted.isEmpty()) {
+            return false;
+        }
+        final List<PersistRequest<MESSAGE>> completed = new ArrayList<>(persisted);
+        for (int index = 0; index < failed.size(); index++) {
+            if (reject(failed.get(index), causes.get(index))) {
+                completed.add(failed.get(index));
+            }
+        }
+        complete(batch, completed);
+        return true;
+    }
+
+    /**
+     * Releases journal records of <code>completed</code> requests, moves the journal checkpoint forward and updates statistics for <code>batch</code>.
+     */
+    private void complete(final List<PersistRequest<MESSAGE>> batch, final List<PersistRequest<MESSAGE>> completed) {
+        int messageCount = 0;
+        for (final PersistRequest<MESSAGE> request : batch) {
+            messageCount += request.getMessages().size();
+        }
+        for (final PersistRequest<MESSAGE> request : completed) {
+            for (final long position : request.getJournalPositions()) {
+                journal.release(position);
+            }
+        }
+        journal.checkpoint();
+
+        batches.incrementAndGet();
+        requests.addAndGet(batch.size());
+        messages.addAndGet(messageCount);
+        lastBatchSize = batch.size();
+        if (batch.size() > maxObservedBatchSize) {
+            maxObservedBatchSize = batch.size();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Persisted a batch of [%s] requests with [%s] messages. Queue size [%s], journal lag [%s] bytes.", batch.size(), messageCount, queue.size(), journal.getLag()));
+        }
+    }
+
+    /**
+     * Passes <code>request</code>, which could not be persisted, to the persister as rejected.
+     *
+     * @return <code>true</code> if the request was rejected, <code>false</code> if the persister failed to accept it, in which case its journal records are kept to be replayed upon restart
+     */
+    private boolean reject(final PersistRequest<MESSAGE> request, final Exception cause) {
+        logger.error(format("Rejecting a request with [%s] messages, which could not be persisted: %s", request.getMessages().size(), request.getMessages()), cause);
+        try {
+            persister.reject(request, cause);
+            rejected.incrementAndGet();
+            return true;
+        } catch (final Exception ex) {
+            logger.error("Could not pass a rejected request to the persister. Its messages will be replayed from the journal upon restart.", ex);
+            return false;
+        }
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the number of requests, which could not be persisted and were rejected.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxObservedBatchSize;
+    }
+
+    /**
+     * Returns the average number of requests per batch.
+     */
+    public double getAverageBatchSize() {
+        final long batchCount = batches.get();
+        return batchCount == 0 ? 0 : (double) requests.get() / batchCount;
+    }
+
+    /**
+     * Returns the number of requests, which are waiting to be persisted.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public AvlJournal getJournal() {
+        return journal;
+    }
+
+}
@@ -0,0 +1,40 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import java.util.List;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/**
+ * A contract for persisting batches of GPS messages, which have been processed by machine actors, in a single database transaction.
+ * <p>
+ * Implementations are expected to insert all messages of all requests in the batch by means of a single JDBC batch, and to either persist the whole batch
+ * or throw an exception, in which case the same batch gets persisted again later. Batches, which keep failing, are persisted request by request, and requests, which
+ * cannot be persisted on their own while other requests of the same batch can, are rejected by means of {@link #reject(PersistRequest, Exception)}.
+ *
+ * @author TG Team
+ *
+ * @param <MESSAGE>
+ */
+public interface IAvlMessageBatchPersister<MESSAGE extends AbstractAvlMessage> {
+
+    /**
+     * Persists messages of all <code>requests</code>, which are ordered in the same way as they were submitted by machine actors.
+     *
+     * @param requests
+     * @throws Exception
+     */
+    void persist(final List<PersistRequest<MESSAGE>> requests) throws Exception;
+
+    /**
+     * Accepts a <code>request</code>, which could not be persisted, so that its messages can be stored elsewhere (e.g. in a dead-letter table) for later analysis.
+     * Journal records of rejected requests are released, thus their messages are not replayed upon restart. If this method throws an exception, journal records
+     * of the request are kept and its messages are replayed upon restart.
+     * <p>
+     * Does nothing by default -- rejected requests are logged by {@link GroupCommitWriter} anyway.
+     *
+     * @param request
+     * @param cause
+     */
+    default void reject(final PersistRequest<MESSAGE> request, final Exception cause) {
+    }
+}
@@ -0,0 +1,40 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import ua.com.fielden.platform.gis.gps.AvlData;
+
+/**
+ * AVL data received from a module, which has been appended to {@link AvlJournal} at the specified position.
+ * Replayed data originates from the journal upon restart, and may contain messages, which have already been persisted.
+ *
+ * @author TG Team
+ *
+ */
+public final class JournaledData {
+    private final long position;
+    private final long received;
+    private final AvlData[] data;
+    private final boolean replayed;
+
+    public JournaledData(final long position, final long received, final AvlData[] data, final boolean replayed) {
+        this.position = position;
+        this.received = received;
+        this.data = data;
+        this.replayed = replayed;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    public AvlData[] getData() {
+        return data;
+    }
+
+    public boolean isReplayed() {
+        return replayed;
+    }
+}
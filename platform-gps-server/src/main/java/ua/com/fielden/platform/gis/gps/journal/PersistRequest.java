@@ -0,0 +1,60 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import java.util.Collection;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/**
+ * A request to persist messages of a single machine, which has been submitted by its machine actor to {@link GroupCommitWriter}.
+ * <p>
+ * Erroneous requests contain messages, which violate chronology of already processed messages, and which should be persisted separately from normal ones.
+ *
+ * @author TG Team
+ *
+ * @param <MESSAGE>
+ */
+public final class PersistRequest<MESSAGE extends AbstractAvlMessage> {
+    private static final long[] NO_POSITIONS = new long[0];
+
+    private final Collection<MESSAGE> messages;
+    private final MESSAGE latestPersistedMessage;
+    private final boolean erroneous;
+    private final long[] journalPositions;
+
+    private PersistRequest(final Collection<MESSAGE> messages, final MESSAGE latestPersistedMessage, final boolean erroneous, final long[] journalPositions) {
+        this.messages = messages;
+        this.latestPersistedMessage = latestPersistedMessage;
+        this.erroneous = erroneous;
+        this.journalPositions = journalPositions != null ? journalPositions : NO_POSITIONS;
+    }
+
+    public static <MESSAGE extends AbstractAvlMessage> PersistRequest<MESSAGE> messages(final Collection<MESSAGE> messages, final MESSAGE latestPersistedMessage, final long... journalPositions) {
+        return new PersistRequest<>(messages, latestPersistedMessage, false, journalPositions);
+    }
+
+    public static <MESSAGE extends AbstractAvlMessage> PersistRequest<MESSAGE> erroneous(final Collection<MESSAGE> messages, final long... journalPositions) {
+        return new PersistRequest<>(messages, null, true, journalPositions);
+    }
+
+    public Collection<MESSAGE> getMessages() {
+        return messages;
+    }
+
+    /**
+     * The latest message of the machine, which has been persisted before messages of this request. Is <code>null</code> for erroneous requests.
+     */
+    public MESSAGE getLatestPersistedMessage() {
+        return latestPersistedMessage;
+    }
+
+    public boolean isErroneous() {
+        return erroneous;
+    }
+
+    /**
+     * Positions of journal records, which messages of this request originate from.
+     */
+    public long[] getJournalPositions() {
+        return journalPositions;
+    }
+}
@@ -1,5 +1,11 @@
 package ua.com.fielden.platform.gis.gps.server;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.apache.log4j.Logger;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
@@ -7,7 +13,6 @@ import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
 
 import ua.com.fielden.platform.gis.gps.AvlData;
-import ua.com.fielden.platform.gis.gps.AvlGpsElement;
 import ua.com.fielden.platform.gis.gps.AvlIoElement;
 
 public class AvlFrameDecoder extends FrameDecoder {
@@ -16,6 +21,10 @@ public class AvlFrameDecoder extends FrameDecoder {
         CONNECTING, DATA, DISCONNECTED
     };
 
+    /** An upper bound for the number of interned IMEIs, which protects against unbounded growth due to connections from unknown devices. */
+    private static final int MAX_INTERNED_IMEIS = 100_000;
+    private static final ConcurrentMap<String, String> IMEIS = new ConcurrentHashMap<>();
+
     private final Logger log = Logger.getLogger(AvlFrameDecoder.class);
     private final Crc16 checksum = new Crc16(0xA001);
     private DecodingState state = DecodingState.CONNECTING;
@@ -33,14 +42,19 @@ public class AvlFrameDecoder extends FrameDecoder {
 
         case CONNECTING:
             if (availableData < 2) {
-                return new Exception("Not enough bytes for id size");
+                log.debug("Not enough bytes for id size");
+                return null;
             }
+            buffer.markReaderIndex();
             final short imeiLength = buffer.readShort();
             if (availableData < 2 + imeiLength) {
-                throw new Exception("Not enough bytes for id content");
+                log.debug("Not enough bytes for id content");
+                buffer.resetReaderIndex();
+                return null;
             }
             // Read IMEI
-            final String imei = new String(buffer.readBytes(imeiLength).array());
+            final String imei = intern(buffer.toString(buffer.readerIndex(), imeiLength, US_ASCII));
+            buffer.skipBytes(imeiLength);
             checkpoint(DecodingState.DATA);
             return imei;
 
@@ -65,14 +79,16 @@ public class AvlFrameDecoder extends FrameDecoder {
                 // report error and disconnect
                 throw new Exception("AVL packet ZERO tocken mismatch");
             }
+            if (len < 2) {
+                throw new Exception("Bad packet length: no codec data [" + len + "]");
+            }
 
-            final int idx = buffer.readerIndex();
-
-            final int crc = buffer.getInt(idx + len);
+            // AVL data is copied out of the cumulative buffer once, as it is processed asynchronously after decoding, and AvlData instances are views over this copy
+            final byte[] frame = new byte[len];
+            buffer.readBytes(frame);
+            final int crc = buffer.readInt();
             checksum.reset();
-            for (int i = idx; i < idx + len; i++) {
-                checksum.update(buffer.getByte(i));
-            }
+            checksum.update(frame);
             final int calculatedCrc = checksum.getCrc();
             // Check CRC16
             if (crc != calculatedCrc) {
@@ -81,37 +97,33 @@ public class AvlFrameDecoder extends FrameDecoder {
             }
 
             // Read AVL
-            final byte codec = buffer.readByte();
+            final byte codec = frame[0];
             switch (codec) {
             case 0x8:
                 // FM4100 & FM2100 codec
                 log.debug("FM4100 & FM2100 codec data");
-                final byte headCount = buffer.readByte();
+                final byte headCount = frame[1];
+                final ByteBuffer data = ByteBuffer.wrap(frame);
                 final AvlData[] avlArray = new AvlData[headCount];
-                int capacity = len - 2;
+                int position = 2;
                 for (int i = 0; i < headCount; i++) {
-                    final AvlData element = readAvlData(buffer, capacity);
-                    capacity -= element.getCapacity();
+                    final AvlData element = readAvlData(data, position, len - position);
+                    position += element.getCapacity();
                     avlArray[i] = element;
                 }
-                final byte tailCount = buffer.readByte();
+                if (len - position != 1) {
+                    throw new Exception("Bad packet length: to many data [" + len + "]");
+                }
+                final byte tailCount = frame[position];
                 if (headCount != tailCount) {
                     // report error and disconnect
                     throw new Exception("AVL packet data count unequal: head [" + headCount + "], tail [" + tailCount + "]");
                 }
-                if (capacity != 1) {
-                    throw new Exception("Bad packet length: to many data [" + len + "]");
-                }
-                // skip CRC
-                buffer.skipBytes(4);
                 log.debug("AVL data count [" + avlArray.length + "]");
                 return avlArray;
             default:
                 // report unsupported codec and skip data
                 log.info("skip codec = [" + codec + "]");
-                final int skipped = -1 + len + 4;
-                buffer.skipBytes(skipped);
-                log.debug("skipped bytes count [" + skipped + "]");
                 return false;
             }
         case DISCONNECTED:
@@ -123,91 +135,59 @@ public class AvlFrameDecoder extends FrameDecoder {
         return null;
     }
 
-    private AvlData readAvlData(final ChannelBuffer buffer, final Integer capacity) throws Exception {
+    /**
+     * Validates the structure of AVL data, which starts at <code>position</code> in <code>data</code>, and returns a view over it.
+     */
+    private static AvlData readAvlData(final ByteBuffer data, final int position, final int capacity) throws Exception {
         if (capacity < AvlData.BASE_ELEMENT_LENGTH) {
             throw new Exception("Bad packet length: data overrun provided length");
         }
         // Test for availability of data for IO element
-        final int position = buffer.readerIndex();
         int offset = AvlData.BASE_ELEMENT_LENGTH - AvlIoElement.BASE_ELEMENT_LENGTH + 1;
 
-        final byte ioTotal = buffer.getByte(position + offset);
+        final byte ioTotal = data.get(position + offset);
         offset++;
         // Test for 1 byte IO
-        final byte byteTotal = buffer.getByte(position + offset);
+        final byte byteTotal = data.get(position + offset);
         offset += 1 + byteTotal * AvlIoElement.ByteIoElement.BASE_ELEMENT_LENGTH;
         // Test for 2 byte IO
-        final byte shortTotal = buffer.getByte(position + offset);
+        final byte shortTotal = readCount(data, position + offset, capacity - offset);
         offset += 1 + shortTotal * AvlIoElement.ShortIoElement.BASE_ELEMENT_LENGTH;
         // Test for 4 byte IO
-        final byte intTotal = buffer.getByte(position + offset);
+        final byte intTotal = readCount(data, position + offset, capacity - offset);
         offset += 1 + intTotal * AvlIoElement.IntIoElement.BASE_ELEMENT_LENGTH;
         // Test for 8 byte IO
-        final byte longTotal = buffer.getByte(position + offset);
+        final byte longTotal = readCount(data, position + offset, capacity - offset);
         offset += 1 + longTotal * AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH;
         // Test IO element count validity
-        if (byteTotal + shortTotal + intTotal + longTotal != ioTotal) {
+        if (byteTotal < 0 || shortTotal < 0 || intTotal < 0 || longTotal < 0 || byteTotal + shortTotal + intTotal + longTotal != ioTotal) {
             throw new Exception("Total IO count is incorrect: overall count [" + ioTotal + "], byte count [" + byteTotal + "], short count = [" + shortTotal + "], int count = ["
                     + intTotal + "], long count = [" + longTotal + "]");
         }
         if (capacity < offset) {
             throw new Exception("Bad packet length: data overrun provided length");
         }
-        //capacity -= offset;
 
         // Return AVL data
-        final long timestamp = buffer.readLong();
-        final byte priority = buffer.readByte();
-
-        final int longitude = buffer.readInt();
-        final int latitude = buffer.readInt();
-        final short altitude = buffer.readShort();
-        final short angle = buffer.readShort();
-        final byte satellites = buffer.readByte();
-        final short speed = buffer.readShort();
-        final AvlGpsElement gps = new AvlGpsElement(longitude, latitude, altitude, angle, satellites, speed);
-
-        final byte eventId = buffer.readByte();
-        // Skip ioTotal
-        buffer.skipBytes(1);
-        // Skip byteTotal
-        buffer.skipBytes(1);
-        // Iterate and read all bytes IO data
-        final AvlIoElement.ByteIoElement[] byteIo = new AvlIoElement.ByteIoElement[byteTotal];
-        for (int i = 0; i < byteTotal; i++) {
-            final byte ioId = buffer.readByte();
-            final byte ioValue = buffer.readByte();
-            byteIo[i] = new AvlIoElement.ByteIoElement(ioId, ioValue);
-        }
-        // Skip shortTotal
-        buffer.skipBytes(1);
-        // Iterate and read all shorts IO data
-        final AvlIoElement.ShortIoElement[] shortIo = new AvlIoElement.ShortIoElement[shortTotal];
-        for (int i = 0; i < shortTotal; i++) {
-            final byte ioId = buffer.readByte();
-            final short ioValue = buffer.readShort();
-            shortIo[i] = new AvlIoElement.ShortIoElement(ioId, ioValue);
-        }
-        // Skip intTotal
-        buffer.skipBytes(1);
-        // Iterate and read all ints IO data
-        final AvlIoElement.IntIoElement[] intIo = new AvlIoElement.IntIoElement[intTotal];
-        for (int i = 0; i < intTotal; i++) {
-            final byte ioId = buffer.readByte();
-            final int ioValue = buffer.readInt();
-            intIo[i] = new AvlIoElement.IntIoElement(ioId, ioValue);
+        return new AvlData(data, position);
+    }
+
+    private static byte readCount(final ByteBuffer data, final int index, final int capacity) throws Exception {
+        if (capacity < 1) {
+            throw new Exception("Bad packet length: data overrun provided length");
         }
-        // Skip longTotal
-        buffer.skipBytes(1);
-        // Iterate and read all longs IO data
-        final AvlIoElement.LongIoElement[] longIo = new AvlIoElement.LongIoElement[longTotal];
-        for (int i = 0; i < longTotal; i++) {
-            final byte ioId = buffer.readByte();
-            final long ioValue = buffer.readLong();
-            longIo[i] = new AvlIoElement.LongIoElement(ioId, ioValue);
+        return data.get(index);
+    }
+
+    /**
+     * Returns a canonical instance of <code>imei</code>, so that all connections and messages of the same device share a single string instance.
+     */
+    static String intern(final String imei) {
+        if (IMEIS.size() >= MAX_INTERNED_IMEIS) {
+            return imei;
         }
-        final AvlIoElement io = new AvlIoElement(eventId, ioTotal, byteIo, shortIo, intIo, longIo);
-        return new AvlData(timestamp, priority, gps, io, offset);
+        final String existing = IMEIS.putIfAbsent(imei, imei);
+        return existing != null ? existing : imei;
     }
 
     void checkpoint(final DecodingState state) {
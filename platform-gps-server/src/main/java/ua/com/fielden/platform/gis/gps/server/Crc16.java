@@ -1,35 +1,38 @@
 package ua.com.fielden.platform.gis.gps.server;
 
+/**
+ * A table-driven implementation of reflected CRC16 (e.g. CRC-16/IBM with polynomial 0xA001), which processes a byte per table lookup.
+ *
+ */
 public final class Crc16 {
 
-    private final int polynomial;
+    private final int[] table = new int[256];
     private int crc = 0;
 
-    public Crc16(int polynomial) {
-        this.polynomial = polynomial;
+    public Crc16(final int polynomial) {
+        for (int value = 0; value < table.length; value++) {
+            int entry = value;
+            for (int i = 0; i < 8; i++) {
+                entry = (entry & 1) == 1 ? (entry >>> 1) ^ polynomial : entry >>> 1;
+            }
+            table[value] = entry & 0xFFFF;
+        }
     }
 
-    public void update(int value) {
-        for (int i = 0; i < 8; i++) {
-            int add = (crc ^ value) & 1;
-            crc >>>= 1;
-            value >>>= 1;
-            if (add == 1)
-                crc ^= polynomial;
-        }
-        crc &= 0xFFFF;
+    public void update(final int value) {
+        crc = (crc >>> 8) ^ table[(crc ^ value) & 0xFF];
     }
 
-    public void update(byte[] data) {
-        for (byte b : data) {
-            update((int) b);
-        }
+    public void update(final byte[] data) {
+        update(0, data.length, data);
     }
 
-    public void update(int offset, int length, byte[] data) {
+    public void update(final int offset, final int length, final byte[] data) {
+        int value = crc;
         for (int i = offset; i < offset + length; i++) {
-            update(data[i]);
+            value = (value >>> 8) ^ table[(value ^ data[i]) & 0xFF];
         }
+        crc = value;
     }
 
     public void reset() {
@@ -40,7 +43,7 @@ public final class Crc16 {
         return crc;
     }
 
-    public void setCrc(int crc) {
+    public void setCrc(final int crc) {
         this.crc = crc;
     }
 
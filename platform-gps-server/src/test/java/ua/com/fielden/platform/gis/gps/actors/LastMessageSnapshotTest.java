@@ -0,0 +1,85 @@
+package ua.com.fielden.platform.gis.gps.actors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/** A test for {@link LastMessageSnapshot}. */
+public class LastMessageSnapshotTest {
+
+    private static class Message extends AbstractAvlMessage {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static Message message(final long gpsTime) {
+        final Message message = new Message();
+        message.setGpsTime(new Date(gpsTime));
+        return message;
+    }
+
+    @Test
+    public void published_messages_replace_previous_ones() {
+        final LastMessageSnapshot<Message> snapshot = new LastMessageSnapshot<>();
+        final Message latest = message(2_000L);
+        snapshot.publish(1L, message(1_000L));
+        snapshot.publish(1L, latest);
+
+        assertSame(latest, snapshot.get(1L));
+        assertNull(snapshot.get(2L));
+        assertEquals(1, snapshot.size());
+    }
+
+    @Test
+    public void removed_messages_are_no_longer_returned() {
+        final LastMessageSnapshot<Message> snapshot = new LastMessageSnapshot<>();
+        snapshot.publish(1L, message(1_000L));
+        snapshot.publish(2L, message(2_000L));
+        snapshot.remove(1L);
+
+        assertNull(snapshot.get(1L));
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.getLastMessagesAfter(null).size());
+    }
+
+    @Test
+    public void only_messages_newer_than_requested_dates_are_returned() {
+        final LastMessageSnapshot<Message> snapshot = new LastMessageSnapshot<>();
+        snapshot.publish(1L, message(1_000L));
+        snapshot.publish(2L, message(2_000L));
+        snapshot.publish(3L, message(3_000L));
+
+        final Map<Long, Date> machinesTiming = new HashMap<>();
+        machinesTiming.put(1L, null);
+        machinesTiming.put(2L, new Date(2_000L));
+        machinesTiming.put(3L, new Date(2_000L));
+        machinesTiming.put(4L, null);
+        final Map<Long, List<Message>> update = snapshot.getLastMessagesUpdate(machinesTiming);
+
+        assertEquals(2, update.size());
+        assertSame(snapshot.get(1L), update.get(1L).get(0));
+        assertSame(snapshot.get(3L), update.get(3L).get(0));
+    }
+
+    @Test
+    public void messages_of_all_machines_can_be_queried_for_changes_after_date() {
+        final LastMessageSnapshot<Message> snapshot = new LastMessageSnapshot<>();
+        snapshot.publish(1L, message(1_000L));
+        snapshot.publish(2L, message(2_000L));
+
+        assertEquals(2, snapshot.getLastMessagesAfter(null).size());
+        final Map<Long, Message> changed = snapshot.getLastMessagesAfter(new Date(1_500L));
+        assertEquals(1, changed.size());
+        assertTrue(changed.containsKey(2L));
+    }
+
+}
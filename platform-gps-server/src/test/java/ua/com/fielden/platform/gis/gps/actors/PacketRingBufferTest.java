@@ -0,0 +1,162 @@
+package ua.com.fielden.platform.gis.gps.actors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.Test;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+
+/** A test for {@link PacketRingBuffer}. */
+public class PacketRingBufferTest {
+    private static final MessagesComparator<Message> comparator = new MessagesComparator<>();
+
+    private static class Message extends AbstractAvlMessage {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static Message message(final long gpsTime) {
+        final Message message = new Message();
+        message.setGpsTime(new Date(gpsTime));
+        message.setX(new BigDecimal("30.5"));
+        message.setY(new BigDecimal("50.4"));
+        message.setVectorSpeed(60);
+        return message;
+    }
+
+    private static Packet<Message> packet(final long... gpsTimes) {
+        final Packet<Message> packet = new Packet<>(new Date(), comparator);
+        for (final long gpsTime : gpsTimes) {
+            packet.add(message(gpsTime));
+        }
+        return packet;
+    }
+
+    @Test
+    public void packets_are_polled_in_the_order_of_adding_across_buffer_growth_and_wrap_around() {
+        final PacketRingBuffer<Message> buffer = new PacketRingBuffer<>(2);
+        final List<Packet<Message>> added = new ArrayList<>();
+        for (int index = 0; index < 3; index++) {
+            added.add(packet(index));
+            buffer.add(added.get(added.size() - 1));
+        }
+        assertSame(added.remove(0), buffer.poll());
+        for (int index = 3; index < 10; index++) {
+            added.add(packet(index));
+            buffer.add(added.get(added.size() - 1));
+        }
+
+        assertEquals(added.size(), buffer.size());
+        for (int index = 0; index < added.size(); index++) {
+            assertSame(added.get(index), buffer.get(index));
+        }
+        for (final Packet<Message> packet : added) {
+            assertSame(packet, buffer.poll());
+        }
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void total_number_of_messages_is_maintained_upon_adding_and_polling() {
+        final PacketRingBuffer<Message> buffer = new PacketRingBuffer<>(4);
+        buffer.add(packet(1, 2, 3));
+        buffer.add(packet(4));
+        buffer.add(packet(5, 6));
+        assertEquals(6, buffer.getTotalMessages());
+
+        buffer.poll();
+        assertEquals(3, buffer.getTotalMessages());
+        buffer.poll();
+        buffer.poll();
+        assertEquals(0, buffer.getTotalMessages());
+    }
+
+    @Test
+    public void access_beyond_buffer_size_fails() {
+        final PacketRingBuffer<Message> buffer = new PacketRingBuffer<>(4);
+        buffer.add(packet(1));
+        try {
+            buffer.get(1);
+            fail();
+        } catch (final IndexOutOfBoundsException ex) {
+        }
+    }
+
+    @Test
+    public void messages_with_the_same_gps_time_replace_each_other_in_packet() {
+        final Packet<Message> packet = packet(3, 1, 2);
+        final Message replacement = message(2);
+        packet.add(replacement);
+
+        assertEquals(3, packet.getMessages().size());
+        assertEquals(1, packet.getStart().getGpsTime().getTime());
+        assertEquals(3, packet.getFinish().getGpsTime().getTime());
+        assertTrue(packet.getMessages().contains(replacement));
+        assertSame(replacement, new ArrayList<>(packet.getMessages()).get(1));
+    }
+
+    @Test
+    public void per_packet_cost_of_inspection_window_is_lower_with_ring_buffer_than_with_linked_list() {
+        final int windowSize = 200;
+        final int packets = 2_000;
+        final List<Packet<Message>> incoming = new ArrayList<>();
+        for (int index = 0; index < windowSize + packets; index++) {
+            incoming.add(packet(index * 10L, index * 10L + 1, index * 10L + 2));
+        }
+
+        // the way the inspection window used to be maintained by AbstractAvlMachineActor
+        final LinkedList<Packet<Message>> list = new LinkedList<>(incoming.subList(0, windowSize));
+        long start = System.nanoTime();
+        long listChecksum = 0;
+        for (int index = windowSize; index < incoming.size(); index++) {
+            final Packet<Message> first = list.poll();
+            list.add(incoming.get(index));
+            Integer totalSize = 0;
+            for (final Packet<Message> packet : list) {
+                totalSize = totalSize + packet.getMessages().size();
+            }
+            listChecksum += totalSize / list.size() + indexOfLastPacketStartedNotAfter(first, list.size(), list::get);
+        }
+        final long listTime = System.nanoTime() - start;
+
+        final PacketRingBuffer<Message> buffer = new PacketRingBuffer<>(windowSize);
+        for (final Packet<Message> packet : incoming.subList(0, windowSize)) {
+            buffer.add(packet);
+        }
+        start = System.nanoTime();
+        long bufferChecksum = 0;
+        for (int index = windowSize; index < incoming.size(); index++) {
+            final Packet<Message> first = buffer.poll();
+            buffer.add(incoming.get(index));
+            bufferChecksum += buffer.getTotalMessages() / buffer.size() + indexOfLastPacketStartedNotAfter(first, buffer.size(), buffer::get);
+        }
+        final long bufferTime = System.nanoTime() - start;
+
+        assertEquals(listChecksum, bufferChecksum);
+        assertTrue(String.format("Ring buffer [%s ms] should be faster than linked list [%s ms].", bufferTime / 1_000_000, listTime / 1_000_000), bufferTime < listTime);
+    }
+
+    /**
+     * Scans the window backwards by index in the same way as the chronology checks of {@link AbstractAvlMachineActor}.
+     */
+    private static int indexOfLastPacketStartedNotAfter(final Packet<Message> packet, final int size, final IntFunction<Packet<Message>> get) {
+        for (int index = size - 1; index >= 0; index--) {
+            if (get.apply(index).getStart().getGpsTime().getTime() <= packet.getFinish().getGpsTime().getTime()) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,175 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ua.com.fielden.platform.gis.gps.AvlData;
+import ua.com.fielden.platform.gis.gps.AvlIoCodes;
+
+/** A test for {@link AvlJournal}. */
+public class AvlJournalTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("avl-journal").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private static AvlData avlData(final long timestamp, final short speed) {
+        final ByteBuffer record = ByteBuffer.allocate(64);
+        record.putLong(timestamp);
+        record.put((byte) 1); // priority
+        record.putInt(305_000_000); // longitude
+        record.putInt(504_000_000); // latitude
+        record.putShort((short) 120); // altitude
+        record.putShort((short) 90); // angle
+        record.put((byte) 7); // satellites
+        record.putShort(speed);
+        record.put((byte) 0); // event id
+        record.put((byte) 2); // IO total
+        record.put((byte) 1); // 1 byte IO
+        record.put((byte) AvlIoCodes.DIN1.id);
+        record.put((byte) 1);
+        record.put((byte) 1); // 2 byte IO
+        record.put((byte) AvlIoCodes.POWER_SUPPLY_VOLT.id);
+        record.putShort((short) 12_500);
+        record.put((byte) 0); // 4 byte IO
+        record.put((byte) 0); // 8 byte IO
+        return new AvlData(record, 0);
+    }
+
+    private static List<Long> replay(final AvlJournal journal, final List<String> imeis, final List<AvlData> data) {
+        final List<Long> positions = new ArrayList<>();
+        journal.replay((position, imei, received, avlData) -> {
+            positions.add(position);
+            imeis.add(imei);
+            for (final AvlData item : avlData) {
+                data.add(item);
+            }
+        });
+        return positions;
+    }
+
+    @Test
+    public void appended_records_are_replayed_after_reopening() {
+        final AvlJournal journal = new AvlJournal(directory, SEGMENT_SIZE);
+        final long first = journal.append("356307042441013", 10L, new AvlData[] { avlData(1_000L, (short) 60), avlData(2_000L, (short) 0) });
+        final long second = journal.append("356307042441014", 20L, new AvlData[] { avlData(3_000L, (short) 30) });
+
+        final List<String> imeis = new ArrayList<>();
+        final List<AvlData> data = new ArrayList<>();
+        final List<Long> positions = replay(new AvlJournal(directory, SEGMENT_SIZE), imeis, data);
+
+        assertEquals(2, positions.size());
+        assertEquals(Long.valueOf(first), positions.get(0));
+        assertEquals(Long.valueOf(second), positions.get(1));
+        assertEquals("356307042441013", imeis.get(0));
+        assertEquals("356307042441014", imeis.get(1));
+        assertEquals(3, data.size());
+        assertEquals(1_000L, data.get(0).getGpsTimestamp());
+        assertEquals(60, data.get(0).getSpeed());
+        assertEquals(2_000L, data.get(1).getGpsTimestamp());
+        assertEquals(3_000L, data.get(2).getGpsTimestamp());
+        assertEquals(12_500, data.get(2).getShortIo(AvlIoCodes.POWER_SUPPLY_VOLT.id, (short) 0));
+    }
+
+    @Test
+    public void checkpoint_stops_at_the_oldest_record_in_use() {
+        final AvlJournal journal = new AvlJournal(directory, SEGMENT_SIZE);
+        final long first = journal.append("356307042441013", 10L, new AvlData[] { avlData(1_000L, (short) 60) });
+        final long second = journal.append("356307042441013", 20L, new AvlData[] { avlData(2_000L, (short) 60) });
+        journal.acquire(second);
+        journal.release(second);
+
+        journal.release(first);
+        assertEquals(second, journal.checkpoint());
+        assertEquals(1, journal.getPendingRecords());
+        assertEquals(journal.getAppendPosition() - second, journal.getLag());
+
+        final List<AvlData> data = new ArrayList<>();
+        replay(new AvlJournal(directory, SEGMENT_SIZE), new ArrayList<>(), data);
+        assertEquals(1, data.size());
+        assertEquals(2_000L, data.get(0).getGpsTimestamp());
+
+        journal.release(second);
+        assertEquals(journal.getAppendPosition(), journal.checkpoint());
+        assertEquals(0, journal.getLag());
+        assertEquals(0, replay(new AvlJournal(directory, SEGMENT_SIZE), new ArrayList<>(), new ArrayList<>()).size());
+    }
+
+    @Test
+    public void records_roll_over_to_new_segments_and_obsolete_segments_are_deleted() {
+        final AvlJournal journal = new AvlJournal(directory, SEGMENT_SIZE);
+        final List<Long> appended = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            appended.add(journal.append("356307042441013", i, new AvlData[] { avlData(i, (short) 60) }));
+        }
+        assertTrue(new File(directory, "segment-1.journal").exists());
+
+        final List<AvlData> data = new ArrayList<>();
+        assertEquals(appended, replay(new AvlJournal(directory, SEGMENT_SIZE), new ArrayList<>(), data));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, data.get(i).getGpsTimestamp());
+        }
+
+        for (int i = 0; i < 99; i++) {
+            journal.release(appended.get(i));
+        }
+        journal.checkpoint();
+        assertFalse(new File(directory, "segment-0.journal").exists());
+        assertEquals(1, replay(new AvlJournal(directory, SEGMENT_SIZE), new ArrayList<>(), new ArrayList<>()).size());
+    }
+
+    @Test
+    public void records_held_for_long_are_relocated_so_that_old_segments_can_be_deleted() {
+        final AvlJournal journal = new AvlJournal(directory, SEGMENT_SIZE, 1);
+        final long held = journal.append("356307042441014", 5L, new AvlData[] { avlData(500L, (short) 30) });
+        journal.acquire(held);
+        for (int i = 0; i < 100; i++) {
+            journal.release(journal.append("356307042441013", i, new AvlData[] { avlData(i, (short) 60) }));
+        }
+        assertTrue(new File(directory, "segment-3.journal").exists());
+
+        final long checkpoint = journal.checkpoint();
+        assertTrue(checkpoint > held);
+        assertFalse(new File(directory, "segment-0.journal").exists());
+        assertEquals(1, journal.getPendingRecords());
+
+        final List<String> imeis = new ArrayList<>();
+        final List<AvlData> data = new ArrayList<>();
+        final List<Long> positions = replay(new AvlJournal(directory, SEGMENT_SIZE), imeis, data);
+        assertEquals(1, positions.size());
+        assertEquals("356307042441014", imeis.get(0));
+        assertEquals(500L, data.get(0).getGpsTimestamp());
+        assertEquals(30, data.get(0).getSpeed());
+
+        // the record is still released by its original position
+        journal.release(held);
+        assertEquals(1, journal.getPendingRecords());
+        journal.release(held);
+        assertEquals(0, journal.getPendingRecords());
+        assertEquals(journal.getAppendPosition(), journal.checkpoint());
+    }
+
+}
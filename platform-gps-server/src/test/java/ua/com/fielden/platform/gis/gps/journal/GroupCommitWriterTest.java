@@ -0,0 +1,248 @@
+package ua.com.fielden.platform.gis.gps.journal;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ua.com.fielden.platform.gis.gps.AbstractAvlMessage;
+import ua.com.fielden.platform.gis.gps.AvlData;
+
+/** A test for {@link GroupCommitWriter}. */
+public class GroupCommitWriterTest {
+    private static final long TIMEOUT = 10_000;
+
+    private File directory;
+    private AvlJournal journal;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("avl-journal").toFile();
+        journal = new AvlJournal(directory, 1024);
+    }
+
+    @After
+    public void tearDown() {
+        for (final File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /** A persister, which records persisted batches and rejected requests, and fails batches that match <code>failure</code>. */
+    private static class TestPersister implements IAvlMessageBatchPersister<AbstractAvlMessage> {
+        private final Predicate<List<PersistRequest<AbstractAvlMessage>>> failure;
+        private boolean rejectionFails;
+        private final List<List<PersistRequest<AbstractAvlMessage>>> persisted = Collections.synchronizedList(new ArrayList<>());
+        private final List<PersistRequest<AbstractAvlMessage>> rejected = Collections.synchronizedList(new ArrayList<>());
+
+        private TestPersister(final Predicate<List<PersistRequest<AbstractAvlMessage>>> failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void persist(final List<PersistRequest<AbstractAvlMessage>> requests) throws Exception {
+            if (failure.test(requests)) {
+                throw new Exception("Batch failure.");
+            }
+            persisted.add(new ArrayList<>(requests));
+        }
+
+        @Override
+        public void reject(final PersistRequest<AbstractAvlMessage> request, final Exception cause) {
+            if (rejectionFails) {
+                throw new IllegalStateException("Rejection failure.");
+            }
+            rejected.add(request);
+        }
+    }
+
+    private PersistRequest<AbstractAvlMessage> journaledRequest() {
+        return PersistRequest.messages(emptyList(), null, journal.append("356307042441013", 10L, new AvlData[0]));
+    }
+
+    private static List<Integer> sizes(final List<List<PersistRequest<AbstractAvlMessage>>> batches) {
+        final List<Integer> sizes = new ArrayList<>();
+        for (final List<PersistRequest<AbstractAvlMessage>> batch : batches) {
+            sizes.add(batch.size());
+        }
+        return sizes;
+    }
+
+    @Test
+    public void requests_submitted_within_the_delay_are_persisted_in_batches_of_no_more_than_max_batch_size() {
+        final TestPersister persister = new TestPersister(batch -> false);
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 2, 100);
+        for (int i = 0; i < 5; i++) {
+            writer.submit(journaledRequest());
+        }
+        writer.start().stop(TIMEOUT);
+
+        assertEquals(asList(2, 2, 1), sizes(persister.persisted));
+        assertEquals(3, writer.getBatches());
+        assertEquals(5, writer.getRequests());
+        assertEquals(2, writer.getMaxBatchSize());
+        assertEquals(1, writer.getLastBatchSize());
+        assertEquals(0, journal.getPendingRecords());
+        assertEquals(0, journal.getLag());
+    }
+
+    @Test
+    public void failed_batch_is_retried_and_its_journal_records_are_released_only_after_it_is_persisted() {
+        final int[] attempts = new int[1];
+        final TestPersister persister = new TestPersister(batch -> ++attempts[0] <= 2);
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 10, 10, 3);
+        final PersistRequest<AbstractAvlMessage> first = journaledRequest();
+        final PersistRequest<AbstractAvlMessage> second = journaledRequest();
+        writer.submit(first);
+        writer.submit(second);
+        writer.start().stop(TIMEOUT);
+
+        assertEquals(1, persister.persisted.size());
+        assertEquals(asList(first, second), persister.persisted.get(0));
+        assertEquals(2, writer.getFailures());
+        assertEquals(0, writer.getRejected());
+        assertEquals(0, journal.getPendingRecords());
+        assertEquals(journal.getAppendPosition(), journal.getCheckpoint());
+    }
+
+    @Test
+    public void requests_that_fail_beyond_the_retry_limit_are_rejected_without_blocking_other_requests() {
+        final TestPersister[] persister = new TestPersister[1];
+        final List<PersistRequest<AbstractAvlMessage>> bad = new ArrayList<>();
+        persister[0] = new TestPersister(batch -> batch.stream().anyMatch(bad::contains));
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister[0], 10, 10, 2);
+        final PersistRequest<AbstractAvlMessage> first = journaledRequest();
+        final PersistRequest<AbstractAvlMessage> erroneous = journaledRequest();
+        final PersistRequest<AbstractAvlMessage> third = journaledRequest();
+        bad.add(erroneous);
+        writer.submit(first);
+        writer.submit(erroneous);
+        writer.submit(third);
+        writer.start();
+
+        final PersistRequest<AbstractAvlMessage> next = journaledRequest();
+        writer.submit(next);
+        writer.stop(TIMEOUT);
+
+        assertEquals(asList(erroneous), persister[0].rejected);
+        assertEquals(1, writer.getRejected());
+        // the whole batch failed once and was retried twice, and then the erroneous request failed on its own
+        assertEquals(4, writer.getFailures());
+        final List<PersistRequest<AbstractAvlMessage>> persisted = new ArrayList<>();
+        for (final List<PersistRequest<AbstractAvlMessage>> batch : persister[0].persisted) {
+            persisted.addAll(batch);
+        }
+        assertEquals(asList(first, third, next), persisted);
+        assertEquals(0, journal.getPendingRecords());
+        assertEquals(journal.getAppendPosition(), journal.getCheckpoint());
+    }
+
+    @Test
+    public void requests_are_retried_without_rejection_while_none_of_them_can_be_persisted() {
+        final int[] calls = new int[1];
+        // the whole batch fails twice, then each request fails on its own, and then the same happens once more before the database comes back
+        final TestPersister persister = new TestPersister(batch -> ++calls[0] <= 8);
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 10, 10, 1);
+        final PersistRequest<AbstractAvlMessage> first = journaledRequest();
+        final PersistRequest<AbstractAvlMessage> second = journaledRequest();
+        writer.submit(first);
+        writer.submit(second);
+        writer.start().stop(TIMEOUT);
+
+        assertEquals(asList(asList(first, second)), persister.persisted);
+        assertEquals(8, writer.getFailures());
+        assertEquals(0, writer.getRejected());
+        assertEquals(0, persister.rejected.size());
+        assertEquals(0, journal.getPendingRecords());
+    }
+
+    @Test
+    public void journal_records_of_requests_that_could_not_be_rejected_are_kept_for_replay() {
+        final List<PersistRequest<AbstractAvlMessage>> bad = new ArrayList<>();
+        final TestPersister persister = new TestPersister(batch -> batch.stream().anyMatch(bad::contains));
+        persister.rejectionFails = true;
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 10, 10, 0);
+        final PersistRequest<AbstractAvlMessage> first = journaledRequest();
+        final PersistRequest<AbstractAvlMessage> erroneous = journaledRequest();
+        bad.add(erroneous);
+        writer.submit(first);
+        writer.submit(erroneous);
+        writer.start().stop(TIMEOUT);
+
+        assertEquals(asList(asList(first)), persister.persisted);
+        assertEquals(0, writer.getRejected());
+        assertEquals(1, journal.getPendingRecords());
+        assertEquals(erroneous.getJournalPositions()[0], journal.getCheckpoint());
+    }
+
+    @Test
+    public void submission_waits_while_the_queue_is_full() throws Exception {
+        final TestPersister persister = new TestPersister(batch -> false);
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 10, 10, 1, 1);
+        writer.submit(journaledRequest());
+        final PersistRequest<AbstractAvlMessage> second = journaledRequest();
+        final Thread submitter = new Thread(() -> writer.submit(second));
+        submitter.start();
+        submitter.join(200);
+
+        assertTrue(submitter.isAlive());
+        assertEquals(1, writer.getQueueSize());
+        writer.start();
+        submitter.join(TIMEOUT);
+        assertFalse(submitter.isAlive());
+        writer.stop(TIMEOUT);
+        assertEquals(2, writer.getRequests());
+        assertEquals(0, journal.getPendingRecords());
+    }
+
+    @Test
+    public void writer_keeps_persisting_requests_after_unexpected_errors() {
+        final TestPersister persister = new TestPersister(batch -> false);
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 1, 10);
+        // a request without messages fails processing of its batch with NullPointerException upon counting of messages
+        writer.submit(PersistRequest.messages(null, null));
+        final PersistRequest<AbstractAvlMessage> next = journaledRequest();
+        writer.submit(next);
+        writer.start().stop(TIMEOUT);
+
+        assertEquals(2, persister.persisted.size());
+        assertEquals(asList(next), persister.persisted.get(1));
+        assertEquals(1, writer.getBatches());
+        assertEquals(0, journal.getPendingRecords());
+    }
+
+    @Test
+    public void stopping_drains_already_submitted_requests_and_rejects_new_ones() {
+        final TestPersister persister = new TestPersister(batch -> false);
+        final GroupCommitWriter<AbstractAvlMessage> writer = new GroupCommitWriter<>(journal, persister, 3, 50).start();
+        for (int i = 0; i < 10; i++) {
+            writer.submit(journaledRequest());
+        }
+        writer.stop(TIMEOUT);
+
+        assertEquals(10, writer.getRequests());
+        assertEquals(0, writer.getQueueSize());
+        assertEquals(0, journal.getPendingRecords());
+        try {
+            writer.submit(journaledRequest());
+            fail("Submission to a stopped writer should fail.");
+        } catch (final IllegalStateException ex) {
+            assertEquals("Group commit writer has been stopped.", ex.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,184 @@
+package ua.com.fielden.platform.gis.gps.server;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Test;
+
+import ua.com.fielden.platform.gis.gps.AvlData;
+import ua.com.fielden.platform.gis.gps.AvlIoCodes;
+
+/** A test for {@link AvlFrameDecoder} and {@link Crc16}. */
+public class AvlFrameDecoderTest {
+
+    private static byte[] avlRecord(final long timestamp, final int longitude, final int latitude, final short speed) {
+        final ChannelBuffer record = ChannelBuffers.dynamicBuffer();
+        record.writeLong(timestamp);
+        record.writeByte(1); // priority
+        record.writeInt(longitude);
+        record.writeInt(latitude);
+        record.writeShort(120); // altitude
+        record.writeShort(90); // angle
+        record.writeByte(7); // satellites
+        record.writeShort(speed);
+        record.writeByte(0); // event id
+        record.writeByte(3); // IO total
+        record.writeByte(1); // 1 byte IO
+        record.writeByte(AvlIoCodes.DIN1.id);
+        record.writeByte(1);
+        record.writeByte(2); // 2 byte IO
+        record.writeByte(AvlIoCodes.POWER_SUPPLY_VOLT.id);
+        record.writeShort(12_500);
+        record.writeByte(AvlIoCodes.GPS_POWER.id);
+        record.writeShort(1);
+        record.writeByte(0); // 4 byte IO
+        record.writeByte(0); // 8 byte IO
+        final byte[] result = new byte[record.readableBytes()];
+        record.readBytes(result);
+        return result;
+    }
+
+    private static ChannelBuffer avlPacket(final boolean validCrc, final byte[]... records) {
+        final ChannelBuffer data = ChannelBuffers.dynamicBuffer();
+        data.writeByte(0x8);
+        data.writeByte(records.length);
+        for (final byte[] record : records) {
+            data.writeBytes(record);
+        }
+        data.writeByte(records.length);
+
+        final byte[] bytes = new byte[data.readableBytes()];
+        data.readBytes(bytes);
+        final Crc16 crc = new Crc16(0xA001);
+        crc.update(bytes);
+
+        final ChannelBuffer packet = ChannelBuffers.dynamicBuffer();
+        packet.writeInt(0);
+        packet.writeInt(bytes.length);
+        packet.writeBytes(bytes);
+        packet.writeInt(validCrc ? crc.getCrc() : crc.getCrc() + 1);
+        return packet;
+    }
+
+    private static ChannelBuffer login(final String imei) {
+        final ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        buffer.writeShort(imei.length());
+        buffer.writeBytes(imei.getBytes(US_ASCII));
+        return buffer;
+    }
+
+    @Test
+    public void table_driven_crc_produces_standard_check_value() {
+        final Crc16 crc = new Crc16(0xA001);
+        crc.update("123456789".getBytes(US_ASCII));
+        assertEquals(0xBB3D, crc.getCrc());
+    }
+
+    @Test
+    public void table_driven_crc_matches_and_is_not_slower_than_bitwise_crc() {
+        final byte[] data = new byte[1_024];
+        for (int index = 0; index < data.length; index++) {
+            data[index] = (byte) (index * 31);
+        }
+        final int times = 2_000;
+        final Crc16 crc = new Crc16(0xA001);
+
+        long tableTime = 0;
+        long bitwiseTime = 0;
+        for (int index = 0; index < times; index++) {
+            long start = System.nanoTime();
+            crc.reset();
+            crc.update(data);
+            tableTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final int bitwiseCrc = bitwiseCrc16(0xA001, data);
+            bitwiseTime += System.nanoTime() - start;
+
+            assertEquals(bitwiseCrc, crc.getCrc());
+        }
+
+        assertTrue("Table-driven CRC should not be slower than bitwise CRC.", tableTime <= bitwiseTime);
+    }
+
+    /** The bit-by-bit CRC16 calculation, which was used by {@link AvlFrameDecoder} before {@link Crc16} became table-driven. */
+    private static int bitwiseCrc16(final int polynomial, final byte[] data) {
+        int crc = 0;
+        for (final byte b : data) {
+            int value = b;
+            for (int i = 0; i < 8; i++) {
+                final int add = (crc ^ value) & 1;
+                crc >>>= 1;
+                value >>>= 1;
+                if (add == 1) {
+                    crc ^= polynomial;
+                }
+            }
+            crc &= 0xFFFF;
+        }
+        return crc;
+    }
+
+    @Test
+    public void imei_is_decoded_and_interned() throws Exception {
+        final String imei1 = (String) new AvlFrameDecoder().decode(null, null, login("356307042441013"));
+        final String imei2 = (String) new AvlFrameDecoder().decode(null, null, login("356307042441013"));
+        assertEquals("356307042441013", imei1);
+        assertSame(imei1, imei2);
+    }
+
+    @Test
+    public void incomplete_imei_is_not_decoded_until_more_data_arrives() throws Exception {
+        final AvlFrameDecoder decoder = new AvlFrameDecoder();
+        final ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        buffer.writeShort(15);
+        buffer.writeBytes("3563".getBytes(US_ASCII));
+
+        assertNull(decoder.decode(null, null, buffer));
+        assertEquals(0, buffer.readerIndex());
+    }
+
+    @Test
+    public void avl_records_are_decoded_as_views_over_packet_data() throws Exception {
+        final AvlFrameDecoder decoder = new AvlFrameDecoder();
+        decoder.decode(null, null, login("356307042441013"));
+
+        final ChannelBuffer packet = avlPacket(true, avlRecord(1_000L, 305_000_000, 504_000_000, (short) 60), avlRecord(2_000L, 305_100_000, 504_100_000, (short) 0));
+        final AvlData[] data = (AvlData[]) decoder.decode(null, null, packet);
+
+        assertFalse(packet.readable());
+        assertEquals(2, data.length);
+        assertEquals(1_000L, data[0].getGpsTimestamp());
+        assertEquals(30.5, data[0].getLongitude(), 0.0000001);
+        assertEquals(50.4, data[0].getLatitude(), 0.0000001);
+        assertEquals(60, data[0].getSpeed());
+        assertEquals(2_000L, data[1].getGpsTimestamp());
+        assertEquals(30.51, data[1].getGps().getLongitude(), 0.0000001);
+        assertEquals(1, data[1].getByteIo(AvlIoCodes.DIN1.id, (byte) 0));
+        assertEquals(12_500, data[1].getShortIo(AvlIoCodes.POWER_SUPPLY_VOLT.id, (short) 0));
+        assertFalse(data[1].hasShortIo(AvlIoCodes.BATTERY_VOLT.id));
+        assertEquals(2, data[1].getIo().shortIo.length);
+        assertEquals(AvlIoCodes.GPS_POWER.id, data[1].getIo().shortIo[1].ioId);
+    }
+
+    @Test
+    public void avl_packet_with_incorrect_crc_is_rejected() throws Exception {
+        final AvlFrameDecoder decoder = new AvlFrameDecoder();
+        decoder.decode(null, null, login("356307042441013"));
+
+        try {
+            decoder.decode(null, null, avlPacket(false, avlRecord(1_000L, 305_000_000, 504_000_000, (short) 60)));
+            fail();
+        } catch (final Exception ex) {
+            assertTrue(ex.getMessage().startsWith("AVL packet CRC mismatch"));
+        }
+    }
+
+}
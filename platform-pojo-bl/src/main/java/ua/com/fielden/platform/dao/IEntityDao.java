@@ -1,6 +1,7 @@
 package ua.com.fielden.platform.dao;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -13,6 +14,7 @@ import ua.com.fielden.platform.entity.annotation.CompositeKeyMember;
 import ua.com.fielden.platform.entity.fetch.IFetchProvider;
 import ua.com.fielden.platform.entity.query.fluent.fetch;
 import ua.com.fielden.platform.entity.query.model.EntityResultQueryModel;
+import ua.com.fielden.platform.file_reports.CsvExporter;
 import ua.com.fielden.platform.pagination.IPage;
 import ua.com.fielden.platform.security.user.User;
 
@@ -214,6 +216,51 @@ public interface IEntityDao<T extends AbstractEntity<?>> extends IComputationMon
      */
     IPage<T> getPage(final QueryExecutionModel<T, ?> query, final int pageNo, final int pageCount, final int pageCapacity);
 
+    /**
+     * Should return a reference to the first page of the specified size containing entity instances retrieved using the provided query model with keyset (seek) pagination --
+     * subsequent pages are retrieved by seeking past the values of ordering properties of the last row of a preceding page instead of skipping rows by offset,
+     * and the number of pages is calculated only when requested.
+     * <p>
+     * By default, falls back to offset pagination.
+     *
+     * @param query
+     * @param pageCapacity
+     * @return
+     */
+    default IPage<T> firstPageByKeyset(final QueryExecutionModel<T, ?> query, final int pageCapacity) {
+        return firstPage(query, pageCapacity);
+    }
+
+    /**
+     * Same as {@link #getPage(QueryExecutionModel, int, int)}, but uses keyset (seek) pagination where possible, which is based on boundaries of the pages of the same query
+     * that have been retrieved previously.
+     * <p>
+     * By default, falls back to offset pagination.
+     *
+     * @param query
+     * @param pageNo
+     * @param pageCapacity
+     * @return
+     */
+    default IPage<T> getPageByKeyset(final QueryExecutionModel<T, ?> query, final int pageNo, final int pageCapacity) {
+        return getPage(query, pageNo, pageCapacity);
+    }
+
+    /**
+     * Same as {@link #getPageByKeyset(QueryExecutionModel, int, int)}, but should neither reuse boundaries of the previously retrieved pages nor the previously calculated number of pages,
+     * which could have been changed by modification of the data. The last page should be returned if the requested page is out of range.
+     * <p>
+     * By default, falls back to offset pagination.
+     *
+     * @param query
+     * @param pageNo
+     * @param pageCapacity
+     * @return
+     */
+    default IPage<T> refreshPageByKeyset(final QueryExecutionModel<T, ?> query, final int pageNo, final int pageCapacity) {
+        return getPage(query, pageNo, pageCapacity);
+    }
+
     /**
      * A convenient method for retrieving exactly one entity instance determined by the model. If more than one instance was found an exception is thrown. If there is no entity
      * found then a null value is returned.
@@ -419,6 +466,26 @@ public interface IEntityDao<T extends AbstractEntity<?>> extends IComputationMon
      */
     byte[] export(final QueryExecutionModel<T, ?> query, final String[] propertyNames, final String[] propertyTitles) throws IOException;
 
+    /**
+     * Writes the exported data as CSV to <code>out</code> row by row, without loading the whole query result into memory.
+     * By default, entities are retrieved by means of {@link #stream(QueryExecutionModel)}.
+     *
+     * @param query
+     *            -- query result of which should be exported.
+     * @param propertyNames
+     *            -- names of properties, including dot notated properties, which should be used in the export.
+     * @param propertyTitles
+     *            -- titles corresponding to the properties being exported, which are used as headers of columns.
+     * @param out
+     *            -- an output stream to write the exported data to; it is not closed upon completion.
+     * @return the number of exported entities
+     */
+    default long export(final QueryExecutionModel<T, ?> query, final String[] propertyNames, final String[] propertyTitles, final OutputStream out) throws IOException {
+        try (final Stream<T> stream = stream(query)) {
+            return CsvExporter.export(stream, propertyNames, propertyTitles, out);
+        }
+    }
+
     /**
      * Returns default {@link FetchProvider} for the entity.
      * <p>
@@ -35,6 +35,9 @@ public interface ISecurityRoleAssociation extends IEntityDao<SecurityRoleAssocia
 
     /** Returns a total number of active user roles associated with the token. */
     int countActiveAssociations(final User user, final Class<? extends ISecurityToken> securityTokenClass);
+
+    /** Returns all security tokens, which are associated with active user roles of the user. */
+    Set<Class<? extends ISecurityToken>> findActiveTokensFor(final User user);
     
     /**
      * Removes the set of {@link SecurityRoleAssociation}s.
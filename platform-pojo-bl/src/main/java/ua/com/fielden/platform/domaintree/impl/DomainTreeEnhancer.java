@@ -339,6 +339,13 @@ public final class DomainTreeEnhancer extends AbstractDomainTree implements IDom
         // iterate through calculated property places (e.g. Vehicle.class+"" or WorkOrder.class+"veh.status") with no care about order
         for (final Entry<Class<?>, Map<String, Map<String, IProperty>>> entry : groupedCalculatedProperties.entrySet()) {
             final Class<?> originalRoot = entry.getKey();
+            // reuse the hierarchy of types, which was already generated for structurally identical enhancement
+            final String fingerprint = entry.getValue() == null ? null : fingerprint(originalRoot, entry.getValue());
+            final Pair<Class<?>, Map<String, ByteArray>> sharedEnhancedRoot = fingerprint == null ? null : EnhancedRootTypeRegistry.get(fingerprint);
+            if (sharedEnhancedRoot != null) {
+                originalAndEnhancedRootTypes.put(originalRoot, sharedEnhancedRoot);
+                continue;
+            }
             // generate predefined root type name for all calculated properties
             final String predefinedRootTypeName = new DynamicTypeNamingService().nextTypeName(originalRoot.getName());
             if (entry.getValue() == null) {
@@ -404,6 +411,7 @@ public final class DomainTreeEnhancer extends AbstractDomainTree implements IDom
                     byteArraysWithRenamedRoot.put("", new ByteArray(classLoader.getCachedByteArray(rootWithPredefinedName.getName())));
                     final Pair<Class<?>, Map<String, ByteArray>> neww = new Pair<Class<?>, Map<String, ByteArray>>(rootWithPredefinedName, byteArraysWithRenamedRoot);
                     originalAndEnhancedRootTypes.put(originalRoot, neww);
+                    EnhancedRootTypeRegistry.register(fingerprint, neww);
                 }
             } catch (final ClassNotFoundException e) {
                 e.printStackTrace();
@@ -413,7 +421,43 @@ public final class DomainTreeEnhancer extends AbstractDomainTree implements IDom
         }
         return originalAndEnhancedRootTypes;
     }
-    
+
+    /**
+     * Creates a structural fingerprint of the enhancement of <code>originalRoot</code> with properties grouped by paths. The fingerprint includes everything that is generated into
+     * the types of the hierarchy, except the randomly generated type names, in the order of generation.
+     *
+     * @param originalRoot
+     * @param propsByPaths
+     * @return
+     */
+    private static String fingerprint(final Class<?> originalRoot, final Map<String, Map<String, IProperty>> propsByPaths) {
+        final StringBuilder sb = new StringBuilder(originalRoot.getName());
+        for (final Entry<String, Map<String, IProperty>> placeAndProps : propsByPaths.entrySet()) {
+            if (placeAndProps.getValue() != null && !placeAndProps.getValue().isEmpty()) {
+                sb.append("\n[").append(placeAndProps.getKey()).append("]");
+                for (final Entry<String, IProperty> nameWithProp : placeAndProps.getValue().entrySet()) {
+                    sb.append("\n").append(nameWithProp.getKey());
+                    if (nameWithProp.getValue() instanceof CalculatedProperty) {
+                        final CalculatedProperty prop = (CalculatedProperty) nameWithProp.getValue();
+                        append(sb, "calc", prop.resultType().getName(), prop.getTitle(), prop.getDesc(), prop.getContextualExpression(), prop.getContextPath(), prop.getOriginationProperty(), prop.getAttribute(), prop.category());
+                    } else {
+                        final CustomProperty prop = (CustomProperty) nameWithProp.getValue();
+                        append(sb, "custom", prop.resultType().getName(), prop.getTitle(), prop.getDesc());
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void append(final StringBuilder sb, final Object... parts) {
+        for (final Object part : parts) {
+            // the length prefix makes the fingerprint unambiguous regardless of the content of textual parts
+            final String str = String.valueOf(part);
+            sb.append('|').append(str.length()).append(':').append(str);
+        }
+    }
+
     @Override
     public Class<?> adjustManagedTypeName(final Class<?> root, final String clientGeneratedTypeNameSuffix) {
         final Class<?> managedType = getManagedType(root);
@@ -0,0 +1,79 @@
+package ua.com.fielden.platform.domaintree.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ua.com.fielden.platform.domaintree.impl.DomainTreeEnhancer.ByteArray;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * A JVM-wide registry of enhanced root types, which are keyed by a structural fingerprint of their enhancement -- the original root type and the definitions of all its calculated
+ * and custom properties in the order of their generation.
+ * <p>
+ * Enhancers with structurally identical enhancements (e.g. the same centre of different users) share the same generated hierarchy of types instead of generating a new one every time,
+ * which would otherwise stay in {@link ua.com.fielden.platform.reflection.asm.impl.DynamicEntityClassLoader} forever.
+ *
+ * @author TG Team
+ *
+ */
+public final class EnhancedRootTypeRegistry {
+    private static final ConcurrentMap<String, Pair<Class<?>, Map<String, ByteArray>>> ENHANCED_ROOTS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong LOOKUPS = new AtomicLong();
+    private static final AtomicLong SHARED = new AtomicLong();
+
+    private EnhancedRootTypeRegistry() {
+    }
+
+    /**
+     * Returns the enhanced root type and byte arrays of its hierarchy, which were registered for <code>fingerprint</code>, or <code>null</code> if there are none.
+     * The returned map of byte arrays is a copy, which can be modified freely.
+     *
+     * @param fingerprint
+     * @return
+     */
+    static Pair<Class<?>, Map<String, ByteArray>> get(final String fingerprint) {
+        LOOKUPS.incrementAndGet();
+        final Pair<Class<?>, Map<String, ByteArray>> enhanced = ENHANCED_ROOTS.get(fingerprint);
+        if (enhanced == null) {
+            return null;
+        }
+        SHARED.incrementAndGet();
+        return new Pair<>(enhanced.getKey(), new LinkedHashMap<>(enhanced.getValue()));
+    }
+
+    /**
+     * Registers the enhanced root type and byte arrays of its hierarchy for <code>fingerprint</code>, unless some other hierarchy has already been registered for it concurrently.
+     *
+     * @param fingerprint
+     * @param enhanced
+     */
+    static void register(final String fingerprint, final Pair<Class<?>, Map<String, ByteArray>> enhanced) {
+        ENHANCED_ROOTS.putIfAbsent(fingerprint, new Pair<>(enhanced.getKey(), new LinkedHashMap<>(enhanced.getValue())));
+    }
+
+    /**
+     * The number of distinct enhancements, for which hierarchies of types were generated.
+     */
+    public static int size() {
+        return ENHANCED_ROOTS.size();
+    }
+
+    /**
+     * The number of lookups of enhancements, which is the number of enhanced root types requested by all enhancers.
+     */
+    public static long getLookupCount() {
+        return LOOKUPS.get();
+    }
+
+    /**
+     * The number of lookups, which were served by already generated hierarchies of types.
+     */
+    public static long getSharedCount() {
+        return SHARED.get();
+    }
+
+}
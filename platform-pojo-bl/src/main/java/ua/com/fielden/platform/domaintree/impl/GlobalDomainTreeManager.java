@@ -53,6 +53,8 @@ import ua.com.fielden.platform.ui.config.api.IMainMenuItem;
 import ua.com.fielden.platform.utils.EntityUtils;
 import ua.com.fielden.platform.utils.Pair;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.inject.Inject;
 
 /**
@@ -77,6 +79,12 @@ public class GlobalDomainTreeManager extends AbstractDomainTree implements IGlob
     private final transient EnhancementPropertiesMap<ICentreDomainTreeManagerAndEnhancer> freezedCentres;
     private final transient EnhancementPropertiesMap<Boolean> centresOwning;
 
+    /**
+     * Serialised snapshots of centres, which are copied repeatedly without being changed in between (refer {@link #copyUnchangedCentre(ICentreDomainTreeManagerAndEnhancer)}).
+     * Weak keys are compared by identity, thus a replaced centre gets a new snapshot and the snapshot of the old one is discarded together with it.
+     */
+    private final transient Cache<ICentreDomainTreeManagerAndEnhancer, byte[]> centreSnapshots = CacheBuilder.newBuilder().weakKeys().build();
+
     private final EnhancementRootsMap<IMasterDomainTreeManager> persistentMasters;
     private final transient EnhancementRootsMap<IMasterDomainTreeManager> currentMasters;
 
@@ -634,8 +642,44 @@ public class GlobalDomainTreeManager extends AbstractDomainTree implements IGlob
         // TODO kryo.register(CentreDomainTreeManager.class, new CentreDomainTreeManagerSerialiserWithTransientAnalyses(kryo));
         final ICentreDomainTreeManagerAndEnhancer copy = initCentreManagerCrossReferences(EntityUtils.deepCopy(centre, getSerialiser()));
         // TODO kryo.register(CentreDomainTreeManager.class);
+        copyGeneratedTypeAnnotations(centre, copy);
+
+        final DateTime end = new DateTime();
+        final Period pd = new Period(start, end);
+        logger.debug(String.format("\t\t\tCopying centre... done in [%s].", pd.getSeconds() + " s " + pd.getMillis() + " ms"));
+        return copy;
+    }
+
+    /**
+     * The same as {@link #copyCentre(ICentreDomainTreeManagerAndEnhancer)}, but for centres that are not changed after they have been copied for the first time (e.g. default centres).
+     * Such centres are serialised only once, and every copy is deserialised from the same snapshot, which saves the serialisation part of each copy.
+     * <p>
+     * Changing the centre after it has been copied by this method leads to stale copies. A centre that needs to be changed should be replaced with a new instance instead.
+     *
+     * @param centre
+     * @return
+     */
+    public ICentreDomainTreeManagerAndEnhancer copyUnchangedCentre(final ICentreDomainTreeManagerAndEnhancer centre) {
+        logger.debug(String.format("\t\t\tCopying unchanged centre..."));
+        final DateTime start = new DateTime();
+        byte[] snapshot = centreSnapshots.getIfPresent(centre);
+        if (snapshot == null) {
+            snapshot = getSerialiser().serialise(centre);
+            centreSnapshots.put(centre, snapshot);
+        }
+        final ICentreDomainTreeManagerAndEnhancer copy = initCentreManagerCrossReferences(getSerialiser().deserialise(snapshot, centre.getClass()));
+        copyGeneratedTypeAnnotations(centre, copy);
+
+        final DateTime end = new DateTime();
+        final Period pd = new Period(start, end);
+        logger.debug(String.format("\t\t\tCopying unchanged centre... done in [%s] from a snapshot of [%s] bytes.", pd.getSeconds() + " s " + pd.getMillis() + " ms", snapshot.length));
+        return copy;
+    }
 
-        // Performs copying of all defined custom annotations on generated types to provide the copy with the same annotations as original centre have.
+    /**
+     * Performs copying of all defined custom annotations on generated types to provide the copy with the same annotations as original centre have.
+     */
+    private static void copyGeneratedTypeAnnotations(final ICentreDomainTreeManagerAndEnhancer centre, final ICentreDomainTreeManagerAndEnhancer copy) {
         for (final Class<?> root: centre.getRepresentation().rootTypes()) {
             final Class<?> managedType = centre.getEnhancer().getManagedType(root);
             if (DynamicEntityClassLoader.isGenerated(managedType)) {
@@ -643,11 +687,6 @@ public class GlobalDomainTreeManager extends AbstractDomainTree implements IGlob
                 copy.getEnhancer().adjustManagedTypeAnnotations(root, annotationsToCopy);
             }
         }
-
-        final DateTime end = new DateTime();
-        final Period pd = new Period(start, end);
-        logger.debug(String.format("\t\t\tCopying centre... done in [%s].", pd.getSeconds() + " s " + pd.getMillis() + " ms"));
-        return copy;
     }
 
     private IMasterDomainTreeManager copyMaster(final IMasterDomainTreeManager master) {
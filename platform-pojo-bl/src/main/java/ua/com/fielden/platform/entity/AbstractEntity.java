@@ -21,6 +21,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -75,6 +77,7 @@ import ua.com.fielden.platform.error.Result;
 import ua.com.fielden.platform.error.Warning;
 import ua.com.fielden.platform.reflection.AnnotationReflector;
 import ua.com.fielden.platform.reflection.Finder;
+import ua.com.fielden.platform.reflection.PropertyAccessors;
 import ua.com.fielden.platform.reflection.PropertyTypeDeterminator;
 import ua.com.fielden.platform.reflection.Reflector;
 import ua.com.fielden.platform.reflection.exceptions.ReflectionException;
@@ -340,6 +343,11 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
      */
     private transient String preferredProperty;
 
+    /**
+     * Property templates by entity classes, which are built once per class and shared by all its instances.
+     */
+    private static final ConcurrentMap<Class<?>, List<PropertyTemplate>> templatesByType = new ConcurrentHashMap<>();
+
     /**
      * This is a default constructor, which is required for reflective construction.
      */
@@ -611,11 +619,16 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
     @Override
     public AbstractEntity<K> set(final String propertyName, final Object value) {
         try {
+            if (!AbstractUnionEntity.class.isAssignableFrom(getType())) {
+                // setters of ordinary entities are resolved once per type and invoked by means of cached accessors
+                PropertyAccessors.forType(getType()).set(this, propertyName, value);
+                return this;
+            }
             final Class<?> propertyType = Finder.findFieldByName(getType(), propertyName).getType();
             final String setterName = Mutator.SETTER.getName(propertyName);
             final Method setter = Reflector.getMethod(this, setterName, propertyType);
             Object valueToInvokeOn = this;
-            if (!setter.getDeclaringClass().isAssignableFrom(getType()) && AbstractUnionEntity.class.isAssignableFrom(getType())) {
+            if (!setter.getDeclaringClass().isAssignableFrom(getType())) {
                 valueToInvokeOn = ((AbstractUnionEntity) this).activeEntity();
             }
             // making method accessible if it isn't
@@ -643,6 +656,9 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
     /**
      * This setter is responsible for meta-property creation. It is envisaged that {@link IMetaPropertyFactory} is be provided as an injection. An thus, meta-property instantiation
      * should happen immediately after entity creation when being created via IoC mechanism.
+     * <p>
+     * Everything that is determined by the entity type alone (properties, their types, key membership, validation annotations, dependencies, titles and editable/required flags)
+     * is analysed only once per type and captured as property templates. Only validators, ACE handlers and meta-properties themselves are instantiated per entity instance.
      *
      * @param metaPropertyFactory
      */
@@ -650,7 +666,6 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
     protected void setMetaPropertyFactory(final IMetaPropertyFactory metaPropertyFactory) {
         // mark the start of the initialisation phase as part of entity creation
         beginInitialising();
-        ///logger.debug("Starting meta construction with factory " + metaPropertyFactory + " for type " + getType());
         // if meta-property factory has already been assigned it should not change
         if (this.metaPropertyFactory.isPresent()) {
             logger.error("Property factory can be assigned only once.");
@@ -658,32 +673,86 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
         }
 
         this.metaPropertyFactory = of(metaPropertyFactory);
+        for (final PropertyTemplate template : propertyTemplates()) {
+            if (template.proxied) {
+                properties.put(template.name, new MetaProperty(this, template.field, template.type, template.isKey, true, template.dependentProperties));
+            } else {
+                try {
+                    final Map<ValidationAnnotation, Map<IBeforeChangeEventHandler<?>, Result>> validators = new EnumMap<>(ValidationAnnotation.class);
+                    final Set<Annotation> validationAnnotations = collectValidators(metaPropertyFactory, template, validators);
+                    // create ACE handler
+                    final IAfterChangeEventHandler<?> definer = metaPropertyFactory.create(this, template.field);
+                    // create meta-property
+                    final MetaProperty<?> metaProperty = new MetaPropertyFull(
+                            this,
+                            template.field,
+                            template.type,
+                            false,
+                            template.isKey,
+                            template.isCollectional,
+                            template.assignBeforeSave,
+                            template.propertyAnnotationType,
+                            template.calculated,
+                            template.upperCase,
+                            validationAnnotations,
+                            validators,
+                            definer,
+                            template.dependentProperties);
+                    // define meta-property properties used most commonly for UI construction: required, editable, title and desc //
+                    template.initProperty(metaProperty);
+                    // put meta-property in the map associating it with a corresponding property name
+                    properties.put(template.name, metaProperty);
+                } catch (final Exception e) {
+                    logger.error("Entity instantiation failed.", e);
+                    throw new EntityException(format("Instantiation of entity [%s] has failed (see cause for more details).", getType().getName()), e);
+                }
+            }
+        }
+        endInitialising();
+    }
+
+    /**
+     * Returns property templates for the type of this entity, building and caching them upon first request.
+     * Templates are built outside of the cache in order not to hold any locks during type analysis, which may concurrently happen more than once for the same type.
+     *
+     * @return
+     */
+    private List<PropertyTemplate> propertyTemplates() {
+        final List<PropertyTemplate> cached = templatesByType.get(getClass());
+        if (cached != null) {
+            return cached;
+        }
+        final List<PropertyTemplate> built = buildPropertyTemplates();
+        final List<PropertyTemplate> existing = templatesByType.putIfAbsent(getClass(), built);
+        return existing != null ? existing : built;
+    }
+
+    /**
+     * Analyses properties of this entity type and performs early runtime validation of their definitions.
+     *
+     * @return
+     */
+    private List<PropertyTemplate> buildPropertyTemplates() {
         final List<Field> keyMembers = Finder.getKeyMembers(getType());
 
         // obtain field annotated as properties
         final List<Field> fields = Finder.findRealProperties(getClass());
-        //logger.debug("Iterating through " + fields.size() + " properties for building corresponding meta-properties.");
+        final List<PropertyTemplate> templates = new ArrayList<>(fields.size());
         for (final Field field : fields) { // for each property field
             final String propName = field.getName();
 
+            // ensure that there is an accessor -- with out it field is not a property
+            // throws exception if method does not exists
             Reflector.obtainPropertyAccessor(getType(), propName);
             // determine property type and adjacent virtues
             final Class<?> type = determineType(field);
-            //logger.debug("TYPE (" + field.getName() + ") : " + type);
             final boolean isKey = keyMembers.contains(field);
-            //logger.debug("IS_KEY (" + field.getName() + ") : " + isKey);
 
             if (Reflector.isPropertyProxied(this, propName)) {
-                properties.put(propName, new MetaProperty(this, field, type, isKey, true, extractDependentProperties(field, fields)));
+                templates.add(new PropertyTemplate(field, type, isKey, extractDependentProperties(field, fields)));
             } else {
-                //logger.debug("Property " + field.getName());
                 try {
-                    // ensure that there is an accessor -- with out it field is not a property
-                    // throws exception if method does not exists
-                    Reflector.obtainPropertyAccessor(getType(), propName);
-
                     final boolean isCollectional = Collection.class.isAssignableFrom(type);
-                    //logger.debug("IS_COLLECTIONAL (" + field.getName() + ") : " + isCollectional);
 
                     final IsProperty isPropertyAnnotation = AnnotationReflector.getAnnotation(field, IsProperty.class);
                     final Class<?> propertyAnnotationType = isPropertyAnnotation.value();
@@ -713,45 +782,39 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
                         throw new EntityDefinitionException(error);
                     }
 
-                    // if setter is annotated then try to instantiate specified validator
-                    //logger.debug("Collecting validators for " + field.getName());
-                    final Set<Annotation> declatedValidationAnnotations = new HashSet<Annotation>();
-                    final Map<ValidationAnnotation, Map<IBeforeChangeEventHandler<?>, Result>> validators = collectValidators(metaPropertyFactory, field, type, isCollectional, declatedValidationAnnotations);
-                    // create ACE handler
-                    //logger.debug("Initiating meta-property ACE handler for " + field.getName());
-                    final IAfterChangeEventHandler<?> definer = metaPropertyFactory.create(this, field);
-                    // create meta-property
-                    //logger.debug("Creating meta-property for " + field.getName());
-                    final boolean isUpperCase = AnnotationReflector.isAnnotationPresent(field, UpperCase.class);
-                    //logger.debug("IS_UPPERCASE (" + field.getName() + ") : " + isUpperCase);
-                    final MetaProperty<?> metaProperty = new MetaPropertyFull(
-                            this,
+                    // collect validation annotations specified for property mutators
+                    final Set<Annotation> validationAnnotations;
+                    try {
+                        validationAnnotations = extractValidationAnnotationForProperty(field, type, isCollectional);
+                    } catch (final Exception ex) {
+                        logger.error(format("Exception during collection of validators for property [%s] in entity type [%s].", field.getName(), getType().getSimpleName()), ex);
+                        throw ex;
+                    }
+                    final EntityExists entityExists = isEntityExistsValidationApplicable(getType(), field, type)
+                            ? new EntityExistsAnnotation((Class<? extends AbstractEntity<?>>) type).newInstance()
+                            : null;
+
+                    final PropertyTemplate template = new PropertyTemplate(
                             field,
                             type,
-                            false,
                             isKey,
                             isCollectional,
                             isPropertyAnnotation.assignBeforeSave(),
                             propertyAnnotationType,
                             AnnotationReflector.isAnnotationPresent(field, Calculated.class),
-                            isUpperCase,
-                            declatedValidationAnnotations,
-                            validators,
-                            definer,
+                            AnnotationReflector.isAnnotationPresent(field, UpperCase.class),
+                            validationAnnotations,
+                            entityExists,
                             extractDependentProperties(field, fields));
-                    // define meta-property properties used most commonly for UI construction: required, editable, title and desc //
-                    //logger.debug("Initialising meta-property for " + field.getName());
-                    initProperty(keyMembers, field, metaProperty);
-                    // put meta-property in the map associating it with a corresponding property name
-                    properties.put(propName, metaProperty);
+                    initProperty(keyMembers, field, template);
+                    templates.add(template);
                 } catch (final Exception e) {
                     logger.error("Entity instantiation failed.", e);
                     throw new EntityException(format("Instantiation of entity [%s] has failed (see cause for more details).", getType().getName()), e);
                 }
             }
         }
-        endInitialising();
-        //logger.debug("Finished meta construction for type " + getType());
+        return Collections.unmodifiableList(templates);
     }
 
     /**
@@ -779,32 +842,24 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
     }
 
     /**
-     * Analyses mutators and their annotations to collect and instantiate all property validators.
+     * Instantiates property validators for all validation annotations captured in the property template and populates <code>validators</code> with them.
      *
      * @param metaPropertyFactory
-     * @param field
-     * @param properyType
-     * @param isCollectional
-     * @return map of validators
+     * @param template
+     * @param validators
+     * @return validation annotations, for which validators were instantiated
      * @throws Exception
      */
-    private Map<ValidationAnnotation, Map<IBeforeChangeEventHandler<?>, Result>> collectValidators(
+    private Set<Annotation> collectValidators(
             final IMetaPropertyFactory metaPropertyFactory,
-            final Field field,
-            final Class<?> properyType,
-            final boolean isCollectional,
-            final Set<Annotation> validationAnnotations)
+            final PropertyTemplate template,
+            final Map<ValidationAnnotation, Map<IBeforeChangeEventHandler<?>, Result>> validators)
             throws Exception {
-        //logger.debug("Start collecting validators for property " + field.getName() + "...");
         try {
-            final Map<ValidationAnnotation, Map<IBeforeChangeEventHandler<?>, Result>> validators = new EnumMap<>(ValidationAnnotation.class);
-            // Get corresponding mutators to pick all specified validators in case of a collectional property there can be up to three mutators --
-            // removeFrom[property name], addTo[property name] and set[property name]
-            final Set<Annotation> propertyValidationAnotations = extractValidationAnnotationForProperty(field, properyType, isCollectional);
-            for (final Annotation annotation : propertyValidationAnotations) {
+            for (final Annotation annotation : template.validationAnnotations) {
                 final ValidationAnnotation validationAnnotation = ValidationAnnotation.getValueByType(annotation);
                 // if property factory cannot instantiate a validator for the specified annotation then null is returned;
-                final IBeforeChangeEventHandler<?>[] annotationValidators = metaPropertyFactory.create(annotation, this, field.getName(), properyType);
+                final IBeforeChangeEventHandler<?>[] annotationValidators = metaPropertyFactory.create(annotation, this, template.name, template.type);
                 if (annotationValidators.length > 0) {
                     final Map<IBeforeChangeEventHandler<?>, Result> handlersAndResults = new LinkedHashMap<>();
                     for (final IBeforeChangeEventHandler<?> handler : annotationValidators) {
@@ -815,28 +870,24 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
             }
 
             // now let's see if we need to add EntityExists validation
-            if (!validators.containsKey(ValidationAnnotation.ENTITY_EXISTS) && isEntityExistsValidationApplicable(getType(), field, properyType)) {
-                final EntityExists eeAnnotation = new EntityExistsAnnotation((Class<? extends AbstractEntity<?>>) properyType).newInstance();
-                final IBeforeChangeEventHandler<?>[] annotationValidators = metaPropertyFactory.create(eeAnnotation, this, field.getName(), properyType);
+            if (!validators.containsKey(ValidationAnnotation.ENTITY_EXISTS) && template.entityExists != null) {
+                final IBeforeChangeEventHandler<?>[] annotationValidators = metaPropertyFactory.create(template.entityExists, this, template.name, template.type);
 
                 if (annotationValidators.length != 1) {
-                    throw new EntityDefinitionException(format("Unexpexted number of @EntityExists annotations (expected 1, but actual %s) for property [%s] in entity [%s].", annotationValidators.length, field.getType(), getType().getName()));
+                    throw new EntityDefinitionException(format("Unexpexted number of @EntityExists annotations (expected 1, but actual %s) for property [%s] in entity [%s].", annotationValidators.length, template.field.getType(), getType().getName()));
                 }
 
-                propertyValidationAnotations.add(eeAnnotation);
                 final Map<IBeforeChangeEventHandler<?>, Result> handlersAndResults = new LinkedHashMap<>();
                 final IBeforeChangeEventHandler<?> handler = annotationValidators[0];
                 handlersAndResults.put(handler, null);
 
                 validators.put(ValidationAnnotation.ENTITY_EXISTS, handlersAndResults);
+                return template.validationAnnotationsWithEntityExists;
             }
 
-            // logger.debug("Finished collecting validators for property " + field.getName() + ".");
-            validationAnnotations.addAll(propertyValidationAnotations);
-
-            return validators;
+            return template.validationAnnotations;
         } catch (final Exception ex) {
-            logger.error(format("Exception during collection of validators for property [%s] in entity type [%s].", field.getName(), getType().getSimpleName()), ex);
+            logger.error(format("Exception during collection of validators for property [%s] in entity type [%s].", template.name, getType().getSimpleName()), ex);
             throw ex;
         }
     }
@@ -863,50 +914,148 @@ public abstract class AbstractEntity<K extends Comparable> implements Comparable
     }
 
     /**
-     * Initialises meta-property properties used most commonly for UI construction such as required, editable, title and desc.
+     * Determines meta-property properties used most commonly for UI construction such as required, editable, title and desc, and captures them in the property template.
      *
      * @param keyMembers
      * @param field
-     * @param metaProperty
+     * @param template
      */
-    private void initProperty(final List<Field> keyMembers, final Field field, final MetaProperty<?> metaProperty) {
+    private void initProperty(final List<Field> keyMembers, final Field field, final PropertyTemplate template) {
         if (KEY.equals(field.getName())) {
-            metaProperty.setVisible(!(KEY.equals(field.getName()) && keyMembers.size() > 1)); // if entity is composite then "key" should be inactive
-            metaProperty.setEditable(!AnnotationReflector.isAnnotationPresentForClass(KeyReadonly.class, getType()));
-            metaProperty.setRequired(true);
+            template.visible = !(KEY.equals(field.getName()) && keyMembers.size() > 1); // if entity is composite then "key" should be inactive
+            template.editable = !AnnotationReflector.isAnnotationPresentForClass(KeyReadonly.class, getType());
+            template.required = true;
             if (AnnotationReflector.isAnnotationPresentForClass(KeyTitle.class, getType())) {
                 final KeyTitle title = AnnotationReflector.getAnnotation(getType(), KeyTitle.class);
-                metaProperty.setTitle(title.value());
-                metaProperty.setDesc(StringUtils.isEmpty(title.desc()) ? title.value() : title.desc());
+                template.title = title.value();
+                template.desc = StringUtils.isEmpty(title.desc()) ? title.value() : title.desc();
             }
         } else if (DESC.equals(field.getName())) {
-            metaProperty.setEditable(!AnnotationReflector.isAnnotationPresentForClass(DescReadonly.class, getType()));
-            metaProperty.setRequired(AnnotationReflector.isAnnotationPresentForClass(DescRequired.class, getType()));
+            template.editable = !AnnotationReflector.isAnnotationPresentForClass(DescReadonly.class, getType());
+            template.required = AnnotationReflector.isAnnotationPresentForClass(DescRequired.class, getType());
             if (AnnotationReflector.isAnnotationPresentForClass(DescTitle.class, getType())) {
                 final DescTitle title = AnnotationReflector.getAnnotation(getType(), DescTitle.class);
-                metaProperty.setTitle(title.value());
-                metaProperty.setDesc(StringUtils.isEmpty(title.desc()) ? title.value() : title.desc());
+                template.title = title.value();
+                template.desc = StringUtils.isEmpty(title.desc()) ? title.value() : title.desc();
             }
         } else {
-            metaProperty.setVisible(!AnnotationReflector.isAnnotationPresent(field, Invisible.class)
-                    || (AnnotationReflector.isAnnotationPresent(field, Invisible.class) && AnnotationReflector.getAnnotation(field, Invisible.class).centreOnly()));
-            metaProperty.setEditable(!AnnotationReflector.isAnnotationPresent(field, Readonly.class));
+            template.visible = !AnnotationReflector.isAnnotationPresent(field, Invisible.class)
+                    || (AnnotationReflector.isAnnotationPresent(field, Invisible.class) && AnnotationReflector.getAnnotation(field, Invisible.class).centreOnly());
+            template.editable = !AnnotationReflector.isAnnotationPresent(field, Readonly.class);
 
             // TODO may need to relax this condition for composite key member in order to support empty composite members
             // As part of issue #28 need to relax requiredness for composite key members in case they have transactional nature
-            if (metaProperty.shouldAssignBeforeSave()) { // this should really be strictly for not yet persisted entities!
-                metaProperty.setRequired(false);
+            if (template.assignBeforeSave) { // this should really be strictly for not yet persisted entities!
+                template.required = false;
             } else {
-                metaProperty.setRequired(
+                template.required =
                         AnnotationReflector.isAnnotationPresent(field, Required.class) ||
                         (AnnotationReflector.isAnnotationPresent(field, CompositeKeyMember.class) &&
-                        !AnnotationReflector.isAnnotationPresent(field, Optional.class)));
+                        !AnnotationReflector.isAnnotationPresent(field, Optional.class));
             }
 
             if (AnnotationReflector.isAnnotationPresent(field, Title.class)) {
                 final Title title = AnnotationReflector.getAnnotation(field, Title.class);
-                metaProperty.setTitle(title.value());
-                metaProperty.setDesc(StringUtils.isEmpty(title.desc()) ? title.value() : title.desc());
+                template.title = title.value();
+                template.desc = StringUtils.isEmpty(title.desc()) ? title.value() : title.desc();
+            }
+        }
+    }
+
+    /**
+     * An immutable (once built) descriptor of a property, which captures everything that is determined by the entity type alone and is required for meta-property instantiation.
+     */
+    private static final class PropertyTemplate {
+        private final Field field;
+        private final String name;
+        private final Class<?> type;
+        private final boolean isKey;
+        private final boolean proxied;
+        private final String[] dependentProperties;
+        private final boolean isCollectional;
+        private final boolean assignBeforeSave;
+        private final Class<?> propertyAnnotationType;
+        private final boolean calculated;
+        private final boolean upperCase;
+        private final Set<Annotation> validationAnnotations;
+        private final EntityExists entityExists;
+        private final Set<Annotation> validationAnnotationsWithEntityExists;
+        // UI related properties, which are assigned during template building; visible is null when it should not be changed
+        private Boolean visible;
+        private boolean editable;
+        private boolean required;
+        private String title;
+        private String desc;
+
+        /**
+         * Creates a template for a proxied property.
+         */
+        private PropertyTemplate(final Field field, final Class<?> type, final boolean isKey, final String[] dependentProperties) {
+            this(field, type, isKey, true, false, false, null, false, false, Collections.emptySet(), null, dependentProperties);
+        }
+
+        private PropertyTemplate(
+                final Field field,
+                final Class<?> type,
+                final boolean isKey,
+                final boolean isCollectional,
+                final boolean assignBeforeSave,
+                final Class<?> propertyAnnotationType,
+                final boolean calculated,
+                final boolean upperCase,
+                final Set<Annotation> validationAnnotations,
+                final EntityExists entityExists,
+                final String[] dependentProperties) {
+            this(field, type, isKey, false, isCollectional, assignBeforeSave, propertyAnnotationType, calculated, upperCase, validationAnnotations, entityExists, dependentProperties);
+        }
+
+        private PropertyTemplate(
+                final Field field,
+                final Class<?> type,
+                final boolean isKey,
+                final boolean proxied,
+                final boolean isCollectional,
+                final boolean assignBeforeSave,
+                final Class<?> propertyAnnotationType,
+                final boolean calculated,
+                final boolean upperCase,
+                final Set<Annotation> validationAnnotations,
+                final EntityExists entityExists,
+                final String[] dependentProperties) {
+            this.field = field;
+            this.name = field.getName();
+            this.type = type;
+            this.isKey = isKey;
+            this.proxied = proxied;
+            this.dependentProperties = dependentProperties;
+            this.isCollectional = isCollectional;
+            this.assignBeforeSave = assignBeforeSave;
+            this.propertyAnnotationType = propertyAnnotationType;
+            this.calculated = calculated;
+            this.upperCase = upperCase;
+            this.validationAnnotations = unmodifiableSet(validationAnnotations);
+            this.entityExists = entityExists;
+            if (entityExists == null) {
+                this.validationAnnotationsWithEntityExists = this.validationAnnotations;
+            } else {
+                final Set<Annotation> withEntityExists = new HashSet<>(validationAnnotations);
+                withEntityExists.add(entityExists);
+                this.validationAnnotationsWithEntityExists = unmodifiableSet(withEntityExists);
+            }
+        }
+
+        /**
+         * Applies UI related properties to a newly created meta-property.
+         */
+        private void initProperty(final MetaProperty<?> metaProperty) {
+            if (visible != null) {
+                metaProperty.setVisible(visible);
+            }
+            metaProperty.setEditable(editable);
+            metaProperty.setRequired(required);
+            if (title != null) {
+                metaProperty.setTitle(title);
+                metaProperty.setDesc(desc);
             }
         }
     }
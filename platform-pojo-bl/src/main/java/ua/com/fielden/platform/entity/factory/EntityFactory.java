@@ -22,12 +22,17 @@ import com.google.inject.Provider;
  * Factory for instantiating entities derived from {@link AbstractEntity} with APO/IoC support.
  *
  * This factory is thread-safe -- the only state it has is final {@link Injector}, which is thread-safe because it uses new anonymous instances of {@link Provider} interface in its
- * {@link Injector#getInstance(Class)} method.
+ * {@link Injector#getInstance(Class)} method. Entity instantiation does not require any locking, and thus entities can be created concurrently.
  *
  * @author TG Team
  *
  */
 public class EntityFactory {
+    private static final Field ID_FIELD = Finder.getFieldByName(AbstractEntity.class, AbstractEntity.ID);
+    static {
+        ID_FIELD.setAccessible(true);
+    }
+
     private Injector injector;
 
     /**
@@ -107,7 +112,7 @@ public class EntityFactory {
      * @return
      * @throws RuntimeException
      */
-    public synchronized <T extends AbstractEntity<?>> T newEntity(final Class<T> entityClass, final Long id) {
+    public <T extends AbstractEntity<?>> T newEntity(final Class<T> entityClass, final Long id) {
         try {
             final T entity = injector.getInstance(entityClass);
             setReferenceToThis(entity);
@@ -125,25 +130,17 @@ public class EntityFactory {
      * @param entityClass
      * @return
      */
-    public synchronized <T extends AbstractEntity<?>> T newEntity(final Class<T> entityClass) {
+    public <T extends AbstractEntity<?>> T newEntity(final Class<T> entityClass) {
         return newEntity(entityClass, null);
     }
 
     /**
-     * Invokes protected 'setEntityFactory' method on passed {@link AbstractEntity} to set reference to this {@link EntityFactory} instance.
+     * Sets reference to this {@link EntityFactory} instance on the passed {@link AbstractEntity}.
      *
      * @param entity
-     * @throws RuntimeException
      */
     private void setReferenceToThis(final AbstractEntity<?> entity) {
-        try {
-            final Method method = Reflector.getMethod(entity.getType(), "setEntityFactory", EntityFactory.class);
-            method.setAccessible(true);
-            method.invoke(entity, this);
-            method.setAccessible(false);
-        } catch (final Exception e) {
-            throw new IllegalStateException(e);
-        }
+        entity.setEntityFactory(this);
     }
 
     /**
@@ -164,7 +161,7 @@ public class EntityFactory {
      * @return
      * @throws Exception
      */
-    public synchronized <T extends AbstractEntity<K>, K extends Comparable> T newEntity(final Class<T> entityClass, final Long id, final K key, final String desc) {
+    public <T extends AbstractEntity<K>, K extends Comparable> T newEntity(final Class<T> entityClass, final Long id, final K key, final String desc) {
         try {
             final T entity = injector.getInstance(entityClass);
             setReferenceToThis(entity);
@@ -201,7 +198,7 @@ public class EntityFactory {
      *             - if number of keys instances is not equal to number of composite key member in entity.<br>
      *             And in other cases.
      */
-    public synchronized <T extends AbstractEntity<DynamicEntityKey>> T newByKey(final Class<T> entityClass, final Object... keys) throws RuntimeException {
+    public <T extends AbstractEntity<DynamicEntityKey>> T newByKey(final Class<T> entityClass, final Object... keys) throws RuntimeException {
         try {
             final T entity = injector.getInstance(entityClass); // DynamicEntityKey should be set in default constructor of entity
             setReferenceToThis(entity);
@@ -232,13 +229,11 @@ public class EntityFactory {
 
     /**
      * Convenience method for setting entity id value.
+     * <p>
+     * Property <code>id</code> is declared in {@link AbstractEntity}, and thus the same field, which is made accessible only once, is used for all entity types.
      */
     private static <T> void setId(final Class<T> entityClass, final Long id, final T entity) throws Exception {
-        final Field idField = Finder.getFieldByName(entityClass, AbstractEntity.ID);
-        final boolean accessible = idField.isAccessible();
-        idField.setAccessible(true);
-        idField.set(entity, id);
-        idField.setAccessible(accessible);
+        ID_FIELD.set(entity, id);
     }
 
     /**
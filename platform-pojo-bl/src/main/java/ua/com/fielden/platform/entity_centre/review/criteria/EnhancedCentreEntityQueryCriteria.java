@@ -1,9 +1,9 @@
 package ua.com.fielden.platform.entity_centre.review.criteria;
 
-import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import ua.com.fielden.platform.dao.IEntityDao;
 import ua.com.fielden.platform.dao.IGeneratedEntityController;
@@ -29,7 +29,7 @@ public class EnhancedCentreEntityQueryCriteria<T extends AbstractEntity<?>, DAO
     private static final long serialVersionUID = -5189571197523084383L;
 
     private Supplier<ICentreDomainTreeManagerAndEnhancer> freshCentreSupplier;
-    private Function<Map<String, Object>, List<AbstractEntity<?>>> exportQueryRunner;
+    private Function<Map<String, Object>, Stream<AbstractEntity<?>>> exportQueryRunner;
 
     /**
      * Constructs {@link EnhancedCentreEntityQueryCriteria} with specified {@link IValueMatcherFactory}. Needed mostly for instantiating through injector.
@@ -51,11 +51,17 @@ public class EnhancedCentreEntityQueryCriteria<T extends AbstractEntity<?>, DAO
         return freshCentreSupplier;
     }
 
-    public Function<Map<String, Object>, List<AbstractEntity<?>>> exportQueryRunner() {
+    /**
+     * Returns the function, which runs the query of this criteria for the export action. The resultant stream of entities should be consumed and closed within the session scope of the caller,
+     * because entities of 'Export all' action are streamed from the database (refer {@link #streamAllEntities()}).
+     *
+     * @return
+     */
+    public Function<Map<String, Object>, Stream<AbstractEntity<?>>> exportQueryRunner() {
         return exportQueryRunner;
     }
 
-    public void setExportQueryRunner(final Function<Map<String, Object>, List<AbstractEntity<?>>> exportQueryRunner) {
+    public void setExportQueryRunner(final Function<Map<String, Object>, Stream<AbstractEntity<?>>> exportQueryRunner) {
         this.exportQueryRunner = exportQueryRunner;
     }
 }
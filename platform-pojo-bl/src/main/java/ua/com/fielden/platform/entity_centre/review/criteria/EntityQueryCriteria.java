@@ -8,12 +8,19 @@ import static ua.com.fielden.platform.reflection.PropertyTypeDeterminator.transf
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
@@ -48,6 +55,7 @@ import ua.com.fielden.platform.entity_centre.review.DynamicParamBuilder;
 import ua.com.fielden.platform.entity_centre.review.DynamicQueryBuilder;
 import ua.com.fielden.platform.entity_centre.review.DynamicQueryBuilder.QueryProperty;
 import ua.com.fielden.platform.equery.lifecycle.LifecycleModel;
+import ua.com.fielden.platform.file_reports.CsvExporter;
 import ua.com.fielden.platform.pagination.EmptyPage;
 import ua.com.fielden.platform.pagination.IPage;
 import ua.com.fielden.platform.reflection.AnnotationReflector;
@@ -64,6 +72,8 @@ import ua.com.fielden.platform.web.centre.IQueryEnhancer;
 public abstract class EntityQueryCriteria<C extends ICentreDomainTreeManagerAndEnhancer, T extends AbstractEntity<?>, DAO extends IEntityDao<T>> extends AbstractEntity<String> {
 
     private static final long serialVersionUID = 9154466083364529734L;
+    /** The number of entities of generated types retrieved at a time during {@link #export(OutputStream)}. */
+    public static final int EXPORT_PAGE_CAPACITY = 500;
 
     private final DAO dao;
     private final IGeneratedEntityController<T> generatedEntityController;
@@ -249,6 +259,24 @@ public abstract class EntityQueryCriteria<C extends ICentreDomainTreeManagerAndE
         }
     }
 
+    /**
+     * Same as {@link #getPageWithSummaries(int, int)}, but uses keyset pagination for non-generated types.
+     * The data could have been modified since the previous retrieval, therefore, the number of pages is recalculated before retrieval of the page and is reused by subsequent requests
+     * for pages of the same query (refer {@link IEntityDao#refreshPageByKeyset(QueryExecutionModel, int, int)}). The last page is returned if the requested page is out of range.
+     *
+     * @param pageNumber
+     * @param pageCapacity
+     * @return
+     */
+    public Pair<IPage<T>, T> getPageWithSummariesByKeyset(final int pageNumber, final int pageCapacity) {
+        if (!getManagedType().equals(getEntityClass())) {
+            return getPageWithSummaries(pageNumber, pageCapacity);
+        }
+        final Pair<QueryExecutionModel<T, EntityResultQueryModel<T>>, QueryExecutionModel<T, EntityResultQueryModel<T>>> resultQuery = generateQueryWithSummaries();
+        final IPage<T> page = dao.refreshPageByKeyset(resultQuery.getKey(), pageNumber, pageCapacity);
+        return page.data().isEmpty() ? new Pair<>(new EmptyPage<T>(), null) : new Pair<>(page, getSummary(resultQuery.getValue()));
+    }
+
     /**
      * Returns the data page with summary/ Before it retrieves the page it also calculates whether specified page number is in the range available pages.
      *
@@ -335,6 +363,24 @@ public abstract class EntityQueryCriteria<C extends ICentreDomainTreeManagerAndE
         }
     }
 
+    /**
+     * Returns the data page with the specified number using keyset pagination, which seeks past the boundaries of the adjacent pages of the same query if they have been retrieved before.
+     * Pages of generated types are retrieved using offset pagination.
+     *
+     * @param pageNumber
+     * @param pageCapacity
+     * @return
+     */
+    public IPage<T> getPageByKeyset(final int pageNumber, final int pageCapacity) {
+        final QueryExecutionModel<T, EntityResultQueryModel<T>> resultQuery = generateQuery();
+        if (getManagedType().equals(getEntityClass())) {
+            return dao.getPageByKeyset(resultQuery, pageNumber, pageCapacity);
+        } else {
+            generatedEntityController.setEntityType(getManagedType());
+            return generatedEntityController.getPage(resultQuery, pageNumber, pageCapacity, getByteArrayForManagedType());
+        }
+    }
+
     private Map<String, Object> enhanceQueryParams(final Map<String, Object> buildParametersMap) {
         if (additionalQueryEnhancer.isPresent()) {
             return additionalQueryEnhancer.get().enhanceQueryParams(buildParametersMap, centreContextForQueryEnhancer);
@@ -357,6 +403,25 @@ public abstract class EntityQueryCriteria<C extends ICentreDomainTreeManagerAndE
         }
     }
 
+    /**
+     * Same as {@link #run(int)}, but uses keyset pagination for non-generated types, where the first page is retrieved without counting all entities beforehand.
+     * The number of pages is calculated only upon request (refer {@link IPage#knownNumberOfPages()}).
+     * The pagination state of this run (page boundaries and the number of pages once calculated) is reused by subsequent requests for pages of the same query (refer {@link #getPageByKeyset(int, int)}).
+     * <p>
+     * Returns the first page together with the summary, which is <code>null</code> if there are no summaries for the query.
+     *
+     * @param pageSize
+     * @return
+     */
+    public final Pair<IPage<T>, T> runByKeyset(final int pageSize) {
+        if (!getManagedType().equals(getEntityClass())) {
+            final IPage<T> page = run(pageSize);
+            return new Pair<>(page, page.summary());
+        }
+        final Pair<QueryExecutionModel<T, EntityResultQueryModel<T>>, QueryExecutionModel<T, EntityResultQueryModel<T>>> queries = generateQueryWithSummaries();
+        return new Pair<>(dao.firstPageByKeyset(queries.getKey(), pageSize), getSummary(queries.getValue()));
+    }
+
     /**
      * Runs the specified query and returns result.
      *
@@ -493,6 +558,75 @@ public abstract class EntityQueryCriteria<C extends ICentreDomainTreeManagerAndE
         }
     }
 
+    /**
+     * Exports all entities matching this criteria as CSV to <code>out</code>. Entities of non-generated types are streamed from the database and written row by row,
+     * entities of generated types are retrieved and written page by page of {@link #EXPORT_PAGE_CAPACITY} entities, so that the whole result is never loaded into memory.
+     *
+     * @param out
+     * @return the number of exported entities
+     * @throws IOException
+     */
+    public long export(final OutputStream out) throws IOException {
+        final Pair<String[], String[]> propAndTitles = generatePropTitlesToExport();
+        final QueryExecutionModel<T, EntityResultQueryModel<T>> query = generateQuery().lightweight();
+        if (getManagedType().equals(getEntityClass())) {
+            return dao.export(query, propAndTitles.getKey(), propAndTitles.getValue(), out);
+        } else {
+            generatedEntityController.setEntityType(getManagedType());
+            final IPage<T> firstPage = generatedEntityController.firstPage(query, EXPORT_PAGE_CAPACITY, getByteArrayForManagedType());
+            return CsvExporter.export(entitiesOf(firstPage), propAndTitles.getKey(), propAndTitles.getValue(), out);
+        }
+    }
+
+    /**
+     * Returns a lazy stream of all entities matching this criteria. Entities of non-generated types are streamed from the database with the fetch size of {@link #EXPORT_PAGE_CAPACITY},
+     * entities of generated types are retrieved page by page of {@link #EXPORT_PAGE_CAPACITY} entities, so that the whole result is never loaded into memory.
+     * <p>
+     * The stream should be consumed and closed within the session scope of the caller (e.g. a companion method annotated with <code>@SessionRequired</code>).
+     *
+     * @return
+     */
+    public Stream<T> streamAllEntities() {
+        final QueryExecutionModel<T, EntityResultQueryModel<T>> query = generateQuery();
+        if (getManagedType().equals(getEntityClass())) {
+            return dao.stream(query, EXPORT_PAGE_CAPACITY);
+        } else {
+            generatedEntityController.setEntityType(getManagedType());
+            return entitiesOf(generatedEntityController.firstPage(query, EXPORT_PAGE_CAPACITY, getByteArrayForManagedType()));
+        }
+    }
+
+    /**
+     * Returns a lazy stream of entities from <code>firstPage</code> and all the pages that follow it. The next page is retrieved only after all entities of the previous one were consumed.
+     *
+     * @param firstPage
+     * @return
+     */
+    private static <E> Stream<E> entitiesOf(final IPage<E> firstPage) {
+        final Iterator<E> entities = new Iterator<E>() {
+            private IPage<E> page = firstPage;
+            private Iterator<E> pageEntities = firstPage.data().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!pageEntities.hasNext() && page.hasNext()) {
+                    page = page.next();
+                    pageEntities = page.data().iterator();
+                }
+                return pageEntities.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pageEntities.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entities, Spliterator.ORDERED), false);
+    }
+
     private QueryExecutionModel<T, EntityResultQueryModel<T>> generateQuery() {
         final Class<?> root = getEntityClass();
         final IAddToResultTickManager resultTickManager = getCentreDomainTreeMangerAndEnhancer().getSecondTick();
@@ -3,6 +3,7 @@ package ua.com.fielden.platform.equery.lifecycle;
 import java.awt.Color;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -10,8 +11,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
-import java.util.SortedMap;
-import java.util.TreeMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -276,10 +275,10 @@ public abstract class LifecycleModel<T extends AbstractEntity<?>> {
         final ValueProperty vp = create(entityType, propertyName);
         // maps grouped value and a list of lifecycle numbers:
         final Map<Object, List<Integer>> groupedData = new HashMap<Object, List<Integer>>();
-        if (getLifecycleData().size() > 0) {
+        if (lifecycleData.size() > 0) {
             // initiate groupedData:
-            for (int i = 0; i < getLifecycleData().size(); i++) {
-                final EntityPropertyLifecycle<T> lifecycle = getLifecycleData().get(i);
+            for (int i = 0; i < lifecycleData.size(); i++) {
+                final EntityPropertyLifecycle<T> lifecycle = lifecycleData.get(i);
                 final Object value;
                 try {
                     value = StringUtils.isEmpty(propertyName) ? lifecycle.getEntity() : Finder.findFieldValueByName(lifecycle.getEntity(), propertyName);
@@ -506,51 +505,82 @@ public abstract class LifecycleModel<T extends AbstractEntity<?>> {
 
     /**
      * Calculates a number of available entities at all "change" moments (when at least one entity changed its state).
-     * 
+     * <p>
+     * The calculation is performed as a single sweep over sorted "change" moments and sorted boundaries of periods, during which entities were available
+     * (i.e. had state with normal category within their boundaries), which takes O(n log n) time for n intervals in total.
+     *
      * @return
      */
     private List<ValuedInterval> calculateSummaryAvailability() {
-        final SortedMap<DateTime, Integer> summaryAvailability = new TreeMap<DateTime, Integer>();
-        // put left boundary availability:
-        summaryAvailability.put(getLeftBoundary(), calculateSummaryAvailability(getLeftBoundary()));
-        // put availability in all nodes:
+        final long left = getLeftBoundary().getMillis();
+        final long right = getRightBoundary().getMillis();
+
+        int intervalsCount = 0;
         for (final EntityPropertyLifecycle<T> epl : lifecycleData) {
+            intervalsCount += epl.getIntervals().size();
+        }
+        // "change" moments in order of their appearance -- the first appearance of a moment defines the bound of the resultant interval
+        final List<DateTime> moments = new ArrayList<DateTime>(intervalsCount + 1);
+        moments.add(getLeftBoundary());
+        // starts and ends of periods, during which entities were available:
+        final long[] starts = new long[intervalsCount];
+        final long[] ends = new long[intervalsCount];
+        int periodsCount = 0;
+        for (final EntityPropertyLifecycle<T> epl : lifecycleData) {
+            final long eplFrom = epl.getFrom().getMillis();
+            final long eplTo = epl.getTo().getMillis();
+            final ICategorizer eplCategorizer = epl.getCategorizer();
             for (final ValuedInterval vi : epl.getIntervals()) {
-                if (boundaries().contains(vi.getFrom().getMillis()) && !summaryAvailability.containsKey(vi.getFrom())) {
-                    summaryAvailability.put(vi.getFrom(), calculateSummaryAvailability(vi.getFrom()));
+                final long viFrom = vi.getFrom().getMillis();
+                if (left <= viFrom && viFrom < right) {
+                    moments.add(vi.getFrom());
+                }
+                if (eplCategorizer.getCategory(vi.getValue()).isNormal()) {
+                    final long start = Math.max(viFrom, eplFrom);
+                    final long end = Math.min(vi.getTo().getMillis(), eplTo);
+                    if (start < end) {
+                        starts[periodsCount] = start;
+                        ends[periodsCount] = end;
+                        periodsCount++;
+                    }
                 }
             }
         }
+        // sorting is stable, which preserves the first appearance of each moment
+        Collections.sort(moments, (m1, m2) -> Long.compare(m1.getMillis(), m2.getMillis()));
+        Arrays.sort(starts, 0, periodsCount);
+        Arrays.sort(ends, 0, periodsCount);
+
         // reconfiguring in form of pairs : <Interval> -> <Integer>
         final List<ValuedInterval> sa = new ArrayList<ValuedInterval>();
-        DateTime from = summaryAvailability.firstKey();
-        for (final DateTime date : summaryAvailability.keySet()) {
-            if (!from.equals(date)) {
-                final DateTime to = date;
-                sa.add(new ValuedInterval(from, to, summaryAvailability.get(from)));
-                from = to;
+        int available = 0, nextStart = 0, nextEnd = 0;
+        DateTime from = null;
+        int fromAvailability = 0;
+        for (final DateTime moment : moments) {
+            final long millis = moment.getMillis();
+            if (from != null && from.getMillis() == millis) {
+                continue;
+            }
+            // periods are half-open, thus an entity is available at the moment of its period start, but not at the moment of its period end
+            while (nextStart < periodsCount && starts[nextStart] <= millis) {
+                available++;
+                nextStart++;
+            }
+            while (nextEnd < periodsCount && ends[nextEnd] <= millis) {
+                available--;
+                nextEnd++;
+            }
+            if (from != null) {
+                sa.add(new ValuedInterval(from, moment, fromAvailability));
             }
+            from = moment;
+            fromAvailability = available;
         }
         // last availability period:
-        sa.add(new ValuedInterval(from, getRightBoundary(), summaryAvailability.get(from)));
+        sa.add(new ValuedInterval(from, getRightBoundary(), fromAvailability));
         return sa;
     }
 
-    /**
-     * Calculates a number of available (with <code>Category.NORMAL</code> state) entities at the specified <code>moment</code>.
-     * 
-     * @return
-     */
-    private Integer calculateSummaryAvailability(final DateTime moment) {
-        int i = 0;
-        for (final EntityPropertyLifecycle<T> epl : lifecycleData) {
-            if (epl.isAvailable(moment)) {
-                i++;
-            }
-        }
-        return i;
-    }
-
     /**
      * Gets average value of entities availability for all entities in this {@link LifecycleModel}.
      * 
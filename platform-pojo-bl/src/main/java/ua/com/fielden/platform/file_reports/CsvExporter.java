@@ -0,0 +1,120 @@
+package ua.com.fielden.platform.file_reports;
+
+import static org.apache.commons.lang.StringUtils.join;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang.StringUtils;
+import org.joda.time.DateTime;
+
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.utils.EntityUtils;
+
+/**
+ * A utility for exporting data into CSV, which can be opened with MS Excel.
+ * <p>
+ * Unlike {@link WorkbookExporter}, which builds the whole workbook in memory, entities are consumed from a stream and written to an output stream row by row.
+ * This way, the amount of memory required for export does not depend on the number of exported entities, provided that the stream of entities is lazy
+ * (e.g. as returned by <code>IEntityDao.stream(qem, fetchSize)</code>).
+ *
+ * @author TG Team
+ *
+ */
+public class CsvExporter {
+    public static final String MIME = "text/csv";
+    private static final String DATE_FORMAT = "dd/MM/yyyy HH:mm";
+    /** Byte order mark, which is required for MS Excel to recognise UTF-8 encoding. */
+    private static final char BOM = '\uFEFF';
+
+    private CsvExporter() {
+    }
+
+    /**
+     * Writes a header with <code>propertyTitles</code> and a row with values of <code>propertyNames</code> for each entity in <code>entities</code> to <code>out</code>.
+     * The output stream is flushed, but not closed.
+     *
+     * @param entities
+     * @param propertyNames
+     * @param propertyTitles
+     * @param out
+     * @return the number of exported entities
+     * @throws IOException
+     */
+    public static <M extends AbstractEntity<?>> long export(final Stream<M> entities, final String[] propertyNames, final String[] propertyTitles, final OutputStream out) throws IOException {
+        final int columns = Math.min(propertyNames.length, propertyTitles.length);
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(BOM);
+        for (int index = 0; index < columns; index++) {
+            writeValue(writer, index, propertyTitles[index]);
+        }
+        writer.write("\r\n");
+
+        final SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+        final Map<String, String> shortCollectionalProps = new HashMap<>();
+        long count = 0;
+        final Iterator<M> iterator = entities.iterator();
+        while (iterator.hasNext()) {
+            final M entity = iterator.next();
+            for (int index = 0; index < columns; index++) {
+                final String propertyName = propertyNames[index];
+                final Object value = StringUtils.isEmpty(propertyName) ? entity : entity.get(propertyName);
+                writeValue(writer, index, toString(value, propertyName, shortCollectionalProps, dateFormat));
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String toString(final Object value, final String propertyName, final Map<String, String> shortCollectionalProps, final SimpleDateFormat dateFormat) {
+        if (value == null) {
+            return "";
+        } else if (shortCollectionalProps.containsKey(propertyName)) {
+            return join(WorkbookExporter.createShortColection((Collection<AbstractEntity<?>>) value, shortCollectionalProps.get(propertyName)), ", ");
+        } else if (value instanceof Date) {
+            return dateFormat.format((Date) value);
+        } else if (value instanceof DateTime) {
+            return dateFormat.format(((DateTime) value).toDate());
+        } else if (EntityUtils.isCollectional(value.getClass())) {
+            final Optional<String> keyToInclude = WorkbookExporter.findKeyToExclude((Collection<?>) value);
+            if (keyToInclude.isPresent()) {
+                shortCollectionalProps.put(propertyName, keyToInclude.get());
+                return join(WorkbookExporter.createShortColection((Collection<AbstractEntity<?>>) value, keyToInclude.get()), ", ");
+            }
+            return join((Collection<?>) value, ", ");
+        } else {
+            return value.toString();
+        }
+    }
+
+    /**
+     * Writes a field, which is quoted if it contains separators, quotes or line breaks.
+     */
+    private static void writeValue(final Writer writer, final int index, final String value) throws IOException {
+        if (index > 0) {
+            writer.write(',');
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(value);
+        }
+    }
+}
@@ -8,6 +8,15 @@ import net.sf.jasperreports.engine.JRRewindableDataSource;
 import ua.com.fielden.platform.entity.query.EntityAggregates;
 import ua.com.fielden.platform.utils.EntityUtils;
 
+/**
+ * A JasperReports data source over an array of {@link EntityAggregates}, which is used by {@link AbstractPdfReportFactory} to fill PDF reports.
+ * <p>
+ * It does not produce workbooks and stays array based, because report filling requires a rewindable data source. Workbooks with
+ * {@link EntityAggregates} should be exported by means of {@link StreamingWorkbookExporter}.
+ *
+ * @author TG Team
+ *
+ */
 public class EntityAggregatesReportSource implements JRRewindableDataSource {
     private int index = -1;
 
@@ -0,0 +1,46 @@
+package ua.com.fielden.platform.file_reports;
+
+/**
+ * A formatter of property values for a workbook column.
+ * <p>
+ * A formatter converts a property value into a cell value, which is written as a number (for {@link Number}), a date (for {@link java.util.Date}),
+ * a boolean (for {@link Boolean}), a blank cell (for <code>null</code>) or a string (otherwise). An optional data format is applied to all cells of the column.
+ *
+ * @author TG Team
+ *
+ */
+@FunctionalInterface
+public interface IColumnFormatter {
+
+    Object format(final Object value);
+
+    /**
+     * A data format for cells of the column (e.g. <code>#,##0.00</code>), or <code>null</code> for the default one.
+     *
+     * @return
+     */
+    default String dataFormat() {
+        return null;
+    }
+
+    /**
+     * Creates a formatter, which converts values with <code>formatter</code> and applies <code>dataFormat</code> to cells.
+     *
+     * @param dataFormat
+     * @param formatter
+     * @return
+     */
+    static IColumnFormatter withDataFormat(final String dataFormat, final IColumnFormatter formatter) {
+        return new IColumnFormatter() {
+            @Override
+            public Object format(final Object value) {
+                return formatter.format(value);
+            }
+
+            @Override
+            public String dataFormat() {
+                return dataFormat;
+            }
+        };
+    }
+}
@@ -0,0 +1,176 @@
+package ua.com.fielden.platform.file_reports;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * A utility for exporting data into MS Excel 2007+ workbooks (XLSX), which are written in a streaming manner.
+ * <p>
+ * Unlike {@link WorkbookExporter}, which builds the whole XLS workbook in memory and is limited to 65,536 rows per sheet, entities of every sheet are consumed
+ * from a stream and only a window of the most recent rows is kept in memory -- older rows are flushed into temporary files and then into the output stream.
+ * A sheet with more rows than the XLSX format permits is continued on the next sheet. Cell styles are shared by all sheets by means of {@link WorkbookStylePool}.
+ * <p>
+ * Column widths are derived from the length of written values, as auto-sizing requires all rows to be in memory.
+ *
+ * @author TG Team
+ *
+ */
+public class StreamingWorkbookExporter {
+    public static final String MIME = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    public static final int DEFAULT_ROW_ACCESS_WINDOW = 100;
+    private static final int MAX_COLUMN_CHARS = 100;
+
+    private StreamingWorkbookExporter() {
+    }
+
+    /**
+     * Writes a workbook with a single sheet, which contains values of <code>propertyNames</code> for each entity in <code>entities</code>, to <code>out</code>.
+     * The output stream is flushed, but not closed.
+     *
+     * @param entities
+     * @param propertyNames
+     * @param propertyTitles
+     * @param out
+     * @return the number of exported entities
+     * @throws IOException
+     */
+    public static <M extends AbstractEntity<?>> long export(final Stream<M> entities, final String[] propertyNames, final String[] propertyTitles, final OutputStream out) throws IOException {
+        final List<Pair<String, String>> propNamesAndTitles = new ArrayList<>();
+        for (int index = 0; index < propertyNames.length && index < propertyTitles.length; index++) {
+            propNamesAndTitles.add(new Pair<String, String>(propertyNames[index], propertyTitles[index]));
+        }
+        final List<StreamingWorkbookSheet<? extends AbstractEntity<?>>> sheetsData = new ArrayList<>();
+        sheetsData.add(new StreamingWorkbookSheet<M>("Exported data", entities, propNamesAndTitles));
+        return export(sheetsData, out);
+    }
+
+    /**
+     * Writes a workbook with a sheet for each element of <code>sheetsData</code> to <code>out</code>. The output stream is flushed, but not closed.
+     *
+     * @param sheetsData
+     * @param out
+     * @return the number of exported entities
+     * @throws IOException
+     */
+    public static long export(final List<StreamingWorkbookSheet<? extends AbstractEntity<?>>> sheetsData, final OutputStream out) throws IOException {
+        return export(sheetsData, DEFAULT_ROW_ACCESS_WINDOW, SpreadsheetVersion.EXCEL2007.getMaxRows(), out);
+    }
+
+    static long export(final List<StreamingWorkbookSheet<? extends AbstractEntity<?>>> sheetsData, final int rowAccessWindow, final int maxRowsPerSheet, final OutputStream out) throws IOException {
+        final SXSSFWorkbook wb = new SXSSFWorkbook(rowAccessWindow);
+        wb.setCompressTempFiles(true);
+        try {
+            final WorkbookStylePool styles = new WorkbookStylePool(wb);
+            long count = 0;
+            for (final StreamingWorkbookSheet<? extends AbstractEntity<?>> sheetData : sheetsData) {
+                count += addSheetsWithData(wb, styles, sheetData, maxRowsPerSheet);
+            }
+            wb.write(out);
+            out.flush();
+            return count;
+        } finally {
+            wb.dispose();
+        }
+    }
+
+    private static <M extends AbstractEntity<?>> long addSheetsWithData(final SXSSFWorkbook wb, final WorkbookStylePool styles, final StreamingWorkbookSheet<M> sheetData, final int maxRowsPerSheet) {
+        final List<String> propNames = sheetData.getPropNames();
+        final int columns = Math.min(propNames.size(), sheetData.getPropTitles().size());
+        final IColumnFormatter[] formatters = new IColumnFormatter[columns];
+        final CellStyle[] dataCellStyles = new CellStyle[columns];
+        final CellStyle[] dateCellStyles = new CellStyle[columns];
+        for (int index = 0; index < columns; index++) {
+            final boolean rightBorder = index < columns - 1; // the last column should not have right border
+            formatters[index] = sheetData.getFormatter(propNames.get(index));
+            final String dataFormat = formatters[index] != null ? formatters[index].dataFormat() : null;
+            dataCellStyles[index] = dataFormat != null || rightBorder ? styles.data(dataFormat, rightBorder) : null;
+            dateCellStyles[index] = styles.data(dataFormat != null ? dataFormat : WorkbookExporter.DATE_FORMAT, false);
+        }
+
+        final Map<String, String> shortCollectionalProps = new HashMap<>();
+        final Iterator<M> iterator = sheetData.getEntities().iterator();
+        long count = 0;
+        int part = 1;
+        do {
+            final Sheet sheet = wb.createSheet(sheetTitle(sheetData.getSheetTitle(), part));
+            final int[] columnChars = addHeader(sheet, styles, sheetData, columns);
+            int rowIndex = 1;
+            while (rowIndex < maxRowsPerSheet && iterator.hasNext()) {
+                final M entity = iterator.next();
+                final Row row = sheet.createRow(rowIndex++);
+                for (int index = 0; index < columns; index++) {
+                    final Cell cell = row.createCell(index);
+                    if (dataCellStyles[index] != null) {
+                        cell.setCellStyle(dataCellStyles[index]);
+                    }
+                    final String propertyName = propNames.get(index);
+                    final Object value = StringUtils.isEmpty(propertyName) ? entity : entity.get(propertyName);
+                    WorkbookExporter.setCellValue(cell, formatters[index] != null ? formatters[index].format(value) : value, propertyName, shortCollectionalProps, dateCellStyles[index]);
+                    columnChars[index] = Math.max(columnChars[index], chars(cell));
+                }
+                count++;
+            }
+            for (int index = 0; index < columns; index++) {
+                sheet.setColumnWidth(index, (int) (Math.min(columnChars[index] + 2, MAX_COLUMN_CHARS) * 256 * 1.05));
+            }
+            part++;
+        } while (iterator.hasNext());
+        return count;
+    }
+
+    private static int[] addHeader(final Sheet sheet, final WorkbookStylePool styles, final StreamingWorkbookSheet<?> sheetData, final int columns) {
+        final int[] columnChars = new int[columns];
+        final Row headerRow = sheet.createRow(0);
+        for (int index = 0; index < columns; index++) {
+            final Cell cell = headerRow.createCell(index);
+            cell.setCellValue(sheetData.getPropTitles().get(index));
+            cell.setCellStyle(styles.header(index < columns - 1));
+            columnChars[index] = sheetData.getPropTitles().get(index).length();
+        }
+        // tripling first row height
+        headerRow.setHeightInPoints(sheet.getDefaultRowHeightInPoints() * 3);
+        // freezing first row
+        sheet.createFreezePane(0, 1);
+        return columnChars;
+    }
+
+    /**
+     * Returns a sheet title, which is unique for every <code>part</code> of the same data, and which conforms to the sheet name restrictions.
+     */
+    private static String sheetTitle(final String title, final int part) {
+        final String suffix = part > 1 ? " (" + part + ")" : "";
+        final String safeTitle = WorkbookUtil.createSafeSheetName(title);
+        return safeTitle.substring(0, Math.min(safeTitle.length(), 31 - suffix.length())) + suffix;
+    }
+
+    private static int chars(final Cell cell) {
+        switch (cell.getCellType()) {
+        case Cell.CELL_TYPE_STRING:
+            return cell.getStringCellValue().length();
+        case Cell.CELL_TYPE_NUMERIC:
+            return cell.getCellStyle().getDataFormat() != 0 ? cell.getCellStyle().getDataFormatString().length() : Double.toString(cell.getNumericCellValue()).length();
+        case Cell.CELL_TYPE_BOOLEAN:
+            return 5;
+        default:
+            return 0;
+        }
+    }
+}
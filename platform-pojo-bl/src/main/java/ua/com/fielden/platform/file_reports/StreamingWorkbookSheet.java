@@ -0,0 +1,75 @@
+package ua.com.fielden.platform.file_reports;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * Data for a workbook sheet, which is exported by {@link StreamingWorkbookExporter}.
+ * <p>
+ * Unlike {@link DataForWorkbookSheet}, entities (including instances of {@link ua.com.fielden.platform.entity.query.EntityAggregates}) are provided as a stream,
+ * which is consumed only once during export. Columns can have custom {@link IColumnFormatter}s.
+ *
+ * @author TG Team
+ *
+ * @param <E>
+ */
+public class StreamingWorkbookSheet<E extends AbstractEntity<?>> {
+    private final String sheetTitle;
+    private final Stream<E> entities;
+    private final List<String> propNames = new ArrayList<>();
+    private final List<String> propTitles = new ArrayList<>();
+    private final Map<String, IColumnFormatter> formatters = new HashMap<>();
+
+    public StreamingWorkbookSheet(final String sheetTitle, final Stream<E> entities, final List<Pair<String, String>> propertyNamesAndTitles) {
+        this.sheetTitle = sheetTitle;
+        this.entities = entities;
+        for (final Pair<String, String> pair : propertyNamesAndTitles) {
+            propNames.add(pair.getKey());
+            propTitles.add(pair.getValue());
+        }
+    }
+
+    /**
+     * Makes values of property <code>propName</code> to be formatted with <code>formatter</code>.
+     *
+     * @param propName
+     * @param formatter
+     * @return
+     */
+    public StreamingWorkbookSheet<E> withFormatter(final String propName, final IColumnFormatter formatter) {
+        formatters.put(propName, formatter);
+        return this;
+    }
+
+    public String getSheetTitle() {
+        return sheetTitle;
+    }
+
+    public Stream<E> getEntities() {
+        return entities;
+    }
+
+    public List<String> getPropNames() {
+        return propNames;
+    }
+
+    public List<String> getPropTitles() {
+        return propTitles;
+    }
+
+    /**
+     * Returns a formatter for property <code>propName</code> or <code>null</code> if values should be written as they are.
+     *
+     * @param propName
+     * @return
+     */
+    public IColumnFormatter getFormatter(final String propName) {
+        return formatters.get(propName);
+    }
+}
@@ -16,13 +16,11 @@ import java.util.zip.Deflater;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFFont;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.CreationHelper;
 import org.joda.time.DateTime;
 
 import ua.com.fielden.platform.entity.AbstractEntity;
@@ -38,6 +36,7 @@ import ua.com.fielden.platform.utils.Pair;
  *
  */
 public class WorkbookExporter {
+    static final String DATE_FORMAT = "dd/mm/yyyy hh:mm";
 
     public static <M extends AbstractEntity<?>> HSSFWorkbook export(final List<M> entities, final String[] propertyNames, final String[] propertyTitles) {
         final List<Pair<String, String>> propNamesAndTitles = new ArrayList<>();
@@ -72,47 +71,28 @@ public class WorkbookExporter {
 
     public static HSSFWorkbook export(final List<DataForWorkbookSheet<? extends AbstractEntity<?>>> sheetsData) {
         final HSSFWorkbook wb = new HSSFWorkbook();
+        final WorkbookStylePool styles = new WorkbookStylePool(wb);
         for (final DataForWorkbookSheet<? extends AbstractEntity<?>> sheetData : sheetsData) {
-            addSheetWithData(wb, sheetData);
+            addSheetWithData(wb, styles, sheetData);
         }
         return wb;
     }
 
-    @SuppressWarnings("unchecked")
-    private static <M extends AbstractEntity<?>> void addSheetWithData(final HSSFWorkbook wb, final DataForWorkbookSheet<M> sheetData) {
+    private static <M extends AbstractEntity<?>> void addSheetWithData(final HSSFWorkbook wb, final WorkbookStylePool styles, final DataForWorkbookSheet<M> sheetData) {
         final HSSFSheet sheet = wb.createSheet(sheetData.getSheetTitle());
         // Create a header row.
         final HSSFRow headerRow = sheet.createRow(0);
-        // Create a new font and alter it
-        final HSSFFont font = wb.createFont();
-        font.setFontHeightInPoints((short) 11);
-        font.setFontName("Courier New");
-        font.setBoldweight((short) 1000);
-        // Fonts are set into a style so create a new one to use
-        final HSSFCellStyle headerCellStyle = wb.createCellStyle();
-        headerCellStyle.setFont(font);
-        headerCellStyle.setBorderBottom(HSSFCellStyle.BORDER_THIN);
-        headerCellStyle.setWrapText(true);
-        final HSSFCellStyle headerInnerCellStyle = wb.createCellStyle();
-        headerInnerCellStyle.setFont(font);
-        headerInnerCellStyle.setBorderBottom(HSSFCellStyle.BORDER_THIN);
-        headerInnerCellStyle.setBorderRight(HSSFCellStyle.BORDER_HAIR);
-        headerInnerCellStyle.setWrapText(true);
         // Create cells and put column names there
         for (int index = 0; index < sheetData.getPropTitles().size(); index++) {
             final HSSFCell cell = headerRow.createCell(index);
             cell.setCellValue(sheetData.getPropTitles().get(index));
-            cell.setCellStyle(index < sheetData.getPropTitles().size() - 1 ? headerInnerCellStyle : headerCellStyle);
+            cell.setCellStyle(styles.header(index < sheetData.getPropTitles().size() - 1));
         }
 
-        final CellStyle dateCellStyle = wb.createCellStyle();
-        final CreationHelper createHelper = wb.getCreationHelper();
-        dateCellStyle.setDataFormat(createHelper.createDataFormat().getFormat("dd/mm/yyyy hh:mm"));
-
+        final CellStyle dateCellStyle = styles.data(DATE_FORMAT, false);
         // let's make cell style to handle borders
         final Map<String, String> shortCollectionalProps = new HashMap<>();
-        final HSSFCellStyle dataCellStyle = wb.createCellStyle();
-        dataCellStyle.setBorderRight(HSSFCellStyle.BORDER_HAIR);
+        final CellStyle dataCellStyle = styles.data(null, true);
         for (int index = 0; index < sheetData.getEntities().size(); index++) {
             final HSSFRow row = sheet.createRow(index + 1); // new row starting with 1
             // iterate through values in the current table row and populate the sheet row
@@ -124,38 +104,7 @@ public class WorkbookExporter {
                 final AbstractEntity<?> entity = sheetData.getEntities().get(index);
                 final String propertyName = sheetData.getPropNames().get(propIndex);
                 final Object value = StringUtils.isEmpty(propertyName) ? entity : entity.get(propertyName); // get the value
-                // need to try to do the best job with types
-                if (shortCollectionalProps.containsKey(propertyName)) {
-                    cell.setCellType(HSSFCell.CELL_TYPE_STRING);
-                    cell.setCellValue(join(createShortColection((Collection<AbstractEntity<?>>) value, shortCollectionalProps.get(propertyName)), ", "));
-                } else if (value instanceof Date) {
-                    cell.setCellValue((Date) value);
-                    cell.setCellStyle(dateCellStyle);
-                } else if (value instanceof DateTime) {
-                    cell.setCellValue(((DateTime) value).toDate());
-                    cell.setCellStyle(dateCellStyle);
-                } else if (value instanceof Number) {
-                    cell.setCellType(HSSFCell.CELL_TYPE_NUMERIC);
-                    cell.setCellValue(((Number) value).doubleValue());
-                } else if (value instanceof Boolean) {
-                    cell.setCellType(HSSFCell.CELL_TYPE_BOOLEAN);
-                    cell.setCellValue((Boolean) value);
-                } else if (value == null) { // if null then leave call blank
-                    cell.setCellType(HSSFCell.CELL_TYPE_BLANK);
-                } else { // otherwise treat value as String
-                    cell.setCellType(HSSFCell.CELL_TYPE_STRING);
-                    if (EntityUtils.isCollectional(value.getClass())) {
-                        final Optional<String> keyToInclude = findKeyToExclude((Collection<?>) value);
-                        if (keyToInclude.isPresent()) {
-                            shortCollectionalProps.put(propertyName, keyToInclude.get());
-                            cell.setCellValue(join(createShortColection((Collection<AbstractEntity<?>>) value, keyToInclude.get()), ", "));
-                        } else {
-                            cell.setCellValue(join((Collection<?>) value, ", "));
-                        }
-                    } else {
-                        cell.setCellValue(value.toString());
-                    }
-                }
+                setCellValue(cell, value, propertyName, shortCollectionalProps, dateCellStyle);
             }
         }
 
@@ -172,12 +121,58 @@ public class WorkbookExporter {
         sheet.createFreezePane(0, 1);
     }
 
-    private static List<AbstractEntity<?>> createShortColection(final Collection<AbstractEntity<?>> collection, final String keyToInclude) {
+    /**
+     * Writes <code>value</code> of property <code>propertyName</code> into <code>cell</code>, doing the best job with its type.
+     * Dates are written with <code>dateCellStyle</code>. Collections of entities, which share the same value of one of their two key members, are written as a list of
+     * the other key member values; such properties are remembered in <code>shortCollectionalProps</code>.
+     *
+     * @param cell
+     * @param value
+     * @param propertyName
+     * @param shortCollectionalProps
+     * @param dateCellStyle
+     */
+    @SuppressWarnings("unchecked")
+    static void setCellValue(final Cell cell, final Object value, final String propertyName, final Map<String, String> shortCollectionalProps, final CellStyle dateCellStyle) {
+        if (shortCollectionalProps.containsKey(propertyName)) {
+            cell.setCellType(Cell.CELL_TYPE_STRING);
+            cell.setCellValue(join(createShortColection((Collection<AbstractEntity<?>>) value, shortCollectionalProps.get(propertyName)), ", "));
+        } else if (value instanceof Date) {
+            cell.setCellValue((Date) value);
+            cell.setCellStyle(dateCellStyle);
+        } else if (value instanceof DateTime) {
+            cell.setCellValue(((DateTime) value).toDate());
+            cell.setCellStyle(dateCellStyle);
+        } else if (value instanceof Number) {
+            cell.setCellType(Cell.CELL_TYPE_NUMERIC);
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            cell.setCellType(Cell.CELL_TYPE_BOOLEAN);
+            cell.setCellValue((Boolean) value);
+        } else if (value == null) { // if null then leave call blank
+            cell.setCellType(Cell.CELL_TYPE_BLANK);
+        } else { // otherwise treat value as String
+            cell.setCellType(Cell.CELL_TYPE_STRING);
+            if (EntityUtils.isCollectional(value.getClass())) {
+                final Optional<String> keyToInclude = findKeyToExclude((Collection<?>) value);
+                if (keyToInclude.isPresent()) {
+                    shortCollectionalProps.put(propertyName, keyToInclude.get());
+                    cell.setCellValue(join(createShortColection((Collection<AbstractEntity<?>>) value, keyToInclude.get()), ", "));
+                } else {
+                    cell.setCellValue(join((Collection<?>) value, ", "));
+                }
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+    static List<AbstractEntity<?>> createShortColection(final Collection<AbstractEntity<?>> collection, final String keyToInclude) {
         return collection.stream().map(entityElement -> (AbstractEntity<?>) entityElement.get(keyToInclude)).collect(Collectors.toList());
     }
 
     @SuppressWarnings("unchecked")
-    private static Optional<String> findKeyToExclude(final Collection<?> collection) {
+    static Optional<String> findKeyToExclude(final Collection<?> collection) {
         return collection.stream()
                 .filter(element -> element != null)
                 .findFirst()
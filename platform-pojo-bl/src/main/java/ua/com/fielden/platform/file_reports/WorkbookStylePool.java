@@ -0,0 +1,85 @@
+package ua.com.fielden.platform.file_reports;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * A pool of cell styles, which are shared by all cells and sheets of a workbook.
+ * <p>
+ * The number of cell styles in a workbook is limited (about 4,000 for XLS and 64,000 for XLSX), thus styles are created once per distinct combination of
+ * their attributes and reused afterwards.
+ *
+ * @author TG Team
+ *
+ */
+public class WorkbookStylePool {
+    private final Workbook workbook;
+    private final Map<String, CellStyle> styles = new HashMap<>();
+    private Font headerFont;
+
+    public WorkbookStylePool(final Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    /**
+     * Returns a style for header cells.
+     *
+     * @param rightBorder -- whether a hair right border should separate the cell from the next one
+     * @return
+     */
+    public CellStyle header(final boolean rightBorder) {
+        return styles.computeIfAbsent("header:" + rightBorder, key -> {
+            final CellStyle style = workbook.createCellStyle();
+            style.setFont(headerFont());
+            style.setBorderBottom(CellStyle.BORDER_THIN);
+            if (rightBorder) {
+                style.setBorderRight(CellStyle.BORDER_HAIR);
+            }
+            style.setWrapText(true);
+            return style;
+        });
+    }
+
+    /**
+     * Returns a style for data cells.
+     *
+     * @param dataFormat -- a data format (e.g. <code>dd/mm/yyyy hh:mm</code>) or <code>null</code> for the general one
+     * @param rightBorder -- whether a hair right border should separate the cell from the next one
+     * @return
+     */
+    public CellStyle data(final String dataFormat, final boolean rightBorder) {
+        return styles.computeIfAbsent("data:" + dataFormat + ":" + rightBorder, key -> {
+            final CellStyle style = workbook.createCellStyle();
+            if (dataFormat != null) {
+                style.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(dataFormat));
+            }
+            if (rightBorder) {
+                style.setBorderRight(CellStyle.BORDER_HAIR);
+            }
+            return style;
+        });
+    }
+
+    /**
+     * Returns the number of styles created by this pool.
+     *
+     * @return
+     */
+    public int size() {
+        return styles.size();
+    }
+
+    private Font headerFont() {
+        if (headerFont == null) {
+            headerFont = workbook.createFont();
+            headerFont.setFontHeightInPoints((short) 11);
+            headerFont.setFontName("Courier New");
+            headerFont.setBoldweight((short) 1000);
+        }
+        return headerFont;
+    }
+}
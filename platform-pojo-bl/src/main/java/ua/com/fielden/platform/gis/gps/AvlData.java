@@ -1,51 +1,232 @@
 package ua.com.fielden.platform.gis.gps;
 
+import java.nio.ByteBuffer;
+
 /**
  * Raw GPS message data from GPS modules.
- * 
+ * <p>
+ * This is a flyweight view over a single AVL record in Teltonika codec 8 layout, which is backed by a byte buffer shared between all records of the same packet.
+ * Primitive accessors read values directly from the buffer without any allocation.
+ * Methods {@link #getGps()} and {@link #getIo()} materialise the corresponding elements lazily, and only for those callers that still need them.
+ *
  * @author TG Team
- * 
+ *
  */
 public class AvlData {
 
     public static final int BASE_ELEMENT_LENGTH = 8 + 1 + AvlGpsElement.BASE_ELEMENT_LENGTH + AvlIoElement.BASE_ELEMENT_LENGTH;
 
+    private static final int PRIORITY = 8;
+    private static final int LONGITUDE = 9;
+    private static final int LATITUDE = 13;
+    private static final int ALTITUDE = 17;
+    private static final int ANGLE = 19;
+    private static final int SATELLITES = 21;
+    private static final int SPEED = 22;
+    private static final int EVENT_ID = 24;
+    private static final int IO_TOTAL = 25;
+    private static final int BYTE_TOTAL = 26;
+
+    private final ByteBuffer data;
+    private final int offset;
+    private final int length;
     private final int capacity;
-    private final long gpsTimestamp;
-    private final byte priority;
-    private final AvlGpsElement gps;
-    private final AvlIoElement io;
+    // absolute positions of IO element counts, each followed by the corresponding IO elements
+    private final int byteIoStart;
+    private final int shortIoStart;
+    private final int intIoStart;
+    private final int longIoStart;
+
+    private AvlGpsElement gps;
+    private AvlIoElement io;
+
+    /**
+     * Creates a view over the AVL record, which starts at <code>offset</code> in <code>data</code>. The record structure is expected to be validated by the caller.
+     * The buffer content should not be modified after the view is created.
+     */
+    public AvlData(final ByteBuffer data, final int offset) {
+        this(data, offset, null, null, 0);
+    }
 
     public AvlData(final long timestamp, final byte priority, final AvlGpsElement gps, final AvlIoElement io, final int capacity) {
-        this.gpsTimestamp = timestamp;
-        this.priority = priority;
+        this(encode(timestamp, priority, gps, io), 0, gps, io, capacity);
+    }
+
+    private AvlData(final ByteBuffer data, final int offset, final AvlGpsElement gps, final AvlIoElement io, final int capacity) {
+        this.data = data;
+        this.offset = offset;
         this.gps = gps;
         this.io = io;
-        this.capacity = capacity > 0 ? capacity : BASE_ELEMENT_LENGTH + //
+        this.byteIoStart = offset + BYTE_TOTAL;
+        this.shortIoStart = byteIoStart + 1 + data.get(byteIoStart) * AvlIoElement.ByteIoElement.BASE_ELEMENT_LENGTH;
+        this.intIoStart = shortIoStart + 1 + data.get(shortIoStart) * AvlIoElement.ShortIoElement.BASE_ELEMENT_LENGTH;
+        this.longIoStart = intIoStart + 1 + data.get(intIoStart) * AvlIoElement.IntIoElement.BASE_ELEMENT_LENGTH;
+        this.length = longIoStart + 1 + data.get(longIoStart) * AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH - offset;
+        this.capacity = capacity > 0 ? capacity : length;
+    }
+
+    private static ByteBuffer encode(final long timestamp, final byte priority, final AvlGpsElement gps, final AvlIoElement io) {
+        final ByteBuffer data = ByteBuffer.allocate(BASE_ELEMENT_LENGTH + //
                 io.byteIo.length * AvlIoElement.ByteIoElement.BASE_ELEMENT_LENGTH + //
                 io.shortIo.length * AvlIoElement.ShortIoElement.BASE_ELEMENT_LENGTH + //
                 io.intIo.length * AvlIoElement.IntIoElement.BASE_ELEMENT_LENGTH + //
-                io.longIo.length * AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH;
+                io.longIo.length * AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH);
+        data.putLong(timestamp).put(priority);
+        data.putInt(gps.longitude).putInt(gps.latitude).putShort(gps.getAltitude()).putShort(gps.getAngle()).put(gps.getSatellites()).putShort(gps.getSpeed());
+        data.put(io.eventId).put(io.ioTotal);
+        data.put((byte) io.byteIo.length);
+        for (final AvlIoElement.ByteIoElement element : io.byteIo) {
+            data.put((byte) element.ioId).put(element.ioValue);
+        }
+        data.put((byte) io.shortIo.length);
+        for (final AvlIoElement.ShortIoElement element : io.shortIo) {
+            data.put((byte) element.ioId).putShort(element.ioValue);
+        }
+        data.put((byte) io.intIo.length);
+        for (final AvlIoElement.IntIoElement element : io.intIo) {
+            data.put((byte) element.ioId).putInt(element.ioValue);
+        }
+        data.put((byte) io.longIo.length);
+        for (final AvlIoElement.LongIoElement element : io.longIo) {
+            data.put((byte) element.ioId).putLong(element.ioValue);
+        }
+        return data;
     }
 
     public long getGpsTimestamp() {
-        return gpsTimestamp;
+        return data.getLong(offset);
     }
 
     public byte getPriority() {
-        return priority;
+        return data.get(offset + PRIORITY);
+    }
+
+    public double getLongitude() {
+        return (double) data.getInt(offset + LONGITUDE) / AvlGpsElement.PRECISION;
+    }
+
+    public double getLatitude() {
+        return (double) data.getInt(offset + LATITUDE) / AvlGpsElement.PRECISION;
+    }
+
+    public short getAltitude() {
+        return data.getShort(offset + ALTITUDE);
+    }
+
+    public short getAngle() {
+        return data.getShort(offset + ANGLE);
+    }
+
+    public byte getSatellites() {
+        return data.get(offset + SATELLITES);
+    }
+
+    public short getSpeed() {
+        return data.getShort(offset + SPEED);
+    }
+
+    public byte getEventId() {
+        return data.get(offset + EVENT_ID);
     }
 
     public AvlGpsElement getGps() {
+        if (gps == null) {
+            gps = new AvlGpsElement(data.getInt(offset + LONGITUDE), data.getInt(offset + LATITUDE), getAltitude(), getAngle(), getSatellites(), getSpeed());
+        }
         return gps;
     }
 
     public AvlIoElement getIo() {
+        if (io == null) {
+            final AvlIoElement.ByteIoElement[] byteIo = new AvlIoElement.ByteIoElement[data.get(byteIoStart)];
+            for (int i = 0, pos = byteIoStart + 1; i < byteIo.length; i++, pos += AvlIoElement.ByteIoElement.BASE_ELEMENT_LENGTH) {
+                byteIo[i] = new AvlIoElement.ByteIoElement(data.get(pos), data.get(pos + 1));
+            }
+            final AvlIoElement.ShortIoElement[] shortIo = new AvlIoElement.ShortIoElement[data.get(shortIoStart)];
+            for (int i = 0, pos = shortIoStart + 1; i < shortIo.length; i++, pos += AvlIoElement.ShortIoElement.BASE_ELEMENT_LENGTH) {
+                shortIo[i] = new AvlIoElement.ShortIoElement(data.get(pos), data.getShort(pos + 1));
+            }
+            final AvlIoElement.IntIoElement[] intIo = new AvlIoElement.IntIoElement[data.get(intIoStart)];
+            for (int i = 0, pos = intIoStart + 1; i < intIo.length; i++, pos += AvlIoElement.IntIoElement.BASE_ELEMENT_LENGTH) {
+                intIo[i] = new AvlIoElement.IntIoElement(data.get(pos), data.getInt(pos + 1));
+            }
+            final AvlIoElement.LongIoElement[] longIo = new AvlIoElement.LongIoElement[data.get(longIoStart)];
+            for (int i = 0, pos = longIoStart + 1; i < longIo.length; i++, pos += AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH) {
+                longIo[i] = new AvlIoElement.LongIoElement(data.get(pos), data.getLong(pos + 1));
+            }
+            io = new AvlIoElement(getEventId(), data.get(offset + IO_TOTAL), byteIo, shortIo, intIo, longIo);
+        }
         return io;
     }
 
+    /**
+     * Returns the absolute position of a value for IO element <code>ioId</code> in the section, which starts at <code>start</code>, or -1 if there is no such element.
+     */
+    private int locateIo(final int start, final int elementLength, final int ioId) {
+        final int count = data.get(start);
+        for (int i = 0, pos = start + 1; i < count; i++, pos += elementLength) {
+            if (AvlIoElement.convertId(data.get(pos)) == ioId) {
+                return pos + 1;
+            }
+        }
+        return -1;
+    }
+
+    public boolean hasByteIo(final int ioId) {
+        return locateIo(byteIoStart, AvlIoElement.ByteIoElement.BASE_ELEMENT_LENGTH, ioId) >= 0;
+    }
+
+    public byte getByteIo(final int ioId, final byte defaultValue) {
+        final int pos = locateIo(byteIoStart, AvlIoElement.ByteIoElement.BASE_ELEMENT_LENGTH, ioId);
+        return pos >= 0 ? data.get(pos) : defaultValue;
+    }
+
+    public boolean hasShortIo(final int ioId) {
+        return locateIo(shortIoStart, AvlIoElement.ShortIoElement.BASE_ELEMENT_LENGTH, ioId) >= 0;
+    }
+
+    public short getShortIo(final int ioId, final short defaultValue) {
+        final int pos = locateIo(shortIoStart, AvlIoElement.ShortIoElement.BASE_ELEMENT_LENGTH, ioId);
+        return pos >= 0 ? data.getShort(pos) : defaultValue;
+    }
+
+    public boolean hasIntIo(final int ioId) {
+        return locateIo(intIoStart, AvlIoElement.IntIoElement.BASE_ELEMENT_LENGTH, ioId) >= 0;
+    }
+
+    public int getIntIo(final int ioId, final int defaultValue) {
+        final int pos = locateIo(intIoStart, AvlIoElement.IntIoElement.BASE_ELEMENT_LENGTH, ioId);
+        return pos >= 0 ? data.getInt(pos) : defaultValue;
+    }
+
+    public boolean hasLongIo(final int ioId) {
+        return locateIo(longIoStart, AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH, ioId) >= 0;
+    }
+
+    public long getLongIo(final int ioId, final long defaultValue) {
+        final int pos = locateIo(longIoStart, AvlIoElement.LongIoElement.BASE_ELEMENT_LENGTH, ioId);
+        return pos >= 0 ? data.getLong(pos) : defaultValue;
+    }
+
     public int getCapacity() {
         return capacity;
     }
 
+    /**
+     * Returns the number of bytes occupied by this AVL record in codec 8 layout.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Copies this AVL record in codec 8 layout into <code>target</code> starting at its current position, which gets advanced by {@link #getLength()} bytes.
+     * The copied record can be read back by means of {@link #AvlData(ByteBuffer, int)}.
+     */
+    public void writeTo(final ByteBuffer target) {
+        final ByteBuffer source = data.duplicate();
+        source.limit(offset + length).position(offset);
+        target.put(source);
+    }
+
 }
@@ -4,7 +4,7 @@ public class AvlGpsElement {
 
     public static final int BASE_ELEMENT_LENGTH = 4 + 4 + 2 + 2 + 1 + 2;
 
-    private static final int PRECISION = 10_000_000;
+    static final int PRECISION = 10_000_000;
 
     public final int longitude;
     public final int latitude;
@@ -12,4 +12,24 @@ public interface IKeyNumber extends IEntityDao<KeyNumber> {
     Integer nextNumber(final String key);
 
     Integer currNumber(final String key);
+
+    /**
+     * Reserves a block of <code>count</code> consecutive numbers for <code>key</code> by advancing its current number, and returns the first number in the block.
+     *
+     * @param key
+     * @param count
+     * @return
+     */
+    Integer reserveNumbers(final String key, final int count);
+
+    /**
+     * Returns numbers from <code>from</code> to <code>to</code> inclusive, which were reserved, but not used, back to <code>key</code>.
+     * This is possible only if no numbers were reserved after <code>to</code>, in which case <code>true</code> is returned.
+     *
+     * @param key
+     * @param from
+     * @param to
+     * @return
+     */
+    boolean returnNumbers(final String key, final int from, final int to);
 }
@@ -0,0 +1,46 @@
+package ua.com.fielden.platform.keygen;
+
+/**
+ * A contract for generating unique numbers such as WONO, which is intended for high-throughput generation of numbers by concurrent callers.
+ * <p>
+ * Depending on {@link GapPolicy}, numbers are either reserved one by one as part of the caller's transaction (refer {@link IKeyNumber#nextNumber(String)}),
+ * or in blocks, which are then handed out from memory.
+ *
+ * @author TG Team
+ *
+ */
+public interface IKeyNumberGenerator {
+
+    /**
+     * Determines whether there could be gaps in the sequence of generated numbers.
+     */
+    enum GapPolicy {
+        /** Each number is reserved as part of the caller's transaction, so that numbers are not lost if that transaction is rolled back. */
+        NO_GAPS,
+        /** Numbers are reserved in blocks; unused numbers of the current blocks are returned upon {@link IKeyNumberGenerator#releaseUnusedNumbers()} if no numbers were reserved after them. */
+        RETURN_UNUSED,
+        /** Numbers are reserved in blocks; unused numbers of the current blocks are lost upon shutdown. */
+        ALLOW_GAPS
+    }
+
+    /**
+     * Returns the next number for <code>key</code>.
+     *
+     * @param key
+     * @return
+     */
+    Integer nextNumber(final String key);
+
+    /**
+     * Releases all blocks of numbers held in memory. Depending on {@link GapPolicy}, unused numbers are either returned or lost.
+     */
+    void releaseUnusedNumbers();
+
+    /**
+     * Releases unused numbers (refer {@link #releaseUnusedNumbers()}) and stops any background activity of the generator. No new blocks of numbers can be reserved after that.
+     * Should be invoked upon application shutdown.
+     */
+    void shutdown();
+
+    GapPolicy gapPolicy();
+}
@@ -1,6 +1,7 @@
 package ua.com.fielden.platform.pagination;
 
 import java.util.List;
+import java.util.Optional;
 
 import ua.com.fielden.platform.entity.AbstractEntity;
 
@@ -39,6 +40,18 @@ public interface IPage<T extends AbstractEntity<?>> {
      */
     int numberOfPages();
 
+    /**
+     * Should return the total number of pages if it is known without counting all instances (e.g. the page is the last one or the number of pages has been calculated already),
+     * or an empty value otherwise.
+     * <p>
+     * By default, returns the value of {@link #numberOfPages()}.
+     * 
+     * @return
+     */
+    default Optional<Integer> knownNumberOfPages() {
+        return Optional.of(numberOfPages());
+    }
+
     /**
      * Should return a list of instances held by the page. The size of the resultant list can be less than the value of page size.
      * 
@@ -15,7 +15,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -26,6 +25,7 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -58,7 +58,7 @@ import ua.com.fielden.platform.utils.Pair;
  *
  */
 public class Finder {
-    private final static Map<Class<?>, List<Field>> entityKeyMembers = new HashMap<>();
+    private final static Map<Class<?>, List<Field>> entityKeyMembers = new ConcurrentHashMap<>();
 
     /**
      * Let's hide default constructor, which is not needed for a static class.
@@ -491,18 +491,7 @@ public class Finder {
      * @throws Exception
      */
     public static <T> T findFieldValueByName(final Object instance, final String dotNotationExp) throws Exception {
-        if (instance == null) {
-            return null;
-        }
-        final String[] properties = dotNotationExp.split(Reflector.DOT_SPLITTER);
-        Object value = instance;
-        for (final String property : properties) {
-            value = getPropertyValue(value, property);
-            if (value == null) {
-                return null;
-            }
-        }
-        return (T) value;
+        return (T) PropertyAccessors.getByPath(instance, dotNotationExp);
     }
 
     /**
@@ -768,7 +757,7 @@ public class Finder {
      * @return
      * @throws IllegalAccessException
      */
-    private static Object getPropertyValue(Object value, final String property) throws IllegalAccessException {
+    static Object getPropertyValue(Object value, final String property) throws IllegalAccessException {
         if (!property.contains("()")) {
             if (value instanceof AbstractUnionEntity) {
                 value = getAbstractUnionEntityFieldValue((AbstractUnionEntity) value, property);
@@ -0,0 +1,213 @@
+package ua.com.fielden.platform.reflection;
+
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.entity.AbstractUnionEntity;
+import ua.com.fielden.platform.entity.Mutator;
+import ua.com.fielden.platform.reflection.exceptions.ReflectionException;
+
+/**
+ * Property accessors for a type, which are resolved once upon first use and cached for the lifetime of the application.
+ * <p>
+ * Accessors are method handles -- field getters for reading property values (exactly as {@link Finder#findFieldValueByName(Object, String)} does) and setters for writing property values
+ * (exactly as {@link AbstractEntity#set(String, Object)} does). The JVM compiles them into bytecode, which makes property access as cheap as a direct
+ * call, without any reflective lookups or changes of accessibility at the time of access.
+ * <p>
+ * Real properties of entity types (refer {@link Finder#findRealProperties(Class, Class...)}) can also be read by index, which corresponds to their order in the type definition.
+ * <p>
+ * Dot-notation expressions are split once and evaluated as a chain of property accessors, each resolved for the runtime type of the corresponding intermediate value.
+ * Method invocations (e.g. <code>getKey()</code>) and union entity properties in dot-notation expressions are evaluated reflectively, as their resolution depends on a specific instance.
+ *
+ * @author TG Team
+ *
+ */
+public final class PropertyAccessors {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ConcurrentMap<Class<?>, PropertyAccessors> accessorsByType = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, String[]> pathsByExpression = new ConcurrentHashMap<>();
+
+    private final Class<?> type;
+    private final List<String> propertyNames;
+    private final Map<String, Integer> propertyIndices;
+    private final MethodHandle[] propertyGetters;
+    private final ConcurrentMap<String, MethodHandle> getters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MethodHandle> setters = new ConcurrentHashMap<>();
+
+    private PropertyAccessors(final Class<?> type) {
+        this.type = type;
+        final List<Field> properties = AbstractEntity.class.isAssignableFrom(type) ? Finder.findRealProperties(type) : Collections.emptyList();
+        final List<String> names = new ArrayList<>(properties.size());
+        this.propertyIndices = new HashMap<>();
+        this.propertyGetters = new MethodHandle[properties.size()];
+        for (int index = 0; index < properties.size(); index++) {
+            final Field property = properties.get(index);
+            final MethodHandle getter = unreflectGetter(property);
+            names.add(property.getName());
+            propertyIndices.put(property.getName(), index);
+            propertyGetters[index] = getter;
+            getters.put(property.getName(), getter);
+        }
+        this.propertyNames = unmodifiableList(names);
+    }
+
+    /**
+     * Returns property accessors for <code>type</code>, creating them upon first request.
+     *
+     * @param type
+     * @return
+     */
+    public static PropertyAccessors forType(final Class<?> type) {
+        final PropertyAccessors cached = accessorsByType.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        final PropertyAccessors created = new PropertyAccessors(type);
+        final PropertyAccessors existing = accessorsByType.putIfAbsent(type, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Names of real properties in the order of their indices.
+     *
+     * @return
+     */
+    public List<String> propertyNames() {
+        return propertyNames;
+    }
+
+    /**
+     * Returns the index of real property <code>propertyName</code> or -1 if there is no such real property.
+     *
+     * @param propertyName
+     * @return
+     */
+    public int indexOf(final String propertyName) {
+        final Integer index = propertyIndices.get(propertyName);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Reads the value of a real property with the specified index.
+     *
+     * @param instance
+     * @param index
+     * @return
+     */
+    public Object get(final Object instance, final int index) {
+        return invokeGetter(propertyGetters[index], instance, propertyNames.get(index));
+    }
+
+    /**
+     * Reads the value of a field with the specified name, which can be declared anywhere in the type hierarchy.
+     *
+     * @param instance
+     * @param fieldName
+     * @return
+     */
+    public Object get(final Object instance, final String fieldName) {
+        return invokeGetter(getters.computeIfAbsent(fieldName, name -> unreflectGetter(Finder.getFieldByName(type, name))), instance, fieldName);
+    }
+
+    /**
+     * Assigns <code>value</code> to property <code>propertyName</code> by invoking its setter.
+     * Similarly to {@link Method#invoke(Object, Object...)}, any exception thrown by the setter is wrapped into {@link InvocationTargetException}.
+     *
+     * @param instance
+     * @param propertyName
+     * @param value
+     * @throws NoSuchMethodException -- if there is no setter for the property
+     * @throws InvocationTargetException -- if the setter has thrown an exception
+     */
+    public void set(final Object instance, final String propertyName, final Object value) throws NoSuchMethodException, InvocationTargetException {
+        final MethodHandle setter = setter(propertyName);
+        try {
+            setter.invokeExact(instance, value);
+        } catch (final Throwable ex) {
+            throw new InvocationTargetException(ex);
+        }
+    }
+
+    private MethodHandle setter(final String propertyName) throws NoSuchMethodException {
+        final MethodHandle cached = setters.get(propertyName);
+        if (cached != null) {
+            return cached;
+        }
+        final Class<?> propertyType = Finder.findFieldByName(type, propertyName).getType();
+        final Method resolved = Reflector.getMethod(type, Mutator.SETTER.getName(propertyName), propertyType);
+        // a fresh copy of the method is used as methods returned by Reflector are shared and their accessibility may be toggled concurrently elsewhere
+        final Method method = resolved.getDeclaringClass().getDeclaredMethod(resolved.getName(), resolved.getParameterTypes());
+        method.setAccessible(true);
+        try {
+            final MethodHandle setter = MethodHandles.lookup().unreflect(method).asType(SETTER_TYPE);
+            setters.putIfAbsent(propertyName, setter);
+            return setter;
+        } catch (final IllegalAccessException ex) {
+            throw new ReflectionException(format("Could not access setter for property [%s] in type [%s].", propertyName, type.getName()), ex);
+        }
+    }
+
+    /**
+     * Evaluates dot-notation expression <code>dotNotationExp</code> against <code>instance</code>, returning <code>null</code> if any of the intermediate values is <code>null</code>.
+     *
+     * @param instance
+     * @param dotNotationExp
+     * @return
+     * @throws IllegalAccessException
+     */
+    public static Object getByPath(final Object instance, final String dotNotationExp) throws IllegalAccessException {
+        if (instance == null) {
+            return null;
+        }
+        Object value = instance;
+        for (final String property : pathsByExpression.computeIfAbsent(dotNotationExp, exp -> exp.split(Reflector.DOT_SPLITTER))) {
+            if (value instanceof AbstractUnionEntity || property.contains("()")) {
+                value = Finder.getPropertyValue(value, property);
+            } else {
+                value = forType(value.getClass()).get(value, property);
+            }
+            if (value == null) {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    private Object invokeGetter(final MethodHandle getter, final Object instance, final String fieldName) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (final RuntimeException | Error ex) {
+            throw ex;
+        } catch (final Throwable ex) {
+            throw new ReflectionException(format("Could not obtain value of field [%s] in type [%s].", fieldName, type.getName()), ex);
+        }
+    }
+
+    private static MethodHandle unreflectGetter(final Field field) {
+        // the field instance is a copy returned by Class.getDeclaredFields(), thus changing its accessibility affects no one else
+        field.setAccessible(true);
+        try {
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (final IllegalAccessException ex) {
+            throw new ReflectionException(format("Could not access field [%s] in type [%s].", field.getName(), field.getDeclaringClass().getName()), ex);
+        }
+    }
+
+}
@@ -7,10 +7,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -37,7 +37,7 @@ import ua.com.fielden.platform.utils.Pair;
  *
  */
 public final class Reflector {
-    private final static Map<MethodKey, Pair<Method, NoSuchMethodException>> methods = new HashMap<>();
+    private final static Map<MethodKey, Pair<Method, NoSuchMethodException>> methods = new ConcurrentHashMap<>();
 
     /** A symbol that represents a separator between properties in property path expressions. */
     public static final String DOT_SPLITTER = "\\.";
@@ -179,7 +179,7 @@ public final class Reflector {
         }
     }
 
-    private static synchronized Method getDeclaredMethod(final Class<?> klass, final String methodName, final Class<?>... arguments) throws NoSuchMethodException,
+    private static Method getDeclaredMethod(final Class<?> klass, final String methodName, final Class<?>... arguments) throws NoSuchMethodException,
             SecurityException {
         // return klass.getDeclaredMethod(methodName, arguments);
         final MethodKey methodKey = new MethodKey(klass, methodName, arguments);
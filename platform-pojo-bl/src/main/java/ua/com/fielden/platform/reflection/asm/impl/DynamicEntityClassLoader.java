@@ -3,6 +3,7 @@ package ua.com.fielden.platform.reflection.asm.impl;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.kohsuke.asm5.ClassReader;
 
@@ -21,7 +22,8 @@ import ua.com.fielden.platform.utils.Pair;
 public class DynamicEntityClassLoader extends ClassLoader {
 
     private final Map<String, Pair<Class<?>, byte[]>> cache = new ConcurrentHashMap<>(512);
-    
+    /** The number of types defined by this class loader, none of which can be unloaded while the loader is alive. */
+    private final AtomicLong definedTypeCount = new AtomicLong();
 
     private static volatile DynamicEntityClassLoader instance;
 
@@ -57,6 +59,7 @@ public class DynamicEntityClassLoader extends ClassLoader {
     }
 
     protected final Class<?> defineType(final String name, final byte[] b, final int off, final int len) {
+        definedTypeCount.incrementAndGet();
         return super.defineClass(name, b, off, len);
     }
     
@@ -70,6 +73,7 @@ public class DynamicEntityClassLoader extends ClassLoader {
 
         // the class was not yet loaded, so it needs to be loaded and cached to later reuse
         final Class<?> klass = defineClass(null, currentType, 0, currentType.length);
+        definedTypeCount.incrementAndGet();
         cache.put(klass.getName(), new Pair<Class<?>, byte[]>(klass, currentType));
         return klass;
     }
@@ -135,4 +139,18 @@ public class DynamicEntityClassLoader extends ClassLoader {
     public byte[] getCachedByteArray(final String name) {
         return cache.containsKey(name) ? cache.get(name).getValue() : null;
     }
+
+    /**
+     * The number of types, which were defined by this class loader.
+     */
+    public long getDefinedTypeCount() {
+        return definedTypeCount.get();
+    }
+
+    /**
+     * The number of cached types, including types loaded from byte arrays.
+     */
+    public int getCachedTypeCount() {
+        return cache.size();
+    }
 }
@@ -1,6 +1,7 @@
 package ua.com.fielden.platform.domaintree.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -35,6 +36,7 @@ import ua.com.fielden.platform.entity.annotation.factory.EntityTypeAnnotation;
 import ua.com.fielden.platform.reflection.AnnotationReflector;
 import ua.com.fielden.platform.reflection.Finder;
 import ua.com.fielden.platform.reflection.PropertyTypeDeterminator;
+import ua.com.fielden.platform.reflection.asm.impl.DynamicEntityClassLoader;
 import ua.com.fielden.platform.reflection.exceptions.ReflectionException;
 import ua.com.fielden.platform.utils.EntityUtils;
 
@@ -576,6 +578,31 @@ public class DomainTreeEnhancerTest extends AbstractDomainTreeTest {
         assertEquals("Incorrect count of enhanced types byte arrays.", 2, dm.getManagedTypeArrays(EnhancingMasterEntity.class).size());
     }
 
+    @Test
+    public void structurally_identical_enhancements_share_the_same_generated_types() {
+        final DynamicEntityClassLoader classLoader = DynamicEntityClassLoader.getInstance(ClassLoader.getSystemClassLoader());
+        final IDomainTreeEnhancer dm1 = new DomainTreeEnhancer(serialiser(), createRootTypes_for_DomainTreeEnhancerTest());
+        dm1.addCalculatedProperty(EnhancingMasterEntity.class, "slaveEntityProp", "7 * integerProp", "Shared septuple", "Desc", CalculatedPropertyAttribute.NO_ATTR, "integerProp");
+        dm1.apply();
+
+        final long definedTypes = classLoader.getDefinedTypeCount();
+        final long sharedCount = EnhancedRootTypeRegistry.getSharedCount();
+        final IDomainTreeEnhancer dm2 = new DomainTreeEnhancer(serialiser(), createRootTypes_for_DomainTreeEnhancerTest());
+        dm2.addCalculatedProperty(EnhancingMasterEntity.class, "slaveEntityProp", "7 * integerProp", "Shared septuple", "Desc", CalculatedPropertyAttribute.NO_ATTR, "integerProp");
+        dm2.apply();
+
+        assertTrue("Structurally identical enhancement should reuse the generated type.", dm1.getManagedType(EnhancingMasterEntity.class) == dm2.getManagedType(EnhancingMasterEntity.class));
+        assertEquals("No types should be generated for structurally identical enhancement.", definedTypes, classLoader.getDefinedTypeCount());
+        assertEquals(sharedCount + 1, EnhancedRootTypeRegistry.getSharedCount());
+        assertEquals("Incorrect count of enhanced types byte arrays.", 2, dm2.getManagedTypeArrays(EnhancingMasterEntity.class).size());
+        calcFieldExistsInSinglePlaceAndItWORKS(dm2.getManagedType(EnhancingMasterEntity.class), "slaveEntityProp.sharedSeptuple", ICalculatedProperty.CalculatedPropertyCategory.EXPRESSION, "integerProp", Integer.class, "7 * integerProp", "Shared septuple", "Desc");
+
+        final IDomainTreeEnhancer dm3 = new DomainTreeEnhancer(serialiser(), createRootTypes_for_DomainTreeEnhancerTest());
+        dm3.addCalculatedProperty(EnhancingMasterEntity.class, "slaveEntityProp", "8 * integerProp", "Shared septuple", "Desc", CalculatedPropertyAttribute.NO_ATTR, "integerProp");
+        dm3.apply();
+        assertFalse("Structurally different enhancement should generate its own type.", dm1.getManagedType(EnhancingMasterEntity.class) == dm3.getManagedType(EnhancingMasterEntity.class));
+    }
+
     private void failAddition(final IDomainTreeEnhancer dm, final Class<?> rootType, final String contextPath, final String title) {
         try {
             dm.addCalculatedProperty(rootType, contextPath, "5 * integerProp", title, "Desc", CalculatedPropertyAttribute.NO_ATTR, "integerProp");
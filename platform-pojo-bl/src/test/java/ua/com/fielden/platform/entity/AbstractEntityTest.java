@@ -15,8 +15,13 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.junit.Before;
@@ -1269,4 +1274,71 @@ public class AbstractEntityTest {
         assertEquals(0, entity.warnings().size());
     }
 
+    @Test
+    public void entities_can_be_instantiated_concurrently_each_with_its_own_meta_properties() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Entity>> futures = new ArrayList<>();
+            for (int index = 0; index < 200; index++) {
+                final String key = "key" + index;
+                futures.add(executor.submit(() -> factory.newEntity(Entity.class, key, "description")));
+            }
+            final Set<MetaProperty<?>> metaProperties = new HashSet<>();
+            for (int index = 0; index < futures.size(); index++) {
+                final Entity entity = futures.get(index).get();
+                assertEquals("key" + index, entity.getKey());
+                assertEquals(factory, entity.getEntityFactory());
+                assertTrue(entity.getProperty("doubles").isCollectional());
+                assertTrue(entity.getProperty("key").isRequired());
+                assertTrue(metaProperties.add(entity.getProperty("number")));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void concurrent_instantiation_of_entities_is_not_slower_than_instantiation_serialised_on_a_shared_monitor() throws Exception {
+        final int entities = 3_200;
+        for (final int threads : new int[] { 1, 8, 32 }) {
+            final Object monitor = new Object();
+            final long serialisedTime = timeInstantiation(threads, entities, key -> {
+                synchronized (monitor) { // the way EntityFactory.newEntity used to be invoked
+                    return factory.newEntity(Entity.class, key, "description");
+                }
+            });
+            final long concurrentTime = timeInstantiation(threads, entities, key -> factory.newEntity(Entity.class, key, "description"));
+
+            if (threads > 1 && Runtime.getRuntime().availableProcessors() > 1) {
+                assertTrue(format("Concurrent instantiation [%s ms] should not be slower than serialised instantiation [%s ms] for [%s] threads.", concurrentTime / 1_000_000, serialisedTime / 1_000_000, threads),
+                        concurrentTime <= serialisedTime);
+            }
+        }
+    }
+
+    /**
+     * Instantiates <code>entities</code> entities by means of <code>newEntity</code>, using <code>threads</code> threads, and returns the elapsed time in nanoseconds.
+     */
+    private static long timeInstantiation(final int threads, final int entities, final Function<String, Entity> newEntity) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int threadNo = thread;
+                futures.add(executor.submit(() -> {
+                    for (int index = 0; index < entities / threads; index++) {
+                        assertNotNull(newEntity.apply("key" + threadNo + "-" + index).getProperty("number"));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -1,11 +1,15 @@
 package ua.com.fielden.platform.equery.lifecycle;
 
+import static java.lang.String.format;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
 
 import org.joda.time.DateTime;
 import org.junit.Test;
@@ -143,6 +147,93 @@ public class LifecycleModelTest {
         assertEquals("Expected average relative avalability is not equal to actual.", expectedAverageRelativeAvailability, lm.getAverageRelativeAvailability()); // 0.0000001
     }
 
+    @Test
+    public void summary_availability_of_synthetic_fleet_corresponds_to_availability_of_its_entities_at_every_change_moment() {
+        final List<EntityPropertyLifecycle<Entity>> ld = syntheticFleet(new Random(42), 100, 40, this::date);
+        final LifecycleModel<Entity> lm = summaryModel(date(50), date(450), ld);
+
+        DateTime expectedFrom = date(50);
+        for (final ValuedInterval vi : lm.getSummaryAvailability()) {
+            assertEquals("Summary availability intervals should be contiguous.", expectedFrom, vi.getFrom());
+            assertEquals("Unexpected summary availability at " + vi.getFrom() + ".", availableAt(vi.getFrom(), ld), vi.getAvailability().intValue());
+            expectedFrom = vi.getTo();
+        }
+        assertEquals(date(450), expectedFrom);
+    }
+
+    @Test
+    public void summary_availability_of_large_synthetic_fleet_is_calculated_faster_than_availability_at_every_change_moment() {
+        final IntFunction<DateTime> time = seconds -> date(0).plusSeconds(seconds);
+        final List<EntityPropertyLifecycle<Entity>> ld = syntheticFleet(new Random(42), 500, 100, time);
+
+        long start = System.nanoTime();
+        final LifecycleModel<Entity> lm = summaryModel(time.apply(50), time.apply(1_500), ld);
+        final long sweepTime = System.nanoTime() - start;
+
+        // the way summary availability used to be calculated -- separately at every change moment
+        start = System.nanoTime();
+        for (final ValuedInterval vi : lm.getSummaryAvailability()) {
+            availableAt(vi.getFrom(), ld);
+        }
+        final long perMomentTime = System.nanoTime() - start;
+
+        assertTrue(format("Sweep [%s ms] should be faster than calculation at every change moment [%s ms].", sweepTime / 1_000_000, perMomentTime / 1_000_000), sweepTime < perMomentTime);
+    }
+
+    /**
+     * Creates lifecycles of <code>entities</code> entities with <code>intervalsPerEntity</code> contiguous intervals each, which have random values and random duration from 1 to 20 units of <code>time</code>.
+     */
+    private List<EntityPropertyLifecycle<Entity>> syntheticFleet(final Random random, final int entities, final int intervalsPerEntity, final IntFunction<DateTime> time) {
+        final String[] values = { "Value 1", "Value 2", "Value 3", "Value 4" };
+        final List<EntityPropertyLifecycle<Entity>> ld = new ArrayList<EntityPropertyLifecycle<Entity>>();
+        for (int entity = 0; entity < entities; entity++) {
+            final List<ValuedInterval> intervals = new ArrayList<ValuedInterval>();
+            int from = random.nextInt(20);
+            for (int interval = 0; interval < intervalsPerEntity; interval++) {
+                final int to = from + 1 + random.nextInt(20);
+                intervals.add(new ValuedInterval(time.apply(from), time.apply(to), values[random.nextInt(values.length)]));
+                from = to;
+            }
+            final int eplFrom = random.nextInt(100);
+            ld.add(new EntityPropertyLifecycle<Entity>(factory.newByKey(Entity.class, "A" + entity), Entity.class, "monitoring", intervals, time.apply(eplFrom), time.apply(eplFrom + 100 + random.nextInt(300))));
+        }
+        return ld;
+    }
+
+    private static LifecycleModel<Entity> summaryModel(final DateTime from, final DateTime to, final List<EntityPropertyLifecycle<Entity>> ld) {
+        return new LifecycleModel<Entity>(Entity.class, from, to, ld, new LinkedHashMap<IProperty, Object>(), true) {
+            @Override
+            protected IGroup<Entity> createGroupByValue(final IValueProperty property, final Object value, final LifecycleModel<Entity> parent, final List<Integer> indexes) {
+                return null;
+            }
+
+            @Override
+            protected IGroup<Entity> createGroupByModelAndPeriod(final ITimeProperty timeProperty, final LifecycleModel<Entity> narrowedModel, final LifecycleModel<Entity> parent) {
+                return null;
+            }
+
+            @Override
+            public Pair<? extends LifecycleModel<Entity>, ? extends LifecycleModel<Entity>> split(final DateTime moment, final boolean copy, final boolean full) {
+                return null;
+            }
+
+            @Override
+            protected LifecycleModel<Entity> copy(final LinkedHashMap<IProperty, Object> extractedGroupingValues) {
+                return null;
+            }
+        };
+    }
+
+    private static int availableAt(final DateTime moment, final List<EntityPropertyLifecycle<Entity>> ld) {
+        int available = 0;
+        for (final EntityPropertyLifecycle<Entity> epl : ld) {
+            if (epl.isAvailable(moment)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
     private ValuedInterval intrvl(final int fromMillis, final int toMillis, final Integer avail) {
         final ValuedInterval vi = new ValuedInterval(date(fromMillis), date(toMillis), avail);
         return vi;
@@ -0,0 +1,57 @@
+package ua.com.fielden.platform.file_reports;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import ua.com.fielden.platform.domaintree.testing.MasterEntity;
+import ua.com.fielden.platform.domaintree.testing.SlaveEntity;
+
+public class CsvExporterTest {
+
+    private static String export(final Stream<MasterEntity> entities, final String[] propertyNames, final String[] propertyTitles) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvExporter.export(entities, propertyNames, propertyTitles, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void header_and_rows_are_exported_for_each_entity_in_the_stream() throws IOException {
+        final MasterEntity first = new MasterEntity();
+        first.setIntegerProp(Integer.valueOf(1));
+        first.setDateProp(new DateTime(2000, 1, 1, 10, 30).toDate());
+        final MasterEntity second = new MasterEntity();
+        second.setIntegerProp(null);
+        final String[] propertyNames = { "integerProp", "dateProp" };
+        final String[] propertyTitles = { "Integer property", "Date property" };
+
+        assertEquals("\uFEFFInteger property,Date property\r\n1,01/01/2000 10:30\r\n,\r\n", export(Stream.of(first, second), propertyNames, propertyTitles));
+    }
+
+    @Test
+    public void values_with_separators_and_quotes_are_quoted() throws IOException {
+        final MasterEntity entityToExport = new MasterEntity();
+        entityToExport.setKey("key, with \"quotes\"");
+        final SlaveEntity slave = new SlaveEntity();
+        slave.setMasterEntityProp(entityToExport);
+        slave.setIntegerProp(Integer.valueOf(1));
+        entityToExport.setEntityProp(slave);
+        final String[] propertyNames = { "entityProp" };
+        final String[] propertyTitles = { "Entity property" };
+
+        assertEquals("\uFEFFEntity property\r\n\"key, with \"\"quotes\"\" 1\"\r\n", export(Stream.of(entityToExport), propertyNames, propertyTitles));
+    }
+
+    @Test
+    public void number_of_exported_entities_is_returned() throws IOException {
+        final String[] propertyNames = { "integerProp" };
+        final String[] propertyTitles = { "Integer property" };
+        assertEquals(3, CsvExporter.export(Stream.of(new MasterEntity(), new MasterEntity(), new MasterEntity()), propertyNames, propertyTitles, new ByteArrayOutputStream()));
+    }
+}
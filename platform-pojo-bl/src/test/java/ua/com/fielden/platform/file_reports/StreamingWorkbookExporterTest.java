@@ -0,0 +1,143 @@
+package ua.com.fielden.platform.file_reports;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import ua.com.fielden.platform.domaintree.testing.MasterEntity;
+import ua.com.fielden.platform.entity.AbstractEntity;
+import ua.com.fielden.platform.utils.Pair;
+
+public class StreamingWorkbookExporterTest {
+
+    private static MasterEntity entity(final int index) {
+        final MasterEntity entity = new MasterEntity();
+        entity.setStringProp("master" + index);
+        entity.setIntegerProp(index);
+        entity.setDateProp(new DateTime(2000, 1, 1, 0, 0).plusDays(index).toDate());
+        entity.setBooleanProp(index % 2 == 0);
+        return entity;
+    }
+
+    private static List<Pair<String, String>> columns() {
+        return Arrays.asList(new Pair<>("stringProp", "String property"), new Pair<>("integerProp", "Integer property"), new Pair<>("dateProp", "Date property"), new Pair<>("booleanProp", "Boolean property"));
+    }
+
+    private static XSSFWorkbook export(final int maxRowsPerSheet, final StreamingWorkbookSheet<?>... sheets) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StreamingWorkbookExporter.export(new ArrayList<StreamingWorkbookSheet<? extends AbstractEntity<?>>>(Arrays.asList(sheets)), 10, maxRowsPerSheet, out);
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void entities_are_exported_with_header_and_typed_values() throws Exception {
+        final XSSFSheet sheet = export(1000, new StreamingWorkbookSheet<>("Masters", Stream.of(entity(1), entity(2)), columns())).getSheetAt(0);
+
+        assertEquals("Masters", sheet.getSheetName());
+        assertEquals("Integer property", sheet.getRow(0).getCell(1).getStringCellValue());
+        final Row row = sheet.getRow(2);
+        assertEquals("master2", row.getCell(0).getStringCellValue());
+        assertEquals(2.0, row.getCell(1).getNumericCellValue(), 0.0);
+        assertEquals(new DateTime(2000, 1, 3, 0, 0).toDate(), row.getCell(2).getDateCellValue());
+        assertEquals(true, row.getCell(3).getBooleanCellValue());
+        assertEquals(2, sheet.getLastRowNum());
+    }
+
+    @Test
+    public void rows_beyond_the_window_and_sheet_limit_are_streamed_into_continuation_sheets() throws Exception {
+        final Stream<MasterEntity> entities = IntStream.range(0, 250).mapToObj(StreamingWorkbookExporterTest::entity);
+        final XSSFWorkbook workbook = export(101, new StreamingWorkbookSheet<>("Masters", entities, columns()));
+
+        assertEquals(3, workbook.getNumberOfSheets());
+        assertEquals("Masters (2)", workbook.getSheetAt(1).getSheetName());
+        assertEquals(100, workbook.getSheetAt(0).getLastRowNum());
+        assertEquals(100, workbook.getSheetAt(1).getLastRowNum());
+        assertEquals(50, workbook.getSheetAt(2).getLastRowNum());
+        assertEquals("master100", workbook.getSheetAt(1).getRow(1).getCell(0).getStringCellValue());
+        assertEquals("master249", workbook.getSheetAt(2).getRow(50).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    public void exported_entities_are_not_retained_beyond_the_row_access_window() throws Exception {
+        final List<WeakReference<MasterEntity>> firstEntity = new ArrayList<>();
+        final boolean[] firstEntityReleased = { false };
+        final Stream<MasterEntity> entities = IntStream.range(0, 1000).mapToObj(index -> {
+            if (index == 999) {
+                for (int attempt = 0; attempt < 10 && firstEntity.get(0).get() != null; attempt++) {
+                    System.gc();
+                }
+                firstEntityReleased[0] = firstEntity.get(0).get() == null;
+            }
+            final MasterEntity entity = entity(index);
+            if (index == 0) {
+                firstEntity.add(new WeakReference<>(entity));
+            }
+            return entity;
+        });
+        final XSSFWorkbook workbook = export(1000, new StreamingWorkbookSheet<>("Masters", entities, columns()));
+
+        assertTrue("Entities, which have been written, should become unreachable while the export is in progress.", firstEntityReleased[0]);
+        assertEquals(999, workbook.getSheetAt(0).getLastRowNum());
+    }
+
+    @Test
+    public void cell_styles_are_shared_by_all_sheets() throws Exception {
+        final XSSFWorkbook workbook = export(1000,
+                new StreamingWorkbookSheet<>("First", IntStream.range(0, 50).mapToObj(StreamingWorkbookExporterTest::entity), columns()),
+                new StreamingWorkbookSheet<>("Second", IntStream.range(0, 50).mapToObj(StreamingWorkbookExporterTest::entity), columns()));
+
+        assertEquals(2, workbook.getNumberOfSheets());
+        // the default style, two header styles, a data style with right border and a date style
+        assertEquals(5, workbook.getNumCellStyles());
+    }
+
+    @Test
+    public void column_formatters_convert_values_and_apply_data_format() throws Exception {
+        final StreamingWorkbookSheet<MasterEntity> sheetData = new StreamingWorkbookSheet<>("Masters", Stream.of(entity(1)), columns())
+                .withFormatter("stringProp", value -> value.toString().toUpperCase())
+                .withFormatter("integerProp", IColumnFormatter.withDataFormat("#,##0.00", value -> ((Integer) value) * 1000));
+        final Row row = export(1000, sheetData).getSheetAt(0).getRow(1);
+
+        assertEquals("MASTER1", row.getCell(0).getStringCellValue());
+        assertEquals(Cell.CELL_TYPE_NUMERIC, row.getCell(1).getCellType());
+        assertEquals(1000.0, row.getCell(1).getNumericCellValue(), 0.0);
+        assertEquals("#,##0.00", row.getCell(1).getCellStyle().getDataFormatString());
+    }
+
+    @Test
+    public void entities_can_be_exported_into_a_single_sheet_by_property_names_and_titles() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long count = StreamingWorkbookExporter.export(Stream.of(entity(1), entity(2)), new String[] {"stringProp", "integerProp"}, new String[] {"String property", "Integer property"}, out);
+        final XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(2, count);
+        assertEquals(1, workbook.getNumberOfSheets());
+        assertEquals("Exported data", workbook.getSheetAt(0).getSheetName());
+        assertEquals("Integer property", workbook.getSheetAt(0).getRow(0).getCell(1).getStringCellValue());
+        assertEquals("master2", workbook.getSheetAt(0).getRow(2).getCell(0).getStringCellValue());
+    }
+
+    @Test
+    public void sheet_titles_are_made_safe() throws Exception {
+        final String title = "Monthly report: fleet / costs [all depots]";
+        final XSSFWorkbook workbook = export(1000, new StreamingWorkbookSheet<>(title, Stream.<MasterEntity> empty(), columns()));
+        assertTrue(workbook.getSheetAt(0).getSheetName().length() <= 31);
+        assertEquals(0, workbook.getSheetAt(0).getLastRowNum());
+    }
+
+}
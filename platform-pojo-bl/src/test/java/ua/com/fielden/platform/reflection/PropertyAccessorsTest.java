@@ -0,0 +1,114 @@
+package ua.com.fielden.platform.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.google.inject.Injector;
+
+import ua.com.fielden.platform.entity.factory.EntityFactory;
+import ua.com.fielden.platform.ioc.ApplicationInjectorFactory;
+import ua.com.fielden.platform.reflection.exceptions.ReflectionException;
+import ua.com.fielden.platform.reflection.test_entities.SecondLevelEntity;
+import ua.com.fielden.platform.test.CommonTestEntityModuleWithPropertyFactory;
+
+/**
+ * Test case for {@link PropertyAccessors}.
+ *
+ * @author TG Team
+ *
+ */
+public class PropertyAccessorsTest {
+    private final Injector injector = new ApplicationInjectorFactory().add(new CommonTestEntityModuleWithPropertyFactory()).getInjector();
+    private final EntityFactory factory = injector.getInstance(EntityFactory.class);
+
+    @Test
+    public void accessors_are_created_once_per_type() {
+        assertSame(PropertyAccessors.forType(SecondLevelEntity.class), PropertyAccessors.forType(SecondLevelEntity.class));
+    }
+
+    @Test
+    public void real_properties_can_be_read_by_index_and_by_name() {
+        final SecondLevelEntity entity = factory.newByKey(SecondLevelEntity.class, "value", "value two", 1L);
+        final PropertyAccessors accessors = PropertyAccessors.forType(entity.getClass());
+
+        final int index = accessors.indexOf("propertyTwo");
+        assertTrue(index >= 0);
+        assertEquals("propertyTwo", accessors.propertyNames().get(index));
+        assertEquals("value two", accessors.get(entity, index));
+        assertEquals("value two", accessors.get(entity, "propertyTwo"));
+        assertEquals(-1, accessors.indexOf("nonExistingProperty"));
+    }
+
+    @Test
+    public void properties_are_assigned_by_means_of_setters() throws Exception {
+        final SecondLevelEntity entity = factory.newByKey(SecondLevelEntity.class, "value", "value two", 1L);
+        PropertyAccessors.forType(SecondLevelEntity.class).set(entity, "anotherProperty", 42L);
+
+        assertEquals(Long.valueOf(42L), entity.getAnotherProperty());
+    }
+
+    @Test
+    public void dot_notated_paths_are_evaluated_as_accessor_chains() throws Exception {
+        final SecondLevelEntity entity = factory.newByKey(SecondLevelEntity.class, "value", "value two", 1L);
+        final SecondLevelEntity other = factory.newByKey(SecondLevelEntity.class, "other value", "other value two", 2L);
+        entity.setPropertyOfSelfType(other);
+
+        assertEquals("other value two", PropertyAccessors.getByPath(entity, "propertyOfSelfType.propertyTwo"));
+        assertNull(PropertyAccessors.getByPath(entity, "propertyOfSelfType.propertyOfSelfType.propertyTwo"));
+        assertEquals(entity.getKey(), PropertyAccessors.getByPath(entity, "getKey()"));
+    }
+
+    @Test
+    public void evaluation_of_dot_notated_paths_is_not_slower_than_reflective_evaluation() throws Exception {
+        final SecondLevelEntity entity = factory.newByKey(SecondLevelEntity.class, "value", "value two", 1L);
+        entity.setPropertyOfSelfType(factory.newByKey(SecondLevelEntity.class, "other value", "other value two", 2L));
+        final String path = "propertyOfSelfType.propertyTwo";
+        final int times = 100_000;
+
+        long accessorsTime = 0;
+        long reflectiveTime = 0;
+        for (int index = 0; index < times; index++) {
+            long start = System.nanoTime();
+            final Object viaAccessors = PropertyAccessors.getByPath(entity, path);
+            accessorsTime += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final Object viaReflection = getByPathReflectively(entity, path);
+            reflectiveTime += System.nanoTime() - start;
+
+            assertEquals(viaReflection, viaAccessors);
+        }
+
+        assertTrue("Evaluation by means of accessors should not be slower than reflective evaluation.", accessorsTime <= reflectiveTime);
+    }
+
+    /**
+     * The reflective evaluation of dot-notated paths, which was used by {@link Finder#findFieldValueByName(Object, String)} before {@link PropertyAccessors}.
+     */
+    private static Object getByPathReflectively(final Object instance, final String dotNotationExp) throws IllegalAccessException {
+        Object value = instance;
+        for (final String property : dotNotationExp.split(Reflector.DOT_SPLITTER)) {
+            value = Finder.getPropertyValue(value, property);
+            if (value == null) {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    @Test
+    public void reading_non_existing_field_fails() {
+        final SecondLevelEntity entity = factory.newByKey(SecondLevelEntity.class, "value", "value two", 1L);
+        try {
+            PropertyAccessors.forType(SecondLevelEntity.class).get(entity, "nonExistingProperty");
+            fail();
+        } catch (final ReflectionException ex) {
+        }
+    }
+
+}
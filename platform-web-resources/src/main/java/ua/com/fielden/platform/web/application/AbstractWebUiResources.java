@@ -11,7 +11,9 @@ import org.restlet.security.Authenticator;
 
 import com.google.inject.Injector;
 
+import ua.com.fielden.platform.basic.config.Workflows;
 import ua.com.fielden.platform.domaintree.IServerGlobalDomainTreeManager;
+import ua.com.fielden.platform.keygen.IKeyNumberGenerator;
 import ua.com.fielden.platform.security.user.IUserProvider;
 import ua.com.fielden.platform.web.app.ISourceController;
 import ua.com.fielden.platform.web.app.IWebUiConfig;
@@ -91,6 +93,20 @@ public abstract class AbstractWebUiResources extends Application {
     }
 
 
+    /**
+     * Shuts down the key number generator upon stopping of the application so that unused numbers get returned (depending on its gap policy) and its reservation thread is stopped.
+     */
+    @Override
+    public synchronized void stop() throws Exception {
+        try {
+            injector.getInstance(IKeyNumberGenerator.class).shutdown();
+        } catch (final Exception ex) {
+            logger.error("Could not shut down the key number generator.", ex);
+        } finally {
+            super.stop();
+        }
+    }
+
     /**
      * An insertion point for registering a domain specific web resources. The provided router is guarded, making all domain web resources automatically secure.
      *
@@ -211,6 +227,6 @@ public abstract class AbstractWebUiResources extends Application {
      */
     private void attachResources(final Router router, final RestServerUtil restUtil) {
         logger.info("\t\tResources attaching for following resource paths:" + "\n\t\t|" + StringUtils.join(webApp.resourcePaths(), "|\n\t\t|") + "|\n");
-        router.attach("/resources/", new FileResourceFactory(sourceController, restUtil, webApp.resourcePaths()), Template.MODE_STARTS_WITH);
+        router.attach("/resources/", new FileResourceFactory(sourceController, restUtil, webApp.resourcePaths(), Workflows.deployment.equals(webApp.workflow())), Template.MODE_STARTS_WITH);
     }
 }
\ No newline at end of file
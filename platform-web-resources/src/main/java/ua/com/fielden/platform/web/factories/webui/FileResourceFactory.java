@@ -11,6 +11,7 @@ import org.restlet.data.Method;
 import ua.com.fielden.platform.web.app.ISourceController;
 import ua.com.fielden.platform.web.resources.RestServerUtil;
 import ua.com.fielden.platform.web.resources.webui.FileResource;
+import ua.com.fielden.platform.web.resources.webui.StaticResourceCache;
 
 /**
  * The server resource factory for {@link FileResource} that returns file to the client.
@@ -22,16 +23,19 @@ public class FileResourceFactory extends Restlet {
     private final ISourceController sourceController;
     private final RestServerUtil restUtil;
     private final List<String> resourcePaths;
+    private final StaticResourceCache resourceCache;
 
     /**
      * Creates new {@link FileResourceFactory} instance with specified paths of file resources.
      *
      * @param resourcePaths
+     * @param retainResources -- indicates whether resources can be cached for the lifetime of the application, which is the case if they do not change at runtime
      */
-    public FileResourceFactory(final ISourceController sourceController, final RestServerUtil restUtil, final List<String> resourcePaths) {
+    public FileResourceFactory(final ISourceController sourceController, final RestServerUtil restUtil, final List<String> resourcePaths, final boolean retainResources) {
         this.sourceController = sourceController;
         this.restUtil = restUtil;
         this.resourcePaths = resourcePaths;
+        this.resourceCache = new StaticResourceCache(retainResources);
     }
 
     /**
@@ -42,7 +46,7 @@ public class FileResourceFactory extends Restlet {
         super.handle(request, response);
 
         if (Method.GET.equals(request.getMethod())) {
-            new FileResource(sourceController, restUtil, Collections.unmodifiableList(resourcePaths), getContext(), request, response).handle();
+            new FileResource(sourceController, restUtil, Collections.unmodifiableList(resourcePaths), resourceCache, getContext(), request, response).handle();
         }
     }
 
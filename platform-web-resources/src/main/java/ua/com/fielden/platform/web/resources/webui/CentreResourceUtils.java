@@ -17,6 +17,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -145,25 +146,29 @@ public class CentreResourceUtils<T extends AbstractEntity<?>> extends CentreUtil
     }
 
     /**
-     * Creates the pair of 'custom object' (that contain 'critMetaValues', 'isCentreChanged' flag, 'resultEntities' and 'pageCount') and 'resultEntities' (query run is performed
-     * inside).
+     * Returns <code>true</code> if 'Export all' action is performed represented by specified <code>customObject</code>, otherwise <code>false</code>.
      *
      * @param customObject
-     * @param criteriaMetaValues
+     * @return
+     */
+    public static boolean isExportingAll(final Map<String, Object> customObject) {
+        return RunActions.EXPORTALL.toString().equals(customObject.get("@@action"));
+    }
+
+    /**
+     * Applies the additional fetch provider, query enhancer and 'createdBy' constraint to <code>criteriaEntity</code> before running its query.
+     *
      * @param criteriaEntity
-     * @param isCentreChanged
      * @param additionalFetchProvider
+     * @param queryEnhancerAndContext
      * @param createdByUserConstraint -- if exists then constraints the query by equality to the property 'createdBy'
      * @return
      */
-    static <T extends AbstractEntity<?>, M extends EnhancedCentreEntityQueryCriteria<T, ? extends IEntityDao<T>>> Pair<Map<String, Object>, List<?>> createCriteriaMetaValuesCustomObjectWithResult(
-            final Map<String, Object> customObject, 
+    static <T extends AbstractEntity<?>, M extends EnhancedCentreEntityQueryCriteria<T, ? extends IEntityDao<T>>> M prepareCriteriaEntity(
             final M criteriaEntity, 
             final Optional<IFetchProvider<T>> additionalFetchProvider, 
             final Optional<Pair<IQueryEnhancer<T>, Optional<CentreContext<T, ?>>>> queryEnhancerAndContext,
             final Optional<User> createdByUserConstraint) {
-        final Map<String, Object> resultantCustomObject = new LinkedHashMap<>();
-        
         criteriaEntity.getGeneratedEntityController().setEntityType(criteriaEntity.getEntityClass());
         if (additionalFetchProvider.isPresent()) {
             criteriaEntity.setAdditionalFetchProvider(additionalFetchProvider.get());
@@ -175,38 +180,82 @@ public class CentreResourceUtils<T extends AbstractEntity<?>> extends CentreUtil
         if (createdByUserConstraint.isPresent()) {
             criteriaEntity.setCreatedByUserConstraint(createdByUserConstraint.get());
         }
+        return criteriaEntity;
+    }
+
+    /**
+     * Returns a lazy stream of all entities matching <code>criteriaEntity</code> for 'Export all' action (refer {@link EnhancedCentreEntityQueryCriteria#streamAllEntities()}).
+     * The stream should be consumed and closed within the session scope of the caller.
+     *
+     * @param criteriaEntity
+     * @param additionalFetchProvider
+     * @param queryEnhancerAndContext
+     * @param createdByUserConstraint -- if exists then constraints the query by equality to the property 'createdBy'
+     * @return
+     */
+    static <T extends AbstractEntity<?>, M extends EnhancedCentreEntityQueryCriteria<T, ? extends IEntityDao<T>>> Stream<T> streamAllEntities(
+            final M criteriaEntity, 
+            final Optional<IFetchProvider<T>> additionalFetchProvider, 
+            final Optional<Pair<IQueryEnhancer<T>, Optional<CentreContext<T, ?>>>> queryEnhancerAndContext,
+            final Optional<User> createdByUserConstraint) {
+        return prepareCriteriaEntity(criteriaEntity, additionalFetchProvider, queryEnhancerAndContext, createdByUserConstraint).streamAllEntities();
+    }
+
+    /**
+     * Creates the pair of 'custom object' (that contain 'critMetaValues', 'isCentreChanged' flag, 'resultEntities' and 'pageCount') and 'resultEntities' (query run is performed
+     * inside).
+     *
+     * @param customObject
+     * @param criteriaMetaValues
+     * @param criteriaEntity
+     * @param isCentreChanged
+     * @param additionalFetchProvider
+     * @param createdByUserConstraint -- if exists then constraints the query by equality to the property 'createdBy'
+     * @return
+     */
+    static <T extends AbstractEntity<?>, M extends EnhancedCentreEntityQueryCriteria<T, ? extends IEntityDao<T>>> Pair<Map<String, Object>, List<?>> createCriteriaMetaValuesCustomObjectWithResult(
+            final Map<String, Object> customObject, 
+            final M criteriaEntity, 
+            final Optional<IFetchProvider<T>> additionalFetchProvider, 
+            final Optional<Pair<IQueryEnhancer<T>, Optional<CentreContext<T, ?>>>> queryEnhancerAndContext,
+            final Optional<User> createdByUserConstraint) {
+        final Map<String, Object> resultantCustomObject = new LinkedHashMap<>();
+        
+        prepareCriteriaEntity(criteriaEntity, additionalFetchProvider, queryEnhancerAndContext, createdByUserConstraint);
         IPage<T> page = null;
         List<T> data = new ArrayList<T>();
         final Integer pageCapacity = (Integer) customObject.get("@@pageCapacity");
         final String action = (String) customObject.get("@@action");
         if (isRunning(customObject)) {
-            page = criteriaEntity.run(pageCapacity);
-            resultantCustomObject.put("summary", page.summary());
+            final Pair<IPage<T>, T> runData = criteriaEntity.runByKeyset(pageCapacity);
+            page = runData.getKey();
             data = page.data();
+            resultantCustomObject.put("summary", runData.getValue());
         } else if (RunActions.REFRESH.toString().equals(action)) {
             final Integer pageNumber = (Integer) customObject.get("@@pageNumber");
-            final Pair<IPage<T>, T> refreshedData = criteriaEntity.getPageWithSummaries(pageNumber, pageCapacity);
+            final Pair<IPage<T>, T> refreshedData = criteriaEntity.getPageWithSummariesByKeyset(pageNumber, pageCapacity);
             page = refreshedData.getKey();
             data = page.data();
             resultantCustomObject.put("summary", refreshedData.getValue());
         } else if (RunActions.NAVIGATE.toString().equals(action)) {
             final Integer pageNumber = (Integer) customObject.get("@@pageNumber");
-            try {
-                page = criteriaEntity.getPage(pageNumber, pageCapacity);
-            } catch (final Exception e) {
+            page = criteriaEntity.getPageByKeyset(pageNumber, pageCapacity);
+            if (page.data().isEmpty() && pageNumber > 0) {
+                // the requested page is out of range if some entities have been deleted since the number of pages was calculated -- the last page is returned instead upon recount
                 final Pair<IPage<T>, T> navigatedData = criteriaEntity.getPageWithSummaries(pageNumber, pageCapacity);
                 page = navigatedData.getKey();
                 resultantCustomObject.put("summary", navigatedData.getValue());
             }
             data = page.data();
-        } else if (RunActions.EXPORTALL.toString().equals(action)) {
-            page = null;
-            data = criteriaEntity.getAllEntities();
         }
         final ArrayList<Object> resultEntities = new ArrayList<Object>(data);
         resultantCustomObject.put("resultEntities", resultEntities);
         resultantCustomObject.put("pageNumber", page == null ? 0 /* TODO ? */: page.no());
-        resultantCustomObject.put("pageCount", page == null ? 0 /* TODO ? */: page.numberOfPages());
+        // the number of pages is not calculated upon run if the first page is full -- the least possible number of pages is provided instead,
+        // which gets replaced by the actual one upon retrieval of another page
+        final boolean pageCountDeferred = page != null && isRunning(customObject) && !page.knownNumberOfPages().isPresent();
+        resultantCustomObject.put("pageCount", page == null ? 0 /* TODO ? */: pageCountDeferred ? page.no() + 2 : page.numberOfPages());
+        resultantCustomObject.put("pageCountDeferred", pageCountDeferred);
         return new Pair<>(resultantCustomObject, resultEntities);
     }
 
@@ -9,6 +9,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -423,6 +424,36 @@ public class CriteriaResource extends ServerResource {
         }
     }
 
+    /**
+     * Same as {@link #enhanceResultEntitiesWithCustomPropertyValues(EntityCentre, Optional, Optional, List)}, but enhances entities lazily, as they are being consumed from <code>entities</code>.
+     *
+     * @param centre
+     * @param propertiesDefinitions
+     * @param customPropertiesAsignmentHandler
+     * @param entities
+     * @return
+     */
+    public static Stream<AbstractEntity<?>> enhanceResultEntitiesWithCustomPropertyValues(
+            final EntityCentre<AbstractEntity<?>> centre, 
+            final Optional<List<ResultSetProp>> propertiesDefinitions, 
+            final Optional<Class<? extends ICustomPropsAssignmentHandler>> customPropertiesAsignmentHandler, 
+            final Stream<AbstractEntity<?>> entities) {
+        final Optional<ICustomPropsAssignmentHandler> assignmentHandler = customPropertiesAsignmentHandler.map(centre::createAssignmentHandlerInstance);
+        final Map<String, Object> customValues = new LinkedHashMap<>();
+        if (propertiesDefinitions.isPresent()) {
+            for (final ResultSetProp resultSetProp : propertiesDefinitions.get()) {
+                if (resultSetProp.propDef.isPresent() && resultSetProp.propDef.get().value.isPresent()) {
+                    customValues.put(CalculatedProperty.generateNameFrom(resultSetProp.propDef.get().title), resultSetProp.propDef.get().value.get());
+                }
+            }
+        }
+        return entities.map(entity -> {
+            assignmentHandler.ifPresent(handler -> handler.assignValues(entity));
+            customValues.forEach(entity::set);
+            return entity;
+        });
+    }
+
     private static void setCustomValue(final List<AbstractEntity<?>> entities, final String propertyName, final Object value) {
         for (final AbstractEntity<?> entity : entities) {
             entity.set(propertyName, value);
@@ -9,6 +9,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.apache.log4j.Logger;
 import org.joda.time.DateTime;
@@ -40,12 +41,14 @@ import ua.com.fielden.platform.entity.functional.centre.SavingInfoHolder;
 import ua.com.fielden.platform.entity_centre.review.criteria.EnhancedCentreEntityQueryCriteria;
 import ua.com.fielden.platform.error.Result;
 import ua.com.fielden.platform.security.user.IUserProvider;
+import ua.com.fielden.platform.security.user.User;
 import ua.com.fielden.platform.ui.menu.MiWithConfigurationSupport;
 import ua.com.fielden.platform.utils.Pair;
 import ua.com.fielden.platform.web.app.IWebUiConfig;
 import ua.com.fielden.platform.web.centre.CentreContext;
 import ua.com.fielden.platform.web.centre.CentreUtils;
 import ua.com.fielden.platform.web.centre.EntityCentre;
+import ua.com.fielden.platform.web.centre.IQueryEnhancer;
 import ua.com.fielden.platform.web.centre.api.actions.EntityActionConfig;
 import ua.com.fielden.platform.web.centre.api.resultset.impl.FunctionalActionKind;
 import ua.com.fielden.platform.web.factories.webui.ResourceFactoryUtils;
@@ -375,33 +378,42 @@ public class EntityResource<T extends AbstractEntity<?>> extends ServerResource
                     // then for an entity centre configuration check if a generator was provided
                     final boolean createdByConstraintShouldOccur = centre.getGeneratorTypes().isPresent();
 
+                    final Optional<Pair<IQueryEnhancer<AbstractEntity<?>>, Optional<CentreContext<AbstractEntity<?>, ?>>>> queryEnhancerAndContext = CriteriaResource.createQueryEnhancerAndContext(
+                            webUiConfig,
+                            companionFinder,
+                            serverGdtm,
+                            userProvider,
+                            critGenerator,
+                            utils.entityFactory(),
+                            centreContextHolder,
+                            centre.getQueryEnhancerConfig(),
+                            appliedCriteriaEntity);
+                    // There could be cases where the generated data and the queried data would have different types.
+                    // For example, the queried data could be modelled by a synthesized entity that includes a subquery based on some generated data.
+                    // In such cases, it is unpossible to enhance the final query with a user related condition automatically.
+                    // This should be the responsibility of the application developer to properly construct a subquery that is based on the generated data.
+                    // The query will be enhanced with condition createdBy=currentUser if createdByConstraintShouldOccur and generatorEntityType equal to the type of queried data (otherwise end-developer should do that itself by using queryEnhancer or synthesized model).
+                    final Optional<User> createdByUserConstraint = createdByConstraintShouldOccur && centre.getGeneratorTypes().get().getKey().equals(CentreResourceUtils.getEntityType(miType)) ? Optional.of(userProvider.getUser()) : Optional.empty();
+
+                    if (CentreResourceUtils.isExportingAll(customObject)) {
+                        // all matching entities are streamed to the exporter instead of being loaded into memory
+                        final Stream<AbstractEntity<?>> entities = CentreResourceUtils.streamAllEntities(appliedCriteriaEntity, centre.getAdditionalFetchProvider(), queryEnhancerAndContext, createdByUserConstraint);
+                        return CriteriaResource.enhanceResultEntitiesWithCustomPropertyValues(centre, centre.getCustomPropertiesDefinitions(), centre.getCustomPropertiesAsignmentHandler(), entities);
+                    }
+
                     final Pair<Map<String, Object>, List<?>> pair =
                             CentreResourceUtils.createCriteriaMetaValuesCustomObjectWithResult(
                                     customObject,
                                     appliedCriteriaEntity,
                                     centre.getAdditionalFetchProvider(),
-                                    CriteriaResource.createQueryEnhancerAndContext(
-                                            webUiConfig,
-                                            companionFinder,
-                                            serverGdtm,
-                                            userProvider,
-                                            critGenerator,
-                                            utils.entityFactory(),
-                                            centreContextHolder,
-                                            centre.getQueryEnhancerConfig(),
-                                            appliedCriteriaEntity),
-                                    // There could be cases where the generated data and the queried data would have different types.
-                                    // For example, the queried data could be modelled by a synthesized entity that includes a subquery based on some generated data.
-                                    // In such cases, it is unpossible to enhance the final query with a user related condition automatically.
-                                    // This should be the responsibility of the application developer to properly construct a subquery that is based on the generated data.
-                                    // The query will be enhanced with condition createdBy=currentUser if createdByConstraintShouldOccur and generatorEntityType equal to the type of queried data (otherwise end-developer should do that itself by using queryEnhancer or synthesized model).
-                                    createdByConstraintShouldOccur && centre.getGeneratorTypes().get().getKey().equals(CentreResourceUtils.getEntityType(miType)) ? Optional.of(userProvider.getUser()) : Optional.empty());
+                                    queryEnhancerAndContext,
+                                    createdByUserConstraint);
 
                     if (pair.getValue() == null) {
-                        return new ArrayList<AbstractEntity<?>>();
+                        return Stream.empty();
                     } else {
                         CriteriaResource.enhanceResultEntitiesWithCustomPropertyValues(centre, centre.getCustomPropertiesDefinitions(), centre.getCustomPropertiesAsignmentHandler(), (List<AbstractEntity<?>>) pair.getValue());
-                        return (List<AbstractEntity<?>>) pair.getValue();
+                        return ((List<AbstractEntity<?>>) pair.getValue()).stream();
                     }
                 });
             }
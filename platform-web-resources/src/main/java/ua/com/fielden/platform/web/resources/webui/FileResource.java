@@ -1,8 +1,7 @@
 package ua.com.fielden.platform.web.resources.webui;
 
-import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
-import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
@@ -10,7 +9,9 @@ import org.apache.log4j.Logger;
 import org.restlet.Context;
 import org.restlet.Request;
 import org.restlet.Response;
+import org.restlet.data.CacheDirective;
 import org.restlet.data.MediaType;
+import org.restlet.data.Status;
 import org.restlet.representation.Representation;
 import org.restlet.resource.ResourceException;
 
@@ -19,28 +20,39 @@ import com.google.common.base.Charsets;
 import ua.com.fielden.platform.utils.ResourceLoader;
 import ua.com.fielden.platform.web.app.ISourceController;
 import ua.com.fielden.platform.web.resources.RestServerUtil;
+import ua.com.fielden.platform.web.resources.webui.StaticResourceCache.StaticResource;
 
 /**
  * Web server resource that searches for file resource among resource paths and returns it to client.
+ * <p>
+ * Resources are served gzipped from {@link StaticResourceCache} together with their ETags. Conditional requests for unchanged resources are answered with <code>304 Not Modified</code>.
+ * Fingerprinted resources are allowed to be cached by browsers for a year, while all other resources need to be revalidated by browsers on every use.
  *
  * @author TG Team
  *
  */
 public class FileResource extends DeviceProfileDifferentiatorResource {
+    private static final int FINGERPRINTED_MAX_AGE = 365 * 24 * 60 * 60;
+
     private final Logger logger = Logger.getLogger(getClass());
     private final List<String> resourcePaths;
+    private final StaticResourceCache resourceCache;
 
     /**
      * Creates an instance of {@link FileResource} with custom resource paths.
      *
      * @param resourcePaths
+     * @param resourceCache
      * @param context
      * @param request
      * @param response
      */
-    public FileResource(final ISourceController sourceController, final RestServerUtil restUtil, final List<String> resourcePaths, final Context context, final Request request, final Response response) {
+    public FileResource(final ISourceController sourceController, final RestServerUtil restUtil, final List<String> resourcePaths, final StaticResourceCache resourceCache, final Context context, final Request request, final Response response) {
         super(sourceController, restUtil, context, request, response);
         this.resourcePaths = resourcePaths;
+        this.resourceCache = resourceCache;
+        // conditional requests are handled explicitly against cached ETags
+        setConditional(false);
     }
 
     /**
@@ -52,28 +64,34 @@ public class FileResource extends DeviceProfileDifferentiatorResource {
         final String extension = getReference().getExtensions();
         final MediaType mediaType = determineMediaType(extension);
 
-        final String filePath = generateFileName(resourcePaths, originalPath);
+        final String filePath = resourceCache.resolve(resourcePaths, originalPath);
         if (StringUtils.isEmpty(filePath)) {
             new FileNotFoundException("The requested resource (" + originalPath + " + " + extension + ") wasn't found.").printStackTrace();
             return null;
         } else {
-            if (MediaType.TEXT_HTML.equals(mediaType)) {
-                final String source = sourceController().loadSourceWithFilePath(filePath, deviceProfile());
-                if (source != null) {
-                    return RestServerUtil.encodedRepresentation(new ByteArrayInputStream(source.getBytes(Charsets.UTF_8)), mediaType);
-                } else {
-                    return null;
-                }
+            final StaticResource resource = MediaType.TEXT_HTML.equals(mediaType)
+                    ? resourceCache.get(filePath, deviceProfile(), () -> {
+                        final String source = sourceController().loadSourceWithFilePath(filePath, deviceProfile());
+                        return source != null ? source.getBytes(Charsets.UTF_8) : null;
+                    })
+                    : resourceCache.get(filePath, null, () -> StaticResourceCache.readFully(sourceController().loadStreamWithFilePath(filePath)));
+            if (resource == null) {
+                return null;
+            }
+
+            if (resource.isFingerprinted()) {
+                getResponse().setCacheDirectives(Arrays.asList(CacheDirective.publicInfo(), CacheDirective.maxAge(FINGERPRINTED_MAX_AGE)));
             } else {
-                final InputStream stream = sourceController().loadStreamWithFilePath(filePath);
-                if (stream != null) {
-                    final Representation encodedRepresentation = RestServerUtil.encodedRepresentation(stream, mediaType);
-                    logger.debug(String.format("File resource [%s] generated.", originalPath));
-                    return encodedRepresentation;
-                } else {
-                    return null;
-                }
+                getResponse().setCacheDirectives(Arrays.asList(CacheDirective.noCache()));
+            }
+
+            if (resource.matchesAnyOf(getRequest().getConditions().getNoneMatch())) {
+                getResponse().setStatus(Status.REDIRECTION_NOT_MODIFIED);
+                logger.debug(String.format("File resource [%s] not modified.", originalPath));
+                return null;
             }
+            logger.debug(String.format("File resource [%s] generated.", originalPath));
+            return resource.toRepresentation(mediaType);
         }
     }
 
@@ -0,0 +1,211 @@
+package ua.com.fielden.platform.web.resources.webui;
+
+import static java.lang.String.format;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.restlet.data.Encoding;
+import org.restlet.data.MediaType;
+import org.restlet.data.Tag;
+import org.restlet.representation.InputRepresentation;
+import org.restlet.representation.Representation;
+
+import ua.com.fielden.platform.utils.Pair;
+import ua.com.fielden.platform.web.interfaces.DeviceProfile;
+
+/**
+ * A cache of static web resources such as Polymer bundles, scripts, styles and images.
+ * <p>
+ * Each resource is compressed and fingerprinted with a strong ETag only once, so that subsequent requests are served without repeated gzipping, and conditional requests with a matching
+ * <code>If-None-Match</code> header can be answered with <code>304 Not Modified</code>. Resolution of request paths to existing resource file paths is also cached.
+ * <p>
+ * Resources are retained only if the cache is created with <code>retainResources = true</code>, which is the case for deployment mode, where resources do not change at runtime.
+ * Otherwise resources are loaded and fingerprinted on every request, which still saves bandwidth for unchanged resources.
+ *
+ * @author TG Team
+ *
+ */
+public class StaticResourceCache {
+    /**
+     * File names with a hexadecimal content hash of at least 8 digits before the extension (e.g. <code>app-3f2a9c1d.js</code> or <code>app.3f2a9c1d.js</code>) are considered fingerprinted.
+     * Such resources never change under the same name and thus can be cached by browsers for a long time without revalidation.
+     */
+    private static final Pattern FINGERPRINTED = Pattern.compile(".*[.-][0-9a-fA-F]{8,}\\.[^./]+$");
+
+    private final boolean retainResources;
+    /** Only resolved paths are cached -- the number of entries is thus limited by the number of existing resources, whereas paths of missing resources are arbitrary. */
+    private final ConcurrentMap<String, String> filePathsByRequestPath = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Pair<DeviceProfile, String>, StaticResource> resources = new ConcurrentHashMap<>();
+
+    public StaticResourceCache(final boolean retainResources) {
+        this.retainResources = retainResources;
+    }
+
+    /**
+     * Resolves request <code>path</code> to a file path among <code>resourcePaths</code> (refer {@link FileResource#generateFileName(List, String)}).
+     * Returns <code>null</code> if there is no such file.
+     *
+     * @param resourcePaths
+     * @param path
+     * @return
+     */
+    public String resolve(final List<String> resourcePaths, final String path) {
+        if (!retainResources) {
+            return FileResource.generateFileName(resourcePaths, path);
+        }
+        // link parameters are ignored upon resolution, and thus should not produce separate cache entries
+        final String filePath = path.contains("?") ? path.substring(0, path.indexOf('?')) : path;
+        final String cached = filePathsByRequestPath.get(filePath);
+        if (cached != null) {
+            return cached;
+        }
+        final String resolved = FileResource.generateFileName(resourcePaths, filePath);
+        if (resolved != null) {
+            filePathsByRequestPath.putIfAbsent(filePath, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * Returns the number of request paths, which resolution is cached.
+     *
+     * @return
+     */
+    int resolvedPathsCount() {
+        return filePathsByRequestPath.size();
+    }
+
+    /**
+     * Returns a resource for <code>filePath</code>, loading its content with <code>contentLoader</code> if the resource is not cached yet.
+     * Resources, which content depends on the device profile, should be requested with a non-null <code>deviceProfile</code>.
+     * Returns <code>null</code> if <code>contentLoader</code> returns <code>null</code>.
+     *
+     * @param filePath
+     * @param deviceProfile
+     * @param contentLoader
+     * @return
+     */
+    public StaticResource get(final String filePath, final DeviceProfile deviceProfile, final Supplier<byte[]> contentLoader) {
+        final Pair<DeviceProfile, String> key = new Pair<>(deviceProfile, filePath);
+        final StaticResource cached = resources.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final byte[] content = contentLoader.get();
+        if (content == null) {
+            return null;
+        }
+        final StaticResource resource = new StaticResource(content, FINGERPRINTED.matcher(filePath).matches());
+        if (!retainResources) {
+            return resource;
+        }
+        final StaticResource existing = resources.putIfAbsent(key, resource);
+        return existing != null ? existing : resource;
+    }
+
+    /**
+     * Reads the whole <code>stream</code>, closing it afterwards. Returns <code>null</code> if <code>stream</code> is <code>null</code>.
+     *
+     * @param stream
+     * @return
+     */
+    public static byte[] readFully(final InputStream stream) {
+        if (stream == null) {
+            return null;
+        }
+        try (final InputStream in = stream) {
+            return IOUtils.toByteArray(in);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("Could not read static resource.", ex);
+        }
+    }
+
+    /**
+     * A gzipped static resource with a strong ETag that is computed from its uncompressed content.
+     */
+    public static final class StaticResource {
+        private final byte[] gzipped;
+        private final Tag tag;
+        private final boolean fingerprinted;
+
+        private StaticResource(final byte[] content, final boolean fingerprinted) {
+            this.gzipped = gzip(content);
+            this.tag = new Tag(sha1(content), false);
+            this.fingerprinted = fingerprinted;
+        }
+
+        public Tag getTag() {
+            return tag;
+        }
+
+        public boolean isFingerprinted() {
+            return fingerprinted;
+        }
+
+        /**
+         * Returns <code>true</code> if any of the <code>If-None-Match</code> tags matches this resource, which means that the client already has it.
+         * Weak comparison is used, as required for <code>If-None-Match</code>.
+         *
+         * @param noneMatch
+         * @return
+         */
+        public boolean matchesAnyOf(final List<Tag> noneMatch) {
+            for (final Tag candidate : noneMatch) {
+                if (Tag.ALL.equals(candidate) || tag.getName().equals(candidate.getName())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Creates a gzip-encoded representation of this resource with its ETag.
+         *
+         * @param mediaType
+         * @return
+         */
+        public Representation toRepresentation(final MediaType mediaType) {
+            final Representation representation = new InputRepresentation(new ByteArrayInputStream(gzipped), mediaType, gzipped.length);
+            representation.setEncodings(Collections.singletonList(Encoding.GZIP));
+            representation.setTag(tag);
+            return representation;
+        }
+
+        private static byte[] gzip(final byte[] content) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 64);
+            try (final GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(content);
+            } catch (final IOException ex) {
+                throw new IllegalStateException("Could not compress static resource.", ex);
+            }
+            return out.toByteArray();
+        }
+
+        private static String sha1(final byte[] content) {
+            try {
+                final byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+                final StringBuilder hex = new StringBuilder(digest.length * 2);
+                for (final byte b : digest) {
+                    hex.append(format("%02x", b & 0xFF));
+                }
+                return hex.toString();
+            } catch (final NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package ua.com.fielden.platform.web.rx.eventsources;
 
 import ua.com.fielden.platform.rx.observables.ProcessingProgressSubject;
 import ua.com.fielden.platform.web.sse.AbstractEventSource;
+import ua.com.fielden.platform.web.sse.OverflowPolicy;
 
 /**
  * This is a generic event source that should be used to update on events from subject of type {@link ProcessingProgressSubject}.
@@ -20,4 +21,20 @@ public class ProcessingProgressEventSrouce extends AbstractEventSource<Integer,
         return String.format("{\"prc\": %s}", event);
     }
 
+    /**
+     * Progress messages are the same for all clients of the same subject.
+     */
+    @Override
+    protected boolean shareEncodedEvents() {
+        return true;
+    }
+
+    /**
+     * Only the latest progress matters, thus the oldest messages are dropped for slow clients.
+     */
+    @Override
+    protected OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DROP_OLDEST;
+    }
+
 }
@@ -18,6 +18,9 @@ import ua.com.fielden.platform.rx.IObservableKind;
  * For this, abstract method {@link #eventToData(Object)} needs to be implemented by descendants.
  * <p>
  * Also, method {@link #getStream()} can be overridden if required in order to apply any necessary transformations to the stream before subscribing to it.
+ * <p>
+ * Event sources, which send the same messages to all their clients, can override {@link #shareEncodedEvents()} in order to subscribe all clients to a single {@link EventFanOut}.
+ * Method {@link #overflowPolicy()} can be overridden to specify what happens with clients that are too slow to consume messages.
  *
  * @author TG Team
  *
@@ -35,6 +38,10 @@ public abstract class AbstractEventSource<T, OK extends IObservableKind<T>> impl
      * A subscription to the sever-side data stream, which is mainly used for unsubscribing.
      */
     private Subscription subscription;
+    /**
+     * A fan-out that is joined instead of subscribing to the data stream in case of shared encoded events.
+     */
+    private EventFanOut<T> fanOut;
     /**
      * The original stream that is provided during instantiation to be subscribed to.
      * However, the actual subscription might be to a stream resulting from transformations of this one.
@@ -54,9 +61,13 @@ public abstract class AbstractEventSource<T, OK extends IObservableKind<T>> impl
     public final void onOpen(final IEmitter emitter) throws IOException {
         logger.debug("client subscription in progress...");
         this.emitter = emitter;
-        subscription = getStream().subscribe(new EventObserver());
-
         this.emitter.event("connection", "established");
+        if (shareEncodedEvents() && emitter instanceof EventSourceEmitter) {
+            fanOut = EventFanOut.join(getClass(), getStream(), this::eventToData, overflowPolicy(), (EventSourceEmitter) emitter);
+        } else {
+            subscription = getStream().subscribe(new EventObserver());
+        }
+
         logger.debug("client subscribed successfully");
     }
 
@@ -88,12 +99,36 @@ public abstract class AbstractEventSource<T, OK extends IObservableKind<T>> impl
      */
     protected abstract String eventToData(final T event);
 
+    /**
+     * Indicates whether events should be converted and encoded only once for all clients of event sources of this type, that are subscribed to the same data stream.
+     * This is the case if neither {@link #getStream()} nor {@link #eventToData(Object)} depend on the state of a specific event source instance, such as the current user.
+     * <p>
+     * By default, each client is subscribed to the data stream separately.
+     *
+     * @return
+     */
+    protected boolean shareEncodedEvents() {
+        return false;
+    }
+
+    /**
+     * Determines what happens with messages for a client, which is too slow to consume them. By default, such client gets disconnected.
+     *
+     * @return
+     */
+    protected OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.DISCONNECT;
+    }
+
     @Override
     public void onClose() {
         logger.debug("client subscription connection has been closed");
         if (subscription != null) {
             subscription.unsubscribe();
         }
+        if (fanOut != null) {
+            fanOut.leave((EventSourceEmitter) emitter);
+        }
     }
 
     /**
@@ -126,7 +161,11 @@ public abstract class AbstractEventSource<T, OK extends IObservableKind<T>> impl
         @Override
         public void onNext(final T value) {
             try {
-                emitter.data(eventToData(value));
+                if (emitter instanceof EventSourceEmitter) {
+                    ((EventSourceEmitter) emitter).send(EventSourceEmitter.encodeData(eventToData(value)), overflowPolicy());
+                } else {
+                    emitter.data(eventToData(value));
+                }
             } catch (final IOException ex) {
                 logger.error(ex);
             }
@@ -0,0 +1,237 @@
+package ua.com.fielden.platform.web.sse;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+
+import rx.Observable;
+import rx.Observer;
+import rx.Subscription;
+import ua.com.fielden.platform.utils.Pair;
+
+/**
+ * Fans out events of a single data stream to all clients, which are subscribed to this stream by event sources of the same type.
+ * <p>
+ * There is only one subscription to the data stream per fan-out, regardless of the number of clients. Each event is converted and encoded in accordance with the event stream format
+ * only once, and the same encoded message is placed into queues of all clients (refer {@link EventSourceEmitter#send(byte[], OverflowPolicy)}), which never blocks the thread of the data stream.
+ * Clients, which are too slow to consume messages, are handled in accordance with the overflow policy of the event source.
+ * <p>
+ * Fan-outs are registered per event source type and data stream. A fan-out subscribes to the data stream when the first client joins, and unsubscribes when the last client leaves.
+ *
+ * @author TG Team
+ *
+ * @param <T> -- event type.
+ */
+public final class EventFanOut<T> {
+    private static final Logger LOGGER = Logger.getLogger(EventFanOut.class);
+
+    private static final ConcurrentMap<Pair<Class<?>, Observable<?>>, EventFanOut<?>> FAN_OUTS = new ConcurrentHashMap<>();
+
+    private final Pair<Class<?>, Observable<?>> key;
+    private final Observable<T> stream;
+    private final Function<T, String> eventToData;
+    private final OverflowPolicy overflowPolicy;
+    private final Set<EventSourceEmitter> emitters = new CopyOnWriteArraySet<>();
+    private Subscription subscription;
+    /** A fan-out is retired once its last client leaves, and a new one is registered for subsequent clients. */
+    private boolean retired;
+
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong encodes = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong drops = new AtomicLong();
+    private volatile long lastBroadcastNanos;
+    private volatile long maxBroadcastNanos;
+
+    private EventFanOut(final Pair<Class<?>, Observable<?>> key, final Observable<T> stream, final Function<T, String> eventToData, final OverflowPolicy overflowPolicy) {
+        this.key = key;
+        this.stream = stream;
+        this.eventToData = eventToData;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Adds the client of <code>emitter</code> to the fan-out for events of <code>stream</code> that are sent by event sources of type <code>eventSourceType</code>, creating the fan-out if necessary.
+     * Conversion of events and overflow policy are taken from the event source that creates the fan-out, thus they should be the same for all event sources of the same type.
+     *
+     * @param eventSourceType
+     * @param stream
+     * @param eventToData
+     * @param overflowPolicy
+     * @param emitter
+     * @return the fan-out that the client has joined
+     */
+    @SuppressWarnings("unchecked")
+    static <T> EventFanOut<T> join(final Class<?> eventSourceType, final Observable<T> stream, final Function<T, String> eventToData, final OverflowPolicy overflowPolicy, final EventSourceEmitter emitter) {
+        final Pair<Class<?>, Observable<?>> key = new Pair<>(eventSourceType, stream);
+        while (true) {
+            final EventFanOut<T> fanOut = (EventFanOut<T>) FAN_OUTS.computeIfAbsent(key, k -> new EventFanOut<>(k, stream, eventToData, overflowPolicy));
+            if (fanOut.join(emitter)) {
+                return fanOut;
+            }
+        }
+    }
+
+    /**
+     * Returns the active fan-out for events of <code>stream</code> that are sent by event sources of type <code>eventSourceType</code>, or <code>null</code> if there is no such fan-out.
+     *
+     * @param eventSourceType
+     * @param stream
+     * @return
+     */
+    public static EventFanOut<?> fanOut(final Class<?> eventSourceType, final Observable<?> stream) {
+        return FAN_OUTS.get(new Pair<Class<?>, Observable<?>>(eventSourceType, stream));
+    }
+
+    /**
+     * Adds the client of <code>emitter</code> to this fan-out, subscribing to the data stream if this is the first client.
+     * Returns <code>false</code> if this fan-out has already been retired.
+     */
+    private synchronized boolean join(final EventSourceEmitter emitter) {
+        if (retired) {
+            return false;
+        }
+        emitters.add(emitter);
+        if (subscription == null) {
+            subscription = stream.subscribe(new FanOutObserver());
+            LOGGER.debug("subscribed to the shared data stream");
+        }
+        return true;
+    }
+
+    /**
+     * Removes the client of <code>emitter</code> from this fan-out, unsubscribing from the data stream if this was the last client.
+     *
+     * @param emitter
+     */
+    synchronized void leave(final EventSourceEmitter emitter) {
+        if (emitters.remove(emitter) && emitters.isEmpty() && subscription != null) {
+            subscription.unsubscribe();
+            subscription = null;
+            retired = true;
+            FAN_OUTS.remove(key, this);
+            LOGGER.debug("unsubscribed from the shared data stream");
+        }
+    }
+
+    /**
+     * Places the same encoded message into queues of all clients.
+     */
+    private void broadcast(final byte[] message, final OverflowPolicy policy) {
+        final long start = System.nanoTime();
+        for (final EventSourceEmitter emitter : emitters) {
+            final SendOutcome outcome = emitter.send(message, policy);
+            if (outcome.isQueued()) {
+                deliveries.incrementAndGet();
+            }
+            if (outcome != SendOutcome.QUEUED) {
+                drops.incrementAndGet();
+            }
+        }
+        final long duration = System.nanoTime() - start;
+        broadcasts.incrementAndGet();
+        lastBroadcastNanos = duration;
+        if (duration > maxBroadcastNanos) {
+            maxBroadcastNanos = duration;
+        }
+    }
+
+    /**
+     * Sends the final message to all clients and closes them, which makes them leave this fan-out.
+     */
+    private void broadcastAndClose(final String name, final String data) {
+        encodes.incrementAndGet();
+        broadcast(EventSourceEmitter.encodeEvent(name, data), OverflowPolicy.DISCONNECT);
+        for (final EventSourceEmitter emitter : emitters) {
+            emitter.close();
+        }
+    }
+
+    private final class FanOutObserver implements Observer<T> {
+
+        @Override
+        public void onCompleted() {
+            broadcastAndClose("completed", "The server-side data stream has completed.");
+        }
+
+        @Override
+        public void onError(final Throwable e) {
+            // exceptions may have no message, but the event data cannot be null
+            broadcastAndClose("exception", e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+
+        @Override
+        public void onNext(final T value) {
+            encodes.incrementAndGet();
+            broadcast(EventSourceEmitter.encodeData(eventToData.apply(value)), overflowPolicy);
+        }
+    }
+
+    /**
+     * The number of clients, which currently receive events from this fan-out.
+     */
+    public int subscribers() {
+        return emitters.size();
+    }
+
+    /**
+     * The number of events broadcast to clients.
+     */
+    public long broadcasts() {
+        return broadcasts.get();
+    }
+
+    /**
+     * The number of encoded messages, which is equal to the number of broadcasts -- every event is encoded only once regardless of the number of clients.
+     */
+    public long encodes() {
+        return encodes.get();
+    }
+
+    /**
+     * The number of messages placed into client queues.
+     */
+    public long deliveries() {
+        return deliveries.get();
+    }
+
+    /**
+     * The number of messages, which were dropped from or not placed into client queues due to their overflow or closed clients.
+     */
+    public long drops() {
+        return drops.get();
+    }
+
+    /**
+     * The duration of the last broadcast in nanoseconds, which is the time taken to place a message into queues of all clients.
+     */
+    public long lastBroadcastNanos() {
+        return lastBroadcastNanos;
+    }
+
+    /**
+     * The longest broadcast in nanoseconds.
+     */
+    public long maxBroadcastNanos() {
+        return maxBroadcastNanos;
+    }
+
+    /**
+     * All currently active fan-outs.
+     */
+    public static Collection<EventFanOut<?>> fanOuts() {
+        return Collections.unmodifiableCollection(FAN_OUTS.values());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EventFanOut[%s, subscribers: %s, broadcasts: %s, drops: %s]", key.getKey().getSimpleName(), subscribers(), broadcasts(), drops());
+    }
+}
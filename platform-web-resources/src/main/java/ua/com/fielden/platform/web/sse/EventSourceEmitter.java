@@ -1,155 +1,252 @@
 package ua.com.fielden.platform.web.sse;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletOutputStream;
 
+import org.apache.log4j.Logger;
+
 /**
  * This EventSource emitter is taken from Jetty source in the attempt to make it working with Restlet.
  * <p>
+ * Messages are not written to the client by the threads that emit them. Instead, each message is encoded once and placed into a bounded queue, which is drained by a single writer thread
+ * (see {@link #writeUntilClosed()}). This way threads of the data streams are never blocked by slow clients. If the queue of a client overflows then such client is considered to be a slow consumer
+ * and gets disconnected.
+ * <p>
+ * Messages can also be encoded once and sent to many clients as is (see {@link #send(byte[], OverflowPolicy)} and {@link EventFanOut}).
+ * <p>
+ * Heartbeats are sent by the writer thread whenever there were no messages to write during the heartbeat period, which does not require any scheduler threads.
+ * <p>
  * TODO: Need to support message id to be able to send the client all the missed messages, and not just to restart sending messages from whatever happens to be the current. TODO:
  * Most likely it should be open sourced. The same goes about a corresponding Restlet web resource.
  *
  * @author TG Team
  *
  */
-public final class EventSourceEmitter implements IEmitter, Runnable {
+public final class EventSourceEmitter implements IEmitter {
+    private static final Logger LOGGER = Logger.getLogger(EventSourceEmitter.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int DEFAULT_HEART_BEAT_PERIOD_SECONDS = 5;
 
     private static final byte[] CRLF = new byte[] { '\r', '\n' };
     private static final byte[] EVENT_FIELD = "event: ".getBytes(StandardCharsets.UTF_8);
     private static final byte[] DATA_FIELD = "data: ".getBytes(StandardCharsets.UTF_8);
     private static final byte[] COMMENT_FIELD = ": ".getBytes(StandardCharsets.UTF_8);
-
-    private ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private int heartBeatPeriod = 5;
+    /** A marker message, which wakes up the writer thread upon closing. */
+    private static final byte[] CLOSE = new byte[0];
 
     private final IEventSource eventSource;
     private final AsyncContext async;
     private final ServletOutputStream output;
-    private Future<?> heartBeat;
-    private boolean closed;
-    private final AtomicBoolean shouldResourceThreadBeBlocked;
+    private final BlockingQueue<byte[]> queue;
+    private final int heartBeatPeriod;
+    private volatile boolean closed;
 
-    /**
-     * The use of <code>stopResourceThread</code> is a workaround at this stage to prevent restlet from closing the connection with the client by means of blocking its thread by
-     * putting it to sleep.
-     *
-     * @param shouldResourceThreadBeBlocked
-     * @param eventSource
-     * @param async
-     * @throws IOException
-     */
-    public EventSourceEmitter(final AtomicBoolean shouldResourceThreadBeBlocked, final IEventSource eventSource, final AsyncContext async) throws IOException {
-        this.shouldResourceThreadBeBlocked = shouldResourceThreadBeBlocked;
+    public EventSourceEmitter(final IEventSource eventSource, final AsyncContext async) throws IOException {
+        this(eventSource, async, DEFAULT_QUEUE_CAPACITY, DEFAULT_HEART_BEAT_PERIOD_SECONDS);
+    }
+
+    public EventSourceEmitter(final IEventSource eventSource, final AsyncContext async, final int queueCapacity, final int heartBeatPeriod) throws IOException {
         this.eventSource = eventSource;
         this.async = async;
         this.output = async.getResponse().getOutputStream();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.heartBeatPeriod = heartBeatPeriod;
     }
 
     @Override
     public void event(final String name, final String data) {
-        synchronized (this) {
-            try {
-                output.write(EVENT_FIELD);
-                output.write(name.getBytes(StandardCharsets.UTF_8));
-                output.write(CRLF);
-                data(data);
-            } catch (final IOException e) {
-                close();
-            }
+        enqueue(encodeEvent(name, data));
+    }
 
-        }
+    @Override
+    public void data(final String data) {
+        enqueue(encodeData(data));
     }
 
     @Override
-    public void data(final String data) throws IOException {
-        synchronized (this) {
-            try {
-                final BufferedReader reader = new BufferedReader(new StringReader(data));
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.write(DATA_FIELD);
-                    output.write(line.getBytes(StandardCharsets.UTF_8));
-                    output.write(CRLF);
-                }
-                output.write(CRLF);
-                flush();
-            } catch (final IOException e) {
-                close();
+    public void comment(final String comment) {
+        final ByteArrayOutputStream message = new ByteArrayOutputStream();
+        write(message, COMMENT_FIELD);
+        write(message, comment.getBytes(StandardCharsets.UTF_8));
+        write(message, CRLF);
+        write(message, CRLF);
+        enqueue(message.toByteArray());
+    }
+
+    /**
+     * Encodes a named event with data in accordance with the event stream format.
+     *
+     * @param name
+     * @param data
+     * @return
+     */
+    public static byte[] encodeEvent(final String name, final String data) {
+        final ByteArrayOutputStream message = new ByteArrayOutputStream();
+        write(message, EVENT_FIELD);
+        write(message, name.getBytes(StandardCharsets.UTF_8));
+        write(message, CRLF);
+        writeData(message, data);
+        return message.toByteArray();
+    }
+
+    /**
+     * Encodes a default event with data in accordance with the event stream format.
+     *
+     * @param data
+     * @return
+     */
+    public static byte[] encodeData(final String data) {
+        final ByteArrayOutputStream message = new ByteArrayOutputStream();
+        writeData(message, data);
+        return message.toByteArray();
+    }
+
+    private static void writeData(final ByteArrayOutputStream message, final String data) {
+        try {
+            final BufferedReader reader = new BufferedReader(new StringReader(data));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                write(message, DATA_FIELD);
+                write(message, line.getBytes(StandardCharsets.UTF_8));
+                write(message, CRLF);
             }
+        } catch (final IOException e) {
+            // reading from a string should not fail
+            throw new IllegalStateException(e);
         }
+        write(message, CRLF);
     }
 
-    @Override
-    public void comment(final String comment) throws IOException {
-        synchronized (this) {
-            try {
-                output.write(COMMENT_FIELD);
-                output.write(comment.getBytes(StandardCharsets.UTF_8));
-                output.write(CRLF);
-                output.write(CRLF);
-                flush();
-            } catch (final IOException e) {
-                close();
+    private static void write(final ByteArrayOutputStream message, final byte[] bytes) {
+        message.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Places the encoded message into the queue of this client. The client gets disconnected if its queue is full.
+     */
+    private void enqueue(final byte[] message) {
+        send(message, OverflowPolicy.DISCONNECT);
+    }
+
+    /**
+     * Places a message, which is already encoded in accordance with the event stream format (e.g. by {@link #encodeData(String)}), into the queue of this client without copying it.
+     * Thus the same message can be sent to many clients. If the queue is full then the message is handled in accordance with <code>overflowPolicy</code>.
+     *
+     * @param message
+     * @param overflowPolicy
+     * @return
+     */
+    public SendOutcome send(final byte[] message, final OverflowPolicy overflowPolicy) {
+        if (closed) {
+            return SendOutcome.REJECTED;
+        }
+        if (queue.offer(message)) {
+            return SendOutcome.QUEUED;
+        }
+        switch (overflowPolicy) {
+        case DROP_OLDEST:
+            if (queue.poll() != null) {
+                EventSourceHub.messageDropped();
+            }
+            if (queue.offer(message)) {
+                return SendOutcome.QUEUED_DROPPING_OLDEST;
             }
+            // the queue has been filled up concurrently, thus the new message is dropped as well
+            EventSourceHub.messageDropped();
+            return SendOutcome.DROPPED;
+        case DROP_NEWEST:
+            EventSourceHub.messageDropped();
+            return SendOutcome.DROPPED;
+        default:
+            EventSourceHub.slowConsumerDisconnected();
+            LOGGER.warn(String.format("Event source client is too slow to consume messages (queue capacity %s reached) and is being disconnected.", queue.size()));
+            closed = true;
+            abort();
+            return SendOutcome.REJECTED;
         }
     }
 
-    @Override
-    public void run() {
-        // If the other peer closes the connection, the first
-        // flush() should generate a TCP reset that is detected
-        // on the second flush()
+    /**
+     * Writes queued messages to the client until this emitter gets closed or the connection is lost, sending heartbeats if there were no messages for the duration of the heartbeat period.
+     * This method should be invoked by the thread that serves the subscription request of the client, and it returns only when the connection is closed.
+     */
+    public void writeUntilClosed() {
+        EventSourceHub.opened(this);
         try {
-            synchronized (this) {
-                output.write('\r');
-                flush();
-                output.write('\n');
-                flush();
+            while (true) {
+                final byte[] message = queue.poll(heartBeatPeriod, TimeUnit.SECONDS);
+                if (message == CLOSE || (message == null && closed)) {
+                    break;
+                } else if (message == null) {
+                    heartBeat();
+                } else {
+                    output.write(message);
+                    async.getResponse().flushBuffer();
+                }
             }
-            // reschedule heartbeat
-            scheduleHeartBeat();
         } catch (final IOException ex) {
-            close();
+            LOGGER.debug("Event source client connection has been lost.", ex);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closed = true;
+            queue.clear();
+            EventSourceHub.closed(this);
+            try {
+                async.complete();
+            } catch (final IllegalStateException ex) {
+                LOGGER.debug("Asynchronous context has already been completed.", ex);
+            } finally {
+                eventSource.onClose();
+            }
         }
     }
 
-    protected void flush() throws IOException {
+    /**
+     * If the other peer closes the connection, the first flush() should generate a TCP reset that is detected on the second flush().
+     */
+    private void heartBeat() throws IOException {
+        output.write('\r');
+        async.getResponse().flushBuffer();
+        output.write('\n');
         async.getResponse().flushBuffer();
     }
 
+    /**
+     * Signals the writer thread to complete the connection once all messages queued so far are written.
+     */
     @Override
     public void close() {
-        try {
-            synchronized (this) {
-                closed = true;
-                heartBeat.cancel(false);
-                if (scheduler != null) {
-                    scheduler.shutdown();
-                }
+        if (!closed) {
+            closed = true;
+            if (!queue.offer(CLOSE)) {
+                abort();
             }
-            async.complete();
-            eventSource.onClose();
-        } finally {
-            System.out.println("event source emitter closed!");
-            shouldResourceThreadBeBlocked.set(false);
         }
     }
 
-    public void scheduleHeartBeat() {
-        synchronized (this) {
-            if (!closed) {
-                heartBeat = scheduler.schedule(this, heartBeatPeriod, TimeUnit.SECONDS);
-            }
-        }
+    /**
+     * Discards all queued messages and signals the writer thread to complete the connection.
+     */
+    private void abort() {
+        queue.clear();
+        queue.offer(CLOSE);
+    }
+
+    /**
+     * The number of messages waiting to be written to the client.
+     */
+    public int queueDepth() {
+        return queue.size();
     }
-}
\ No newline at end of file
+}
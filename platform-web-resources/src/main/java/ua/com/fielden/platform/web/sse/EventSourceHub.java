@@ -0,0 +1,80 @@
+package ua.com.fielden.platform.web.sse;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registry of open event source connections, which provides metrics about connected clients and their queues of messages.
+ *
+ * @author TG Team
+ *
+ */
+public final class EventSourceHub {
+    private static final Set<EventSourceEmitter> EMITTERS = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong TOTAL_CONNECTIONS = new AtomicLong();
+    private static final AtomicLong SLOW_CONSUMER_DISCONNECTS = new AtomicLong();
+    private static final AtomicLong DROPPED_MESSAGES = new AtomicLong();
+
+    private EventSourceHub() {
+    }
+
+    static void opened(final EventSourceEmitter emitter) {
+        EMITTERS.add(emitter);
+        TOTAL_CONNECTIONS.incrementAndGet();
+    }
+
+    static void closed(final EventSourceEmitter emitter) {
+        EMITTERS.remove(emitter);
+    }
+
+    static void slowConsumerDisconnected() {
+        SLOW_CONSUMER_DISCONNECTS.incrementAndGet();
+    }
+
+    static void messageDropped() {
+        DROPPED_MESSAGES.incrementAndGet();
+    }
+
+    /**
+     * The number of currently open connections.
+     */
+    public static int openConnections() {
+        return EMITTERS.size();
+    }
+
+    /**
+     * The number of connections opened since start.
+     */
+    public static long totalConnections() {
+        return TOTAL_CONNECTIONS.get();
+    }
+
+    /**
+     * The number of clients disconnected due to overflow of their message queues.
+     */
+    public static long slowConsumerDisconnects() {
+        return SLOW_CONSUMER_DISCONNECTS.get();
+    }
+
+    /**
+     * The number of messages dropped due to overflow of client message queues (refer {@link OverflowPolicy}).
+     */
+    public static long droppedMessages() {
+        return DROPPED_MESSAGES.get();
+    }
+
+    /**
+     * The total number of messages waiting to be written to all connected clients.
+     */
+    public static long totalQueueDepth() {
+        return EMITTERS.stream().mapToLong(EventSourceEmitter::queueDepth).sum();
+    }
+
+    /**
+     * The largest number of messages waiting to be written to a single client.
+     */
+    public static int maxQueueDepth() {
+        return EMITTERS.stream().mapToInt(EventSourceEmitter::queueDepth).max().orElse(0);
+    }
+}
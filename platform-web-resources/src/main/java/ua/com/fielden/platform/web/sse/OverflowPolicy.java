@@ -0,0 +1,16 @@
+package ua.com.fielden.platform.web.sse;
+
+/**
+ * Defines what happens to a message, which is sent to a client with the full queue of messages (refer {@link EventSourceEmitter}).
+ *
+ * @author TG Team
+ *
+ */
+public enum OverflowPolicy {
+    /** The client is considered to be a slow consumer and gets disconnected. Suits event sources, where every message matters. */
+    DISCONNECT,
+    /** The new message is dropped. Suits event sources, where messages can be missed. */
+    DROP_NEWEST,
+    /** The oldest queued message is dropped to make room for the new one. Suits event sources, where only the latest state matters (e.g. progress). */
+    DROP_OLDEST
+}
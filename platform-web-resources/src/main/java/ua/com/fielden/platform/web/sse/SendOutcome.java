@@ -0,0 +1,25 @@
+package ua.com.fielden.platform.web.sse;
+
+/**
+ * Defines what has happened to a message, which was sent to a client (refer {@link EventSourceEmitter#send(byte[], OverflowPolicy)}).
+ *
+ * @author TG Team
+ *
+ */
+public enum SendOutcome {
+    /** The message has been placed into the queue of the client. */
+    QUEUED,
+    /** The message has been placed into the queue of the client, and the oldest queued message has been dropped to make room for it. */
+    QUEUED_DROPPING_OLDEST,
+    /** The message has been dropped as the queue of the client is full. */
+    DROPPED,
+    /** The message has not been queued as the client is closed or has just been disconnected for being too slow. */
+    REJECTED;
+
+    /**
+     * Returns <code>true</code> if the message has been placed into the queue of the client.
+     */
+    public boolean isQueued() {
+        return this == QUEUED || this == QUEUED_DROPPING_OLDEST;
+    }
+}
@@ -2,7 +2,6 @@ package ua.com.fielden.platform.web.sse.resources;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
@@ -28,7 +27,6 @@ import ua.com.fielden.platform.web.utils.ServletUtils;
 public class EventSourcingResource extends ServerResource {
 
     private final Logger logger = Logger.getLogger(this.getClass());
-    private final AtomicBoolean shouldKeepGoing = new AtomicBoolean(true);
     private final IEventSource eventSource;
 
     public EventSourcingResource(
@@ -42,11 +40,15 @@ public class EventSourcingResource extends ServerResource {
 
     /**
      * Handles client subscription requests.
+     * <p>
+     * The Restlet connector completes the response as soon as this method returns, which closes the connection with the client.
+     * Therefore, the current thread is used to write messages to the subscribed client until the connection gets closed, instead of being simply blocked.
      *
      * @throws ResourceException
      */
     @Get
     public void subcribeClient() throws ResourceException {
+        final EventSourceEmitter emitter;
         try {
             final HttpServletRequest httpRequest = ServletUtils.getRequest(getRequest());
             final HttpServletResponse httpResponse = ServletUtils.getResponse(getResponse());
@@ -56,24 +58,14 @@ public class EventSourcingResource extends ServerResource {
             // Infinite timeout because the continuation is never resumed,
             // but only completed on close
             async.setTimeout(0);
-            final EventSourceEmitter emitter = new EventSourceEmitter(shouldKeepGoing, eventSource, async);
-            emitter.scheduleHeartBeat();
+            emitter = new EventSourceEmitter(eventSource, async);
             eventSource.onOpen(emitter);
         } catch (final IOException ex) {
             logger.error(ex);
             throw new ResourceException(ex);
         }
-        // don't let the restlet end this call, which leads to closing of the current connection
-        // TODO this approach is a workaround and should be changed to a better solution as soon as the know-how becomes available
-        while (shouldKeepGoing.get()) {
-            try {
-                Thread.sleep(2000);
-            } catch (final Exception e) {
-                logger.error(e);
-            }
-        }
+        emitter.writeUntilClosed();
         logger.debug("Server-Sent Event Restlet completed.");
-
     }
 
     protected void makeHandshake(final HttpServletResponse response) throws IOException {
@@ -0,0 +1,145 @@
+package ua.com.fielden.platform.web.resources.webui;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+import org.restlet.data.Encoding;
+import org.restlet.data.MediaType;
+import org.restlet.data.Tag;
+import org.restlet.representation.Representation;
+
+import ua.com.fielden.platform.utils.ResourceLoader;
+import ua.com.fielden.platform.web.interfaces.DeviceProfile;
+import ua.com.fielden.platform.web.resources.webui.StaticResourceCache.StaticResource;
+
+/**
+ * A test case for {@link StaticResourceCache}.
+ *
+ * @author TG Team
+ *
+ */
+public class StaticResourceCacheTest {
+
+    @Test
+    public void retained_resources_are_loaded_only_once() {
+        final StaticResourceCache cache = new StaticResourceCache(true);
+        final AtomicInteger loads = new AtomicInteger();
+
+        final StaticResource first = cache.get("resources/app.js", null, () -> { loads.incrementAndGet(); return "content".getBytes(UTF_8); });
+        final StaticResource second = cache.get("resources/app.js", null, () -> { loads.incrementAndGet(); return "content".getBytes(UTF_8); });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void resources_are_cached_separately_for_different_device_profiles() {
+        final StaticResourceCache cache = new StaticResourceCache(true);
+
+        final StaticResource desktop = cache.get("resources/index.html", DeviceProfile.DESKTOP, () -> "desktop".getBytes(UTF_8));
+        final StaticResource mobile = cache.get("resources/index.html", DeviceProfile.MOBILE, () -> "mobile".getBytes(UTF_8));
+
+        assertNotSame(desktop, mobile);
+        assertFalse(desktop.getTag().equals(mobile.getTag()));
+    }
+
+    @Test
+    public void resources_are_not_retained_if_caching_is_disabled() {
+        final StaticResourceCache cache = new StaticResourceCache(false);
+
+        final StaticResource first = cache.get("resources/app.js", null, () -> "content".getBytes(UTF_8));
+        final StaticResource second = cache.get("resources/app.js", null, () -> "content".getBytes(UTF_8));
+
+        assertNotSame(first, second);
+        assertEquals("The same content should have the same ETag.", first.getTag(), second.getTag());
+    }
+
+    @Test
+    public void missing_resources_are_not_cached() {
+        final StaticResourceCache cache = new StaticResourceCache(true);
+
+        assertNull(cache.get("resources/app.js", null, () -> null));
+        assertTrue(cache.get("resources/app.js", null, () -> "content".getBytes(UTF_8)) != null);
+    }
+
+    @Test
+    public void resource_matches_if_none_match_tags_with_its_etag_or_wildcard() {
+        final StaticResource resource = new StaticResourceCache(false).get("resources/app.js", null, () -> "content".getBytes(UTF_8));
+
+        assertTrue(resource.matchesAnyOf(Arrays.asList(new Tag("other", false), new Tag(resource.getTag().getName(), true))));
+        assertTrue(resource.matchesAnyOf(Arrays.asList(Tag.ALL)));
+        assertFalse(resource.matchesAnyOf(Arrays.asList(new Tag("other", false))));
+        assertFalse(resource.matchesAnyOf(Collections.emptyList()));
+    }
+
+    @Test
+    public void only_resources_with_content_hash_in_their_names_are_fingerprinted() {
+        final StaticResourceCache cache = new StaticResourceCache(false);
+
+        assertTrue(cache.get("resources/app-3f2a9c1d.js", null, () -> "content".getBytes(UTF_8)).isFingerprinted());
+        assertTrue(cache.get("resources/app.3f2a9c1d0e.css", null, () -> "content".getBytes(UTF_8)).isFingerprinted());
+        assertFalse(cache.get("resources/app.js", null, () -> "content".getBytes(UTF_8)).isFingerprinted());
+        assertFalse(cache.get("resources/desktop-startup-resources-vulcanized.html", null, () -> "content".getBytes(UTF_8)).isFingerprinted());
+    }
+
+    @Test
+    public void representation_is_gzipped_and_tagged() throws Exception {
+        final StaticResource resource = new StaticResourceCache(false).get("resources/app.js", null, () -> "content".getBytes(UTF_8));
+        final Representation representation = resource.toRepresentation(MediaType.TEXT_JAVASCRIPT);
+
+        assertEquals(Arrays.asList(Encoding.GZIP), representation.getEncodings());
+        assertEquals(resource.getTag(), representation.getTag());
+        final byte[] content = StaticResourceCache.readFully(new GZIPInputStream(representation.getStream()));
+        assertArrayEquals("content".getBytes(UTF_8), content);
+    }
+
+    @Test
+    public void link_parameters_are_ignored_upon_resolution() {
+        final StaticResourceCache cache = new StaticResourceCache(true);
+        final List<String> resourcePaths = Arrays.asList("non-existing-path/", "static-resources/");
+
+        final String first = cache.resolve(resourcePaths, "app.js?v=1");
+        final String second = cache.resolve(resourcePaths, "app.js?v=2");
+        assertEquals("static-resources/app.js", first);
+        assertEquals(first, second);
+
+        final StaticResource resource = cache.get(first, null, () -> StaticResourceCache.readFully(ResourceLoader.getStream(first)));
+        final StaticResource resourceWithoutParameters = new StaticResourceCache(false).get("static-resources/app.js", null, () -> StaticResourceCache.readFully(ResourceLoader.getStream("static-resources/app.js")));
+        assertEquals(resourceWithoutParameters.getTag(), resource.getTag());
+        assertEquals(resource, cache.get(second, null, () -> { throw new AssertionError("The resource should have been cached."); }));
+    }
+
+    @Test
+    public void missing_resources_are_resolved_without_caching() {
+        final StaticResourceCache cache = new StaticResourceCache(true);
+        final List<String> resourcePaths = Arrays.asList("non-existing-path/");
+
+        for (int index = 0; index < 100; index++) {
+            assertNull(cache.resolve(resourcePaths, "missing-" + index + ".js"));
+        }
+        assertEquals("Unresolved paths should not be cached.", 0, cache.resolvedPathsCount());
+        assertEquals("static-resources/app.js", cache.resolve(Arrays.asList("static-resources/"), "app.js"));
+        assertEquals(1, cache.resolvedPathsCount());
+    }
+
+    @Test
+    public void streams_are_read_fully() {
+        assertNull(StaticResourceCache.readFully(null));
+        assertArrayEquals(new byte[] { 1 }, StaticResourceCache.readFully(new ByteArrayInputStream(new byte[] { 1 })));
+    }
+
+}
@@ -0,0 +1,153 @@
+package ua.com.fielden.platform.web.sse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+
+import org.junit.Test;
+
+import ua.com.fielden.platform.rx.AbstractSubjectKind;
+
+/** A test for {@link EventFanOut} and overflow policies of {@link EventSourceEmitter}. */
+public class EventFanOutTest {
+
+    private static class TestSubject extends AbstractSubjectKind<Integer> {
+    }
+
+    private static class SharedEventSource extends AbstractEventSource<Integer, TestSubject> {
+        private SharedEventSource(final TestSubject subject) {
+            super(subject);
+        }
+
+        @Override
+        protected String eventToData(final Integer event) {
+            return String.format("{\"value\": %s}", event);
+        }
+
+        @Override
+        protected boolean shareEncodedEvents() {
+            return true;
+        }
+
+        @Override
+        protected OverflowPolicy overflowPolicy() {
+            return OverflowPolicy.DROP_OLDEST;
+        }
+    }
+
+    private static class OwnEventSource extends AbstractEventSource<Integer, TestSubject> {
+        private OwnEventSource(final TestSubject subject) {
+            super(subject);
+        }
+
+        @Override
+        protected String eventToData(final Integer event) {
+            return String.format("{\"value\": %s}", event);
+        }
+    }
+
+    private static EventSourceEmitter open(final AbstractEventSource<Integer, TestSubject> eventSource, final int queueCapacity) throws IOException {
+        final AsyncContext async = mock(AsyncContext.class);
+        final ServletResponse response = mock(ServletResponse.class);
+        when(async.getResponse()).thenReturn(response);
+        when(response.getOutputStream()).thenReturn(mock(ServletOutputStream.class));
+        final EventSourceEmitter emitter = new EventSourceEmitter(eventSource, async, queueCapacity, EventSourceEmitter.DEFAULT_HEART_BEAT_PERIOD_SECONDS);
+        eventSource.onOpen(emitter);
+        return emitter;
+    }
+
+    @Test
+    public void events_of_shared_event_sources_are_encoded_once_and_delivered_to_all_clients() throws IOException {
+        final TestSubject subject = new TestSubject();
+        final SharedEventSource first = new SharedEventSource(subject);
+        final SharedEventSource second = new SharedEventSource(subject);
+        final SharedEventSource third = new SharedEventSource(subject);
+        final EventSourceEmitter firstEmitter = open(first, 16);
+        final EventSourceEmitter secondEmitter = open(second, 16);
+        final EventSourceEmitter thirdEmitter = open(third, 16);
+
+        subject.publish(1);
+        subject.publish(2);
+
+        final EventFanOut<?> fanOut = EventFanOut.fanOut(SharedEventSource.class, subject.asObservable());
+        assertEquals(3, fanOut.subscribers());
+        assertEquals(2, fanOut.encodes());
+        assertEquals(2, fanOut.broadcasts());
+        assertEquals(6, fanOut.deliveries());
+        assertEquals(0, fanOut.drops());
+        assertTrue(fanOut.maxBroadcastNanos() >= fanOut.lastBroadcastNanos());
+        // the connection message and two events
+        assertEquals(3, firstEmitter.queueDepth());
+        assertEquals(3, secondEmitter.queueDepth());
+        assertEquals(3, thirdEmitter.queueDepth());
+
+        first.onClose();
+        second.onClose();
+        assertEquals(1, fanOut.subscribers());
+        third.onClose();
+        assertEquals(0, fanOut.subscribers());
+        assertNull(EventFanOut.fanOut(SharedEventSource.class, subject.asObservable()));
+
+        subject.publish(3);
+        assertEquals(2, fanOut.encodes());
+    }
+
+    @Test
+    public void oldest_messages_are_dropped_for_slow_clients_of_event_sources_with_drop_oldest_policy() throws IOException {
+        final TestSubject subject = new TestSubject();
+        final SharedEventSource eventSource = new SharedEventSource(subject);
+        final EventSourceEmitter emitter = open(eventSource, 2);
+        final long droppedBefore = EventSourceHub.droppedMessages();
+
+        for (int value = 0; value < 5; value++) {
+            subject.publish(value);
+        }
+
+        assertEquals(2, emitter.queueDepth());
+        assertEquals(4, EventSourceHub.droppedMessages() - droppedBefore);
+        final EventFanOut<?> fanOut = EventFanOut.fanOut(SharedEventSource.class, subject.asObservable());
+        assertEquals(5, fanOut.deliveries());
+        assertEquals(4, fanOut.drops());
+        assertEquals(SendOutcome.QUEUED_DROPPING_OLDEST, emitter.send(EventSourceEmitter.encodeData("still connected"), OverflowPolicy.DROP_OLDEST));
+        assertEquals(SendOutcome.DROPPED, emitter.send(EventSourceEmitter.encodeData("dropped"), OverflowPolicy.DROP_NEWEST));
+        eventSource.onClose();
+    }
+
+    @Test
+    public void slow_clients_of_event_sources_with_default_policy_are_disconnected() throws IOException {
+        final TestSubject subject = new TestSubject();
+        final OwnEventSource eventSource = new OwnEventSource(subject);
+        final EventSourceEmitter emitter = open(eventSource, 2);
+        final long disconnectsBefore = EventSourceHub.slowConsumerDisconnects();
+
+        subject.publish(1);
+        subject.publish(2);
+
+        assertEquals(1, EventSourceHub.slowConsumerDisconnects() - disconnectsBefore);
+        assertEquals(SendOutcome.REJECTED, emitter.send(EventSourceEmitter.encodeData("disconnected"), OverflowPolicy.DROP_OLDEST));
+        eventSource.onClose();
+    }
+
+    @Test
+    public void clients_of_event_sources_are_closed_upon_an_error_without_message() throws IOException {
+        final TestSubject subject = new TestSubject();
+        final SharedEventSource eventSource = new SharedEventSource(subject);
+        final EventSourceEmitter emitter = open(eventSource, 16);
+        final EventFanOut<?> fanOut = EventFanOut.fanOut(SharedEventSource.class, subject.asObservable());
+
+        subject.error(new IllegalStateException());
+
+        assertEquals(1, fanOut.encodes());
+        assertEquals(SendOutcome.REJECTED, emitter.send(EventSourceEmitter.encodeData("closed"), OverflowPolicy.DROP_OLDEST));
+        eventSource.onClose();
+    }
+
+}
@@ -213,8 +213,8 @@ public class CentreUpdater {
         logger.debug(String.format("\t%s '%s' centre for miType [%s] for user %s...", "loadCentreFromDefaultAndDiff", userSpecificName, miType.getSimpleName(), gdtm.getUserProvider().getUser()));
         final DateTime start = new DateTime();
         
-        // TODO consider not copying of default centre for performance reasons:
-        final ICentreDomainTreeManagerAndEnhancer defaultCentreCopy = copyCentre(getDefaultCentre(gdtm, miType), gdtm);
+        // default centre is never changed after its initialisation (it gets replaced instead), thus it is copied from its serialised snapshot without serialising it every time
+        final ICentreDomainTreeManagerAndEnhancer defaultCentreCopy = ((GlobalDomainTreeManager) gdtm).copyUnchangedCentre(getDefaultCentre(gdtm, miType));
         // applies diffCentre on top of defaultCentreCopy to produce loadedCentre:
         final ICentreDomainTreeManagerAndEnhancer loadedCentre = applyDifferences(defaultCentreCopy, updatedDiffCentre, CentreUtils.getEntityType(miType));
         // For all generated types on freshCentre (and on its derivatives like 'unchanged freshCentre', 'previouslyRun centre', 'unchanged previouslyRun centre' etc.) there is a need to
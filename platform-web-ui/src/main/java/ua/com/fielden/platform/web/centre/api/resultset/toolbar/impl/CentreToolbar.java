@@ -23,7 +23,7 @@ public class CentreToolbar implements IToolbarConfig {
                     attr("tooltip-text", "First page")).
             add(new DomElement("paper-icon-button").clazz("standart-action").attr("shortcut", "ctrl+left").attr("icon", "hardware:keyboard-backspace").
                     attr("on-tap", "prevPage").attr("disabled$", "[[canNotPrev(pageNumber, isRunning)]]").attr("tooltip-text", "Previous page")).
-            add(new DomElement("span").clazz("standart-action").add(new InnerTextElement("[[currPageFeedback(pageNumberUpdated, pageCountUpdated)]]"))).
+            add(new DomElement("span").clazz("standart-action").add(new InnerTextElement("[[currPageFeedback(pageNumberUpdated, pageCountUpdated, pageCountDeferred)]]"))).
             add(new DomElement("paper-icon-button").clazz("revers", "standart-action").attr("shortcut", "ctrl+right").attr("icon", "hardware:keyboard-backspace").
                     attr("on-tap", "nextPage").attr("disabled$", "[[canNotNext(pageNumber, pageCount, isRunning)]]").attr("tooltip-text", "Next page")).
             add(new DomElement("paper-icon-button").clazz("standart-action").attr("shortcut", "ctrl+up").attr("icon", "hardware:keyboard-tab").